@@ -0,0 +1,63 @@
+package com.acme.passkeys.adapters.in.function;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.converter.AbstractMessageConverter;
+import org.springframework.messaging.converter.MessageConversionException;
+import org.springframework.util.MimeType;
+
+import java.io.IOException;
+
+/**
+ * {@code contentType: application/cbor} en el camino Spring: bindea y escribe los DTOs en CBOR, con los campos
+ * binarios como byte strings. Sólo actúa si el mensaje trae ese content type; sin él sigue siendo JSON.
+ */
+public class CborMessageConverter extends AbstractMessageConverter {
+
+  public static final MimeType APPLICATION_CBOR = MimeType.valueOf("application/cbor");
+
+  // Mismo formato que el JSON: ISO-8601 para Instant y campos desconocidos ignorados
+  private final ObjectMapper mapper = CBORMapper.builder()
+      .addModule(new JavaTimeModule())
+      .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+      .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+      .build();
+
+  public CborMessageConverter() {
+    super(APPLICATION_CBOR);
+    setStrictContentTypeMatch(true);
+  }
+
+  @Override
+  protected boolean supports(Class<?> clazz) {
+    return true;
+  }
+
+  @Override
+  protected boolean canConvertFrom(Message<?> message, Class<?> targetClass) {
+    return message.getPayload() instanceof byte[] && super.canConvertFrom(message, targetClass);
+  }
+
+  @Override
+  protected Object convertFromInternal(Message<?> message, Class<?> targetClass, Object conversionHint) {
+    try {
+      return mapper.readValue((byte[]) message.getPayload(), targetClass);
+    } catch (IOException e) {
+      throw new MessageConversionException(message, "invalid CBOR payload", e);
+    }
+  }
+
+  @Override
+  protected Object convertToInternal(Object payload, MessageHeaders headers, Object conversionHint) {
+    try {
+      return mapper.writeValueAsBytes(payload);
+    } catch (IOException e) {
+      throw new MessageConversionException("cannot write CBOR payload", e);
+    }
+  }
+}
@@ -3,10 +3,12 @@ package com.acme.passkeys.adapters.in.function;
 import com.acme.passkeys.adapters.in.function.dto.ChallengeRequest;
 import com.acme.passkeys.adapters.in.function.dto.ChallengeResponse;
 import com.acme.passkeys.application.ports.in.CreateChallengeUseCase;
+import org.springframework.messaging.Message;
 
 import java.util.function.Function;
 
-public class CreateChallengeFunction implements Function<ChallengeRequest, ChallengeResponse> {
+/** Recibe el mensaje, y no sólo el payload, para sacar el plazo de la invocación de sus cabeceras ({@link FunctionDeadlines}). */
+public class CreateChallengeFunction implements Function<Message<ChallengeRequest>, ChallengeResponse> {
 
   private final CreateChallengeUseCase useCase;
 
@@ -15,7 +17,7 @@ public class CreateChallengeFunction implements Function<ChallengeRequest, Chall
   }
 
   @Override
-  public ChallengeResponse apply(ChallengeRequest request) {
-    return useCase.handle(request);
+  public ChallengeResponse apply(Message<ChallengeRequest> message) {
+    return useCase.handle(message.getPayload(), FunctionDeadlines.of(message.getHeaders()));
   }
 }
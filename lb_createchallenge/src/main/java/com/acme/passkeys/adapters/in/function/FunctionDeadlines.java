@@ -0,0 +1,31 @@
+package com.acme.passkeys.adapters.in.function;
+
+import com.acme.passkeys.application.ports.in.Deadline;
+import com.amazonaws.services.lambda.runtime.Context;
+import org.springframework.cloud.function.adapter.aws.AWSLambdaUtils;
+import org.springframework.messaging.MessageHeaders;
+
+import java.time.Duration;
+
+/**
+ * {@link Deadline} de una invocación por Spring Cloud Function. En Lambda, el {@code FunctionInvoker} deja el
+ * {@link Context} en la cabecera {@value AWSLambdaUtils#AWS_CONTEXT}; passkeys-server deja el plazo de cada petición
+ * en {@value #HEADER}. Sin ninguna de las dos, {@link Deadline#NONE}.
+ */
+public final class FunctionDeadlines {
+
+  public static final String HEADER = "passkeys-deadline";
+
+  private FunctionDeadlines() {}
+
+  public static Deadline of(MessageHeaders headers) {
+    if (headers.get(HEADER) instanceof Deadline deadline) return deadline;
+    if (headers.get(AWSLambdaUtils.AWS_CONTEXT) instanceof Context context) return of(context);
+    return Deadline.NONE;
+  }
+
+  /** El tiempo que le queda a la invocación según Lambda; sin contexto, {@link Deadline#NONE}. */
+  public static Deadline of(Context context) {
+    return context == null ? Deadline.NONE : Deadline.in(Duration.ofMillis(context.getRemainingTimeInMillis()));
+  }
+}
@@ -0,0 +1,169 @@
+package com.acme.passkeys.adapters.in.lambda;
+
+import com.acme.passkeys.adapters.in.function.dto.ChallengeRequest;
+import com.acme.passkeys.adapters.in.function.dto.ChallengeResponse;
+import com.acme.passkeys.adapters.out.metrics.EmfCircuitBreakerMetrics;
+import com.acme.passkeys.adapters.out.resilience.CircuitBreaker;
+import com.acme.passkeys.application.ports.in.CreateChallengeUseCase;
+import com.acme.passkeys.application.ports.out.AuditLog;
+import com.acme.passkeys.application.ports.out.ChallengeStore;
+import com.acme.passkeys.application.ports.out.StageMetrics;
+import com.acme.passkeys.config.FunctionConfig;
+import com.acme.passkeys.config.SnapshotPriming;
+import com.acme.passkeys.domain.service.ChallengeGenerator;
+import com.acme.passkeys.domain.service.ChallengeSealer;
+import com.acme.passkeys.domain.service.ReseedableSecureRandom;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Entrada rápida para Lambda sin contexto de Spring. Reutiliza los métodos de
+ * {@link FunctionConfig} con los valores por defecto de application.yml; sólo lee
+ * {@code CHALLENGE_SEAL_KEY} y {@code AUDIT_DIR} del entorno. Con {@code CHALLENGE_SEAL_KEY} el store no disponible
+ * degrada a challenges sellados; sin ella, falla.
+ * Handler: {@code com.acme.passkeys.adapters.in.lambda.CreateChallengeStreamHandler::handleRequest}
+ */
+public class CreateChallengeStreamHandler extends JsonStreamHandler<ChallengeRequest, ChallengeResponse> {
+
+  // Default de passkeys.metrics.sample-every: la emisión cuesta ~1,5 µs y leer el reloj en cada etapa se nota
+  static final int METRICS_SAMPLE_EVERY = 64;
+
+  // Defaults de passkeys.audit.*
+  static final int AUDIT_CAPACITY = 8192;
+  static final int AUDIT_RECORDS_PER_FILE = 65_536;
+  static final int AUDIT_MAX_FILES = 8;
+
+  // Defaults de passkeys.challenge.store-executor.*
+  static final int STORE_EXECUTOR_MAX_THREADS = 32;
+  static final int STORE_EXECUTOR_QUEUE_CAPACITY = 256;
+
+  // Default de passkeys.deadline.store-cost
+  static final Duration DEADLINE_STORE_COST = Duration.ofMillis(10);
+
+  // Se cablea en la fase init de Lambda y se comparte entre invocaciones. En un holder: los handlers de finish*
+  // llaman a nextChallenges(...) sin cablear este handler
+  private static final class Default {
+    static final Wiring WIRING = wire(System.getenv("CHALLENGE_SEAL_KEY"), System.getenv("AUDIT_DIR"));
+  }
+
+  record Wiring(
+      Function<ChallengeRequest, ChallengeResponse> function,
+      CreateChallengeUseCase useCase,
+      SnapshotPriming priming,
+      StageMetrics metrics
+  ) {}
+
+  public CreateChallengeStreamHandler() {
+    this(Default.WIRING);
+  }
+
+  // El caso de uso directamente, para pasarle el tiempo que le queda a la invocación
+  CreateChallengeStreamHandler(Wiring wiring) {
+    super(ChallengeRequest.class, (request, deadline) -> wiring.useCase().handle(request, deadline), wiring.metrics());
+  }
+
+  CreateChallengeStreamHandler(Function<ChallengeRequest, ChallengeResponse> function) {
+    super(ChallengeRequest.class, function);
+  }
+
+  /**
+   * Lo que necesitan los handlers de finishRegistration/finishAuthentication para emitir el siguiente challenge en
+   * la misma invocación y para verificar challenges sellados. {@code priming} resiembra el {@code SecureRandom} del
+   * caso de uso tras el restore: quien lo recibe mantiene la referencia.
+   */
+  public record NextChallenges(
+      Optional<CreateChallengeUseCase> useCase,
+      Optional<ChallengeSealer> sealer,
+      SnapshotPriming priming
+  ) {
+    static final NextChallenges NONE = new NextChallenges(Optional.empty(), Optional.empty(), null);
+  }
+
+  /**
+   * Sólo cablea lo configurado: sin {@code enabled} ni clave no hay caso de uso, y sin clave tampoco sellador. El caso
+   * de uso es el de este handler (generador, expiración, store y sello), pero publica en {@code metrics} (etapas
+   * {@code nextChallenge.*}, motivos {@code next_challenge:*}) y audita en {@code audit} de la función que lo emite,
+   * sin métricas del breaker ni primers propios.
+   *
+   * @param enabled    emitir el siguiente challenge ({@code NEXT_CHALLENGE_ENABLED})
+   * @param sealKeyB64 la {@code CHALLENGE_SEAL_KEY} de createChallenge; {@code null} o vacía: se rechazan los sellados
+   */
+  public static NextChallenges nextChallenges(boolean enabled, String sealKeyB64, StageMetrics metrics, AuditLog audit) {
+    boolean sealed = sealKeyB64 != null && !sealKeyB64.isBlank();
+    if (!enabled && !sealed) return NextChallenges.NONE;
+    FunctionConfig c = new FunctionConfig();
+    ReseedableSecureRandom random = c.secureRandom();
+    ChallengeSealer sealer = c.challengeSealer(random, sealed ? sealKeyB64 : "", sealed);
+    if (!enabled) return new NextChallenges(Optional.empty(), Optional.of(sealer), null);
+
+    Clock clock = c.clock();
+    EmfCircuitBreakerMetrics breakerMetrics = c.challengeStoreBreakerMetrics(false, "Passkeys", Duration.ZERO);
+    CreateChallengeUseCase useCase = useCase(c, c.challengeGenerator(random), clock, breakerMetrics, sealer, sealed,
+        StageMetrics.nested(metrics, "nextChallenge.", "next_challenge:"), audit);
+    SnapshotPriming priming = new SnapshotPriming(List.of(), List.of(random::replace)).register();
+    return new NextChallenges(Optional.of(useCase), sealed ? Optional.of(sealer) : Optional.empty(), priming);
+  }
+
+  static Wiring wire(String sealKeyB64) {
+    return wire(sealKeyB64, null);
+  }
+
+  static Wiring wire(String sealKeyB64, String auditDir) {
+    FunctionConfig c = new FunctionConfig();
+    ReseedableSecureRandom random = c.secureRandom();
+    Clock clock = c.clock();
+    EmfCircuitBreakerMetrics breakerMetrics = c.challengeStoreBreakerMetrics(true, "Passkeys", METRICS_FLUSH_INTERVAL);
+    boolean sealFallback = sealKeyB64 != null && !sealKeyB64.isBlank();
+    ChallengeSealer sealer = c.challengeSealer(random, sealFallback ? sealKeyB64 : "", sealFallback);
+    StageMetrics metrics = c.createChallengeMetrics(true, "Passkeys", METRICS_FLUSH_INTERVAL, METRICS_SAMPLE_EVERY);
+    AuditLog audit =
+        c.challengeAuditLog(auditDir == null ? "" : auditDir, AUDIT_CAPACITY, AUDIT_RECORDS_PER_FILE, AUDIT_MAX_FILES, clock);
+
+    ChallengeGenerator generator = c.challengeGenerator(random);
+    CreateChallengeUseCase useCase = useCase(c, generator, clock, breakerMetrics, sealer, sealFallback, metrics, audit);
+    SnapshotPriming priming = FunctionConfig.challengePriming(random, generator, sealer, clock, () -> primeJson(clock));
+    return new Wiring(useCase::handle, useCase, priming.register(), metrics);
+  }
+
+  private static CreateChallengeUseCase useCase(
+      FunctionConfig c,
+      ChallengeGenerator generator,
+      Clock clock,
+      EmfCircuitBreakerMetrics breakerMetrics,
+      ChallengeSealer sealer,
+      boolean sealFallback,
+      StageMetrics metrics,
+      AuditLog audit
+  ) {
+    CircuitBreaker breaker = breakerMetrics.watch(new CircuitBreaker(CircuitBreaker.Settings.defaults(), clock, breakerMetrics));
+    ChallengeStore store = c.challengeStore(clock, breaker, true, false, Duration.ofSeconds(5), Duration.ofSeconds(2), 10_000);
+    return c.createChallengeUseCase(
+        generator,
+        store,
+        c.asyncChallengeStore(store, c.challengeStoreExecutor(STORE_EXECUTOR_MAX_THREADS, STORE_EXECUTOR_QUEUE_CAPACITY)),
+        clock,
+        c.issuedChallengeCache(clock, Duration.ofSeconds(30)),
+        sealer,
+        metrics,
+        audit,
+        DEADLINE_STORE_COST,
+        sealFallback
+    );
+  }
+
+  private static void primeJson(Clock clock) {
+    try {
+      ChallengeRequest req = MAPPER.readValue(FunctionConfig.PRIME_REQUEST.getBytes(StandardCharsets.UTF_8), ChallengeRequest.class);
+      MAPPER.writeValueAsBytes(FunctionConfig.primeResponse(req, clock));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
@@ -0,0 +1,184 @@
+package com.acme.passkeys.adapters.in.lambda;
+
+import com.acme.passkeys.adapters.in.function.FunctionDeadlines;
+import com.acme.passkeys.application.ports.in.Deadline;
+import com.acme.passkeys.application.ports.in.DeadlineExceededException;
+import com.acme.passkeys.application.ports.out.StageMetrics;
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestStreamHandler;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Handler de Lambda sin Spring: bindea el JSON con Jackson y llama a la función ya cableada.
+ * Acepta la invocación directa o el evento proxy de API Gateway (responde con statusCode/body).
+ *
+ * <p>En el evento proxy se negocia {@value #CBOR_CONTENT_TYPE}: con {@code Content-Type: application/cbor} el body
+ * (base64, como API Gateway entrega los binarios) se bindea en CBOR y los campos binarios llegan ya en crudo;
+ * se responde en CBOR si {@code Accept} lo pide o, sin {@code Accept}, si la petición vino en CBOR. La invocación
+ * directa sigue siendo JSON: Lambda no admite otro payload.
+ *
+ * <p>La función recibe un {@link Deadline} con el tiempo que le queda a la invocación según el contexto de Lambda.
+ * Si lo agota, el evento proxy responde 504 y la invocación directa propaga {@link DeadlineExceededException}.
+ * Un evento proxy sin body, con base64 inválido o con un body que no se puede bindear responde 400.
+ */
+public abstract class JsonStreamHandler<I, O> implements RequestStreamHandler {
+
+  // Mismo formato que el camino Spring: ISO-8601 para Instant y campos desconocidos ignorados
+  static final ObjectMapper MAPPER = new ObjectMapper()
+      .registerModule(new JavaTimeModule())
+      .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+      .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+  static final ObjectMapper CBOR = CBORMapper.builder()
+      .addModule(new JavaTimeModule())
+      .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+      .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+      .build();
+
+  static final String CBOR_CONTENT_TYPE = "application/cbor";
+
+  // Default de passkeys.metrics.flush-interval en application.yml: publica al cerrar cada invocación
+  static final Duration METRICS_FLUSH_INTERVAL = Duration.ZERO;
+
+  private final Class<I> inputType;
+  private final BiFunction<I, Deadline, O> function;
+  private final StageMetrics metrics;
+
+  protected JsonStreamHandler(Class<I> inputType, Function<I, O> function) {
+    this(inputType, function, StageMetrics.NOOP);
+  }
+
+  protected JsonStreamHandler(Class<I> inputType, Function<I, O> function, StageMetrics metrics) {
+    this(inputType, ignoringDeadline(Objects.requireNonNull(function, "function")), metrics);
+  }
+
+  protected JsonStreamHandler(Class<I> inputType, BiFunction<I, Deadline, O> function, StageMetrics metrics) {
+    this.inputType = Objects.requireNonNull(inputType, "inputType");
+    this.function = Objects.requireNonNull(function, "function");
+    this.metrics = Objects.requireNonNull(metrics, "metrics");
+  }
+
+  @Override
+  public void handleRequest(InputStream input, OutputStream output, Context context) throws IOException {
+    long start = metrics.start();
+    Deadline deadline = FunctionDeadlines.of(context);
+    JsonNode event = MAPPER.readTree(input);
+    if (event == null || !event.isObject()) throw new IllegalArgumentException("request body must be a JSON object");
+
+    if (!isProxyEvent(event)) {
+      I request = MAPPER.treeToValue(event, inputType);
+      metrics.lap("bind", start);
+      O result = function.apply(request, deadline);
+      long writing = metrics.start();
+      MAPPER.writeValue(output, result);
+      metrics.lap("write", writing);
+      return;
+    }
+
+    boolean cborIn = CBOR_CONTENT_TYPE.equals(mediaType(header(event, "content-type")));
+    I request;
+    try {
+      request = (cborIn ? CBOR : MAPPER).readValue(proxyBody(event), inputType);
+    } catch (IllegalArgumentException e) {
+      // Sin body o con base64 inválido: el mensaje es nuestro o del decoder, sin datos de la petición
+      writeProxyError(output, 400, e.getMessage());
+      return;
+    } catch (JsonProcessingException e) {
+      writeProxyError(output, 400, "malformed_request_body");
+      return;
+    }
+    metrics.lap("bind", start);
+    O result;
+    try {
+      result = function.apply(request, deadline);
+    } catch (DeadlineExceededException e) {
+      writeProxyError(output, 504, StageMetrics.DEADLINE_EXCEEDED);
+      return;
+    }
+    long writing = metrics.start();
+    ObjectNode response = MAPPER.createObjectNode();
+    response.put("statusCode", 200);
+    if (acceptsCbor(header(event, "accept"), cborIn)) {
+      response.putObject("headers").put("Content-Type", CBOR_CONTENT_TYPE);
+      response.put("body", Base64.getEncoder().encodeToString(CBOR.writeValueAsBytes(result)));
+      response.put("isBase64Encoded", true);
+    } else {
+      response.putObject("headers").put("Content-Type", "application/json");
+      response.put("body", MAPPER.writeValueAsString(result));
+    }
+    MAPPER.writeValue(output, response);
+    metrics.lap("write", writing);
+  }
+
+  // Error del propio handler en un evento proxy: JSON con la misma forma que las respuestas de error de las funciones
+  private static void writeProxyError(OutputStream output, int status, String message) throws IOException {
+    ObjectNode response = MAPPER.createObjectNode();
+    response.put("statusCode", status);
+    response.putObject("headers").put("Content-Type", "application/json");
+    response.put("body", MAPPER.createObjectNode().put("code", status).put("message", message).toString());
+    MAPPER.writeValue(output, response);
+  }
+
+  private static <I, O> BiFunction<I, Deadline, O> ignoringDeadline(Function<I, O> function) {
+    return (request, deadline) -> function.apply(request);
+  }
+
+  private static boolean isProxyEvent(JsonNode event) {
+    return event.has("body") && (event.has("requestContext") || event.has("httpMethod") || event.has("routeKey"));
+  }
+
+  private static byte[] proxyBody(JsonNode event) {
+    JsonNode body = event.get("body");
+    if (body == null || body.isNull()) throw new IllegalArgumentException("request body is required");
+    String text = body.asText();
+    return event.path("isBase64Encoded").asBoolean(false)
+        ? Base64.getDecoder().decode(text)
+        : text.getBytes(StandardCharsets.UTF_8);
+  }
+
+  // REST API conserva las mayúsculas de la cabecera; HTTP API y Function URL las pasan a minúsculas
+  private static String header(JsonNode event, String name) {
+    JsonNode headers = event.path("headers");
+    for (Iterator<Map.Entry<String, JsonNode>> it = headers.fields(); it.hasNext(); ) {
+      Map.Entry<String, JsonNode> h = it.next();
+      if (h.getKey().equalsIgnoreCase(name) && h.getValue().isTextual()) return h.getValue().asText();
+    }
+    return null;
+  }
+
+  private static String mediaType(String value) {
+    if (value == null) return null;
+    int params = value.indexOf(';');
+    return (params < 0 ? value : value.substring(0, params)).trim().toLowerCase(Locale.ROOT);
+  }
+
+  private static boolean acceptsCbor(String accept, boolean cborIn) {
+    if (accept == null || accept.isBlank()) return cborIn;
+    for (String type : accept.split(",")) {
+      String media = mediaType(type);
+      if (media.equals(CBOR_CONTENT_TYPE)) return true;
+      if (media.equals("application/json")) return false;
+    }
+    return cborIn;
+  }
+}
@@ -0,0 +1,54 @@
+package com.acme.passkeys.adapters.out.async;
+
+import com.acme.passkeys.application.ports.out.AsyncChallengeStore;
+import com.acme.passkeys.application.ports.out.ChallengeStore;
+import com.acme.passkeys.application.ports.out.ChallengeStoreUnavailableException;
+import com.acme.passkeys.domain.model.Challenge;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Expone un {@link ChallengeStore} bloqueante como asíncrono ejecutándolo en {@code executor}.
+ * Si el executor rechaza la tarea (saturado) el future falla con {@link ChallengeStoreUnavailableException}.
+ */
+public class AsyncChallengeStoreAdapter implements AsyncChallengeStore {
+
+  private final ChallengeStore delegate;
+  private final Executor executor;
+
+  public AsyncChallengeStoreAdapter(ChallengeStore delegate, Executor executor) {
+    this.delegate = Objects.requireNonNull(delegate, "delegate");
+    this.executor = Objects.requireNonNull(executor, "executor");
+  }
+
+  @Override
+  public CompletableFuture<Void> saveAsync(Challenge challenge) {
+    return submit(() -> {
+      delegate.save(challenge);
+      return null;
+    });
+  }
+
+  @Override
+  public CompletableFuture<Optional<Challenge>> findAsync(String id) {
+    return submit(() -> delegate.find(id));
+  }
+
+  @Override
+  public CompletableFuture<Optional<Challenge>> consumeAsync(String id) {
+    return submit(() -> delegate.consume(id));
+  }
+
+  private <T> CompletableFuture<T> submit(Supplier<T> call) {
+    try {
+      return CompletableFuture.supplyAsync(call, executor);
+    } catch (RejectedExecutionException e) {
+      return CompletableFuture.failedFuture(new ChallengeStoreUnavailableException("challenge store executor is saturated", e));
+    }
+  }
+}
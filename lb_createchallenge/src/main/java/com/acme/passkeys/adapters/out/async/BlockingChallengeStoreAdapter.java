@@ -0,0 +1,59 @@
+package com.acme.passkeys.adapters.out.async;
+
+import com.acme.passkeys.application.ports.out.AsyncChallengeStore;
+import com.acme.passkeys.application.ports.out.ChallengeStore;
+import com.acme.passkeys.application.ports.out.ChallengeStoreUnavailableException;
+import com.acme.passkeys.domain.model.Challenge;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Expone un {@link AsyncChallengeStore} como {@link ChallengeStore} esperando como máximo {@code timeout}. Timeout,
+ * interrupción y fallos del store salen como {@link ChallengeStoreUnavailableException} con la causa original, para
+ * que el servicio pueda degradar a challenges sellados como con {@link AsyncChallengeStoreAdapter}.
+ */
+public class BlockingChallengeStoreAdapter implements ChallengeStore {
+
+  private final AsyncChallengeStore delegate;
+  private final Duration timeout;
+
+  public BlockingChallengeStoreAdapter(AsyncChallengeStore delegate, Duration timeout) {
+    this.delegate = Objects.requireNonNull(delegate, "delegate");
+    this.timeout = Objects.requireNonNull(timeout, "timeout");
+  }
+
+  @Override
+  public void save(Challenge challenge) {
+    await(delegate.saveAsync(challenge));
+  }
+
+  @Override
+  public Optional<Challenge> find(String id) {
+    return await(delegate.findAsync(id));
+  }
+
+  @Override
+  public Optional<Challenge> consume(String id) {
+    return await(delegate.consumeAsync(id));
+  }
+
+  private <T> T await(CompletableFuture<T> future) {
+    try {
+      return future.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+    } catch (TimeoutException e) {
+      throw new ChallengeStoreUnavailableException("challenge store timed out after " + timeout.toMillis() + " ms", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof ChallengeStoreUnavailableException unavailable) throw unavailable;
+      throw new ChallengeStoreUnavailableException("challenge store failed", e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ChallengeStoreUnavailableException("interrupted while waiting for challenge store", e);
+    }
+  }
+}
@@ -0,0 +1,80 @@
+package com.acme.passkeys.adapters.out.audit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Convierte ficheros de auditoría a NDJSON, un evento por línea en orden de escritura:
+ * <pre>
+ * java -cp ... com.acme.passkeys.adapters.out.audit.AuditFileReader /var/audit [otro.audit ...]
+ * </pre>
+ * Un directorio se lee entero ({@code *.audit} ordenados por nombre).
+ */
+public final class AuditFileReader {
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  private AuditFileReader() {}
+
+  public static void main(String[] args) throws IOException {
+    if (args.length == 0) throw new IllegalArgumentException("usage: AuditFileReader <file or directory>...");
+    OutputStream out = new BufferedOutputStream(System.out, 1 << 16);
+    for (String arg : args) {
+      for (Path file : files(Path.of(arg))) writeJson(file, out);
+    }
+    out.flush();
+  }
+
+  /** Los eventos de un fichero, hasta el primer hueco sin escribir. */
+  public static List<AuditRecord.Entry> read(Path file) throws IOException {
+    MappedByteBuffer buf = map(file);
+    List<AuditRecord.Entry> entries = new ArrayList<>();
+    for (int base = AuditRecord.HEADER_SIZE; base + AuditRecord.SIZE <= buf.capacity(); base += AuditRecord.SIZE) {
+      AuditRecord.Entry entry = AuditRecord.decode(buf, base);
+      if (entry == null) break;
+      entries.add(entry);
+    }
+    return entries;
+  }
+
+  /** {@code path} si es un fichero; si es un directorio, sus {@code *.audit} ordenados por nombre. */
+  public static List<Path> files(Path path) throws IOException {
+    if (!Files.isDirectory(path)) return List.of(path);
+    try (Stream<Path> list = Files.list(path)) {
+      return list.filter(p -> p.getFileName().toString().endsWith(MappedAuditFiles.SUFFIX)).sorted().toList();
+    }
+  }
+
+  static void writeJson(Path file, OutputStream out) throws IOException {
+    for (AuditRecord.Entry entry : read(file)) {
+      ObjectNode json = MAPPER.createObjectNode()
+          .put("time", entry.time().toString())
+          .put("ceremony", entry.ceremony().name())
+          .put("outcome", entry.outcome())
+          .put("subject", entry.subject())
+          .put("rpId", entry.rpId());
+      out.write(MAPPER.writeValueAsBytes(json));
+      out.write('\n');
+    }
+  }
+
+  private static MappedByteBuffer map(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      AuditRecord.checkHeader(buf, file);
+      return buf;
+    }
+  }
+}
@@ -0,0 +1,105 @@
+package com.acme.passkeys.adapters.out.audit;
+
+import com.acme.passkeys.application.ports.out.AuditLog;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+/**
+ * Formato binario de un evento: {@value #SIZE} bytes fijos, big-endian.
+ * <pre>
+ *   0  long  epoch ms (0 = hueco sin escribir: fin de los datos del fichero)
+ *   8  byte  ceremonia (ordinal + 1)
+ *   9  byte  longitud de outcome
+ *  10  byte  longitud de subject
+ *  11  byte  longitud de rpId
+ *  16  outcome, {@value #OUTCOME_MAX} bytes
+ *  48  subject, {@value #SUBJECT_MAX} bytes
+ * 176  rpId, {@value #RP_ID_MAX} bytes
+ * </pre>
+ * Los textos van en ASCII, recortados a su campo y rellenos con ceros; un carácter fuera de ASCII se escribe
+ * como {@code ?}. Cada fichero empieza con una cabecera de {@value #HEADER_SIZE} bytes: magic, versión y tamaño
+ * de registro.
+ */
+public final class AuditRecord {
+
+  public static final int SIZE = 256;
+  public static final int HEADER_SIZE = 64;
+  static final long MAGIC = 0x504B_4155_4449_5431L; // "PKAUDIT1"
+  static final int VERSION = 1;
+
+  private static final int TIME = 0;
+  private static final int CEREMONY = 8;
+  private static final int OUTCOME_LEN = 9;
+  private static final int SUBJECT_LEN = 10;
+  private static final int RP_ID_LEN = 11;
+  private static final int OUTCOME = 16;
+  static final int OUTCOME_MAX = 32;
+  private static final int SUBJECT = 48;
+  static final int SUBJECT_MAX = 128;
+  private static final int RP_ID = 176;
+  static final int RP_ID_MAX = 80;
+
+  private static final AuditLog.Ceremony[] CEREMONIES = AuditLog.Ceremony.values();
+
+  public record Entry(Instant time, AuditLog.Ceremony ceremony, String outcome, String subject, String rpId) {}
+
+  private AuditRecord() {}
+
+  /** Escritura absoluta: no toca la posición de {@code buf}, así varios productores comparten el buffer. */
+  static void encode(ByteBuffer buf, int base, long epochMillis, AuditLog.Ceremony ceremony, String outcome, String subject, String rpId) {
+    buf.putLong(base + TIME, epochMillis);
+    buf.put(base + CEREMONY, (byte) (ceremony.ordinal() + 1));
+    buf.put(base + OUTCOME_LEN, (byte) ascii(buf, base + OUTCOME, OUTCOME_MAX, outcome));
+    buf.put(base + SUBJECT_LEN, (byte) ascii(buf, base + SUBJECT, SUBJECT_MAX, subject));
+    buf.put(base + RP_ID_LEN, (byte) ascii(buf, base + RP_ID, RP_ID_MAX, rpId));
+  }
+
+  /** @return {@code null} si en {@code base} no hay registro escrito */
+  static Entry decode(ByteBuffer buf, int base) {
+    long millis = buf.getLong(base + TIME);
+    if (millis == 0) return null;
+    int ceremony = buf.get(base + CEREMONY);
+    if (ceremony < 1 || ceremony > CEREMONIES.length) throw new IllegalStateException("invalid audit record at " + base);
+    return new Entry(
+        Instant.ofEpochMilli(millis),
+        CEREMONIES[ceremony - 1],
+        text(buf, base + OUTCOME, buf.get(base + OUTCOME_LEN)),
+        text(buf, base + SUBJECT, buf.get(base + SUBJECT_LEN)),
+        text(buf, base + RP_ID, buf.get(base + RP_ID_LEN))
+    );
+  }
+
+  static void encodeHeader(ByteBuffer buf) {
+    buf.putLong(0, MAGIC);
+    buf.putInt(8, VERSION);
+    buf.putInt(12, SIZE);
+  }
+
+  static void checkHeader(ByteBuffer buf, Object source) {
+    if (buf.capacity() < HEADER_SIZE || buf.getLong(0) != MAGIC) throw new IllegalStateException("not an audit file: " + source);
+    if (buf.getInt(8) != VERSION || buf.getInt(12) != SIZE) {
+      throw new IllegalStateException("unsupported audit file version " + buf.getInt(8) + ": " + source);
+    }
+  }
+
+  // Sin asignar: los productores no generan basura por evento
+  private static int ascii(ByteBuffer buf, int offset, int max, String s) {
+    int n = s == null ? 0 : Math.min(s.length(), max);
+    for (int i = 0; i < n; i++) {
+      char c = s.charAt(i);
+      buf.put(offset + i, c < 0x80 ? (byte) c : (byte) '?');
+    }
+    for (int i = n; i < max; i++) buf.put(offset + i, (byte) 0);
+    return n;
+  }
+
+  private static String text(ByteBuffer buf, int offset, byte length) {
+    int n = length & 0xFF;
+    if (n == 0) return null;
+    byte[] bytes = new byte[n];
+    buf.get(offset, bytes);
+    return new String(bytes, StandardCharsets.US_ASCII);
+  }
+}
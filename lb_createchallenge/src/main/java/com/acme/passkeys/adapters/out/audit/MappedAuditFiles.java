@@ -0,0 +1,101 @@
+package com.acme.passkeys.adapters.out.audit;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Ficheros de auditoría mapeados en memoria, de tamaño fijo y rotados al llenarse:
+ * {@code <prefix>-<epoch ms>-<n>.audit}, que ordenados por nombre quedan en orden de escritura.
+ * Se conservan los {@code maxFiles} más recientes.
+ *
+ * <p>Escribir es copiar al mapeo: los datos quedan en la caché de páginas del sistema y sobreviven a una caída
+ * del proceso. Sólo lo usa el hilo consumidor de {@link RingBufferAuditLog}; no es seguro entre hilos.
+ */
+public final class MappedAuditFiles implements Closeable {
+
+  static final String SUFFIX = ".audit";
+
+  private final Path directory;
+  private final String prefix;
+  private final int recordsPerFile;
+  private final int maxFiles;
+  private final Clock clock;
+
+  private MappedByteBuffer current; // null hasta el primer evento: nada abierto antes de un snapshot
+  private int written;
+  private int sequence;
+  private long files;
+
+  public MappedAuditFiles(Path directory, String prefix, int recordsPerFile, int maxFiles, Clock clock) {
+    if (recordsPerFile <= 0) throw new IllegalArgumentException("recordsPerFile must be > 0");
+    if (maxFiles <= 0) throw new IllegalArgumentException("maxFiles must be > 0");
+    this.directory = directory;
+    this.prefix = prefix;
+    this.recordsPerFile = recordsPerFile;
+    this.maxFiles = maxFiles;
+    this.clock = clock;
+  }
+
+  /** Copia {@code records} registros contiguos de {@code src} desde {@code offset}, rotando si hace falta. */
+  void append(ByteBuffer src, int offset, int records) throws IOException {
+    while (records > 0) {
+      if (current == null) open();
+      int n = Math.min(records, recordsPerFile - written);
+      current.put(AuditRecord.HEADER_SIZE + written * AuditRecord.SIZE, src, offset, n * AuditRecord.SIZE);
+      written += n;
+      offset += n * AuditRecord.SIZE;
+      records -= n;
+      if (written == recordsPerFile) rotate();
+    }
+  }
+
+  /** Ficheros abiertos desde el arranque. */
+  long files() {
+    return files;
+  }
+
+  @Override
+  public void close() {
+    rotate();
+  }
+
+  private void open() throws IOException {
+    Files.createDirectories(directory);
+    Path file = directory.resolve(String.format("%s-%013d-%04d%s", prefix, clock.millis(), sequence++ % 10_000, SUFFIX));
+    long size = AuditRecord.HEADER_SIZE + (long) recordsPerFile * AuditRecord.SIZE;
+    // El mapeo sigue siendo válido al cerrar el canal
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      current = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+    }
+    AuditRecord.encodeHeader(current);
+    written = 0;
+    files++;
+    prune();
+  }
+
+  private void rotate() {
+    if (current == null) return;
+    current.force();
+    current = null;
+  }
+
+  private void prune() throws IOException {
+    List<Path> existing;
+    try (Stream<Path> list = Files.list(directory)) {
+      existing = list
+          .filter(p -> p.getFileName().toString().startsWith(prefix + "-") && p.getFileName().toString().endsWith(SUFFIX))
+          .sorted()
+          .toList();
+    }
+    for (int i = 0; i < existing.size() - maxFiles; i++) Files.deleteIfExists(existing.get(i));
+  }
+}
@@ -0,0 +1,157 @@
+package com.acme.passkeys.adapters.out.audit;
+
+import com.acme.passkeys.application.ports.out.AuditLog;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * {@link AuditLog} sobre un anillo preasignado de registros de {@value AuditRecord#SIZE} bytes, con varios
+ * productores y un solo consumidor (cola acotada de Vyukov). Un productor reserva su hueco con un CAS, lo
+ * escribe en sitio y lo publica con su número de secuencia; con el anillo lleno descarta el evento y lo cuenta,
+ * sin esperar nunca.
+ *
+ * <p>Un hilo daemon copia a {@link MappedAuditFiles} los tramos contiguos ya publicados, hasta {@code batch}
+ * registros por copia, y duerme {@code idle} cuando no hay nada.
+ */
+public final class RingBufferAuditLog implements AuditLog {
+
+  public record Stats(long recorded, long dropped, long written, long writeErrors, long files, int capacity) {}
+
+  static final int BATCH = 256;
+  static final Duration IDLE = Duration.ofMillis(1);
+
+  private final Clock clock;
+  private final MappedAuditFiles files;
+  private final int capacity;
+  private final int mask;
+  private final int batch;
+  private final long idleNanos;
+
+  private final ByteBuffer slots;
+  // Hueco i: i + k·capacity libre para el productor de la vuelta k; +1 publicado para el consumidor
+  private final AtomicLongArray sequences;
+  private final AtomicLong tail = new AtomicLong();
+  private long head; // sólo el consumidor
+
+  private final LongAdder recorded = new LongAdder();
+  private final LongAdder dropped = new LongAdder();
+  private final LongAdder written = new LongAdder();
+  private final LongAdder writeErrors = new LongAdder();
+
+  private final Thread consumer;
+  private volatile boolean running = true;
+
+  /** @param capacity potencia de dos */
+  public RingBufferAuditLog(Clock clock, int capacity, int batch, Duration idle, MappedAuditFiles files) {
+    if (capacity <= 0 || Integer.bitCount(capacity) != 1) throw new IllegalArgumentException("capacity must be a power of two");
+    if (batch <= 0) throw new IllegalArgumentException("batch must be > 0");
+    this.clock = clock;
+    this.files = files;
+    this.capacity = capacity;
+    this.mask = capacity - 1;
+    this.batch = batch;
+    this.idleNanos = idle.toNanos();
+    this.slots = ByteBuffer.allocate(Math.multiplyExact(capacity, AuditRecord.SIZE));
+    this.sequences = new AtomicLongArray(capacity);
+    for (int i = 0; i < capacity; i++) sequences.set(i, i);
+
+    this.consumer = new Thread(this::drainLoop, "audit-writer");
+    consumer.setDaemon(true);
+    consumer.start();
+  }
+
+  /**
+   * Lo que cablean las configuraciones: {@code <directory>/<prefix>-*.audit}.
+   * Sin {@code directory} no se audita.
+   */
+  public static AuditLog forDirectory(String directory, String prefix, int capacity, int recordsPerFile, int maxFiles, Clock clock) {
+    if (directory == null || directory.isBlank()) return AuditLog.NOOP;
+    return new RingBufferAuditLog(clock, capacity, BATCH, IDLE, new MappedAuditFiles(Path.of(directory), prefix, recordsPerFile, maxFiles, clock));
+  }
+
+  @Override
+  public boolean record(Ceremony ceremony, String outcome, String subject, String rpId) {
+    if (!running) {
+      dropped.increment();
+      return false;
+    }
+    long pos = tail.get();
+    int slot;
+    while (true) {
+      slot = (int) (pos & mask);
+      long diff = sequences.getAcquire(slot) - pos;
+      if (diff == 0) {
+        if (tail.compareAndSet(pos, pos + 1)) break;
+        pos = tail.get();
+      } else if (diff < 0) {
+        // El consumidor aún no ha liberado este hueco de la vuelta anterior: anillo lleno
+        dropped.increment();
+        return false;
+      } else {
+        pos = tail.get();
+      }
+    }
+    AuditRecord.encode(slots, slot * AuditRecord.SIZE, clock.millis(), ceremony, outcome, subject, rpId);
+    sequences.setRelease(slot, pos + 1);
+    recorded.increment();
+    return true;
+  }
+
+  public Stats stats() {
+    return new Stats(recorded.sum(), dropped.sum(), written.sum(), writeErrors.sum(), files.files(), capacity);
+  }
+
+  /** Deja de aceptar eventos, escribe los ya publicados y sincroniza el fichero actual. */
+  @Override
+  public void close() {
+    running = false;
+    LockSupport.unpark(consumer);
+    try {
+      consumer.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void drainLoop() {
+    try {
+      while (running) {
+        if (drain() == 0) LockSupport.parkNanos(idleNanos);
+      }
+      // Un productor que vio running=true puede tener su hueco reservado y aún sin publicar
+      while (head < tail.get()) {
+        if (drain() == 0) Thread.onSpinWait();
+      }
+    } finally {
+      files.close();
+    }
+  }
+
+  /** Un tramo contiguo ya publicado, sin dar la vuelta al anillo: una sola copia al fichero. */
+  private int drain() {
+    int ready = 0;
+    int first = (int) (head & mask);
+    while (ready < batch && first + ready < capacity && sequences.getAcquire(first + ready) == head + ready + 1) ready++;
+    if (ready == 0) return 0;
+
+    try {
+      files.append(slots, first * AuditRecord.SIZE, ready);
+      written.add(ready);
+    } catch (IOException | RuntimeException e) {
+      // Sin disco no se frena a los productores: el tramo se pierde y se cuenta
+      writeErrors.increment();
+      dropped.add(ready);
+    }
+    for (int i = 0; i < ready; i++) sequences.setRelease(first + i, head + i + capacity);
+    head += ready;
+    return ready;
+  }
+}
@@ -0,0 +1,74 @@
+package com.acme.passkeys.adapters.out.cache;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Mapa con caducidad por entrada y tamaño acotado. Al pasar de {@code maxEntries} se expulsa la entrada más
+ * antigua por orden de inserción (con TTL parecidos, la más próxima a caducar): coste constante por inserción,
+ * sin recorrer el mapa. Las caducadas se descartan al leerlas.
+ */
+final class BoundedExpiringMap<V> {
+
+  private final Map<String, Entry<V>> entries = new ConcurrentHashMap<>();
+  private final Queue<Entry<V>> insertionOrder = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger queued = new AtomicInteger();
+  private final int maxEntries;
+
+  BoundedExpiringMap(int maxEntries) {
+    if (maxEntries <= 0) throw new IllegalArgumentException("maxEntries must be > 0");
+    this.maxEntries = maxEntries;
+  }
+
+  /** {@code null} si no está o ya caducó. */
+  V get(String key, Instant now) {
+    Entry<V> entry = entries.get(key);
+    if (entry == null) return null;
+    if (now.isBefore(entry.until)) return entry.value;
+    entries.remove(key, entry);
+    return null;
+  }
+
+  void put(String key, V value, Instant until) {
+    Entry<V> entry = new Entry<>(key, value, until);
+    entries.put(key, entry);
+    insertionOrder.offer(entry);
+    if (queued.incrementAndGet() > maxEntries) evictOldest();
+  }
+
+  V remove(String key) {
+    Entry<V> entry = entries.remove(key);
+    return entry == null ? null : entry.value;
+  }
+
+  int size() {
+    return entries.size();
+  }
+
+  // Cada entrada del mapa tiene su nodo en la cola (los de entradas ya quitadas salen aquí): acotar la cola acota el mapa
+  private void evictOldest() {
+    while (queued.get() > maxEntries) {
+      Entry<V> oldest = insertionOrder.poll();
+      if (oldest == null) return;
+      queued.decrementAndGet();
+      entries.remove(oldest.key, oldest);
+    }
+  }
+
+  // Igualdad por identidad: remove(key, entry) sólo quita la entrada que se expulsa, no una reinsertada
+  private static final class Entry<V> {
+    final String key;
+    final V value;
+    final Instant until;
+
+    Entry(String key, V value, Instant until) {
+      this.key = key;
+      this.value = value;
+      this.until = until;
+    }
+  }
+}
@@ -0,0 +1,133 @@
+package com.acme.passkeys.adapters.out.cache;
+
+import com.acme.passkeys.application.ports.out.ChallengeStore;
+import com.acme.passkeys.domain.model.Challenge;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache L1 local delante de un {@link ChallengeStore} remoto.
+ * Los challenges guardados se sirven localmente durante {@code positiveTtl} (nunca más allá de su
+ * {@code expiresAt}) y los ids inexistentes (típico de replays) se recuerdan durante {@code negativeTtl}.
+ *
+ * <p>{@link #consume} no usa la cache: siempre va al remoto, que es quien decide el uso único. Antes deja una
+ * marca por id: un {@link #find} concurrente que ya había leído el challenge no lo vuelve a cachear, y un
+ * challenge consumido no se sirve nunca más desde aquí.
+ *
+ * <p>Un consumo hecho en otra instancia no se ve aquí: {@link #find} puede seguir devolviendo ese challenge
+ * hasta {@code positiveTtl} después de cachearlo. Por eso {@code positiveTtl} ha de quedar muy por debajo del
+ * TTL de los challenges.
+ */
+public class NearCacheChallengeStore implements ChallengeStore {
+
+  // Marca de un consumo cuyo challenge no estaba en local: cubre cualquier lectura remota en curso
+  private static final Duration CONSUMED_GRACE = Duration.ofSeconds(30);
+
+  private final ChallengeStore remote;
+  private final Clock clock;
+  private final Duration positiveTtl;
+  private final Duration negativeTtl;
+
+  private final BoundedExpiringMap<Challenge> positive;
+  private final BoundedExpiringMap<Boolean> negative;
+  private final BoundedExpiringMap<Boolean> consumed;
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder negativeHits = new LongAdder();
+
+  public NearCacheChallengeStore(
+      ChallengeStore remote,
+      Clock clock,
+      Duration positiveTtl,
+      Duration negativeTtl,
+      int maxEntries
+  ) {
+    this.remote = Objects.requireNonNull(remote, "remote");
+    this.clock = Objects.requireNonNull(clock, "clock");
+    this.positiveTtl = Objects.requireNonNull(positiveTtl, "positiveTtl");
+    if (positiveTtl.isZero() || positiveTtl.isNegative()) throw new IllegalArgumentException("positiveTtl must be > 0");
+    this.negativeTtl = Objects.requireNonNull(negativeTtl, "negativeTtl");
+    if (maxEntries <= 0) throw new IllegalArgumentException("maxEntries must be > 0");
+    this.positive = new BoundedExpiringMap<>(maxEntries);
+    this.negative = new BoundedExpiringMap<>(maxEntries);
+    this.consumed = new BoundedExpiringMap<>(maxEntries);
+  }
+
+  @Override
+  public void save(Challenge challenge) {
+    remote.save(challenge);
+    negative.remove(challenge.id());
+    consumed.remove(challenge.id());
+    cachePositive(challenge, Instant.now(clock));
+  }
+
+  @Override
+  public Optional<Challenge> find(String id) {
+    Instant now = Instant.now(clock);
+
+    Challenge local = positive.get(id, now);
+    if (local != null) {
+      hits.increment();
+      return Optional.of(local);
+    }
+
+    if (negative.get(id, now) != null) {
+      negativeHits.increment();
+      return Optional.empty();
+    }
+
+    misses.increment();
+    Optional<Challenge> found = remote.find(id);
+    if (found.isPresent()) {
+      cachePositive(found.get(), now);
+    } else {
+      cacheNegative(id, now);
+    }
+    return found;
+  }
+
+  @Override
+  public Optional<Challenge> consume(String id) {
+    Instant now = Instant.now(clock);
+    // La marca va antes que el remoto: lo que un find lea a partir de aquí ya no entra en la cache
+    Instant grace = now.plus(CONSUMED_GRACE);
+    consumed.put(id, Boolean.TRUE, grace);
+    Challenge local = positive.remove(id);
+    Optional<Challenge> result = remote.consume(id);
+    // Hasta que el challenge caduque: después find tampoco lo serviría
+    Instant until = grace;
+    if (local != null && local.expiresAt().isAfter(until)) until = local.expiresAt();
+    if (result.isPresent() && result.get().expiresAt().isAfter(until)) until = result.get().expiresAt();
+    if (until.isAfter(grace)) consumed.put(id, Boolean.TRUE, until);
+    // Un challenge consumido no vuelve a existir: los replays se absorben localmente
+    cacheNegative(id, now);
+    return result;
+  }
+
+  public Stats stats() {
+    return new Stats(hits.sum(), misses.sum(), negativeHits.sum(), positive.size(), negative.size());
+  }
+
+  private void cachePositive(Challenge challenge, Instant now) {
+    if (!now.isBefore(challenge.expiresAt())) return;
+    if (consumed.get(challenge.id(), now) != null) return;
+    Instant until = now.plus(positiveTtl);
+    if (challenge.expiresAt().isBefore(until)) until = challenge.expiresAt();
+    positive.put(challenge.id(), challenge, until);
+    // consume concurrente entre la comprobación y el put: la marca ya está, se deshace
+    if (consumed.get(challenge.id(), now) != null) positive.remove(challenge.id());
+  }
+
+  private void cacheNegative(String id, Instant now) {
+    if (negativeTtl.isZero() || negativeTtl.isNegative()) return;
+    negative.put(id, Boolean.TRUE, now.plus(negativeTtl));
+  }
+
+  public record Stats(long hits, long misses, long negativeHits, int positiveEntries, int negativeEntries) {}
+}
@@ -0,0 +1,69 @@
+package com.acme.passkeys.adapters.out.jfr;
+
+import com.acme.passkeys.application.ports.out.ChallengeIssuanceTrace;
+import com.acme.passkeys.domain.model.ChallengeType;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Emisión de un challenge, desde que termina la validación hasta que queda guardado o sellado.
+ * Sin identificadores de usuario ni de transacción: sólo datos para perfilar la emisión lenta.
+ */
+@Name(ChallengeIssuedEvent.NAME)
+@Label("Challenge Issued")
+@Category({"Passkeys", "Create Challenge"})
+@Description("Generación y guardado (o sellado) de un challenge")
+@StackTrace(false)
+@Threshold(ChallengeIssuedEvent.DEFAULT_THRESHOLD)
+public class ChallengeIssuedEvent extends Event implements ChallengeIssuanceTrace.Span {
+
+  public static final String NAME = "com.acme.passkeys.ChallengeIssued";
+  public static final String DEFAULT_THRESHOLD = "20 ms";
+
+  @Label("Relying Party")
+  String rpId;
+
+  @Label("Ceremony")
+  String ceremony;
+
+  @Label("Algorithm")
+  @Description("Algoritmo del SecureRandom, o del HMAC si el challenge se selló sin store")
+  String algorithm;
+
+  @Label("Outcome")
+  String outcome;
+
+  @Label("Challenge Size")
+  @DataAmount
+  int challengeSize;
+
+  public static ChallengeIssuedEvent start(String rpId, ChallengeType type, String algorithm) {
+    ChallengeIssuedEvent event = new ChallengeIssuedEvent();
+    event.rpId = rpId;
+    event.ceremony = type.name();
+    event.algorithm = algorithm;
+    event.begin();
+    return event;
+  }
+
+  @Override
+  public void sealed(String algorithm) {
+    this.algorithm = algorithm;
+  }
+
+  /** Cierra el evento; sólo se graba si JFR lo tiene activo y supera el threshold. */
+  @Override
+  public void complete(String outcome, String challengeB64Url) {
+    end();
+    if (!shouldCommit()) return;
+    this.outcome = outcome;
+    this.challengeSize = challengeB64Url == null ? 0 : challengeB64Url.length();
+    commit();
+  }
+}
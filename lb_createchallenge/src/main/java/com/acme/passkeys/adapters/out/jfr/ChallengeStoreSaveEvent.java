@@ -0,0 +1,40 @@
+package com.acme.passkeys.adapters.out.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/** Escritura de un challenge en el {@code ChallengeStore}, vista desde fuera de sus decoradores. */
+@Name(ChallengeStoreSaveEvent.NAME)
+@Label("Challenge Store Save")
+@Category({"Passkeys", "Create Challenge"})
+@Description("ChallengeStore.save, incluidos circuit breaker, near-cache y particionado")
+@StackTrace(false)
+@Threshold(ChallengeStoreSaveEvent.DEFAULT_THRESHOLD)
+public class ChallengeStoreSaveEvent extends Event {
+
+  public static final String NAME = "com.acme.passkeys.ChallengeStoreSave";
+  public static final String DEFAULT_THRESHOLD = "20 ms";
+
+  @Label("Relying Party")
+  String rpId;
+
+  @Label("Ceremony")
+  String ceremony;
+
+  @Label("Store")
+  @Description("Clase del store más externo")
+  String store;
+
+  @Label("Outcome")
+  String outcome;
+
+  @Label("Challenge Size")
+  @DataAmount
+  int challengeSize;
+}
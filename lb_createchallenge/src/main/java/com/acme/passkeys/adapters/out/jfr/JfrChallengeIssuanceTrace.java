@@ -0,0 +1,13 @@
+package com.acme.passkeys.adapters.out.jfr;
+
+import com.acme.passkeys.application.ports.out.ChallengeIssuanceTrace;
+import com.acme.passkeys.domain.model.ChallengeType;
+
+/** Cada emisión es un {@link ChallengeIssuedEvent}; con JFR inactivo el coste es crear el evento. */
+public class JfrChallengeIssuanceTrace implements ChallengeIssuanceTrace {
+
+  @Override
+  public Span start(String rpId, ChallengeType type, String algorithm) {
+    return ChallengeIssuedEvent.start(rpId, type, algorithm);
+  }
+}
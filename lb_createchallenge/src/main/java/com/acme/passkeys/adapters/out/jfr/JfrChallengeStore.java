@@ -0,0 +1,56 @@
+package com.acme.passkeys.adapters.out.jfr;
+
+import com.acme.passkeys.application.ports.out.ChallengeStore;
+import com.acme.passkeys.application.ports.out.StageMetrics;
+import com.acme.passkeys.domain.model.Challenge;
+
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Emite un {@link ChallengeStoreSaveEvent} por cada {@code save}. Con JFR inactivo el coste es
+ * una comprobación por llamada; las lecturas pasan tal cual.
+ */
+public class JfrChallengeStore implements ChallengeStore {
+
+  private final ChallengeStore delegate;
+  private final String storeName;
+
+  public JfrChallengeStore(ChallengeStore delegate) {
+    this.delegate = Objects.requireNonNull(delegate, "delegate");
+    this.storeName = delegate.getClass().getSimpleName();
+  }
+
+  @Override
+  public void save(Challenge challenge) {
+    ChallengeStoreSaveEvent event = new ChallengeStoreSaveEvent();
+    event.begin();
+    String outcome = StageMetrics.OK;
+    try {
+      delegate.save(challenge);
+    } catch (RuntimeException e) {
+      outcome = StageMetrics.reason(e);
+      throw e;
+    } finally {
+      event.end();
+      if (event.shouldCommit()) {
+        event.rpId = challenge.rpId();
+        event.ceremony = challenge.type().name();
+        event.store = storeName;
+        event.outcome = outcome;
+        event.challengeSize = challenge.challengeB64Url().length();
+        event.commit();
+      }
+    }
+  }
+
+  @Override
+  public Optional<Challenge> find(String id) {
+    return delegate.find(id);
+  }
+
+  @Override
+  public Optional<Challenge> consume(String id) {
+    return delegate.consume(id);
+  }
+}
@@ -4,6 +4,7 @@ import com.acme.passkeys.application.ports.out.ChallengeStore;
 import com.acme.passkeys.domain.model.Challenge;
 
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
 
 public class InMemoryChallengeStore implements ChallengeStore {
@@ -14,6 +15,16 @@ public class InMemoryChallengeStore implements ChallengeStore {
     db.put(challenge.id(), challenge);
   }
 
+  @Override
+  public Optional<Challenge> find(String id) {
+    return Optional.ofNullable(db.get(id));
+  }
+
+  @Override
+  public Optional<Challenge> consume(String id) {
+    return Optional.ofNullable(db.remove(id));
+  }
+
   public Challenge get(String id) {
     return db.get(id);
   }
@@ -0,0 +1,134 @@
+package com.acme.passkeys.adapters.out.metrics;
+
+import com.acme.passkeys.adapters.out.resilience.CircuitBreaker;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Estado de un {@link CircuitBreaker} en CloudWatch Embedded Metric Format, igual que {@link EmfStageMetrics}.
+ *
+ * <p>Es el listener del breaker: cada transición se publica al momento ({@code BreakerTransitions}, dimensiones
+ * Service/Transition) junto con {@link CircuitBreaker#stats()}. Las stats se publican además cada
+ * {@code flushInterval} ({@code BreakerState} 0 cerrado, 1 semiabierto, 2 abierto; {@code BreakerRejected} desde la
+ * última publicación; {@code BreakerFailureRate} y {@code BreakerSlowCallRate} en %, dimensión Service).
+ */
+public class EmfCircuitBreakerMetrics implements Consumer<CircuitBreaker.Transition>, AutoCloseable {
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  private final String namespace;
+  private final String service;
+  private final Consumer<String> sink;
+  private final Clock clock;
+  private final ScheduledExecutorService flusher; // null = sólo en cada transición
+
+  private volatile Supplier<CircuitBreaker.Stats> stats;
+  private final AtomicLong lastRejected = new AtomicLong();
+
+  public EmfCircuitBreakerMetrics(String namespace, String service, Duration flushInterval) {
+    this(namespace, service, flushInterval, System.out::println, Clock.systemUTC());
+  }
+
+  public EmfCircuitBreakerMetrics(
+      String namespace,
+      String service,
+      Duration flushInterval,
+      Consumer<String> sink,
+      Clock clock
+  ) {
+    this.namespace = Objects.requireNonNull(namespace, "namespace");
+    this.service = Objects.requireNonNull(service, "service");
+    Objects.requireNonNull(flushInterval, "flushInterval");
+    if (flushInterval.isNegative()) throw new IllegalArgumentException("flushInterval must be >= 0");
+    this.sink = Objects.requireNonNull(sink, "sink");
+    this.clock = Objects.requireNonNull(clock, "clock");
+    long intervalNanos = flushInterval.toNanos();
+    if (intervalNanos == 0) {
+      this.flusher = null;
+    } else {
+      this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "emf-breaker-" + service);
+        t.setDaemon(true);
+        return t;
+      });
+      flusher.scheduleAtFixedRate(this::flush, intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  /** El breaker se crea con este listener, así que sus stats llegan después. */
+  public CircuitBreaker watch(CircuitBreaker breaker) {
+    this.stats = breaker::stats;
+    return breaker;
+  }
+
+  @Override
+  public void accept(CircuitBreaker.Transition transition) {
+    ObjectNode event = event(clock.millis(), "Transition");
+    directive(event).addObject().put("Name", "BreakerTransitions").put("Unit", "Count");
+    event.put("Transition", transition.from() + "->" + transition.to());
+    event.put("BreakerTransitions", 1);
+    sink.accept(event.toString());
+    flush();
+  }
+
+  /**
+   * Publica las stats actuales del breaker. Sin lock propio: las transiciones llegan con el del breaker tomado y
+   * {@link CircuitBreaker#stats()} lo vuelve a tomar, así que otro lock aquí podría cruzarse con el del flusher.
+   */
+  public void flush() {
+    Supplier<CircuitBreaker.Stats> source = stats;
+    if (source == null) return;
+    CircuitBreaker.Stats s = source.get();
+    long rejected = s.rejected() - lastRejected.getAndSet(s.rejected());
+
+    ObjectNode event = event(clock.millis(), null);
+    ArrayNode metrics = directive(event);
+    metrics.addObject().put("Name", "BreakerState").put("Unit", "None");
+    metrics.addObject().put("Name", "BreakerRejected").put("Unit", "Count");
+    metrics.addObject().put("Name", "BreakerFailureRate").put("Unit", "Percent");
+    metrics.addObject().put("Name", "BreakerSlowCallRate").put("Unit", "Percent");
+    event.put("BreakerState", switch (s.state()) {
+      case CLOSED -> 0;
+      case HALF_OPEN -> 1;
+      case OPEN -> 2;
+    });
+    event.put("BreakerRejected", rejected);
+    event.put("BreakerFailureRate", s.failureRate() * 100);
+    event.put("BreakerSlowCallRate", s.slowCallRate() * 100);
+    sink.accept(event.toString());
+  }
+
+  /** Para el hilo y publica lo pendiente; Spring lo llama al cerrar el contexto. */
+  @Override
+  public void close() {
+    if (flusher != null) flusher.shutdownNow();
+    flush();
+  }
+
+  private ObjectNode event(long timestamp, String dimension) {
+    ObjectNode event = MAPPER.createObjectNode();
+    ObjectNode directive = event.putObject("_aws").put("Timestamp", timestamp)
+        .putArray("CloudWatchMetrics").addObject();
+    directive.put("Namespace", namespace);
+    ArrayNode dimensions = directive.putArray("Dimensions").addArray().add("Service");
+    if (dimension != null) dimensions.add(dimension);
+    directive.putArray("Metrics");
+    event.put("Service", service);
+    return event;
+  }
+
+  private static ArrayNode directive(ObjectNode event) {
+    return (ArrayNode) event.path("_aws").path("CloudWatchMetrics").get(0).path("Metrics");
+  }
+}
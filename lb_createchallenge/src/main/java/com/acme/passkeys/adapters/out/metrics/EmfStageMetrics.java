@@ -0,0 +1,207 @@
+package com.acme.passkeys.adapters.out.metrics;
+
+import com.acme.passkeys.application.ports.out.StageMetrics;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * {@link StageMetrics} publicadas en CloudWatch Embedded Metric Format: líneas JSON en stdout que
+ * CloudWatch Logs convierte en métricas, sin agente ni llamadas a la API.
+ *
+ * <p>Agrega en memoria (histograma log-lineal en µs por etapa, contador por motivo) y un hilo daemon
+ * publica cada {@code flushInterval}, fuera del camino de la petición; con intervalo cero se publica
+ * al cerrar cada invocación. En Lambda el intervalo ha de ser cero: el hilo se congela entre
+ * invocaciones, así que la última ventana no se publicaría nunca y las demás saldrían con la hora de
+ * publicación en vez de la de la invocación. El hilo es para procesos largos (passkeys-server). Una línea por etapa ({@code StageLatency}, dimensiones Service/Stage) y otra por
+ * motivo ({@code Invocations}, dimensiones Service/Outcome).
+ *
+ * <p>Los tiempos se miden en una de cada {@code sampleEvery} llamadas a {@link #start()} y cada
+ * muestra cuenta {@code sampleEvery} veces: los percentiles no cambian y el número de muestras
+ * se aproxima al real. Leer el reloj es lo más caro de medir una etapa.
+ */
+public class EmfStageMetrics implements StageMetrics, AutoCloseable {
+
+  static final int MAX_REASONS = 32; // el resto cuenta como "other": la cardinalidad cuesta dinero
+  static final String OTHER = "other";
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  private final String namespace;
+  private final String service;
+  private final int sampleEvery;
+  private final Consumer<String> sink;
+  private final Clock clock;
+
+  private final Map<String, Histogram> stages = new ConcurrentHashMap<>();
+  private final Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+  private final LongAdder ok = new LongAdder(); // el caso común no pasa por el mapa
+  private final ScheduledExecutorService flusher; // null = publica en cada invocación
+  private final ReentrantLock flushing = new ReentrantLock();
+
+  public EmfStageMetrics(String namespace, String service, Duration flushInterval, int sampleEvery) {
+    this(namespace, service, flushInterval, sampleEvery, System.out::println, Clock.systemUTC());
+  }
+
+  public EmfStageMetrics(
+      String namespace,
+      String service,
+      Duration flushInterval,
+      int sampleEvery,
+      Consumer<String> sink,
+      Clock clock
+  ) {
+    this.namespace = Objects.requireNonNull(namespace, "namespace");
+    this.service = Objects.requireNonNull(service, "service");
+    Objects.requireNonNull(flushInterval, "flushInterval");
+    if (flushInterval.isNegative()) throw new IllegalArgumentException("flushInterval must be >= 0");
+    if (sampleEvery < 1) throw new IllegalArgumentException("sampleEvery must be >= 1");
+    this.sampleEvery = sampleEvery;
+    this.sink = Objects.requireNonNull(sink, "sink");
+    this.clock = Objects.requireNonNull(clock, "clock");
+    outcomes.put(OK, ok);
+    long intervalNanos = flushInterval.toNanos();
+    if (intervalNanos == 0) {
+      this.flusher = null;
+    } else {
+      this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "emf-metrics-" + service);
+        t.setDaemon(true);
+        return t;
+      });
+      flusher.scheduleAtFixedRate(this::flush, intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  @Override
+  public long start() {
+    if (sampleEvery > 1 && ThreadLocalRandom.current().nextInt(sampleEvery) != 0) return UNSAMPLED;
+    return System.nanoTime();
+  }
+
+  @Override
+  public void recordStage(String stage, long nanos) {
+    Histogram h = stages.get(stage);
+    if (h == null) h = stages.computeIfAbsent(stage, k -> new Histogram());
+    h.record(nanos, sampleEvery);
+  }
+
+  @Override
+  public void recordOutcome(String reason) {
+    LongAdder counter = OK.equals(reason) ? ok : outcomes.get(reason);
+    if (counter == null) {
+      // "ok" ya está en el mapa y no cuenta para el límite
+      String key = outcomes.size() <= MAX_REASONS ? reason : OTHER;
+      counter = outcomes.computeIfAbsent(key, k -> new LongAdder());
+    }
+    counter.increment();
+    if (flusher == null) flush();
+  }
+
+  /** Publica lo agregado desde la última vez. */
+  public void flush() {
+    flushing.lock();
+    try {
+      long timestamp = clock.millis();
+      for (Map.Entry<String, Histogram> e : new TreeMap<>(stages).entrySet()) {
+        ObjectNode line = e.getValue().drain();
+        if (line == null) continue;
+        ObjectNode event = event(timestamp, "Stage", e.getKey(), "StageLatency", "Microseconds");
+        event.set("StageLatency", line);
+        sink.accept(event.toString());
+      }
+      for (Map.Entry<String, LongAdder> e : new TreeMap<>(outcomes).entrySet()) {
+        long count = e.getValue().sumThenReset();
+        if (count == 0) continue;
+        ObjectNode event = event(timestamp, "Outcome", e.getKey(), "Invocations", "Count");
+        event.put("Invocations", count);
+        sink.accept(event.toString());
+      }
+    } finally {
+      flushing.unlock();
+    }
+  }
+
+  /** Para el hilo y publica lo pendiente; Spring lo llama al cerrar el contexto. */
+  @Override
+  public void close() {
+    if (flusher != null) flusher.shutdownNow();
+    flush();
+  }
+
+  private ObjectNode event(long timestamp, String dimension, String value, String metric, String unit) {
+    ObjectNode event = MAPPER.createObjectNode();
+    ObjectNode directive = event.putObject("_aws").put("Timestamp", timestamp)
+        .putArray("CloudWatchMetrics").addObject();
+    directive.put("Namespace", namespace);
+    directive.putArray("Dimensions").addArray().add("Service").add(dimension);
+    directive.putArray("Metrics").addObject().put("Name", metric).put("Unit", unit);
+    event.put("Service", service);
+    event.put(dimension, value);
+    return event;
+  }
+
+  /**
+   * Cubos log-lineales en µs: exactos hasta 3, luego cuatro por potencia de dos (error &lt; 12,5 %)
+   * hasta ~33 s. Caben en el límite de 100 valores por métrica de EMF.
+   */
+  static final class Histogram {
+    static final int BUCKETS = 96;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    void record(long nanos, int weight) {
+      counts.addAndGet(bucket(nanos / 1_000), weight);
+    }
+
+    /** {@code {"Values":[...],"Counts":[...]}} con lo acumulado desde el último drain, o {@code null}. */
+    ObjectNode drain() {
+      List<long[]> nonEmpty = new ArrayList<>();
+      for (int i = 0; i < BUCKETS; i++) {
+        long n = counts.getAndSet(i, 0);
+        if (n > 0) nonEmpty.add(new long[]{value(i), n});
+      }
+      if (nonEmpty.isEmpty()) return null;
+      ObjectNode node = MAPPER.createObjectNode();
+      ArrayNode values = node.putArray("Values");
+      ArrayNode counts = node.putArray("Counts");
+      for (long[] vc : nonEmpty) {
+        values.add(vc[0]);
+        counts.add(vc[1]);
+      }
+      return node;
+    }
+
+    static int bucket(long micros) {
+      if (micros < 4) return (int) Math.max(0, micros);
+      int octave = 63 - Long.numberOfLeadingZeros(micros);
+      int index = 4 + (octave - 2) * 4 + (int) ((micros >>> (octave - 2)) & 3);
+      return Math.min(index, BUCKETS - 1);
+    }
+
+    /** Punto medio del cubo. */
+    static long value(int bucket) {
+      if (bucket < 4) return bucket;
+      int shift = (bucket - 4) / 4;
+      long lower = (4L + (bucket - 4) % 4) << shift;
+      return lower + ((1L << shift) >> 1);
+    }
+  }
+}
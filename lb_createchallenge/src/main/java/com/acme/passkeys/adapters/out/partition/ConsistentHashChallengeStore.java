@@ -0,0 +1,181 @@
+package com.acme.passkeys.adapters.out.partition;
+
+import com.acme.passkeys.application.ports.out.ChallengeStore;
+import com.acme.passkeys.domain.model.Challenge;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Reparte los challenges entre varios backends por transactionId usando hashing consistente.
+ * Con {@code hedgeDelay} definido cada challenge se replica en el siguiente nodo del anillo y,
+ * si el primario tarda más que ese umbral en una lectura, se lanza la misma lectura a la réplica.
+ */
+public class ConsistentHashChallengeStore implements ChallengeStore {
+
+  private final int virtualNodes;
+  private final Duration hedgeDelay; // null = sin réplica ni hedging
+  private final Executor executor;
+
+  private final Map<String, ChallengeStore> backends = new ConcurrentHashMap<>();
+  private final Map<String, Counters> counters = new ConcurrentHashMap<>();
+  private volatile HashRing ring = HashRing.of(List.of(), 1);
+
+  public ConsistentHashChallengeStore(int virtualNodes) {
+    this(virtualNodes, null, Runnable::run);
+  }
+
+  public ConsistentHashChallengeStore(int virtualNodes, Duration hedgeDelay, Executor executor) {
+    if (virtualNodes <= 0) throw new IllegalArgumentException("virtualNodes must be > 0");
+    this.virtualNodes = virtualNodes;
+    this.hedgeDelay = hedgeDelay;
+    this.executor = Objects.requireNonNull(executor, "executor");
+  }
+
+  public synchronized void addBackend(String name, ChallengeStore store) {
+    Objects.requireNonNull(name, "name");
+    Objects.requireNonNull(store, "store");
+    if (backends.putIfAbsent(name, store) != null) {
+      throw new IllegalArgumentException("backend already registered: " + name);
+    }
+    counters.put(name, new Counters());
+    ring = HashRing.of(backends.keySet(), virtualNodes);
+  }
+
+  public synchronized void removeBackend(String name) {
+    if (backends.remove(name) == null) return;
+    counters.remove(name);
+    ring = HashRing.of(backends.keySet(), virtualNodes);
+  }
+
+  /** Backend primario de un transactionId (útil para diagnóstico y tests). */
+  public String primaryFor(String transactionId) {
+    return ring.primaryFor(transactionId);
+  }
+
+  @Override
+  public void save(Challenge challenge) {
+    List<String> owners = owners(challenge.id());
+    if (owners.size() == 1) {
+      backend(owners.get(0), Counters::saves).save(challenge);
+      return;
+    }
+    CompletableFuture<Void> replica = CompletableFuture.runAsync(
+        () -> backend(owners.get(1), Counters::saves).save(challenge), executor);
+    backend(owners.get(0), Counters::saves).save(challenge);
+    join(replica);
+  }
+
+  @Override
+  public Optional<Challenge> find(String id) {
+    List<String> owners = owners(id);
+    if (owners.size() == 1) {
+      return backend(owners.get(0), Counters::finds).find(id);
+    }
+    return hedgedFind(id, owners.get(0), owners.get(1));
+  }
+
+  @Override
+  public Optional<Challenge> consume(String id) {
+    List<String> owners = owners(id);
+    Optional<Challenge> primary = backend(owners.get(0), Counters::consumes).consume(id);
+    if (owners.size() == 1) return primary;
+    Optional<Challenge> replica = backend(owners.get(1), Counters::consumes).consume(id);
+    return primary.isPresent() ? primary : replica;
+  }
+
+  public Map<String, PartitionLoad> load() {
+    Map<String, PartitionLoad> out = new LinkedHashMap<>();
+    counters.entrySet().stream()
+        .sorted(Map.Entry.comparingByKey())
+        .forEach(e -> out.put(e.getKey(), e.getValue().snapshot()));
+    return out;
+  }
+
+  private Optional<Challenge> hedgedFind(String id, String primaryName, String replicaName) {
+    CompletableFuture<Optional<Challenge>> primary = CompletableFuture.supplyAsync(
+        () -> backend(primaryName, Counters::finds).find(id), executor);
+    try {
+      return primary.get(hedgeDelay.toNanos(), TimeUnit.NANOSECONDS);
+    } catch (TimeoutException slow) {
+      counters.getOrDefault(primaryName, Counters.DETACHED).hedged.increment();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("interrupted while reading challenge", e);
+    } catch (ExecutionException failed) {
+      // El primario falló: la réplica responde sin esperar
+    }
+
+    CompletableFuture<Optional<Challenge>> replica = CompletableFuture.supplyAsync(
+        () -> backend(replicaName, Counters::finds).find(id), executor);
+
+    // Gana la primera respuesta exitosa; sólo falla si fallan ambos
+    CompletableFuture<Optional<Challenge>> first = new CompletableFuture<>();
+    LongAdder failures = new LongAdder();
+    for (CompletableFuture<Optional<Challenge>> f : List.of(primary, replica)) {
+      f.whenComplete((value, error) -> {
+        if (error == null) {
+          first.complete(value);
+        } else {
+          failures.increment();
+          if (failures.sum() == 2) first.completeExceptionally(error);
+        }
+      });
+    }
+    return join(first);
+  }
+
+  private List<String> owners(String id) {
+    HashRing current = ring;
+    if (current.isEmpty()) throw new IllegalStateException("no challenge store backends configured");
+    return current.nodesFor(id, hedgeDelay == null ? 1 : 2);
+  }
+
+  private ChallengeStore backend(String name, Function<Counters, LongAdder> metric) {
+    ChallengeStore store = backends.get(name);
+    if (store == null) throw new IllegalStateException("challenge store backend removed: " + name);
+    metric.apply(counters.getOrDefault(name, Counters.DETACHED)).increment();
+    return store;
+  }
+
+  private static <T> T join(CompletableFuture<T> f) {
+    try {
+      return f.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException re) throw re;
+      throw e;
+    }
+  }
+
+  public record PartitionLoad(long saves, long finds, long consumes, long hedgedReads) {}
+
+  private static final class Counters {
+    static final Counters DETACHED = new Counters();
+
+    final LongAdder saves = new LongAdder();
+    final LongAdder finds = new LongAdder();
+    final LongAdder consumes = new LongAdder();
+    final LongAdder hedged = new LongAdder();
+
+    LongAdder saves() { return saves; }
+    LongAdder finds() { return finds; }
+    LongAdder consumes() { return consumes; }
+
+    PartitionLoad snapshot() {
+      return new PartitionLoad(saves.sum(), finds.sum(), consumes.sum(), hedged.sum());
+    }
+  }
+}
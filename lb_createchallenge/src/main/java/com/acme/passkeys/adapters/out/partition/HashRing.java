@@ -0,0 +1,84 @@
+package com.acme.passkeys.adapters.out.partition;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/** Anillo de hashing consistente inmutable con nodos virtuales. */
+final class HashRing {
+
+  private final long[] points;
+  private final String[] owners;
+  private final int distinctNodes;
+
+  private HashRing(long[] points, String[] owners, int distinctNodes) {
+    this.points = points;
+    this.owners = owners;
+    this.distinctNodes = distinctNodes;
+  }
+
+  static HashRing of(Collection<String> nodes, int virtualNodes) {
+    if (virtualNodes <= 0) throw new IllegalArgumentException("virtualNodes must be > 0");
+    TreeMap<Long, String> ring = new TreeMap<>();
+    for (String node : nodes) {
+      for (int i = 0; i < virtualNodes; i++) {
+        // En una colisión (improbable) gana el nombre menor para que el anillo sea determinista
+        ring.merge(hash(node + "#" + i), node, (a, b) -> a.compareTo(b) <= 0 ? a : b);
+      }
+    }
+    long[] points = new long[ring.size()];
+    String[] owners = new String[ring.size()];
+    int i = 0;
+    for (Map.Entry<Long, String> e : ring.entrySet()) {
+      points[i] = e.getKey();
+      owners[i] = e.getValue();
+      i++;
+    }
+    return new HashRing(points, owners, nodes.size());
+  }
+
+  boolean isEmpty() {
+    return points.length == 0;
+  }
+
+  /** Hasta {@code count} nodos distintos en sentido horario a partir del hash de {@code key}. */
+  List<String> nodesFor(String key, int count) {
+    int wanted = Math.min(count, distinctNodes);
+    List<String> out = new ArrayList<>(wanted);
+    if (points.length == 0 || wanted == 0) return out;
+
+    int idx = Arrays.binarySearch(points, hash(key));
+    if (idx < 0) idx = -idx - 1;
+
+    for (int step = 0; step < points.length && out.size() < wanted; step++) {
+      String owner = owners[(idx + step) % points.length];
+      if (!out.contains(owner)) out.add(owner);
+    }
+    return out;
+  }
+
+  String primaryFor(String key) {
+    List<String> nodes = nodesFor(key, 1);
+    if (nodes.isEmpty()) throw new IllegalStateException("no challenge store backends configured");
+    return nodes.get(0);
+  }
+
+  // FNV-1a de 64 bits con el finalizador de MurmurHash3 para repartir bien claves parecidas
+  static long hash(String key) {
+    long h = 0xcbf29ce484222325L;
+    for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+      h ^= (b & 0xff);
+      h *= 0x100000001b3L;
+    }
+    h ^= h >>> 33;
+    h *= 0xff51afd7ed558ccdL;
+    h ^= h >>> 33;
+    h *= 0xc4ceb9fe1a85ec53L;
+    h ^= h >>> 33;
+    return h;
+  }
+}
@@ -0,0 +1,186 @@
+package com.acme.passkeys.adapters.out.resilience;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Circuit breaker por conteo: abre cuando, sobre las últimas {@code windowSize} llamadas,
+ * la tasa de errores o de llamadas lentas supera su umbral. Tras {@code openDuration}
+ * deja pasar {@code halfOpenProbes} llamadas de prueba y cierra si todas van bien.
+ */
+public class CircuitBreaker {
+
+  public enum State { CLOSED, OPEN, HALF_OPEN }
+
+  public record Settings(
+      int windowSize,
+      int minimumCalls,
+      double failureRateThreshold,
+      Duration slowCallThreshold,
+      double slowCallRateThreshold,
+      Duration openDuration,
+      int halfOpenProbes
+  ) {
+    public Settings {
+      if (windowSize <= 0) throw new IllegalArgumentException("windowSize must be > 0");
+      if (minimumCalls <= 0 || minimumCalls > windowSize) throw new IllegalArgumentException("minimumCalls must be 1..windowSize");
+      if (halfOpenProbes <= 0) throw new IllegalArgumentException("halfOpenProbes must be > 0");
+      Objects.requireNonNull(slowCallThreshold, "slowCallThreshold");
+      Objects.requireNonNull(openDuration, "openDuration");
+    }
+
+    public static Settings defaults() {
+      return new Settings(50, 20, 0.5, Duration.ofMillis(250), 0.5, Duration.ofSeconds(10), 3);
+    }
+  }
+
+  public record Transition(State from, State to) {}
+
+  public record Stats(
+      State state,
+      long toOpen,
+      long toHalfOpen,
+      long toClosed,
+      long rejected,
+      double failureRate,
+      double slowCallRate
+  ) {}
+
+  private static final byte OK = 0;
+  private static final byte FAILED = 1;
+  private static final byte SLOW = 2;
+
+  private final Settings settings;
+  private final Clock clock;
+  private final Consumer<Transition> listener;
+
+  private final byte[] window;
+  private int windowPos;
+  private int windowCount;
+  private int failures;
+  private int slow;
+
+  private State state = State.CLOSED;
+  private Instant openedAt;
+  private int probesIssued;
+  private int probesSucceeded;
+
+  private final LongAdder toOpen = new LongAdder();
+  private final LongAdder toHalfOpen = new LongAdder();
+  private final LongAdder toClosed = new LongAdder();
+  private final LongAdder rejected = new LongAdder();
+
+  public CircuitBreaker(Settings settings, Clock clock) {
+    this(settings, clock, t -> { });
+  }
+
+  public CircuitBreaker(Settings settings, Clock clock, Consumer<Transition> listener) {
+    this.settings = Objects.requireNonNull(settings, "settings");
+    this.clock = Objects.requireNonNull(clock, "clock");
+    this.listener = Objects.requireNonNull(listener, "listener");
+    this.window = new byte[settings.windowSize()];
+  }
+
+  /** {@code true} si la llamada puede ir al store. */
+  public synchronized boolean tryAcquire() {
+    switch (state) {
+      case CLOSED:
+        return true;
+      case OPEN:
+        if (Instant.now(clock).isBefore(openedAt.plus(settings.openDuration()))) {
+          rejected.increment();
+          return false;
+        }
+        transition(State.HALF_OPEN);
+        // fallthrough: la primera llamada tras el periodo abierto es una sonda
+      case HALF_OPEN:
+      default:
+        if (probesIssued < settings.halfOpenProbes()) {
+          probesIssued++;
+          return true;
+        }
+        rejected.increment();
+        return false;
+    }
+  }
+
+  public synchronized void onSuccess(Duration elapsed) {
+    record(elapsed.compareTo(settings.slowCallThreshold()) > 0 ? SLOW : OK);
+  }
+
+  public synchronized void onFailure() {
+    record(FAILED);
+  }
+
+  public synchronized State state() {
+    return state;
+  }
+
+  public synchronized Stats stats() {
+    return new Stats(state, toOpen.sum(), toHalfOpen.sum(), toClosed.sum(), rejected.sum(), rate(failures), rate(slow));
+  }
+
+  private void record(byte outcome) {
+    if (state == State.HALF_OPEN) {
+      if (outcome != OK) {
+        transition(State.OPEN);
+      } else if (++probesSucceeded >= settings.halfOpenProbes()) {
+        transition(State.CLOSED);
+      }
+      return;
+    }
+    if (state == State.OPEN) return; // respuesta tardía de una llamada previa a la apertura
+
+    if (windowCount == window.length) {
+      forget(window[windowPos]);
+    } else {
+      windowCount++;
+    }
+    window[windowPos] = outcome;
+    windowPos = (windowPos + 1) % window.length;
+    if (outcome == FAILED) failures++;
+    if (outcome == SLOW) slow++;
+
+    if (windowCount >= settings.minimumCalls()
+        && (rate(failures) >= settings.failureRateThreshold() || rate(slow) >= settings.slowCallRateThreshold())) {
+      transition(State.OPEN);
+    }
+  }
+
+  private void forget(byte outcome) {
+    if (outcome == FAILED) failures--;
+    if (outcome == SLOW) slow--;
+  }
+
+  private double rate(int count) {
+    return windowCount == 0 ? 0.0 : (double) count / windowCount;
+  }
+
+  private void transition(State to) {
+    State from = state;
+    state = to;
+    switch (to) {
+      case OPEN -> {
+        openedAt = Instant.now(clock);
+        toOpen.increment();
+      }
+      case HALF_OPEN -> {
+        probesIssued = 0;
+        probesSucceeded = 0;
+        toHalfOpen.increment();
+      }
+      case CLOSED -> {
+        windowPos = 0;
+        windowCount = 0;
+        failures = 0;
+        slow = 0;
+        toClosed.increment();
+      }
+    }
+    listener.accept(new Transition(from, to));
+  }
+}
@@ -0,0 +1,64 @@
+package com.acme.passkeys.adapters.out.resilience;
+
+import com.acme.passkeys.application.ports.out.ChallengeStore;
+import com.acme.passkeys.application.ports.out.ChallengeStoreUnavailableException;
+import com.acme.passkeys.domain.model.Challenge;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Protege un {@link ChallengeStore} con un {@link CircuitBreaker}. Con el circuito abierto
+ * falla de inmediato; cualquier error del store se reporta como
+ * {@link ChallengeStoreUnavailableException} para que el servicio pueda degradar.
+ */
+public class CircuitBreakerChallengeStore implements ChallengeStore {
+
+  private final ChallengeStore delegate;
+  private final CircuitBreaker breaker;
+
+  public CircuitBreakerChallengeStore(ChallengeStore delegate, CircuitBreaker breaker) {
+    this.delegate = Objects.requireNonNull(delegate, "delegate");
+    this.breaker = Objects.requireNonNull(breaker, "breaker");
+  }
+
+  @Override
+  public void save(Challenge challenge) {
+    call(() -> {
+      delegate.save(challenge);
+      return null;
+    });
+  }
+
+  @Override
+  public Optional<Challenge> find(String id) {
+    return call(() -> delegate.find(id));
+  }
+
+  @Override
+  public Optional<Challenge> consume(String id) {
+    return call(() -> delegate.consume(id));
+  }
+
+  public CircuitBreaker breaker() {
+    return breaker;
+  }
+
+  private <T> T call(Supplier<T> op) {
+    if (!breaker.tryAcquire()) {
+      throw new ChallengeStoreUnavailableException("challenge store circuit is open");
+    }
+    long start = System.nanoTime();
+    T result;
+    try {
+      result = op.get();
+    } catch (RuntimeException e) {
+      breaker.onFailure();
+      throw new ChallengeStoreUnavailableException("challenge store failed", e);
+    }
+    breaker.onSuccess(Duration.ofNanos(System.nanoTime() - start));
+    return result;
+  }
+}
@@ -0,0 +1,15 @@
+package com.acme.passkeys.application.ports.in;
+
+import com.acme.passkeys.adapters.in.function.dto.ChallengeRequest;
+import com.acme.passkeys.adapters.in.function.dto.ChallengeResponse;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+public interface CreateChallengeAsyncUseCase {
+  /**
+   * Emite el challenge sin bloquear. Si el store no confirma dentro de {@code deadline}
+   * el future termina con {@link java.util.concurrent.TimeoutException}.
+   */
+  CompletableFuture<ChallengeResponse> handleAsync(ChallengeRequest request, Duration deadline);
+}
@@ -5,4 +5,13 @@ import com.acme.passkeys.adapters.in.function.dto.ChallengeResponse;
 
 public interface CreateChallengeUseCase {
   ChallengeResponse handle(ChallengeRequest request);
+
+  /**
+   * Como {@link #handle(ChallengeRequest)}, pero sin empezar etapas que no quepan en {@code deadline}.
+   *
+   * @throws DeadlineExceededException si no queda tiempo
+   */
+  default ChallengeResponse handle(ChallengeRequest request, Deadline deadline) {
+    return handle(request);
+  }
 }
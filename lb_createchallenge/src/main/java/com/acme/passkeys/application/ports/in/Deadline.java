@@ -0,0 +1,41 @@
+package com.acme.passkeys.application.ports.in;
+
+import java.time.Duration;
+
+/**
+ * Tiempo que le queda a una invocación, sobre {@link System#nanoTime()}. Lo fija el adapter de entrada (el contexto
+ * de Lambda) y los casos de uso lo consultan antes de cada etapa cara con su coste estimado: si no cabe, fallan en el
+ * acto en lugar de gastar CPU y escrituras en una respuesta que llegaría tarde.
+ */
+public final class Deadline {
+
+  /** Sin límite: invocaciones sin contexto (Spring Cloud Function, tests, benchmarks). */
+  public static final Deadline NONE = new Deadline(0, false);
+
+  private final long atNanos;
+  private final boolean bounded;
+
+  private Deadline(long atNanos, boolean bounded) {
+    this.atNanos = atNanos;
+    this.bounded = bounded;
+  }
+
+  public static Deadline in(Duration remaining) {
+    return new Deadline(System.nanoTime() + remaining.toNanos(), true);
+  }
+
+  /** {@code Long.MAX_VALUE} sin límite; negativo si ya pasó. */
+  public long remainingNanos() {
+    return bounded ? atNanos - System.nanoTime() : Long.MAX_VALUE;
+  }
+
+  /** Queda tiempo para una etapa de coste {@code cost}. */
+  public boolean allows(Duration cost) {
+    return remainingNanos() >= cost.toNanos();
+  }
+
+  /** @throws DeadlineExceededException si no queda tiempo para {@code stage} */
+  public void check(String stage, Duration cost) {
+    if (!allows(cost)) throw new DeadlineExceededException(stage);
+  }
+}
@@ -0,0 +1,16 @@
+package com.acme.passkeys.application.ports.in;
+
+/** No queda tiempo para empezar {@link #stage()}: la invocación se corta antes de hacer el trabajo. */
+public class DeadlineExceededException extends RuntimeException {
+
+  private final String stage;
+
+  public DeadlineExceededException(String stage) {
+    super("deadline exceeded before " + stage);
+    this.stage = stage;
+  }
+
+  public String stage() {
+    return stage;
+  }
+}
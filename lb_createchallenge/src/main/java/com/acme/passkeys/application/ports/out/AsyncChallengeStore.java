@@ -0,0 +1,14 @@
+package com.acme.passkeys.application.ports.out;
+
+import com.acme.passkeys.domain.model.Challenge;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+public interface AsyncChallengeStore {
+  CompletableFuture<Void> saveAsync(Challenge challenge);
+
+  CompletableFuture<Optional<Challenge>> findAsync(String id);
+
+  CompletableFuture<Optional<Challenge>> consumeAsync(String id);
+}
@@ -0,0 +1,26 @@
+package com.acme.passkeys.application.ports.out;
+
+/**
+ * Rastro de auditoría de cada ceremonia: challenge emitido, registro y autenticación, con su resultado.
+ * Se llama en el camino caliente: {@link #record} nunca bloquea y, si la implementación no da abasto,
+ * descarta el evento y lo cuenta.
+ *
+ * <p>{@code outcome} usa los mismos motivos de baja cardinalidad que {@link StageMetrics}.
+ */
+@FunctionalInterface
+public interface AuditLog extends AutoCloseable {
+
+  enum Ceremony { CHALLENGE, REGISTRATION, AUTHENTICATION }
+
+  AuditLog NOOP = (ceremony, outcome, subject, rpId) -> true;
+
+  /**
+   * @param subject userId del challenge o credentialId (base64url) de la ceremonia; {@code null} si no se conoce
+   * @return {@code false} si el evento se descartó
+   */
+  boolean record(Ceremony ceremony, String outcome, String subject, String rpId);
+
+  /** Vacía lo pendiente y libera los ficheros; los eventos posteriores se descartan. */
+  @Override
+  default void close() {}
+}
@@ -0,0 +1,33 @@
+package com.acme.passkeys.application.ports.out;
+
+import com.acme.passkeys.domain.model.ChallengeType;
+
+/**
+ * Traza de cada emisión de challenge, desde que termina la validación hasta que queda guardado o sellado, para
+ * perfilar las lentas. Sin identificadores de usuario ni de transacción.
+ */
+@FunctionalInterface
+public interface ChallengeIssuanceTrace {
+
+  ChallengeIssuanceTrace NOOP = (rpId, type, algorithm) -> Span.NOOP;
+
+  /** Empieza la traza de una emisión con el algoritmo del generador. */
+  Span start(String rpId, ChallengeType type, String algorithm);
+
+  interface Span {
+
+    Span NOOP = new Span() {
+      @Override
+      public void sealed(String algorithm) {}
+
+      @Override
+      public void complete(String outcome, String challengeB64Url) {}
+    };
+
+    /** El store no respondió y el challenge se sella con {@code algorithm}. */
+    void sealed(String algorithm);
+
+    /** Cierra la traza; {@code challengeB64Url} es {@code null} si no se emitió. */
+    void complete(String outcome, String challengeB64Url);
+  }
+}
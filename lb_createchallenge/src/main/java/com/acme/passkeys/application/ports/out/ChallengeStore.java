@@ -2,6 +2,13 @@ package com.acme.passkeys.application.ports.out;
 
 import com.acme.passkeys.domain.model.Challenge;
 
+import java.util.Optional;
+
 public interface ChallengeStore {
   void save(Challenge challenge);
+
+  Optional<Challenge> find(String id);
+
+  /** Elimina y devuelve el challenge: cada challenge se usa una sola vez. */
+  Optional<Challenge> consume(String id);
 }
@@ -0,0 +1,12 @@
+package com.acme.passkeys.application.ports.out;
+
+/** El store no está disponible (circuito abierto, error o timeout). */
+public class ChallengeStoreUnavailableException extends RuntimeException {
+  public ChallengeStoreUnavailableException(String message) {
+    super(message);
+  }
+
+  public ChallengeStoreUnavailableException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
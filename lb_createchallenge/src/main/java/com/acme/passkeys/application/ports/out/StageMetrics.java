@@ -0,0 +1,85 @@
+package com.acme.passkeys.application.ports.out;
+
+/**
+ * Tiempos por etapa y resultado de cada invocación. Se llama en el camino caliente: las
+ * implementaciones agregan en memoria y publican fuera de la petición, y pueden muestrear los
+ * tiempos devolviendo {@link #UNSAMPLED} en {@link #start()} (las etapas de esa medición no
+ * leen el reloj). Los contadores de resultado no se muestrean.
+ *
+ * <p>Los motivos de resultado deben ser de baja cardinalidad ({@link #OK}, {@link #INVALID_REQUEST},
+ * {@link #DEADLINE_EXCEEDED} o el nombre de la excepción vía {@link #reason(Throwable)}), nunca mensajes con
+ * datos de la petición.
+ */
+public interface StageMetrics {
+
+  String OK = "ok";
+  String INVALID_REQUEST = "invalid_request";
+  String DEADLINE_EXCEEDED = "deadline_exceeded";
+  String TOTAL = "total";
+  long UNSAMPLED = Long.MIN_VALUE;
+
+  StageMetrics NOOP = new StageMetrics() {
+    @Override
+    public long start() {
+      return UNSAMPLED;
+    }
+
+    @Override
+    public void recordStage(String stage, long nanos) {}
+
+    @Override
+    public void recordOutcome(String reason) {}
+  };
+
+  void recordStage(String stage, long nanos);
+
+  void recordOutcome(String reason);
+
+  /** Inicio de una medición: {@link System#nanoTime()}, o {@link #UNSAMPLED} si no se mide. */
+  default long start() {
+    return System.nanoTime();
+  }
+
+  /** Registra la etapa que empezó en {@code startNanos} y devuelve el instante actual (inicio de la siguiente). */
+  default long lap(String stage, long startNanos) {
+    if (startNanos == UNSAMPLED) return UNSAMPLED;
+    long now = System.nanoTime();
+    recordStage(stage, now - startNanos);
+    return now;
+  }
+
+  /** Cierra la invocación: latencia total desde {@code startNanos} y contador por motivo. */
+  default void complete(String reason, long startNanos) {
+    if (startNanos != UNSAMPLED) lap(TOTAL, startNanos);
+    recordOutcome(reason);
+  }
+
+  /**
+   * Vista para un caso de uso anidado en otra invocación: etapas {@code stagePrefix + stage} y motivos
+   * {@code reasonPrefix + reason}, para que su {@link #TOTAL} y su {@link #OK} no cuenten como los de la invocación.
+   */
+  static StageMetrics nested(StageMetrics metrics, String stagePrefix, String reasonPrefix) {
+    if (metrics == NOOP) return NOOP;
+    return new StageMetrics() {
+      @Override
+      public long start() {
+        return metrics.start();
+      }
+
+      @Override
+      public void recordStage(String stage, long nanos) {
+        metrics.recordStage(stagePrefix + stage, nanos);
+      }
+
+      @Override
+      public void recordOutcome(String reason) {
+        metrics.recordOutcome(reasonPrefix + reason);
+      }
+    };
+  }
+
+  static String reason(Throwable e) {
+    String name = e.getClass().getSimpleName();
+    return name.isEmpty() ? "unknown" : name;
+  }
+}
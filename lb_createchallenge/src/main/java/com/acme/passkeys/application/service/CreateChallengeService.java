@@ -2,44 +2,297 @@ package com.acme.passkeys.application.service;
 
 import com.acme.passkeys.adapters.in.function.dto.ChallengeRequest;
 import com.acme.passkeys.adapters.in.function.dto.ChallengeResponse;
+import com.acme.passkeys.application.ports.in.CreateChallengeAsyncUseCase;
 import com.acme.passkeys.application.ports.in.CreateChallengeUseCase;
+import com.acme.passkeys.application.ports.in.Deadline;
+import com.acme.passkeys.application.ports.in.DeadlineExceededException;
+import com.acme.passkeys.application.ports.out.AsyncChallengeStore;
+import com.acme.passkeys.application.ports.out.AuditLog;
+import com.acme.passkeys.application.ports.out.ChallengeIssuanceTrace;
 import com.acme.passkeys.application.ports.out.ChallengeStore;
+import com.acme.passkeys.application.ports.out.ChallengeStoreUnavailableException;
+import com.acme.passkeys.application.ports.out.StageMetrics;
 import com.acme.passkeys.domain.model.Challenge;
 import com.acme.passkeys.domain.model.ChallengeType;
 import com.acme.passkeys.domain.service.ChallengeGenerator;
+import com.acme.passkeys.domain.service.ChallengeSealer;
 
 import java.time.Clock;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.Locale;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
 
-public class CreateChallengeService implements CreateChallengeUseCase {
+public class CreateChallengeService implements CreateChallengeUseCase, CreateChallengeAsyncUseCase {
+
+  public static final Duration DEFAULT_IDEMPOTENCY_WINDOW = Duration.ofSeconds(30);
+  /** Coste estimado de la escritura en el store: sin ese tiempo por delante no se empieza. */
+  public static final Duration DEFAULT_STORE_COST = Duration.ofMillis(10);
+
+  /**
+   * Lo opcional de la emisión; {@link #DEFAULTS} no degrada ni observa nada.
+   *
+   * @param sealer    sella el challenge si el store no está disponible; {@code null} = sin modo degradado
+   * @param storeCost tiempo que debe quedar para empezar la escritura en el store
+   */
+  public record Options(
+      ChallengeSealer sealer,
+      StageMetrics metrics,
+      AuditLog audit,
+      ChallengeIssuanceTrace trace,
+      Duration storeCost
+  ) {
+    public static final Options DEFAULTS =
+        new Options(null, StageMetrics.NOOP, AuditLog.NOOP, ChallengeIssuanceTrace.NOOP, DEFAULT_STORE_COST);
+
+    public Options {
+      Objects.requireNonNull(metrics, "metrics");
+      Objects.requireNonNull(audit, "audit");
+      Objects.requireNonNull(trace, "trace");
+      Objects.requireNonNull(storeCost, "storeCost");
+    }
+
+    public Options withSealer(ChallengeSealer sealer) {
+      return new Options(sealer, metrics, audit, trace, storeCost);
+    }
+
+    public Options withMetrics(StageMetrics metrics) {
+      return new Options(sealer, metrics, audit, trace, storeCost);
+    }
+
+    public Options withAudit(AuditLog audit) {
+      return new Options(sealer, metrics, audit, trace, storeCost);
+    }
+
+    public Options withTrace(ChallengeIssuanceTrace trace) {
+      return new Options(sealer, metrics, audit, trace, storeCost);
+    }
+
+    public Options withStoreCost(Duration storeCost) {
+      return new Options(sealer, metrics, audit, trace, storeCost);
+    }
+  }
 
   private final ChallengeGenerator generator;
   private final ChallengeStore store;
+  private final AsyncChallengeStore asyncStore;
   private final Clock clock;
+  private final IssuedChallengeCache issued;
+  private final ChallengeSealer sealer; // null = sin modo degradado
+  private final StageMetrics metrics;
+  private final AuditLog audit;
+  private final ChallengeIssuanceTrace trace;
+  private final Duration storeCost;
 
-  public CreateChallengeService(ChallengeGenerator generator, ChallengeStore store, Clock clock) {
-    this.generator = generator;
-    this.store = store;
-    this.clock = clock;
+  /**
+   * @param store      para {@link #handle}
+   * @param asyncStore para {@link #handleAsync}; normalmente el mismo store ejecutado en otro executor
+   */
+  public CreateChallengeService(
+      ChallengeGenerator generator,
+      ChallengeStore store,
+      AsyncChallengeStore asyncStore,
+      Clock clock,
+      IssuedChallengeCache issued,
+      Options options
+  ) {
+    this.generator = Objects.requireNonNull(generator, "generator");
+    this.store = Objects.requireNonNull(store, "store");
+    this.asyncStore = Objects.requireNonNull(asyncStore, "asyncStore");
+    this.clock = Objects.requireNonNull(clock, "clock");
+    this.issued = Objects.requireNonNull(issued, "issued");
+    this.sealer = options.sealer();
+    this.metrics = options.metrics();
+    this.audit = options.audit();
+    this.trace = options.trace();
+    this.storeCost = options.storeCost();
   }
 
   @Override
   public ChallengeResponse handle(ChallengeRequest request) {
-    validate(request);
+    return handle(request, Deadline.NONE);
+  }
+
+  @Override
+  public ChallengeResponse handle(ChallengeRequest request, Deadline deadline) {
+    long start = metrics.start();
+    ChallengeType type;
+    try {
+      validate(request);
+      type = ChallengeType.valueOf(request.type().toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      complete(request, StageMetrics.INVALID_REQUEST, start);
+      throw e;
+    }
+    long issuing = metrics.lap("validateRequest", start);
+
+    try {
+      ChallengeResponse response = isBlank(request.transactionId())
+          ? issue(request, type, UUID.randomUUID().toString(), issuing, deadline)
+          // Reintentos con el mismo transactionId reciben el challenge ya emitido
+          : issued.getOrIssue(
+              request.transactionId(),
+              IssuedChallengeCache.Fingerprint.of(request, type),
+              () -> issue(request, type, request.transactionId(), issuing, deadline)
+          );
+      complete(request, StageMetrics.OK, start);
+      return response;
+    } catch (DeadlineExceededException e) {
+      complete(request, StageMetrics.DEADLINE_EXCEEDED, start);
+      throw e;
+    } catch (RuntimeException e) {
+      complete(request, StageMetrics.reason(e), start);
+      throw e;
+    }
+  }
+
+  @Override
+  public CompletableFuture<ChallengeResponse> handleAsync(ChallengeRequest request, Duration deadline) {
+    long start = metrics.start();
+    ChallengeType type;
+    try {
+      validate(request);
+      if (deadline == null || deadline.isNegative() || deadline.isZero()) {
+        throw new IllegalArgumentException("deadline must be > 0");
+      }
+      type = ChallengeType.valueOf(request.type().toUpperCase(Locale.ROOT));
+    } catch (RuntimeException e) {
+      complete(request, StageMetrics.INVALID_REQUEST, start);
+      return CompletableFuture.failedFuture(e);
+    }
+    long issuing = metrics.lap("validateRequest", start);
+
+    CompletableFuture<ChallengeResponse> response = isBlank(request.transactionId())
+        ? issueAsync(request, type, UUID.randomUUID().toString(), issuing)
+        : issued.getOrIssueAsync(
+            request.transactionId(),
+            IssuedChallengeCache.Fingerprint.of(request, type),
+            () -> issueAsync(request, type, request.transactionId(), issuing)
+        );
 
-    ChallengeType type = ChallengeType.valueOf(request.type().toUpperCase(Locale.ROOT));
+    CompletableFuture<ChallengeResponse> bounded = response.orTimeout(deadline.toNanos(), TimeUnit.NANOSECONDS);
+    bounded.whenComplete((r, error) -> complete(request, error == null ? StageMetrics.OK : StageMetrics.reason(cause(error)), start));
+    return bounded;
+  }
+
+  // startNanos: fin de la validación, así una invocación sólo decide una vez si se mide
+  private ChallengeResponse issue(
+      ChallengeRequest request,
+      ChallengeType type,
+      String transactionId,
+      long startNanos,
+      Deadline deadline
+  ) {
+    ChallengeIssuanceTrace.Span event = trace.start(request.rpId(), type, generator.algorithm());
+    try {
+      Challenge ch = newChallenge(request, type, transactionId);
+      long saving = metrics.lap("generate", startNanos);
+      deadline.check("store", storeCost);
+      try {
+        store.save(ch);
+      } catch (ChallengeStoreUnavailableException e) {
+        if (sealer == null) throw e;
+        long sealing = metrics.lap("store", saving);
+        event.sealed(sealer.algorithm());
+        ChallengeResponse sealed = ChallengeResponse.from(sealedChallenge(request, type, transactionId));
+        metrics.lap("seal", sealing);
+        event.complete(StageMetrics.OK, sealed.challenge());
+        return sealed;
+      }
+      metrics.lap("store", saving);
+      event.complete(StageMetrics.OK, ch.challengeB64Url());
+      return ChallengeResponse.from(ch);
+    } catch (RuntimeException e) {
+      event.complete(StageMetrics.reason(e), null);
+      throw e;
+    }
+  }
+
+  private CompletableFuture<ChallengeResponse> issueAsync(
+      ChallengeRequest request,
+      ChallengeType type,
+      String transactionId,
+      long startNanos
+  ) {
+    ChallengeIssuanceTrace.Span event = trace.start(request.rpId(), type, generator.algorithm());
+    Challenge ch;
+    try {
+      ch = newChallenge(request, type, transactionId);
+    } catch (RuntimeException e) {
+      event.complete(StageMetrics.reason(e), null);
+      throw e;
+    }
+    long saving = metrics.lap("generate", startNanos);
+    CompletableFuture<Void> saved = asyncStore.saveAsync(ch);
+    // La respuesta se construye mientras la escritura está en vuelo
+    ChallengeResponse response = ChallengeResponse.from(ch);
+    return saved.handle((ignored, error) -> {
+      long sealing = metrics.lap("store", saving);
+      if (error == null) {
+        event.complete(StageMetrics.OK, response.challenge());
+        return CompletableFuture.completedFuture(response);
+      }
+      Throwable cause = cause(error);
+      if (sealer != null && cause instanceof ChallengeStoreUnavailableException) {
+        event.sealed(sealer.algorithm());
+        ChallengeResponse sealed;
+        try {
+          sealed = ChallengeResponse.from(sealedChallenge(request, type, transactionId));
+        } catch (RuntimeException e) {
+          event.complete(StageMetrics.reason(e), null);
+          throw e;
+        }
+        metrics.lap("seal", sealing);
+        event.complete(StageMetrics.OK, sealed.challenge());
+        return CompletableFuture.completedFuture(sealed);
+      }
+      event.complete(StageMetrics.reason(cause), null);
+      return CompletableFuture.<ChallengeResponse>failedFuture(cause);
+    }).thenCompose(f -> f);
+  }
+
+  private void complete(ChallengeRequest request, String reason, long start) {
+    metrics.complete(reason, start);
+    audit.record(AuditLog.Ceremony.CHALLENGE, reason, request == null ? null : request.userId(), request == null ? null : request.rpId());
+  }
+
+  private static Throwable cause(Throwable error) {
+    return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+  }
+
+  // Store degradado: el challenge se auto-verifica y no hace falta persistirlo
+  private Challenge sealedChallenge(ChallengeRequest request, ChallengeType type, String transactionId) {
+    Instant now = Instant.now(clock);
+    Instant expiresAt = now.plusSeconds(request.ttlSeconds());
+    String challenge = sealer.seal(
+        new ChallengeSealer.SealedContext(transactionId, request.userId(), type, request.rpId(), request.origin(), expiresAt),
+        request.challengeBytes()
+    );
+    return challenge(request, type, transactionId, challenge, now, expiresAt);
+  }
+
+  private Challenge newChallenge(ChallengeRequest request, ChallengeType type, String transactionId) {
     String challenge = generator.generateBase64UrlChallenge(request.challengeBytes());
 
     Instant now = Instant.now(clock);
     Instant expiresAt = now.plusSeconds(request.ttlSeconds());
 
-    String transactionId = (request.transactionId() == null || request.transactionId().isBlank())
-        ? UUID.randomUUID().toString()
-        : request.transactionId();
+    return challenge(request, type, transactionId, challenge, now, expiresAt);
+  }
 
-    Challenge ch = new Challenge(
+  private static Challenge challenge(
+      ChallengeRequest request,
+      ChallengeType type,
+      String transactionId,
+      String challenge,
+      Instant now,
+      Instant expiresAt
+  ) {
+    return new Challenge(
         transactionId,
         request.userId(),
         type,
@@ -50,9 +303,6 @@ public class CreateChallengeService implements CreateChallengeUseCase {
         now,
         expiresAt
     );
-
-    store.save(ch);
-    return ChallengeResponse.from(ch);
   }
 
   private static void validate(ChallengeRequest r) {
@@ -0,0 +1,166 @@
+package com.acme.passkeys.application.service;
+
+import com.acme.passkeys.adapters.in.function.dto.ChallengeRequest;
+import com.acme.passkeys.adapters.in.function.dto.ChallengeResponse;
+import com.acme.passkeys.domain.model.ChallengeType;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Cache de corta duración de challenges emitidos por transactionId.
+ * Un reintento con los mismos parámetros recibe la misma respuesta y las
+ * peticiones concurrentes duplicadas esperan a la única emisión en curso.
+ * Una emisión en curso tampoco se retiene más que {@code retention}: si no termina
+ * a tiempo sus esperas fallan con {@link java.util.concurrent.TimeoutException}
+ * y el siguiente reintento vuelve a emitir.
+ */
+public class IssuedChallengeCache {
+
+  private static final int SWEEP_EVERY = 256;
+
+  private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+  private final AtomicInteger insertsSinceSweep = new AtomicInteger();
+  private final Clock clock;
+  private final Duration retention;
+
+  public IssuedChallengeCache(Clock clock, Duration retention) {
+    this.clock = Objects.requireNonNull(clock, "clock");
+    this.retention = Objects.requireNonNull(retention, "retention");
+    if (retention.isNegative() || retention.isZero()) {
+      throw new IllegalArgumentException("retention must be > 0");
+    }
+  }
+
+  public ChallengeResponse getOrIssue(String transactionId, Fingerprint fingerprint, Supplier<ChallengeResponse> issuer) {
+    return await(getOrIssueAsync(transactionId, fingerprint, () -> {
+      try {
+        return CompletableFuture.completedFuture(issuer.get());
+      } catch (RuntimeException e) {
+        return CompletableFuture.failedFuture(e);
+      }
+    }));
+  }
+
+  public CompletableFuture<ChallengeResponse> getOrIssueAsync(
+      String transactionId,
+      Fingerprint fingerprint,
+      Supplier<CompletableFuture<ChallengeResponse>> issuer
+  ) {
+    while (true) {
+      Instant now = Instant.now(clock);
+      Entry existing = entries.get(transactionId);
+
+      if (existing != null && existing.isExpired(now)) {
+        entries.remove(transactionId, existing);
+        continue;
+      }
+
+      if (existing == null) {
+        Entry candidate = new Entry(fingerprint, now.plus(retention));
+        existing = entries.putIfAbsent(transactionId, candidate);
+        if (existing == null) {
+          maybeSweep(now);
+          return issue(transactionId, candidate, issuer);
+        }
+      }
+
+      if (!existing.fingerprint.equals(fingerprint)) {
+        return CompletableFuture.failedFuture(
+            new IllegalArgumentException("transactionId already issued with different parameters"));
+      }
+      return existing.response.copy();
+    }
+  }
+
+  public int size() {
+    return entries.size();
+  }
+
+  private CompletableFuture<ChallengeResponse> issue(
+      String transactionId,
+      Entry entry,
+      Supplier<CompletableFuture<ChallengeResponse>> issuer
+  ) {
+    CompletableFuture<ChallengeResponse> source;
+    try {
+      source = issuer.get();
+    } catch (RuntimeException e) {
+      source = CompletableFuture.failedFuture(e);
+    }
+    // Una emisión colgada no retiene el transactionId para siempre: al vencer se trata como un fallo más
+    source = source.copy().orTimeout(retention.toNanos(), TimeUnit.NANOSECONDS);
+
+    source.whenComplete((response, error) -> {
+      if (error != null) {
+        // No cacheamos fallos: el siguiente reintento vuelve a emitir
+        entries.remove(transactionId, entry);
+        entry.response.completeExceptionally(unwrap(error));
+        return;
+      }
+      Instant retainUntil = Instant.now(clock).plus(retention);
+      entry.retainUntil = response.expiresAt().isBefore(retainUntil) ? response.expiresAt() : retainUntil;
+      entry.response.complete(response);
+    });
+    // Copia: un orTimeout del llamador no debe completar el future compartido
+    return entry.response.copy();
+  }
+
+  private static Throwable unwrap(Throwable t) {
+    return t instanceof CompletionException && t.getCause() != null ? t.getCause() : t;
+  }
+
+  private static ChallengeResponse await(CompletableFuture<ChallengeResponse> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException re) throw re;
+      throw e;
+    }
+  }
+
+  private void maybeSweep(Instant now) {
+    if (insertsSinceSweep.incrementAndGet() < SWEEP_EVERY) return;
+    insertsSinceSweep.set(0);
+    entries.values().removeIf(e -> e.isExpired(now));
+  }
+
+  /** Parámetros que deben coincidir para reutilizar una emisión previa. */
+  public record Fingerprint(
+      ChallengeType type,
+      String userId,
+      String rpId,
+      String origin,
+      long timeoutMs,
+      long ttlSeconds,
+      int challengeBytes
+  ) {
+    public static Fingerprint of(ChallengeRequest r, ChallengeType type) {
+      return new Fingerprint(type, r.userId(), r.rpId(), r.origin(), r.timeoutMs(), r.ttlSeconds(), r.challengeBytes());
+    }
+  }
+
+  private static final class Entry {
+    private final Fingerprint fingerprint;
+    private final CompletableFuture<ChallengeResponse> response = new CompletableFuture<>();
+    private volatile Instant retainUntil; // en curso: como mucho la ventana de idempotencia
+
+    private Entry(Fingerprint fingerprint, Instant retainUntil) {
+      this.fingerprint = fingerprint;
+      this.retainUntil = retainUntil;
+    }
+
+    private boolean isExpired(Instant now) {
+      return !now.isBefore(retainUntil);
+    }
+  }
+}
@@ -0,0 +1,17 @@
+package com.acme.passkeys.config;
+
+import com.acme.passkeys.adapters.in.function.dto.ChallengeRequest;
+import com.acme.passkeys.adapters.in.function.dto.ChallengeResponse;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+/** Metadata para la imagen nativa: los DTOs se bindean con Jackson por reflexión. */
+public class ChallengeNativeHints implements RuntimeHintsRegistrar {
+
+  @Override
+  public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+    new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(),
+        ChallengeRequest.class, ChallengeResponse.class);
+  }
+}
@@ -1,26 +1,65 @@
 package com.acme.passkeys.config;
 
+import com.acme.passkeys.adapters.in.function.CborMessageConverter;
 import com.acme.passkeys.adapters.in.function.CreateChallengeFunction;
 import com.acme.passkeys.adapters.in.function.dto.ChallengeRequest;
 import com.acme.passkeys.adapters.in.function.dto.ChallengeResponse;
+import com.acme.passkeys.adapters.out.async.AsyncChallengeStoreAdapter;
+import com.acme.passkeys.adapters.out.audit.RingBufferAuditLog;
+import com.acme.passkeys.adapters.out.cache.NearCacheChallengeStore;
+import com.acme.passkeys.adapters.out.jfr.ChallengeIssuedEvent;
+import com.acme.passkeys.adapters.out.jfr.ChallengeStoreSaveEvent;
+import com.acme.passkeys.adapters.out.jfr.JfrChallengeIssuanceTrace;
+import com.acme.passkeys.adapters.out.jfr.JfrChallengeStore;
 import com.acme.passkeys.adapters.out.memory.InMemoryChallengeStore;
+import com.acme.passkeys.adapters.out.metrics.EmfCircuitBreakerMetrics;
+import com.acme.passkeys.adapters.out.metrics.EmfStageMetrics;
+import com.acme.passkeys.adapters.out.resilience.CircuitBreaker;
+import com.acme.passkeys.adapters.out.resilience.CircuitBreakerChallengeStore;
 import com.acme.passkeys.application.ports.in.CreateChallengeUseCase;
+import com.acme.passkeys.application.ports.out.AsyncChallengeStore;
+import com.acme.passkeys.application.ports.out.AuditLog;
 import com.acme.passkeys.application.ports.out.ChallengeStore;
+import com.acme.passkeys.application.ports.out.StageMetrics;
 import com.acme.passkeys.application.service.CreateChallengeService;
+import com.acme.passkeys.application.service.IssuedChallengeCache;
+import com.acme.passkeys.domain.model.ChallengeType;
 import com.acme.passkeys.domain.service.ChallengeGenerator;
+import com.acme.passkeys.domain.service.ChallengeSealer;
+import com.acme.passkeys.domain.service.ReseedableSecureRandom;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.function.json.JsonMapper;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.converter.MessageConverter;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
 import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 @Configuration
+@ImportRuntimeHints(ChallengeNativeHints.class)
 public class FunctionConfig {
 
   @Bean
-  public SecureRandom secureRandom() {
-    return new SecureRandom();
+  public ReseedableSecureRandom secureRandom() {
+    // Reemplazable tras un restore: los clones de un snapshot no deben compartir estado
+    return new ReseedableSecureRandom(SecureRandom::new);
   }
 
   @Bean
@@ -33,23 +72,230 @@ public class FunctionConfig {
     return Clock.systemUTC();
   }
 
+  /** Transiciones y stats del breaker del store en EMF, con el namespace y el intervalo de las métricas de etapa. */
   @Bean
-  public ChallengeStore challengeStore() {
+  public EmfCircuitBreakerMetrics challengeStoreBreakerMetrics(
+      @Value("${passkeys.metrics.enabled:true}") boolean enabled,
+      @Value("${passkeys.metrics.namespace:Passkeys}") String namespace,
+      @Value("${passkeys.metrics.flush-interval:0s}") Duration flushInterval
+  ) {
+    return enabled
+        ? new EmfCircuitBreakerMetrics(namespace, "createChallenge", flushInterval)
+        : new EmfCircuitBreakerMetrics(namespace, "createChallenge", Duration.ZERO, line -> { }, Clock.systemUTC());
+  }
+
+  @Bean
+  public CircuitBreaker challengeStoreCircuitBreaker(
+      Clock clock,
+      EmfCircuitBreakerMetrics challengeStoreBreakerMetrics,
+      @Value("${passkeys.challenge.circuit-breaker.window-size:50}") int windowSize,
+      @Value("${passkeys.challenge.circuit-breaker.minimum-calls:20}") int minimumCalls,
+      @Value("${passkeys.challenge.circuit-breaker.failure-rate-threshold:0.5}") double failureRate,
+      @Value("${passkeys.challenge.circuit-breaker.slow-call-threshold:250ms}") Duration slowCall,
+      @Value("${passkeys.challenge.circuit-breaker.slow-call-rate-threshold:0.5}") double slowCallRate,
+      @Value("${passkeys.challenge.circuit-breaker.open-duration:10s}") Duration openDuration,
+      @Value("${passkeys.challenge.circuit-breaker.half-open-probes:3}") int halfOpenProbes
+  ) {
+    return challengeStoreBreakerMetrics.watch(new CircuitBreaker(
+        new CircuitBreaker.Settings(windowSize, minimumCalls, failureRate, slowCall, slowCallRate, openDuration, halfOpenProbes),
+        clock,
+        challengeStoreBreakerMetrics
+    ));
+  }
+
+  @Bean
+  public ChallengeSealer challengeSealer(
+      SecureRandom secureRandom,
+      @Value("${passkeys.challenge.seal-key:}") String sealKeyB64,
+      @Value("${passkeys.challenge.seal-fallback.enabled:false}") boolean sealFallback
+  ) {
+    byte[] key;
+    if (sealKeyB64.isBlank()) {
+      // Con una clave aleatoria nadie más verificaría lo sellado: el modo degradado exige la clave compartida
+      if (sealFallback) {
+        throw new IllegalStateException("passkeys.challenge.seal-key is required when passkeys.challenge.seal-fallback.enabled=true");
+      }
+      // Sin modo degradado no se sella nada: la clave sólo sirve para rechazar challenges sellados
+      key = new byte[32];
+      secureRandom.nextBytes(key);
+    } else {
+      key = Base64.getDecoder().decode(sealKeyB64);
+    }
+    return new ChallengeSealer(key, secureRandom);
+  }
+
+  @Bean
+  public ChallengeStore challengeStore(
+      Clock clock,
+      CircuitBreaker challengeStoreCircuitBreaker,
+      @Value("${passkeys.challenge.circuit-breaker.enabled:true}") boolean breakerEnabled,
+      @Value("${passkeys.challenge.near-cache.enabled:false}") boolean nearCacheEnabled,
+      @Value("${passkeys.challenge.near-cache.positive-ttl:5s}") Duration positiveTtl,
+      @Value("${passkeys.challenge.near-cache.negative-ttl:2s}") Duration negativeTtl,
+      @Value("${passkeys.challenge.near-cache.max-entries:10000}") int maxEntries
+  ) {
     // En producción reemplazas por un adapter DynamoDB que implemente ChallengeStore
-    return new InMemoryChallengeStore();
+    ChallengeStore store = new InMemoryChallengeStore();
+    if (breakerEnabled) {
+      store = new CircuitBreakerChallengeStore(store, challengeStoreCircuitBreaker);
+    }
+    // Con un store remoto, el near-cache evita round-trips (incluidos los de ids inexistentes)
+    if (nearCacheEnabled) {
+      store = new NearCacheChallengeStore(store, clock, positiveTtl, negativeTtl, maxEntries);
+    }
+    // Eventos JFR de cada save; sin grabación activa no cuesta nada medible
+    return new JfrChallengeStore(store);
+  }
+
+  // Acotado en hilos y en cola: con el store lento, lo que no cabe falla como store no disponible (y se sella)
+  @Bean(destroyMethod = "shutdown")
+  public ExecutorService challengeStoreExecutor(
+      @Value("${passkeys.challenge.store-executor.max-threads:32}") int maxThreads,
+      @Value("${passkeys.challenge.store-executor.queue-capacity:256}") int queueCapacity
+  ) {
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(
+        maxThreads, maxThreads, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(queueCapacity), r -> {
+          Thread t = new Thread(r, "challenge-store");
+          t.setDaemon(true);
+          return t;
+        });
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
+  }
+
+  @Bean
+  public AsyncChallengeStore asyncChallengeStore(ChallengeStore store, ExecutorService challengeStoreExecutor) {
+    return new AsyncChallengeStoreAdapter(store, challengeStoreExecutor);
+  }
+
+  @Bean
+  public IssuedChallengeCache issuedChallengeCache(
+      Clock clock,
+      @Value("${passkeys.challenge.idempotency-window:30s}") Duration window
+  ) {
+    return new IssuedChallengeCache(clock, window);
+  }
+
+  @Bean
+  public StageMetrics createChallengeMetrics(
+      @Value("${passkeys.metrics.enabled:true}") boolean enabled,
+      @Value("${passkeys.metrics.namespace:Passkeys}") String namespace,
+      @Value("${passkeys.metrics.flush-interval:0s}") Duration flushInterval,
+      @Value("${passkeys.metrics.sample-every:64}") int sampleEvery
+  ) {
+    return enabled ? new EmfStageMetrics(namespace, "createChallenge", flushInterval, sampleEvery) : StageMetrics.NOOP;
+  }
+
+  /** Sin {@code directory} no se audita; el anillo ocupa {@code capacity} × 256 bytes de heap. */
+  @Bean
+  public AuditLog challengeAuditLog(
+      @Value("${passkeys.audit.directory:}") String directory,
+      @Value("${passkeys.audit.capacity:8192}") int capacity,
+      @Value("${passkeys.audit.records-per-file:65536}") int recordsPerFile,
+      @Value("${passkeys.audit.max-files:8}") int maxFiles,
+      Clock clock
+  ) {
+    return RingBufferAuditLog.forDirectory(directory, "createChallenge", capacity, recordsPerFile, maxFiles, clock);
   }
 
   @Bean
   public CreateChallengeUseCase createChallengeUseCase(
       ChallengeGenerator generator,
       ChallengeStore store,
-      Clock clock
+      AsyncChallengeStore asyncStore,
+      Clock clock,
+      IssuedChallengeCache issuedChallengeCache,
+      ChallengeSealer challengeSealer,
+      @Qualifier("createChallengeMetrics") StageMetrics metrics,
+      @Qualifier("challengeAuditLog") AuditLog audit,
+      @Value("${passkeys.deadline.store-cost:10ms}") Duration storeCost,
+      @Value("${passkeys.challenge.seal-fallback.enabled:false}") boolean sealFallback
+  ) {
+    return new CreateChallengeService(generator, store, asyncStore, clock, issuedChallengeCache, CreateChallengeService.Options.DEFAULTS
+        .withSealer(sealFallback ? challengeSealer : null)
+        .withMetrics(metrics)
+        .withAudit(audit)
+        // Eventos JFR de cada emisión, como los de cada save en challengeStore
+        .withTrace(new JfrChallengeIssuanceTrace())
+        .withStoreCost(storeCost));
+  }
+
+  @Bean
+  public SnapshotPriming challengeSnapshotPriming(
+      ReseedableSecureRandom secureRandom,
+      ChallengeGenerator generator,
+      ChallengeSealer challengeSealer,
+      Clock clock,
+      ObjectProvider<JsonMapper> jsonMapper
   ) {
-    return new CreateChallengeService(generator, store, clock);
+    JsonMapper json = jsonMapper.getIfAvailable();
+    Runnable jsonPrimer = json == null ? () -> {} : () -> {
+      ChallengeRequest req = json.fromJson(PRIME_REQUEST.getBytes(StandardCharsets.UTF_8), ChallengeRequest.class);
+      json.toJson(primeResponse(req, clock));
+    };
+    return challengePriming(secureRandom, generator, challengeSealer, clock, jsonPrimer).register();
+  }
+
+  /** Mismos primers para el camino Spring y el handler sin Spring; sólo cambia el binding JSON. */
+  public static SnapshotPriming challengePriming(
+      ReseedableSecureRandom secureRandom,
+      ChallengeGenerator generator,
+      ChallengeSealer sealer,
+      Clock clock,
+      Runnable jsonPrimer
+  ) {
+    return new SnapshotPriming(
+        List.of(
+            jsonPrimer,
+            () -> generator.generateBase64UrlChallenge(32),
+            () -> primeSealer(sealer, clock),
+            FunctionConfig::primeDigest,
+            FunctionConfig::primeJfr
+        ),
+        List.of(secureRandom::replace)
+    );
+  }
+
+  public static final String PRIME_REQUEST = """
+      {"type":"REGISTRATION","userId":"prime","rpId":"example.com","origin":"https://example.com","timeoutMs":60000}
+      """;
+
+  public static ChallengeResponse primeResponse(ChallengeRequest req, Clock clock) {
+    Instant now = Instant.now(clock);
+    return new ChallengeResponse("prime", req.type(), req.userId(), req.rpId(), req.origin(), req.timeoutMs(), "prime", now, now);
+  }
+
+  private static void primeSealer(ChallengeSealer sealer, Clock clock) {
+    Instant now = Instant.now(clock);
+    var ctx = new ChallengeSealer.SealedContext("prime", "prime", ChallengeType.REGISTRATION, "example.com", "https://example.com", now.plusSeconds(60));
+    sealer.verify(sealer.seal(ctx, 32), ctx, now);
+  }
+
+  // El primer evento JFR de la JVM inicializa FlightRecorder: cientos de ms que no deben caer en la primera invocación
+  private static void primeJfr() {
+    ChallengeIssuedEvent.start("prime", ChallengeType.REGISTRATION, "prime").complete("prime", null);
+    new ChallengeStoreSaveEvent().begin();
+  }
+
+  private static void primeDigest() {
+    try {
+      MessageDigest.getInstance("SHA-256").digest(new byte[32]);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * {@code contentType: application/cbor}; sin esa cabecera el binding sigue siendo JSON. Único para las tres
+   * funciones: los contextos de finishRegistration y finishAuthentication cargan esta configuración desde este jar.
+   */
+  @Bean
+  public MessageConverter cborMessageConverter() {
+    return new CborMessageConverter();
   }
 
   @Bean(name = "createChallenge")
-  public Function<ChallengeRequest, ChallengeResponse> createChallenge(CreateChallengeUseCase useCase) {
+  public Function<Message<ChallengeRequest>, ChallengeResponse> createChallenge(CreateChallengeUseCase useCase) {
     return new CreateChallengeFunction(useCase);
   }
 }
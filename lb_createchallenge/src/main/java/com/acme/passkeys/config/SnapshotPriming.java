@@ -0,0 +1,56 @@
+package com.acme.passkeys.config;
+
+import org.crac.Context;
+import org.crac.Core;
+import org.crac.Resource;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Ciclo de vida para checkpoint/restore (SnapStart, CRaC). Antes del checkpoint ejecuta los
+ * primers para que la primera invocación tras el restore no pague carga de clases ni inicialización
+ * de proveedores JCA; después del restore ejecuta los hooks que dejan de compartir estado entre
+ * clones (p. ej. sustituir cada {@code SecureRandom}).
+ * Sin JVM con CRaC, {@link #register()} no tiene efecto y la aplicación arranca igual.
+ */
+public class SnapshotPriming implements Resource {
+
+  private final List<Runnable> primers;
+  private final List<Runnable> restoreHooks;
+  private final AtomicInteger restores = new AtomicInteger();
+
+  public SnapshotPriming(List<Runnable> primers, List<Runnable> restoreHooks) {
+    this.primers = List.copyOf(primers);
+    this.restoreHooks = List.copyOf(restoreHooks);
+  }
+
+  /** Se registra en el contexto global de CRaC; la referencia la mantiene quien crea el objeto. */
+  public SnapshotPriming register() {
+    Core.getGlobalContext().register(this);
+    return this;
+  }
+
+  public void prime() {
+    primers.forEach(Runnable::run);
+  }
+
+  public void restored() {
+    restoreHooks.forEach(Runnable::run);
+    restores.incrementAndGet();
+  }
+
+  public int restores() {
+    return restores.get();
+  }
+
+  @Override
+  public void beforeCheckpoint(Context<? extends Resource> context) {
+    prime();
+  }
+
+  @Override
+  public void afterRestore(Context<? extends Resource> context) {
+    restored();
+  }
+}
@@ -0,0 +1,116 @@
+package com.acme.passkeys.domain.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.util.Base64;
+
+/**
+ * Campo binario de una ceremonia (clientDataJSON, attestationObject, authenticatorData, firma, clave guardada).
+ * En JSON viaja como texto base64url y se decodifica la primera vez que se piden los bytes; en CBOR viaja como
+ * byte string y llega ya en crudo. Como antes de CBOR, el texto se acepta también en el alfabeto estándar
+ * ({@code +}, {@code /}) y con o sin relleno. Se serializa como byte string si el formato lo admite y como base64url si no.
+ *
+ * <p>Los bytes decodificados se guardan: quien los pida después (verificador, filtro de réplicas) no vuelve a decodificar.
+ */
+@JsonSerialize(using = Binary.Serializer.class)
+public final class Binary {
+
+  private final String text; // base64 tal cual llegó; null si llegó en crudo
+  private volatile byte[] bytes; // null hasta el primer bytes() de un texto
+
+  private Binary(String text, byte[] bytes) {
+    this.text = text;
+    this.bytes = bytes;
+  }
+
+  public static Binary ofBase64Url(String text) {
+    return text == null ? null : new Binary(text, null);
+  }
+
+  public static Binary of(byte[] bytes) {
+    return bytes == null ? null : new Binary(null, bytes);
+  }
+
+  /** Texto en JSON, byte string ({@code byte[]}) en CBOR. */
+  @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
+  static Binary fromWire(Object value) {
+    if (value instanceof byte[] raw) return of(raw);
+    if (value instanceof String s) return ofBase64Url(s);
+    throw new IllegalArgumentException("binary fields must be base64url strings or byte strings");
+  }
+
+  /** @throws IllegalArgumentException si el texto no es base64 */
+  public byte[] bytes() {
+    byte[] b = bytes;
+    if (b == null) {
+      b = decode(text);
+      bytes = b;
+    }
+    return b;
+  }
+
+  // Mismo criterio que los verificadores: base64url o estándar, con o sin relleno
+  private static byte[] decode(String text) {
+    String padded = text.replace('-', '+').replace('_', '/');
+    int mod = padded.length() % 4;
+    if (mod == 2) padded += "==";
+    else if (mod == 3) padded += "=";
+    else if (mod != 0) throw new IllegalArgumentException("invalid base64url");
+    try {
+      return Base64.getDecoder().decode(padded);
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("invalid base64url");
+    }
+  }
+
+  public String base64Url() {
+    return text != null ? text : Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+  }
+
+  /** Llegó como byte string: {@link #bytes()} no decodifica nada. */
+  public boolean isRaw() {
+    return text == null;
+  }
+
+  public boolean isBlank() {
+    return text != null ? text.isBlank() : bytes.length == 0;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    return o instanceof Binary other && base64Url().equals(other.base64Url());
+  }
+
+  @Override
+  public int hashCode() {
+    return base64Url().hashCode();
+  }
+
+  @Override
+  public String toString() {
+    return base64Url();
+  }
+
+  static final class Serializer extends StdSerializer<Binary> {
+
+    Serializer() {
+      super(Binary.class);
+    }
+
+    @Override
+    public void serialize(Binary value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+      if (gen.canWriteBinaryNatively()) {
+        byte[] b = value.bytes();
+        gen.writeBinary(b, 0, b.length);
+      } else {
+        gen.writeString(value.base64Url());
+      }
+    }
+  }
+}
@@ -18,4 +18,8 @@ public class ChallengeGenerator {
     secureRandom.nextBytes(buf);
     return Base64.getUrlEncoder().withoutPadding().encodeToString(buf);
   }
+
+  public String algorithm() {
+    return secureRandom.getAlgorithm();
+  }
 }
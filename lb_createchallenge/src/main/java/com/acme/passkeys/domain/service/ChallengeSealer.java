@@ -0,0 +1,110 @@
+package com.acme.passkeys.domain.service;
+
+import com.acme.passkeys.domain.model.ChallengeType;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Challenges "sellados" que no necesitan store: el propio challenge lleva su expiración y un
+ * HMAC-SHA256 sobre el contexto de la transacción, así que quien tenga la clave puede
+ * verificarlo sin consultar nada.
+ *
+ * <pre>version(1) | expiresAtEpochSecond(8) | nonce(n) | hmac(16)</pre>
+ */
+public class ChallengeSealer {
+
+  public static final byte VERSION = 0x53; // 'S'
+
+  private static final String HMAC = "HmacSHA256";
+  private static final int MAC_BYTES = 16;
+  private static final int HEADER_BYTES = 1 + Long.BYTES;
+
+  private final SecretKeySpec key;
+  private final SecureRandom secureRandom;
+
+  public ChallengeSealer(byte[] key, SecureRandom secureRandom) {
+    if (key == null || key.length < 32) throw new IllegalArgumentException("seal key must be >= 32 bytes");
+    this.key = new SecretKeySpec(key.clone(), HMAC);
+    this.secureRandom = secureRandom;
+  }
+
+  public String seal(SealedContext ctx, int nonceBytes) {
+    if (nonceBytes < 16) throw new IllegalArgumentException("Challenge bytes must be >= 16");
+
+    byte[] nonce = new byte[nonceBytes];
+    secureRandom.nextBytes(nonce);
+
+    ByteBuffer out = ByteBuffer.allocate(HEADER_BYTES + nonceBytes + MAC_BYTES);
+    out.put(VERSION).putLong(ctx.expiresAt().getEpochSecond()).put(nonce);
+    out.put(mac(out.array(), HEADER_BYTES + nonceBytes, ctx), 0, MAC_BYTES);
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(out.array());
+  }
+
+  public String algorithm() {
+    return HMAC;
+  }
+
+  /** {@code true} si el challenge fue sellado con esta clave para ese contexto y no ha expirado. */
+  public boolean verify(String challengeB64Url, SealedContext ctx, Instant now) {
+    byte[] raw;
+    try {
+      raw = Base64.getUrlDecoder().decode(challengeB64Url);
+    } catch (IllegalArgumentException e) {
+      return false;
+    }
+    if (raw.length < HEADER_BYTES + 16 + MAC_BYTES || raw[0] != VERSION) return false;
+
+    ByteBuffer in = ByteBuffer.wrap(raw);
+    in.get();
+    long expiresAt = in.getLong();
+    if (expiresAt != ctx.expiresAt().getEpochSecond()) return false;
+
+    int signedLen = raw.length - MAC_BYTES;
+    byte[] expected = mac(raw, signedLen, ctx);
+    byte[] actual = new byte[MAC_BYTES];
+    System.arraycopy(raw, signedLen, actual, 0, MAC_BYTES);
+    byte[] truncated = new byte[MAC_BYTES];
+    System.arraycopy(expected, 0, truncated, 0, MAC_BYTES);
+
+    return MessageDigest.isEqual(truncated, actual) && now.getEpochSecond() < expiresAt;
+  }
+
+  private byte[] mac(byte[] prefix, int prefixLen, SealedContext ctx) {
+    try {
+      Mac mac = Mac.getInstance(HMAC);
+      mac.init(key);
+      mac.update(prefix, 0, prefixLen);
+      field(mac, ctx.transactionId());
+      field(mac, ctx.userId());
+      field(mac, ctx.type().name());
+      field(mac, ctx.rpId());
+      field(mac, ctx.origin());
+      return mac.doFinal();
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException("HmacSHA256 unavailable", e);
+    }
+  }
+
+  private static void field(Mac mac, String value) {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    mac.update(ByteBuffer.allocate(Integer.BYTES).putInt(bytes.length).array());
+    mac.update(bytes);
+  }
+
+  public record SealedContext(
+      String transactionId,
+      String userId,
+      ChallengeType type,
+      String rpId,
+      String origin,
+      Instant expiresAt
+  ) {}
+}
@@ -0,0 +1,69 @@
+package com.acme.passkeys.domain.service;
+
+import java.security.SecureRandom;
+import java.security.SecureRandomParameters;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * {@link SecureRandom} cuyo generador interno se puede sustituir en caliente. Tras restaurar un
+ * snapshot (SnapStart/CRaC) todas las copias tendrían el mismo estado; {@link #replace()} crea un
+ * generador nuevo sembrado desde el sistema operativo.
+ */
+public class ReseedableSecureRandom extends SecureRandom {
+
+  private final transient Supplier<SecureRandom> factory;
+  private transient volatile SecureRandom delegate;
+
+  public ReseedableSecureRandom(Supplier<SecureRandom> factory) {
+    this.factory = Objects.requireNonNull(factory, "factory");
+    this.delegate = Objects.requireNonNull(factory.get(), "delegate");
+  }
+
+  /** Descarta el estado actual; los bytes siguientes no dependen de nada anterior al restore. */
+  public void replace() {
+    delegate = Objects.requireNonNull(factory.get(), "delegate");
+  }
+
+  @Override
+  public void nextBytes(byte[] bytes) {
+    delegate.nextBytes(bytes);
+  }
+
+  @Override
+  public void nextBytes(byte[] bytes, SecureRandomParameters params) {
+    delegate.nextBytes(bytes, params);
+  }
+
+  @Override
+  public byte[] generateSeed(int numBytes) {
+    return delegate.generateSeed(numBytes);
+  }
+
+  @Override
+  public void setSeed(byte[] seed) {
+    delegate.setSeed(seed);
+  }
+
+  @Override
+  public void setSeed(long seed) {
+    // El constructor de Random llama aquí antes de que exista el delegate
+    SecureRandom d = delegate;
+    if (d != null) d.setSeed(seed);
+  }
+
+  @Override
+  public void reseed() {
+    delegate.reseed();
+  }
+
+  @Override
+  public String getAlgorithm() {
+    return delegate.getAlgorithm();
+  }
+
+  @Override
+  public String toString() {
+    return "ReseedableSecureRandom[" + delegate + "]";
+  }
+}
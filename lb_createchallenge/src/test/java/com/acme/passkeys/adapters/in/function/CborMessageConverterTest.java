@@ -0,0 +1,64 @@
+package com.acme.passkeys.adapters.in.function;
+
+import com.acme.passkeys.adapters.in.function.dto.ChallengeRequest;
+import com.acme.passkeys.adapters.in.function.dto.ChallengeResponse;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.converter.MessageConversionException;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.time.Instant;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+class CborMessageConverterTest {
+
+  private final CborMessageConverter converter = new CborMessageConverter();
+  private final CBORMapper cbor = new CBORMapper();
+
+  @Test
+  void cborContentType_bindsRequest() throws Exception {
+    byte[] payload = cbor.writeValueAsBytes(Map.of(
+        "type", "REGISTRATION", "userId", "user-1", "rpId", "example.com", "origin", "https://example.com",
+        "timeoutMs", 60000, "extra", "ignored"));
+
+    Object request = converter.fromMessage(message(payload, "application/cbor"), ChallengeRequest.class);
+
+    assertThat(request).isEqualTo(new ChallengeRequest("REGISTRATION", "user-1", "example.com", "https://example.com", 60000, null, 0, 0));
+  }
+
+  @Test
+  void withoutCborContentType_leavesMessageToJson() {
+    byte[] json = "{\"type\":\"REGISTRATION\"}".getBytes();
+    assertThat(converter.fromMessage(MessageBuilder.withPayload(json).build(), ChallengeRequest.class)).isNull();
+    assertThat(converter.fromMessage(message(json, "application/json"), ChallengeRequest.class)).isNull();
+  }
+
+  @Test
+  void writesResponse_withIsoInstants() throws Exception {
+    Instant now = Instant.parse("2026-01-24T10:00:00Z");
+    ChallengeResponse response = new ChallengeResponse(
+        "tx-1", "REGISTRATION", "user-1", "example.com", "https://example.com", 60000, "Y2hhbGxlbmdl", now, now.plusSeconds(120));
+
+    Message<?> out = converter.toMessage(response, new MessageHeaders(Map.of(MessageHeaders.CONTENT_TYPE, "application/cbor")));
+
+    JsonNode decoded = cbor.readTree((byte[]) out.getPayload());
+    assertThat(decoded.get("transactionId").asText()).isEqualTo("tx-1");
+    assertThat(decoded.get("expiresAt").asText()).isEqualTo("2026-01-24T10:02:00Z");
+  }
+
+  @Test
+  void malformedCbor_failsConversion() {
+    assertThatThrownBy(() -> converter.fromMessage(message(new byte[] {(byte) 0xBF}, "application/cbor"), ChallengeRequest.class))
+        .isInstanceOf(MessageConversionException.class)
+        .hasMessageContaining("invalid CBOR payload");
+  }
+
+  private static Message<byte[]> message(byte[] payload, String contentType) {
+    return MessageBuilder.withPayload(payload).setHeader(MessageHeaders.CONTENT_TYPE, contentType).build();
+  }
+}
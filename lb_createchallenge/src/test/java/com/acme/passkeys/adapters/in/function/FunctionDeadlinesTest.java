@@ -0,0 +1,44 @@
+package com.acme.passkeys.adapters.in.function;
+
+import com.acme.passkeys.application.ports.in.Deadline;
+import com.amazonaws.services.lambda.runtime.Context;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.function.adapter.aws.AWSLambdaUtils;
+import org.springframework.messaging.MessageHeaders;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class FunctionDeadlinesTest {
+
+  @Test
+  void withoutHeaders_isUnbounded() {
+    assertThat(FunctionDeadlines.of(new MessageHeaders(Map.of()))).isSameAs(Deadline.NONE);
+    assertThat(FunctionDeadlines.of((Context) null)).isSameAs(Deadline.NONE);
+  }
+
+  @Test
+  void lambdaContext_boundsTheDeadline() {
+    Context context = mock(Context.class);
+    when(context.getRemainingTimeInMillis()).thenReturn(300);
+
+    Deadline deadline = FunctionDeadlines.of(new MessageHeaders(Map.of(AWSLambdaUtils.AWS_CONTEXT, context)));
+
+    assertThat(deadline.remainingNanos()).isPositive().isLessThanOrEqualTo(Duration.ofMillis(300).toNanos());
+  }
+
+  @Test
+  void explicitDeadline_winsOverTheLambdaContext() {
+    Context context = mock(Context.class);
+    when(context.getRemainingTimeInMillis()).thenReturn(300_000);
+    Deadline explicit = Deadline.in(Duration.ofMillis(50));
+
+    Deadline deadline = FunctionDeadlines.of(
+        new MessageHeaders(Map.of(AWSLambdaUtils.AWS_CONTEXT, context, FunctionDeadlines.HEADER, explicit)));
+
+    assertThat(deadline).isSameAs(explicit);
+  }
+}
@@ -0,0 +1,42 @@
+package com.acme.passkeys.adapters.in.function;
+
+import com.acme.passkeys.support.FakeLambdaRuntime;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.File;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.*;
+
+/** Lo ejecuta el perfil {@code native} (failsafe) contra el binario recién compilado. */
+@EnabledIfSystemProperty(named = "native.binary", matches = ".+")
+class NativeSmokeIT {
+
+  @Test
+  void createChallenge_runsInNativeBinary() throws Exception {
+    try (FakeLambdaRuntime runtime = FakeLambdaRuntime.start()) {
+      Process lambda = start(runtime, "createChallenge");
+      try {
+        FakeLambdaRuntime.Result r = runtime.invoke("""
+            {"type":"REGISTRATION","userId":"user-1","rpId":"example.com","origin":"https://example.com","timeoutMs":60000,"transactionId":"tx-native"}
+            """, Duration.ofSeconds(30));
+
+        assertThat(r.error()).as(r.body()).isFalse();
+        assertThat(r.body()).contains("\"transactionId\":\"tx-native\"").contains("\"challenge\":");
+      } finally {
+        lambda.destroy();
+      }
+    }
+  }
+
+  private static Process start(FakeLambdaRuntime runtime, String function) throws Exception {
+    ProcessBuilder pb = new ProcessBuilder(System.getProperty("native.binary"))
+        .redirectErrorStream(true)
+        .redirectOutput(new File(System.getProperty("native.binary") + "-smoke.log"));
+    pb.environment().put("AWS_LAMBDA_RUNTIME_API", runtime.address());
+    pb.environment().put("_HANDLER", function);
+    pb.environment().put("SPRING_CLOUD_FUNCTION_DEFINITION", function);
+    return pb.start();
+  }
+}
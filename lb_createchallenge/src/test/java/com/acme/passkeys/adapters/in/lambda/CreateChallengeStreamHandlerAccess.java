@@ -0,0 +1,12 @@
+package com.acme.passkeys.adapters.in.lambda;
+
+import com.acme.passkeys.config.SnapshotPriming;
+
+/** Acceso de test al cableado del handler (package-private) desde otros paquetes. */
+public record CreateChallengeStreamHandlerAccess(CreateChallengeStreamHandler handler, SnapshotPriming priming) {
+
+  public static CreateChallengeStreamHandlerAccess wire() {
+    CreateChallengeStreamHandler.Wiring w = CreateChallengeStreamHandler.wire(null);
+    return new CreateChallengeStreamHandlerAccess(new CreateChallengeStreamHandler(w.function()), w.priming());
+  }
+}
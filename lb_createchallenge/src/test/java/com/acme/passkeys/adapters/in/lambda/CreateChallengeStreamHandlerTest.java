@@ -0,0 +1,194 @@
+package com.acme.passkeys.adapters.in.lambda;
+
+import com.acme.passkeys.adapters.in.function.dto.ChallengeRequest;
+import com.acme.passkeys.application.ports.in.CreateChallengeUseCase;
+import com.acme.passkeys.application.ports.in.DeadlineExceededException;
+import com.acme.passkeys.application.ports.out.AuditLog;
+import com.acme.passkeys.application.ports.out.StageMetrics;
+import com.acme.passkeys.support.RecordingStageMetrics;
+import com.amazonaws.services.lambda.runtime.Context;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CreateChallengeStreamHandlerTest {
+
+  private static final String REQUEST = """
+      {"type":"REGISTRATION","userId":"user-1","rpId":"example.com","origin":"https://example.com",
+       "timeoutMs":60000,"transactionId":"tx-1","extra":"ignored"}
+      """;
+
+  private static final String SEAL_KEY = Base64.getEncoder().encodeToString(new byte[32]);
+
+  private final ObjectMapper mapper = new ObjectMapper();
+  private final CreateChallengeStreamHandler handler =
+      new CreateChallengeStreamHandler(CreateChallengeStreamHandler.wire(null).function());
+
+  @Test
+  void directInvocation_bindsAndWritesResponse() throws Exception {
+    JsonNode res = invoke(REQUEST);
+
+    assertThat(res.get("transactionId").asText()).isEqualTo("tx-1");
+    assertThat(res.get("type").asText()).isEqualTo("REGISTRATION");
+    assertThat(res.get("challenge").asText()).isNotBlank();
+    // ISO-8601 como en el camino Spring
+    assertThat(Instant.parse(res.get("expiresAt").asText())).isAfter(Instant.parse(res.get("createdAt").asText()));
+  }
+
+  @Test
+  void apiGatewayEvent_unwrapsBody_andWrapsResponse() throws Exception {
+    String event = mapper.createObjectNode()
+        .put("routeKey", "POST /challenge")
+        .put("isBase64Encoded", true)
+        .put("body", Base64.getEncoder().encodeToString(REQUEST.getBytes(StandardCharsets.UTF_8)))
+        .toString();
+
+    JsonNode res = invoke(event);
+
+    assertThat(res.get("statusCode").asInt()).isEqualTo(200);
+    assertThat(res.at("/headers/Content-Type").asText()).isEqualTo("application/json");
+    assertThat(mapper.readTree(res.get("body").asText()).get("transactionId").asText()).isEqualTo("tx-1");
+  }
+
+  @Test
+  void apiGatewayEvent_cborContentType_bindsCbor_andAnswersCbor() throws Exception {
+    ObjectMapper cbor = new CBORMapper();
+    byte[] body = cbor.writeValueAsBytes(mapper.readTree(REQUEST));
+    assertThat(body.length).isLessThan(REQUEST.strip().length());
+
+    ObjectNode event = proxyEvent(body);
+    event.putObject("headers").put("Content-Type", "application/cbor; charset=binary");
+
+    JsonNode res = invoke(event.toString());
+
+    assertThat(res.at("/headers/Content-Type").asText()).isEqualTo("application/cbor");
+    assertThat(res.get("isBase64Encoded").asBoolean()).isTrue();
+    JsonNode decoded = cbor.readTree(Base64.getDecoder().decode(res.get("body").asText()));
+    assertThat(decoded.get("transactionId").asText()).isEqualTo("tx-1");
+    assertThat(Instant.parse(decoded.get("expiresAt").asText())).isAfter(Instant.parse(decoded.get("createdAt").asText()));
+  }
+
+  @Test
+  void apiGatewayEvent_acceptHeader_choosesResponseFormat() throws Exception {
+    ObjectNode jsonIn = proxyEvent(REQUEST.getBytes(StandardCharsets.UTF_8));
+    jsonIn.putObject("headers").put("accept", "application/cbor, application/json;q=0.5");
+    assertThat(invoke(jsonIn.toString()).at("/headers/Content-Type").asText()).isEqualTo("application/cbor");
+
+    ObjectNode cborIn = proxyEvent(new CBORMapper().writeValueAsBytes(mapper.readTree(REQUEST)));
+    cborIn.putObject("headers").put("content-type", "application/cbor").put("accept", "application/json");
+    JsonNode res = invoke(cborIn.toString());
+    assertThat(res.at("/headers/Content-Type").asText()).isEqualTo("application/json");
+    assertThat(mapper.readTree(res.get("body").asText()).get("transactionId").asText()).isEqualTo("tx-1");
+  }
+
+  @Test
+  void lambdaContext_withoutTimeLeft_failsFastWith504() throws Exception {
+    CreateChallengeStreamHandler deadlineAware = new CreateChallengeStreamHandler(CreateChallengeStreamHandler.wire(null));
+    String event = proxyEvent(REQUEST.getBytes(StandardCharsets.UTF_8)).toString();
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    deadlineAware.handleRequest(new ByteArrayInputStream(event.getBytes(StandardCharsets.UTF_8)), out, remaining(5));
+    JsonNode res = mapper.readTree(out.toByteArray());
+    assertThat(res.get("statusCode").asInt()).isEqualTo(504);
+    assertThat(mapper.readTree(res.get("body").asText()).get("message").asText()).isEqualTo("deadline_exceeded");
+
+    assertThatThrownBy(() -> deadlineAware.handleRequest(
+        new ByteArrayInputStream(REQUEST.getBytes(StandardCharsets.UTF_8)), new ByteArrayOutputStream(), remaining(5)))
+        .isInstanceOf(DeadlineExceededException.class);
+
+    out.reset();
+    deadlineAware.handleRequest(new ByteArrayInputStream(event.getBytes(StandardCharsets.UTF_8)), out, remaining(3_000));
+    assertThat(mapper.readTree(out.toByteArray()).get("statusCode").asInt()).isEqualTo(200);
+  }
+
+  @Test
+  void apiGatewayEvent_malformedBody_answers400() throws Exception {
+    ObjectNode badBase64 = proxyEvent(new byte[0]).put("body", "not base64!");
+    ObjectNode noBody = proxyEvent(new byte[0]).putNull("body");
+    ObjectNode badJson = proxyEvent("{\"type\":".getBytes(StandardCharsets.UTF_8));
+    ObjectNode badCbor = proxyEvent(new byte[] {(byte) 0xff, 0x00});
+    badCbor.putObject("headers").put("content-type", "application/cbor");
+
+    for (ObjectNode event : new ObjectNode[] {badBase64, noBody, badJson, badCbor}) {
+      JsonNode res = invoke(event.toString());
+      assertThat(res.get("statusCode").asInt()).isEqualTo(400);
+      assertThat(res.at("/headers/Content-Type").asText()).isEqualTo("application/json");
+      assertThat(mapper.readTree(res.get("body").asText()).get("code").asInt()).isEqualTo(400);
+    }
+    assertThat(mapper.readTree(invoke(badJson.toString()).get("body").asText()).get("message").asText())
+        .isEqualTo("malformed_request_body");
+  }
+
+  @Test
+  void invalidRequest_propagatesValidationError() {
+    assertThatThrownBy(() -> invoke("{\"type\":\"REGISTRATION\"}"))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> invoke("[]"))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("JSON object");
+  }
+
+  @Test
+  void nextChallenges_wiresOnlyWhatIsConfigured() {
+    CreateChallengeStreamHandler.NextChallenges none =
+        CreateChallengeStreamHandler.nextChallenges(false, null, StageMetrics.NOOP, AuditLog.NOOP);
+    assertThat(none.useCase()).isEmpty();
+    assertThat(none.sealer()).isEmpty();
+
+    CreateChallengeStreamHandler.NextChallenges sealOnly =
+        CreateChallengeStreamHandler.nextChallenges(false, SEAL_KEY, StageMetrics.NOOP, AuditLog.NOOP);
+    assertThat(sealOnly.useCase()).isEmpty();
+    assertThat(sealOnly.sealer()).isPresent();
+
+    CreateChallengeStreamHandler.NextChallenges unsealed =
+        CreateChallengeStreamHandler.nextChallenges(true, "", StageMetrics.NOOP, AuditLog.NOOP);
+    assertThat(unsealed.useCase()).isPresent();
+    assertThat(unsealed.sealer()).isEmpty();
+  }
+
+  @Test
+  void nextChallenges_recordInTheEmittingFunctionsMetricsAndAudit() {
+    RecordingStageMetrics metrics = new RecordingStageMetrics();
+    List<AuditLog.Ceremony> audited = new ArrayList<>();
+    AuditLog audit = (ceremony, outcome, subject, rpId) -> audited.add(ceremony);
+
+    CreateChallengeUseCase next = CreateChallengeStreamHandler.nextChallenges(true, SEAL_KEY, metrics, audit).useCase().orElseThrow();
+    next.handle(new ChallengeRequest("AUTHENTICATION", "user-1", "example.com", "https://example.com", 60_000, null, 0, 0));
+
+    assertThat(metrics.outcomes()).containsExactly(entry("next_challenge:ok", 1));
+    assertThat(metrics.stages()).contains("nextChallenge.generate", "nextChallenge.total").doesNotContain(StageMetrics.TOTAL);
+    assertThat(audited).containsExactly(AuditLog.Ceremony.CHALLENGE);
+  }
+
+  private ObjectNode proxyEvent(byte[] body) {
+    return mapper.createObjectNode()
+        .put("routeKey", "POST /challenge")
+        .put("isBase64Encoded", true)
+        .put("body", Base64.getEncoder().encodeToString(body));
+  }
+
+  private static Context remaining(int millis) {
+    Context context = mock(Context.class);
+    when(context.getRemainingTimeInMillis()).thenReturn(millis);
+    return context;
+  }
+
+  private JsonNode invoke(String json) throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    handler.handleRequest(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), out, null);
+    return mapper.readTree(out.toByteArray());
+  }
+}
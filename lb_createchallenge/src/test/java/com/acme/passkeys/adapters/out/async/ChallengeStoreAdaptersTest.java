@@ -0,0 +1,126 @@
+package com.acme.passkeys.adapters.out.async;
+
+import com.acme.passkeys.adapters.out.memory.FakeRemoteChallengeStore;
+import com.acme.passkeys.adapters.out.memory.InMemoryChallengeStore;
+import com.acme.passkeys.adapters.out.memory.JitteryChallengeStore;
+import com.acme.passkeys.application.ports.out.ChallengeStore;
+import com.acme.passkeys.application.ports.out.ChallengeStoreUnavailableException;
+import com.acme.passkeys.domain.model.Challenge;
+import com.acme.passkeys.domain.model.ChallengeType;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ChallengeStoreAdaptersTest {
+
+  @Test
+  void asyncAdapter_runsBlockingSaveOnExecutor() throws Exception {
+    InMemoryChallengeStore store = new InMemoryChallengeStore();
+    ExecutorService executor = Executors.newSingleThreadExecutor(r -> new Thread(r, "store-io"));
+    try {
+      String[] thread = new String[1];
+      ChallengeStore recording = new InMemoryChallengeStore() {
+        @Override
+        public void save(Challenge ch) {
+          thread[0] = Thread.currentThread().getName();
+          store.save(ch);
+        }
+      };
+
+      new AsyncChallengeStoreAdapter(recording, executor).saveAsync(challenge("tx-1")).get(1, TimeUnit.SECONDS);
+
+      assertThat(thread[0]).isEqualTo("store-io");
+      assertThat(store.get("tx-1")).isNotNull();
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void asyncAdapter_propagatesFailureThroughFuture() {
+    FakeRemoteChallengeStore failing = new FakeRemoteChallengeStore();
+    failing.failing(true);
+
+    CompletableFuture<Void> f = new AsyncChallengeStoreAdapter(failing, Runnable::run).saveAsync(challenge("tx-1"));
+
+    assertThat(f).isCompletedExceptionally();
+  }
+
+  @Test
+  void asyncAdapter_reportsSaturatedExecutorAsUnavailableStore() {
+    CompletableFuture<Void> f = new AsyncChallengeStoreAdapter(new InMemoryChallengeStore(), task -> {
+      throw new RejectedExecutionException("full");
+    }).saveAsync(challenge("tx-1"));
+
+    assertThatThrownBy(f::get)
+        .isInstanceOf(ExecutionException.class)
+        .hasCauseInstanceOf(ChallengeStoreUnavailableException.class);
+  }
+
+  @Test
+  void blockingAdapter_waitsForAsyncStore() {
+    JitteryChallengeStore async = new JitteryChallengeStore(5, 5, 1L);
+
+    new BlockingChallengeStoreAdapter(async, Duration.ofSeconds(1)).save(challenge("tx-1"));
+
+    assertThat(async.get("tx-1")).isNotNull();
+  }
+
+  @Test
+  void blockingAdapter_failsWhenStoreExceedsTimeout() {
+    JitteryChallengeStore slow = new JitteryChallengeStore(500, 0, 1L);
+    BlockingChallengeStoreAdapter adapter = new BlockingChallengeStoreAdapter(slow, Duration.ofMillis(20));
+
+    assertThatThrownBy(() -> adapter.save(challenge("tx-1")))
+        .isInstanceOf(ChallengeStoreUnavailableException.class)
+        .hasMessageContaining("timed out")
+        .hasCauseInstanceOf(TimeoutException.class);
+  }
+
+  @Test
+  void blockingAdapter_reportsStoreFailureAsUnavailableStore() {
+    FakeRemoteChallengeStore failing = new FakeRemoteChallengeStore();
+    failing.failing(true);
+    BlockingChallengeStoreAdapter adapter = new BlockingChallengeStoreAdapter(
+        new AsyncChallengeStoreAdapter(failing, Runnable::run),
+        Duration.ofSeconds(1)
+    );
+
+    assertThatThrownBy(() -> adapter.save(challenge("tx-1")))
+        .isInstanceOf(ChallengeStoreUnavailableException.class)
+        .cause()
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessage("remote store unavailable");
+  }
+
+  @Test
+  void adaptersRoundTripFindAndConsume() {
+    InMemoryChallengeStore store = new InMemoryChallengeStore();
+    BlockingChallengeStoreAdapter adapter = new BlockingChallengeStoreAdapter(
+        new AsyncChallengeStoreAdapter(store, Runnable::run),
+        Duration.ofSeconds(1)
+    );
+
+    adapter.save(challenge("tx-1"));
+
+    assertThat(adapter.find("tx-1")).isPresent();
+    assertThat(adapter.consume("tx-1")).isPresent();
+    assertThat(adapter.find("tx-1")).isEmpty();
+  }
+
+  private static Challenge challenge(String id) {
+    Instant now = Instant.parse("2026-01-24T10:00:00Z");
+    return new Challenge(id, "user-1", ChallengeType.AUTHENTICATION, "C", "example.com",
+        "https://example.com", 5000, now, now.plusSeconds(120));
+  }
+}
@@ -0,0 +1,161 @@
+package com.acme.passkeys.adapters.out.audit;
+
+import com.acme.passkeys.application.ports.out.AuditLog;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.*;
+
+class RingBufferAuditLogTest {
+
+  private static final Clock FIXED = Clock.fixed(Instant.parse("2026-01-24T10:00:00Z"), ZoneOffset.UTC);
+
+  @TempDir
+  Path dir;
+
+  @Test
+  void concurrentProducers_everyEventWrittenOnce() throws Exception {
+    int producers = 4;
+    int perProducer = 5_000;
+    RingBufferAuditLog log = new RingBufferAuditLog(FIXED, 1 << 16, 64, Duration.ofMillis(1), files(1 << 16, 4));
+
+    CountDownLatch go = new CountDownLatch(1);
+    List<Thread> threads = new ArrayList<>();
+    for (int p = 0; p < producers; p++) {
+      String subject = "user-" + p;
+      Thread t = new Thread(() -> {
+        try {
+          go.await();
+        } catch (InterruptedException e) {
+          throw new IllegalStateException(e);
+        }
+        for (int i = 0; i < perProducer; i++) log.record(AuditLog.Ceremony.CHALLENGE, "ok-" + i, subject, "example.com");
+      });
+      t.start();
+      threads.add(t);
+    }
+    go.countDown();
+    for (Thread t : threads) t.join();
+    log.close();
+
+    List<AuditRecord.Entry> entries = readAll();
+    assertThat(entries).hasSize(producers * perProducer);
+    Set<String> distinct = new HashSet<>();
+    for (AuditRecord.Entry e : entries) distinct.add(e.subject() + "/" + e.outcome());
+    assertThat(distinct).hasSize(producers * perProducer);
+    assertThat(log.stats()).isEqualTo(new RingBufferAuditLog.Stats(producers * perProducer, 0, producers * perProducer, 0, 1, 1 << 16));
+  }
+
+  @Test
+  void fullRing_dropsAndCountsWithoutBlocking() throws Exception {
+    RingBufferAuditLog log = new RingBufferAuditLog(FIXED, 4, 64, Duration.ofHours(1), files(16, 4));
+    awaitParked();
+
+    for (int i = 0; i < 6; i++) log.record(AuditLog.Ceremony.REGISTRATION, "ok", "cred-" + i, "example.com");
+    assertThat(log.stats().recorded()).isEqualTo(4);
+    assertThat(log.stats().dropped()).isEqualTo(2);
+
+    log.close();
+    assertThat(readAll()).extracting(AuditRecord.Entry::subject).containsExactly("cred-0", "cred-1", "cred-2", "cred-3");
+    assertThat(log.record(AuditLog.Ceremony.REGISTRATION, "ok", "late", "example.com")).isFalse();
+    assertThat(log.stats().dropped()).isEqualTo(3);
+  }
+
+  @Test
+  void rotatesFullFiles_andKeepsOnlyTheNewest() throws Exception {
+    RingBufferAuditLog log = new RingBufferAuditLog(FIXED, 16, 64, Duration.ofMillis(1), files(2, 2));
+    for (int i = 0; i < 7; i++) log.record(AuditLog.Ceremony.AUTHENTICATION, "ok", "cred-" + i, "example.com");
+    log.close();
+
+    assertThat(AuditFileReader.files(dir)).hasSize(2);
+    assertThat(readAll()).extracting(AuditRecord.Entry::subject).containsExactly("cred-4", "cred-5", "cred-6");
+    assertThat(log.stats().files()).isEqualTo(4);
+  }
+
+  @Test
+  void unwritableDirectory_countsWriteErrorsAsDrops() throws Exception {
+    Path notADirectory = Files.createFile(dir.resolve("file"));
+    RingBufferAuditLog log = new RingBufferAuditLog(
+        FIXED, 16, 64, Duration.ofMillis(1), new MappedAuditFiles(notADirectory, "test", 16, 2, FIXED));
+    assertThat(log.record(AuditLog.Ceremony.CHALLENGE, "ok", "user-1", "example.com")).isTrue();
+    log.close();
+
+    assertThat(log.stats().writeErrors()).isEqualTo(1);
+    assertThat(log.stats().dropped()).isEqualTo(1);
+    assertThat(log.stats().written()).isZero();
+  }
+
+  @Test
+  void reader_roundTripsToNdjson() throws Exception {
+    RingBufferAuditLog log = new RingBufferAuditLog(FIXED, 16, 64, Duration.ofMillis(1), files(16, 2));
+    log.record(AuditLog.Ceremony.CHALLENGE, "ok", "user-1", "example.com");
+    log.record(AuditLog.Ceremony.AUTHENTICATION, "assertion_replayed", null, "x".repeat(200));
+    log.record(AuditLog.Ceremony.REGISTRATION, "invalid_request", "usuario-ñ", null);
+    log.close();
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    for (Path file : AuditFileReader.files(dir)) AuditFileReader.writeJson(file, out);
+    String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+    assertThat(lines).hasSize(3);
+
+    ObjectMapper mapper = new ObjectMapper();
+    JsonNode first = mapper.readTree(lines[0]);
+    assertThat(first.path("time").asText()).isEqualTo("2026-01-24T10:00:00Z");
+    assertThat(first.path("ceremony").asText()).isEqualTo("CHALLENGE");
+    assertThat(first.path("outcome").asText()).isEqualTo("ok");
+    assertThat(first.path("subject").asText()).isEqualTo("user-1");
+
+    JsonNode second = mapper.readTree(lines[1]);
+    assertThat(second.path("subject").isNull()).isTrue();
+    assertThat(second.path("rpId").asText()).hasSize(AuditRecord.RP_ID_MAX);
+
+    JsonNode third = mapper.readTree(lines[2]);
+    assertThat(third.path("subject").asText()).isEqualTo("usuario-?");
+    assertThat(third.path("rpId").isNull()).isTrue();
+  }
+
+  @Test
+  void reader_rejectsForeignFiles() throws Exception {
+    Path foreign = Files.write(dir.resolve("foreign.audit"), new byte[AuditRecord.HEADER_SIZE]);
+    assertThatThrownBy(() -> AuditFileReader.read(foreign))
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessageContaining("not an audit file");
+  }
+
+  private MappedAuditFiles files(int recordsPerFile, int maxFiles) {
+    return new MappedAuditFiles(dir, "test", recordsPerFile, maxFiles, FIXED);
+  }
+
+  private List<AuditRecord.Entry> readAll() throws Exception {
+    List<AuditRecord.Entry> entries = new ArrayList<>();
+    for (Path file : AuditFileReader.files(dir)) entries.addAll(AuditFileReader.read(file));
+    return entries;
+  }
+
+  // Con idle largo, el consumidor ya no drena hasta close()
+  private static void awaitParked() throws InterruptedException {
+    for (int i = 0; i < 1_000; i++) {
+      for (Thread t : Thread.getAllStackTraces().keySet()) {
+        if (t.getName().equals("audit-writer") && t.getState() == Thread.State.TIMED_WAITING) return;
+      }
+      Thread.sleep(5);
+    }
+    throw new AssertionError("audit-writer never parked");
+  }
+}
@@ -0,0 +1,182 @@
+package com.acme.passkeys.adapters.out.cache;
+
+import com.acme.passkeys.adapters.out.memory.FakeRemoteChallengeStore;
+import com.acme.passkeys.application.ports.out.ChallengeStore;
+import com.acme.passkeys.domain.model.Challenge;
+import com.acme.passkeys.domain.model.ChallengeType;
+import com.acme.passkeys.support.MutableClock;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+class NearCacheChallengeStoreTest {
+
+  private static final Instant T0 = Instant.parse("2026-01-24T10:00:00Z");
+  private static final Duration POSITIVE_TTL = Duration.ofSeconds(5);
+
+  @Test
+  void savedChallenge_isServedLocally_untilExpiry() {
+    MutableClock clock = new MutableClock(T0);
+    FakeRemoteChallengeStore remote = new FakeRemoteChallengeStore();
+    NearCacheChallengeStore store = new NearCacheChallengeStore(remote, clock, POSITIVE_TTL, Duration.ofSeconds(2), 1000);
+
+    store.save(challenge("tx-1", T0.plusSeconds(60)));
+    long afterSave = remote.roundTrips();
+
+    assertThat(store.find("tx-1")).isPresent();
+    assertThat(store.find("tx-1")).isPresent();
+    assertThat(remote.roundTrips()).isEqualTo(afterSave);
+    assertThat(store.stats().hits()).isEqualTo(2);
+
+    clock.advance(Duration.ofSeconds(60));
+    store.find("tx-1");
+
+    assertThat(remote.roundTrips()).isEqualTo(afterSave + 1);
+    assertThat(store.stats().misses()).isEqualTo(1);
+  }
+
+  @Test
+  void consumeOnAnotherInstance_isServedFromCache_atMostPositiveTtl() {
+    MutableClock clock = new MutableClock(T0);
+    FakeRemoteChallengeStore remote = new FakeRemoteChallengeStore();
+    NearCacheChallengeStore store = new NearCacheChallengeStore(remote, clock, POSITIVE_TTL, Duration.ZERO, 1000);
+    store.save(challenge("tx-1", T0.plusSeconds(120)));
+
+    // Otra instancia consume contra el mismo remoto
+    assertThat(remote.consume("tx-1")).isPresent();
+
+    clock.advance(POSITIVE_TTL.minusMillis(1));
+    assertThat(store.find("tx-1")).isPresent();
+    clock.advance(Duration.ofMillis(1));
+    assertThat(store.find("tx-1")).isEmpty();
+    // consume no se fía de la cache: el remoto ya no lo tiene
+    store.save(challenge("tx-2", T0.plusSeconds(120)));
+    assertThat(remote.consume("tx-2")).isPresent();
+    assertThat(store.consume("tx-2")).isEmpty();
+  }
+
+  @Test
+  void unknownIds_areNegativelyCached_forShortWhile() {
+    MutableClock clock = new MutableClock(T0);
+    FakeRemoteChallengeStore remote = new FakeRemoteChallengeStore();
+    NearCacheChallengeStore store = new NearCacheChallengeStore(remote, clock, POSITIVE_TTL, Duration.ofSeconds(2), 1000);
+
+    for (int i = 0; i < 100; i++) {
+      assertThat(store.find("replayed")).isEmpty();
+    }
+
+    assertThat(remote.roundTrips()).isEqualTo(1);
+    assertThat(store.stats().negativeHits()).isEqualTo(99);
+
+    clock.advance(Duration.ofSeconds(2));
+    store.find("replayed");
+    assertThat(remote.roundTrips()).isEqualTo(2);
+  }
+
+  @Test
+  void save_clearsNegativeEntry() {
+    FakeRemoteChallengeStore remote = new FakeRemoteChallengeStore();
+    NearCacheChallengeStore store = new NearCacheChallengeStore(remote, new MutableClock(T0), POSITIVE_TTL, Duration.ofSeconds(2), 1000);
+
+    assertThat(store.find("tx-1")).isEmpty();
+    store.save(challenge("tx-1", T0.plusSeconds(60)));
+
+    assertThat(store.find("tx-1")).isPresent();
+  }
+
+  @Test
+  void consume_invalidatesLocalEntry_andAbsorbsReplays() {
+    FakeRemoteChallengeStore remote = new FakeRemoteChallengeStore();
+    NearCacheChallengeStore store = new NearCacheChallengeStore(remote, new MutableClock(T0), POSITIVE_TTL, Duration.ofSeconds(2), 1000);
+
+    store.save(challenge("tx-1", T0.plusSeconds(60)));
+    assertThat(store.consume("tx-1")).isPresent();
+    long afterConsume = remote.roundTrips();
+
+    assertThat(store.find("tx-1")).isEmpty();
+    assertThat(remote.roundTrips()).isEqualTo(afterConsume);
+    assertThat(store.stats().negativeHits()).isEqualTo(1);
+  }
+
+  @Test
+  void remoteHit_isCachedLocally() {
+    FakeRemoteChallengeStore remote = new FakeRemoteChallengeStore();
+    remote.save(challenge("tx-1", T0.plusSeconds(60)));
+    NearCacheChallengeStore store = new NearCacheChallengeStore(remote, new MutableClock(T0), POSITIVE_TTL, Duration.ofSeconds(2), 1000);
+
+    store.find("tx-1");
+    store.find("tx-1");
+
+    assertThat(store.stats().misses()).isEqualTo(1);
+    assertThat(store.stats().hits()).isEqualTo(1);
+  }
+
+  @Test
+  void boundedSize_evictsTheOldestEntry() {
+    FakeRemoteChallengeStore remote = new FakeRemoteChallengeStore();
+    NearCacheChallengeStore store = new NearCacheChallengeStore(remote, new MutableClock(T0), POSITIVE_TTL, Duration.ofSeconds(2), 2);
+
+    store.save(challenge("tx-1", T0.plusSeconds(60)));
+    store.save(challenge("tx-2", T0.plusSeconds(60)));
+    store.save(challenge("tx-3", T0.plusSeconds(60)));
+
+    assertThat(store.stats().positiveEntries()).isEqualTo(2);
+    assertThat(store.find("tx-3")).isPresent();
+    assertThat(store.find("tx-2")).isPresent();
+    assertThat(store.stats().hits()).isEqualTo(2);
+
+    assertThat(store.find("tx-1")).isPresent();
+    assertThat(store.stats().misses()).isEqualTo(1);
+    assertThat(store.stats().positiveEntries()).isEqualTo(2);
+  }
+
+  @Test
+  void findRacingConsume_doesNotRecacheTheConsumedChallenge() throws Exception {
+    FakeRemoteChallengeStore backing = new FakeRemoteChallengeStore();
+    backing.save(challenge("tx-1", T0.plusSeconds(60)));
+    CountDownLatch read = new CountDownLatch(1);
+    CountDownLatch consumed = new CountDownLatch(1);
+    // El find lee del remoto y se queda parado antes de cachear mientras otro hilo consume
+    ChallengeStore remote = new ChallengeStore() {
+      @Override public void save(Challenge challenge) { backing.save(challenge); }
+      @Override public Optional<Challenge> consume(String id) { return backing.consume(id); }
+      @Override public Optional<Challenge> find(String id) {
+        Optional<Challenge> found = backing.find(id);
+        read.countDown();
+        await(consumed);
+        return found;
+      }
+    };
+    NearCacheChallengeStore store = new NearCacheChallengeStore(remote, new MutableClock(T0), POSITIVE_TTL, Duration.ZERO, 1000);
+
+    CompletableFuture<Optional<Challenge>> racingFind = CompletableFuture.supplyAsync(() -> store.find("tx-1"));
+    await(read);
+    assertThat(store.consume("tx-1")).isPresent();
+    consumed.countDown();
+    assertThat(racingFind.get(5, TimeUnit.SECONDS)).isPresent();
+
+    assertThat(store.stats().positiveEntries()).isZero();
+    assertThat(store.find("tx-1")).isEmpty();
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      if (!latch.await(5, TimeUnit.SECONDS)) throw new IllegalStateException("timeout");
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static Challenge challenge(String id, Instant expiresAt) {
+    return new Challenge(id, "user-1", ChallengeType.AUTHENTICATION, "C", "example.com",
+        "https://example.com", 5000, T0, expiresAt);
+  }
+}
@@ -0,0 +1,141 @@
+package com.acme.passkeys.adapters.out.jfr;
+
+import com.acme.passkeys.adapters.in.function.dto.ChallengeRequest;
+import com.acme.passkeys.adapters.out.async.AsyncChallengeStoreAdapter;
+import com.acme.passkeys.adapters.out.memory.InMemoryChallengeStore;
+import com.acme.passkeys.application.ports.out.ChallengeStore;
+import com.acme.passkeys.application.ports.out.ChallengeStoreUnavailableException;
+import com.acme.passkeys.application.service.CreateChallengeService;
+import com.acme.passkeys.application.service.IssuedChallengeCache;
+import com.acme.passkeys.domain.model.Challenge;
+import com.acme.passkeys.domain.service.ChallengeGenerator;
+import com.acme.passkeys.domain.service.ChallengeSealer;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ChallengeJfrEventsTest {
+
+  private static final String RP_ID = "jfr.example.com"; // filtra eventos de otros tests del mismo JVM
+  private static final String USER_ID = "user-jfr-secret";
+  private static final String TX_ID = "tx-jfr-secret";
+
+  @TempDir
+  Path dir;
+
+  @Test
+  void issuedAndStoreSaveEvents_areComplete_andCarryNoUserIdentifiers() throws Exception {
+    List<RecordedEvent> events = record(Duration.ZERO, () -> {
+      service(new JfrChallengeStore(new InMemoryChallengeStore()), null).handle(request(TX_ID));
+      service(new JfrChallengeStore(new UnavailableStore()), sealer()).handle(request(null));
+      assertThatThrownBy(() -> service(new JfrChallengeStore(new UnavailableStore()), null).handle(request(null)))
+          .isInstanceOf(ChallengeStoreUnavailableException.class);
+    });
+
+    List<RecordedEvent> issued = named(events, ChallengeIssuedEvent.NAME);
+    assertThat(issued).hasSize(3);
+    assertThat(issued).allSatisfy(e -> {
+      assertThat(e.getString("rpId")).isEqualTo(RP_ID);
+      assertThat(e.getString("ceremony")).isEqualTo("REGISTRATION");
+      assertThat(e.getString("algorithm")).isNotBlank();
+      assertThat(e.getDuration().isNegative()).isFalse();
+    });
+    assertThat(issued).extracting(e -> e.getString("outcome"))
+        .containsExactlyInAnyOrder("ok", "ok", "ChallengeStoreUnavailableException");
+    assertThat(issued).extracting(e -> e.getString("algorithm")).contains("HmacSHA256");
+    assertThat(issued).filteredOn(e -> e.getString("outcome").equals("ok"))
+        .allSatisfy(e -> assertThat(e.getInt("challengeSize")).isGreaterThanOrEqualTo(43)); // 32 bytes en base64url
+
+    List<RecordedEvent> saves = named(events, ChallengeStoreSaveEvent.NAME);
+    assertThat(saves).hasSize(3);
+    assertThat(saves).extracting(e -> e.getString("store"))
+        .containsExactlyInAnyOrder("InMemoryChallengeStore", "UnavailableStore", "UnavailableStore");
+    assertThat(saves).extracting(e -> e.getString("outcome"))
+        .containsExactlyInAnyOrder("ok", "ChallengeStoreUnavailableException", "ChallengeStoreUnavailableException");
+    assertThat(saves).allSatisfy(e -> {
+      assertThat(e.getString("rpId")).isEqualTo(RP_ID);
+      assertThat(e.getInt("challengeSize")).isEqualTo(43);
+    });
+
+    assertThat(events).allSatisfy(e -> e.getFields().forEach(f -> assertThat(String.valueOf((Object) e.getValue(f.getName())))
+        .doesNotContain(USER_ID)
+        .doesNotContain(TX_ID)));
+  }
+
+  @Test
+  void eventsUnderThreshold_areNotRecorded() throws Exception {
+    List<RecordedEvent> events = record(Duration.ofHours(1), () ->
+        service(new JfrChallengeStore(new InMemoryChallengeStore()), null).handle(request(null)));
+
+    assertThat(named(events, ChallengeIssuedEvent.NAME)).isEmpty();
+    assertThat(named(events, ChallengeStoreSaveEvent.NAME)).isEmpty();
+  }
+
+  private List<RecordedEvent> record(Duration threshold, Runnable body) throws Exception {
+    Path file = dir.resolve("passkeys.jfr");
+    try (Recording recording = new Recording()) {
+      recording.enable(ChallengeIssuedEvent.NAME).withThreshold(threshold);
+      recording.enable(ChallengeStoreSaveEvent.NAME).withThreshold(threshold);
+      recording.start();
+      body.run();
+      recording.stop();
+      recording.dump(file);
+    }
+    return RecordingFile.readAllEvents(file);
+  }
+
+  private static List<RecordedEvent> named(List<RecordedEvent> events, String name) {
+    return events.stream()
+        .filter(e -> e.getEventType().getName().equals(name))
+        .filter(e -> RP_ID.equals(e.getString("rpId")))
+        .toList();
+  }
+
+  private static CreateChallengeService service(ChallengeStore store, ChallengeSealer sealer) {
+    Clock clock = Clock.systemUTC();
+    return new CreateChallengeService(
+        new ChallengeGenerator(new SecureRandom()),
+        store,
+        new AsyncChallengeStoreAdapter(store, Runnable::run),
+        clock,
+        new IssuedChallengeCache(clock, Duration.ofSeconds(30)),
+        CreateChallengeService.Options.DEFAULTS.withSealer(sealer).withTrace(new JfrChallengeIssuanceTrace())
+    );
+  }
+
+  private static ChallengeSealer sealer() {
+    return new ChallengeSealer(new byte[32], new SecureRandom());
+  }
+
+  private static ChallengeRequest request(String transactionId) {
+    return new ChallengeRequest("REGISTRATION", USER_ID, RP_ID, "https://" + RP_ID, 60_000, transactionId, 0, 0);
+  }
+
+  private static final class UnavailableStore implements ChallengeStore {
+    @Override
+    public void save(Challenge challenge) {
+      throw new ChallengeStoreUnavailableException("down");
+    }
+
+    @Override
+    public Optional<Challenge> find(String id) {
+      return Optional.empty();
+    }
+
+    @Override
+    public Optional<Challenge> consume(String id) {
+      return Optional.empty();
+    }
+  }
+}
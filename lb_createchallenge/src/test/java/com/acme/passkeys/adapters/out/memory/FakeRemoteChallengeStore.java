@@ -0,0 +1,61 @@
+package com.acme.passkeys.adapters.out.memory;
+
+import com.acme.passkeys.application.ports.out.ChallengeStore;
+import com.acme.passkeys.domain.model.Challenge;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/** Store "remoto" en proceso: cuenta round-trips y simula latencia de red. */
+public class FakeRemoteChallengeStore implements ChallengeStore {
+
+  private final InMemoryChallengeStore delegate = new InMemoryChallengeStore();
+  private volatile long latencyNanos;
+  private final AtomicLong roundTrips = new AtomicLong();
+  private volatile boolean failing;
+
+  public FakeRemoteChallengeStore() {
+    this(0);
+  }
+
+  public FakeRemoteChallengeStore(long latencyNanos) {
+    this.latencyNanos = latencyNanos;
+  }
+
+  @Override
+  public void save(Challenge challenge) {
+    roundTrip();
+    delegate.save(challenge);
+  }
+
+  @Override
+  public Optional<Challenge> find(String id) {
+    roundTrip();
+    return delegate.find(id);
+  }
+
+  @Override
+  public Optional<Challenge> consume(String id) {
+    roundTrip();
+    return delegate.consume(id);
+  }
+
+  public long roundTrips() {
+    return roundTrips.get();
+  }
+
+  public void latencyNanos(long latencyNanos) {
+    this.latencyNanos = latencyNanos;
+  }
+
+  public void failing(boolean failing) {
+    this.failing = failing;
+  }
+
+  private void roundTrip() {
+    roundTrips.incrementAndGet();
+    if (latencyNanos > 0) LockSupport.parkNanos(latencyNanos);
+    if (failing) throw new IllegalStateException("remote store unavailable");
+  }
+}
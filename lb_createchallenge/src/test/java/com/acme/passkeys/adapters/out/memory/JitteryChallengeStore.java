@@ -0,0 +1,66 @@
+package com.acme.passkeys.adapters.out.memory;
+
+import com.acme.passkeys.application.ports.out.AsyncChallengeStore;
+import com.acme.passkeys.domain.model.Challenge;
+
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/** Store en proceso que confirma cada escritura tras {@code baseMs + [0, jitterMs)} ms. */
+public class JitteryChallengeStore implements AsyncChallengeStore {
+
+  private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(r -> {
+    Thread t = new Thread(r, "jittery-store");
+    t.setDaemon(true);
+    return t;
+  });
+
+  private final InMemoryChallengeStore delegate = new InMemoryChallengeStore();
+  private final SplittableRandom random;
+  private final long baseMs;
+  private final long jitterMs;
+
+  public JitteryChallengeStore(long baseMs, long jitterMs, long seed) {
+    this.baseMs = baseMs;
+    this.jitterMs = jitterMs;
+    this.random = new SplittableRandom(seed);
+  }
+
+  @Override
+  public CompletableFuture<Void> saveAsync(Challenge challenge) {
+    return later(() -> {
+      delegate.save(challenge);
+      return null;
+    });
+  }
+
+  @Override
+  public CompletableFuture<Optional<Challenge>> findAsync(String id) {
+    return later(() -> delegate.find(id));
+  }
+
+  @Override
+  public CompletableFuture<Optional<Challenge>> consumeAsync(String id) {
+    return later(() -> delegate.consume(id));
+  }
+
+  public Challenge get(String id) {
+    return delegate.get(id);
+  }
+
+  private <T> CompletableFuture<T> later(Supplier<T> op) {
+    long delay = baseMs + (jitterMs > 0 ? nextJitter() : 0);
+    CompletableFuture<T> done = new CompletableFuture<>();
+    SCHEDULER.schedule(() -> done.complete(op.get()), delay, TimeUnit.MILLISECONDS);
+    return done;
+  }
+
+  private synchronized long nextJitter() {
+    return random.nextLong(jitterMs);
+  }
+}
@@ -0,0 +1,77 @@
+package com.acme.passkeys.adapters.out.metrics;
+
+import com.acme.passkeys.adapters.out.resilience.CircuitBreaker;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.*;
+
+class EmfCircuitBreakerMetricsTest {
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+  private static final Clock FIXED = Clock.fixed(Instant.parse("2026-01-24T10:00:00Z"), ZoneOffset.UTC);
+
+  private final List<String> lines = new CopyOnWriteArrayList<>();
+
+  @Test
+  void transition_writesTheTransitionAndTheStats() throws Exception {
+    EmfCircuitBreakerMetrics metrics = new EmfCircuitBreakerMetrics("Passkeys", "createChallenge", Duration.ZERO, lines::add, FIXED);
+    CircuitBreaker breaker = metrics.watch(new CircuitBreaker(settings(), FIXED, metrics));
+
+    breaker.onFailure();
+    breaker.onFailure();
+
+    assertThat(lines).hasSize(2);
+    JsonNode transition = MAPPER.readTree(lines.get(0));
+    JsonNode directive = transition.path("_aws").path("CloudWatchMetrics").get(0);
+    assertThat(transition.path("_aws").path("Timestamp").asLong()).isEqualTo(FIXED.millis());
+    assertThat(directive.path("Namespace").asText()).isEqualTo("Passkeys");
+    assertThat(directive.path("Dimensions").get(0)).containsExactly(MAPPER.readTree("\"Service\""), MAPPER.readTree("\"Transition\""));
+    assertThat(transition.path("Service").asText()).isEqualTo("createChallenge");
+    assertThat(transition.path("Transition").asText()).isEqualTo("CLOSED->OPEN");
+    assertThat(transition.path("BreakerTransitions").asLong()).isEqualTo(1);
+
+    JsonNode stats = MAPPER.readTree(lines.get(1));
+    assertThat(stats.path("BreakerState").asInt()).isEqualTo(2);
+    assertThat(stats.path("BreakerFailureRate").asDouble()).isEqualTo(100.0);
+    assertThat(stats.path("BreakerRejected").asLong()).isZero();
+  }
+
+  @Test
+  void flush_reportsRejectionsSinceTheLastFlush() throws Exception {
+    EmfCircuitBreakerMetrics metrics = new EmfCircuitBreakerMetrics("Passkeys", "createChallenge", Duration.ZERO, lines::add, FIXED);
+    CircuitBreaker breaker = metrics.watch(new CircuitBreaker(settings(), FIXED, metrics));
+    breaker.onFailure();
+    breaker.onFailure();
+
+    breaker.tryAcquire();
+    breaker.tryAcquire();
+    metrics.flush();
+    breaker.tryAcquire();
+    metrics.flush();
+
+    assertThat(MAPPER.readTree(lines.get(2)).path("BreakerRejected").asLong()).isEqualTo(2);
+    assertThat(MAPPER.readTree(lines.get(3)).path("BreakerRejected").asLong()).isEqualTo(1);
+  }
+
+  @Test
+  void flush_beforeWatching_writesNothing() {
+    EmfCircuitBreakerMetrics metrics = new EmfCircuitBreakerMetrics("Passkeys", "createChallenge", Duration.ZERO, lines::add, FIXED);
+
+    metrics.close();
+
+    assertThat(lines).isEmpty();
+  }
+
+  private static CircuitBreaker.Settings settings() {
+    return new CircuitBreaker.Settings(4, 2, 0.5, Duration.ofSeconds(1), 1.0, Duration.ofSeconds(30), 1);
+  }
+}
@@ -0,0 +1,159 @@
+package com.acme.passkeys.adapters.out.metrics;
+
+import com.acme.passkeys.application.ports.out.StageMetrics;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+class EmfStageMetricsTest {
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+  private static final Clock FIXED = Clock.fixed(Instant.parse("2026-01-24T10:00:00Z"), ZoneOffset.UTC);
+
+  private final List<String> lines = new CopyOnWriteArrayList<>();
+
+  @Test
+  void flush_writesOneEmfLinePerStageAndReason() throws Exception {
+    EmfStageMetrics metrics = metrics(Duration.ofHours(1), 1);
+
+    metrics.recordStage("parse", micros(120));
+    metrics.recordStage("parse", micros(120));
+    metrics.recordStage("parse", micros(5_000));
+    metrics.recordStage("decode", micros(2));
+    metrics.recordOutcome(StageMetrics.OK);
+    metrics.recordOutcome(StageMetrics.OK);
+    metrics.recordOutcome("BadSignatureException");
+    assertThat(lines).isEmpty();
+
+    metrics.flush();
+
+    assertThat(lines).hasSize(4);
+    JsonNode decode = MAPPER.readTree(lines.get(0));
+    JsonNode directive = decode.path("_aws").path("CloudWatchMetrics").get(0);
+    assertThat(decode.path("_aws").path("Timestamp").asLong()).isEqualTo(FIXED.millis());
+    assertThat(directive.path("Namespace").asText()).isEqualTo("Passkeys");
+    assertThat(directive.path("Dimensions").get(0)).containsExactly(MAPPER.readTree("\"Service\""), MAPPER.readTree("\"Stage\""));
+    assertThat(directive.path("Metrics").get(0).path("Unit").asText()).isEqualTo("Microseconds");
+    assertThat(decode.path("Service").asText()).isEqualTo("finishAuthentication");
+    assertThat(decode.path("Stage").asText()).isEqualTo("decode");
+
+    JsonNode parse = MAPPER.readTree(lines.get(1));
+    assertThat(parse.path("Stage").asText()).isEqualTo("parse");
+    assertThat(parse.path("StageLatency").path("Counts").toString()).isEqualTo("[2,1]");
+    assertThat(parse.path("StageLatency").path("Values").get(0).asLong()).isCloseTo(120, withinPercentage(12.5));
+    assertThat(parse.path("StageLatency").path("Values").get(1).asLong()).isCloseTo(5_000, withinPercentage(12.5));
+
+    JsonNode failed = MAPPER.readTree(lines.get(2));
+    assertThat(failed.path("Outcome").asText()).isEqualTo("BadSignatureException");
+    assertThat(failed.path("Invocations").asLong()).isEqualTo(1);
+    assertThat(MAPPER.readTree(lines.get(3)).path("Invocations").asLong()).isEqualTo(2);
+
+    lines.clear();
+    metrics.flush();
+    assertThat(lines).as("cada flush publica sólo lo nuevo").isEmpty();
+  }
+
+  @Test
+  void zeroInterval_publishesAtTheEndOfEachInvocation() {
+    EmfStageMetrics metrics = metrics(Duration.ZERO, 1);
+
+    long start = metrics.start();
+    metrics.lap("validateRequest", start);
+    metrics.complete(StageMetrics.OK, start);
+
+    assertThat(lines).hasSize(3).allSatisfy(l -> assertThat(l).startsWith("{\"_aws\""));
+  }
+
+  @Test
+  void interval_publishesFromBackgroundThread_andCloseFlushesTheRest() throws Exception {
+    EmfStageMetrics metrics = metrics(Duration.ofMillis(20), 1);
+
+    metrics.recordOutcome(StageMetrics.OK);
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (lines.isEmpty() && System.nanoTime() < deadline) Thread.sleep(5);
+    assertThat(lines).hasSize(1);
+
+    metrics.close();
+    metrics.recordOutcome("late");
+    metrics.close();
+    assertThat(lines).hasSize(2);
+    assertThat(MAPPER.readTree(lines.get(1)).path("Outcome").asText()).isEqualTo("late");
+  }
+
+  @Test
+  void reasons_areCappedToKeepCardinalityLow() throws Exception {
+    EmfStageMetrics metrics = metrics(Duration.ofHours(1), 1);
+
+    for (int i = 0; i < EmfStageMetrics.MAX_REASONS + 10; i++) metrics.recordOutcome("reason-" + i);
+    metrics.flush();
+
+    assertThat(lines).hasSize(EmfStageMetrics.MAX_REASONS + 1);
+    JsonNode other = null;
+    for (String line : lines) {
+      JsonNode n = MAPPER.readTree(line);
+      if (n.path("Outcome").asText().equals(EmfStageMetrics.OTHER)) other = n;
+    }
+    assertThat(other).isNotNull();
+    assertThat(other.path("Invocations").asLong()).isEqualTo(10);
+  }
+
+  @Test
+  void sampledTimers_countEachSampleSampleEveryTimes() throws Exception {
+    EmfStageMetrics metrics = metrics(Duration.ofHours(1), 8);
+
+    int sampled = 0;
+    for (int i = 0; i < 8_000; i++) {
+      long start = metrics.start();
+      if (start != StageMetrics.UNSAMPLED) sampled++;
+      metrics.complete(StageMetrics.OK, start);
+    }
+    metrics.flush();
+
+    assertThat(sampled).isBetween(700, 1_300);
+    JsonNode total = MAPPER.readTree(lines.get(0));
+    long counted = 0;
+    for (JsonNode c : total.path("StageLatency").path("Counts")) counted += c.asLong();
+    assertThat(counted).isEqualTo(sampled * 8L);
+    assertThat(MAPPER.readTree(lines.get(1)).path("Invocations").asLong()).as("los contadores no se muestrean").isEqualTo(8_000);
+  }
+
+  @Test
+  void buckets_areMonotonicWithBoundedRelativeError() {
+    int previous = -1;
+    for (long micros = 0; micros < 30_000_000; micros = micros < 64 ? micros + 1 : micros * 9 / 8) {
+      int bucket = EmfStageMetrics.Histogram.bucket(micros);
+      assertThat(bucket).isGreaterThanOrEqualTo(previous).isLessThan(EmfStageMetrics.Histogram.BUCKETS);
+      if (micros > 0) {
+        assertThat((double) EmfStageMetrics.Histogram.value(bucket)).isCloseTo(micros, withinPercentage(12.5));
+      }
+      previous = bucket;
+    }
+    assertThat(EmfStageMetrics.Histogram.bucket(Long.MAX_VALUE)).isEqualTo(EmfStageMetrics.Histogram.BUCKETS - 1);
+  }
+
+  @Test
+  void noop_neverReadsTheClock() {
+    long start = StageMetrics.NOOP.start();
+
+    assertThat(start).isEqualTo(StageMetrics.UNSAMPLED);
+    assertThat(StageMetrics.NOOP.lap("stage", start)).isEqualTo(StageMetrics.UNSAMPLED);
+  }
+
+  private EmfStageMetrics metrics(Duration interval, int sampleEvery) {
+    return new EmfStageMetrics("Passkeys", "finishAuthentication", interval, sampleEvery, lines::add, FIXED);
+  }
+
+  private static long micros(long us) {
+    return TimeUnit.MICROSECONDS.toNanos(us);
+  }
+}
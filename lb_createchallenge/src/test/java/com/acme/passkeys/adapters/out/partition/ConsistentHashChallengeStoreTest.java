@@ -0,0 +1,167 @@
+package com.acme.passkeys.adapters.out.partition;
+
+import com.acme.passkeys.adapters.out.memory.FakeRemoteChallengeStore;
+import com.acme.passkeys.adapters.out.memory.InMemoryChallengeStore;
+import com.acme.passkeys.domain.model.Challenge;
+import com.acme.passkeys.domain.model.ChallengeType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ConsistentHashChallengeStoreTest {
+
+  private static final int KEYS = 20_000;
+
+  private final ExecutorService executor = Executors.newCachedThreadPool();
+
+  @AfterEach
+  void shutdown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  void keysAreSpreadEvenlyAcrossBackends() {
+    ConsistentHashChallengeStore store = router(4, 160);
+
+    Map<String, Integer> perBackend = new HashMap<>();
+    for (int i = 0; i < KEYS; i++) {
+      perBackend.merge(store.primaryFor("tx-" + i), 1, Integer::sum);
+    }
+
+    double mean = KEYS / 4.0;
+    assertThat(perBackend).hasSize(4);
+    assertThat(perBackend.values()).allSatisfy(n -> assertThat((double) n).isBetween(mean * 0.8, mean * 1.2));
+  }
+
+  @Test
+  void addingBackend_remapsOnlyItsShareOfKeys() {
+    ConsistentHashChallengeStore store = router(4, 160);
+    Map<String, String> before = assignments(store);
+
+    store.addBackend("store-4", new InMemoryChallengeStore());
+    Map<String, String> after = assignments(store);
+
+    long moved = before.keySet().stream().filter(k -> !before.get(k).equals(after.get(k))).count();
+    assertThat(moved / (double) KEYS).isBetween(0.12, 0.28); // ideal 1/5
+    assertThat(before.keySet().stream().filter(k -> !before.get(k).equals(after.get(k))))
+        .allSatisfy(k -> assertThat(after.get(k)).isEqualTo("store-4"));
+  }
+
+  @Test
+  void removingBackend_onlyRemapsItsKeys() {
+    ConsistentHashChallengeStore store = router(4, 160);
+    Map<String, String> before = assignments(store);
+
+    store.removeBackend("store-2");
+    Map<String, String> after = assignments(store);
+
+    assertThat(before.keySet())
+        .filteredOn(k -> !before.get(k).equals("store-2"))
+        .allSatisfy(k -> assertThat(after.get(k)).isEqualTo(before.get(k)));
+  }
+
+  @Test
+  void savedChallenge_isReadAndConsumedFromItsPartition() {
+    ConsistentHashChallengeStore store = router(3, 64);
+
+    for (int i = 0; i < 300; i++) {
+      store.save(challenge("tx-" + i));
+    }
+    for (int i = 0; i < 300; i++) {
+      assertThat(store.find("tx-" + i)).isPresent();
+    }
+    assertThat(store.consume("tx-7")).isPresent();
+    assertThat(store.find("tx-7")).isEmpty();
+
+    Map<String, ConsistentHashChallengeStore.PartitionLoad> load = store.load();
+    assertThat(load).hasSize(3);
+    assertThat(load.values().stream().mapToLong(ConsistentHashChallengeStore.PartitionLoad::saves).sum()).isEqualTo(300);
+    assertThat(load.values()).allSatisfy(l -> assertThat(l.saves()).isPositive());
+  }
+
+  @Test
+  void slowPrimary_isHedgedToReplica() {
+    ConsistentHashChallengeStore store = new ConsistentHashChallengeStore(64, Duration.ofMillis(10), executor);
+    Map<String, FakeRemoteChallengeStore> backends = new HashMap<>();
+    for (int i = 0; i < 3; i++) {
+      FakeRemoteChallengeStore b = new FakeRemoteChallengeStore();
+      backends.put("store-" + i, b);
+      store.addBackend("store-" + i, b);
+    }
+
+    store.save(challenge("tx-1"));
+    String primary = store.primaryFor("tx-1");
+    backends.get(primary).latencyNanos(TimeUnit.MILLISECONDS.toNanos(500));
+
+    long start = System.nanoTime();
+    assertThat(store.find("tx-1")).isPresent();
+    long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+    assertThat(elapsedMs).isLessThan(300);
+    assertThat(store.load().get(primary).hedgedReads()).isEqualTo(1);
+  }
+
+  @Test
+  void failingPrimary_isServedByReplica() {
+    ConsistentHashChallengeStore store = new ConsistentHashChallengeStore(64, Duration.ofMillis(50), executor);
+    Map<String, FakeRemoteChallengeStore> backends = new HashMap<>();
+    for (int i = 0; i < 3; i++) {
+      FakeRemoteChallengeStore b = new FakeRemoteChallengeStore();
+      backends.put("store-" + i, b);
+      store.addBackend("store-" + i, b);
+    }
+
+    store.save(challenge("tx-1"));
+    backends.get(store.primaryFor("tx-1")).failing(true);
+
+    assertThat(store.find("tx-1")).isPresent();
+  }
+
+  @Test
+  void withoutBackends_failsClearly() {
+    ConsistentHashChallengeStore store = new ConsistentHashChallengeStore(16);
+
+    assertThatThrownBy(() -> store.save(challenge("tx-1")))
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessageContaining("no challenge store backends");
+  }
+
+  @Test
+  void duplicateBackendName_isRejected() {
+    ConsistentHashChallengeStore store = router(1, 16);
+
+    assertThatThrownBy(() -> store.addBackend("store-0", new InMemoryChallengeStore()))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  private static ConsistentHashChallengeStore router(int backends, int virtualNodes) {
+    ConsistentHashChallengeStore store = new ConsistentHashChallengeStore(virtualNodes);
+    for (int i = 0; i < backends; i++) {
+      store.addBackend("store-" + i, new InMemoryChallengeStore());
+    }
+    return store;
+  }
+
+  private static Map<String, String> assignments(ConsistentHashChallengeStore store) {
+    Map<String, String> out = new HashMap<>();
+    for (int i = 0; i < KEYS; i++) {
+      out.put("tx-" + i, store.primaryFor("tx-" + i));
+    }
+    return out;
+  }
+
+  private static Challenge challenge(String id) {
+    Instant now = Instant.parse("2026-01-24T10:00:00Z");
+    return new Challenge(id, "user-1", ChallengeType.AUTHENTICATION, "C", "example.com",
+        "https://example.com", 5000, now, now.plusSeconds(120));
+  }
+}
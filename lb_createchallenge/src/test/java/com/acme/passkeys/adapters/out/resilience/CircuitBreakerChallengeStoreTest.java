@@ -0,0 +1,48 @@
+package com.acme.passkeys.adapters.out.resilience;
+
+import com.acme.passkeys.adapters.out.memory.FakeRemoteChallengeStore;
+import com.acme.passkeys.application.ports.out.ChallengeStoreUnavailableException;
+import com.acme.passkeys.domain.model.Challenge;
+import com.acme.passkeys.domain.model.ChallengeType;
+import com.acme.passkeys.support.MutableClock;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.*;
+
+class CircuitBreakerChallengeStoreTest {
+
+  @Test
+  void failures_areReportedAsUnavailable_andOpenCircuitShortCircuits() {
+    FakeRemoteChallengeStore remote = new FakeRemoteChallengeStore();
+    CircuitBreaker cb = new CircuitBreaker(
+        new CircuitBreaker.Settings(4, 2, 0.5, Duration.ofSeconds(1), 1.0, Duration.ofSeconds(30), 1),
+        new MutableClock(Instant.EPOCH)
+    );
+    CircuitBreakerChallengeStore store = new CircuitBreakerChallengeStore(remote, cb);
+
+    store.save(challenge("tx-ok"));
+    assertThat(store.find("tx-ok")).isPresent();
+
+    remote.failing(true);
+    assertThatThrownBy(() -> store.save(challenge("tx-1")))
+        .isInstanceOf(ChallengeStoreUnavailableException.class)
+        .hasRootCauseMessage("remote store unavailable");
+    assertThatThrownBy(() -> store.consume("tx-1")).isInstanceOf(ChallengeStoreUnavailableException.class);
+    assertThat(cb.state()).isEqualTo(CircuitBreaker.State.OPEN);
+
+    long roundTrips = remote.roundTrips();
+    assertThatThrownBy(() -> store.save(challenge("tx-2")))
+        .isInstanceOf(ChallengeStoreUnavailableException.class)
+        .hasMessageContaining("circuit is open");
+    assertThat(remote.roundTrips()).isEqualTo(roundTrips);
+  }
+
+  private static Challenge challenge(String id) {
+    Instant now = Instant.parse("2026-01-24T10:00:00Z");
+    return new Challenge(id, "user-1", ChallengeType.AUTHENTICATION, "C", "example.com",
+        "https://example.com", 5000, now, now.plusSeconds(120));
+  }
+}
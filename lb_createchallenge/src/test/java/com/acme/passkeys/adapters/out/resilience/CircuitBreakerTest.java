@@ -0,0 +1,93 @@
+package com.acme.passkeys.adapters.out.resilience;
+
+import com.acme.passkeys.support.MutableClock;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class CircuitBreakerTest {
+
+  private static final CircuitBreaker.Settings SETTINGS = new CircuitBreaker.Settings(
+      10, 5, 0.5, Duration.ofMillis(100), 0.5, Duration.ofSeconds(10), 2
+  );
+
+  @Test
+  void opensOnFailureRate_andRejectsWhileOpen() {
+    CircuitBreaker cb = new CircuitBreaker(SETTINGS, new MutableClock(Instant.EPOCH));
+
+    for (int i = 0; i < 2; i++) cb.onSuccess(Duration.ofMillis(1));
+    for (int i = 0; i < 2; i++) cb.onFailure();
+    assertThat(cb.state()).isEqualTo(CircuitBreaker.State.CLOSED); // por debajo de minimumCalls
+
+    cb.onFailure();
+    assertThat(cb.state()).isEqualTo(CircuitBreaker.State.OPEN);
+    assertThat(cb.tryAcquire()).isFalse();
+    assertThat(cb.stats().rejected()).isEqualTo(1);
+  }
+
+  @Test
+  void opensOnSlowCallRate() {
+    CircuitBreaker cb = new CircuitBreaker(SETTINGS, new MutableClock(Instant.EPOCH));
+
+    for (int i = 0; i < 5; i++) cb.onSuccess(Duration.ofMillis(500));
+
+    assertThat(cb.state()).isEqualTo(CircuitBreaker.State.OPEN);
+    assertThat(cb.stats().slowCallRate()).isEqualTo(1.0);
+  }
+
+  @Test
+  void oldOutcomesSlideOutOfWindow() {
+    CircuitBreaker cb = new CircuitBreaker(SETTINGS, new MutableClock(Instant.EPOCH));
+
+    for (int i = 0; i < 2; i++) cb.onFailure();
+    for (int i = 0; i < 10; i++) cb.onSuccess(Duration.ofMillis(1));
+
+    assertThat(cb.stats().failureRate()).isZero();
+    assertThat(cb.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+  }
+
+  @Test
+  void halfOpenProbes_closeOnSuccess_reopenOnFailure() {
+    MutableClock clock = new MutableClock(Instant.EPOCH);
+    List<CircuitBreaker.Transition> transitions = new ArrayList<>();
+    CircuitBreaker cb = new CircuitBreaker(SETTINGS, clock, transitions::add);
+
+    for (int i = 0; i < 5; i++) cb.onFailure();
+    clock.advance(Duration.ofSeconds(10));
+
+    assertThat(cb.tryAcquire()).isTrue();
+    assertThat(cb.state()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+    assertThat(cb.tryAcquire()).isTrue();
+    assertThat(cb.tryAcquire()).isFalse(); // sólo halfOpenProbes sondas
+
+    cb.onFailure();
+    assertThat(cb.state()).isEqualTo(CircuitBreaker.State.OPEN);
+
+    clock.advance(Duration.ofSeconds(10));
+    cb.tryAcquire();
+    cb.tryAcquire();
+    cb.onSuccess(Duration.ofMillis(1));
+    cb.onSuccess(Duration.ofMillis(1));
+
+    assertThat(cb.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+    assertThat(transitions).extracting(CircuitBreaker.Transition::to).containsExactly(
+        CircuitBreaker.State.OPEN, CircuitBreaker.State.HALF_OPEN, CircuitBreaker.State.OPEN,
+        CircuitBreaker.State.HALF_OPEN, CircuitBreaker.State.CLOSED
+    );
+    CircuitBreaker.Stats stats = cb.stats();
+    assertThat(stats.toOpen()).isEqualTo(2);
+    assertThat(stats.toHalfOpen()).isEqualTo(2);
+    assertThat(stats.toClosed()).isEqualTo(1);
+  }
+
+  @Test
+  void invalidSettings_areRejected() {
+    assertThatThrownBy(() -> new CircuitBreaker.Settings(10, 20, 0.5, Duration.ofMillis(1), 0.5, Duration.ofSeconds(1), 1))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+}
@@ -0,0 +1,137 @@
+package com.acme.passkeys.application.service;
+
+import com.acme.passkeys.adapters.in.function.dto.ChallengeRequest;
+import com.acme.passkeys.adapters.in.function.dto.ChallengeResponse;
+import com.acme.passkeys.adapters.out.async.AsyncChallengeStoreAdapter;
+import com.acme.passkeys.adapters.out.memory.JitteryChallengeStore;
+import com.acme.passkeys.application.ports.out.ChallengeStore;
+import com.acme.passkeys.domain.service.ChallengeGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CreateChallengeServiceAsyncTest {
+
+  private static final ChallengeGenerator GENERATOR = new ChallengeGenerator(new SecureRandom());
+
+  @Test
+  void latencyUnderJitter_staysWithinDeadline() throws Exception {
+    JitteryChallengeStore store = new JitteryChallengeStore(2, 20, 42L);
+    CreateChallengeService svc = service(store);
+    for (int i = 0; i < 50; i++) {
+      svc.handleAsync(request("warmup-" + i), Duration.ofSeconds(2)).get(1, TimeUnit.SECONDS);
+    }
+
+    int n = 500;
+    long[] latenciesNanos = new long[n];
+    List<CompletableFuture<ChallengeResponse>> inFlight = new ArrayList<>(n);
+
+    for (int i = 0; i < n; i++) {
+      int idx = i;
+      long start = System.nanoTime();
+      inFlight.add(svc.handleAsync(request("tx-" + i), Duration.ofSeconds(2))
+          .whenComplete((r, e) -> latenciesNanos[idx] = System.nanoTime() - start));
+    }
+    CompletableFuture.allOf(inFlight.toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+
+    for (int i = 0; i < n; i++) {
+      assertThat(store.get("tx-" + i)).isNotNull();
+    }
+
+    long[] sorted = latenciesNanos.clone();
+    Arrays.sort(sorted);
+    long p99 = TimeUnit.NANOSECONDS.toMillis(sorted[(int) (n * 0.99) - 1]);
+
+    // Las escrituras se solapan: la latencia sigue al store, no a la suma de peticiones
+    assertThat(p99).isLessThan(500);
+  }
+
+  @Test
+  void slowStore_failsFastAtDeadline() {
+    JitteryChallengeStore slow = new JitteryChallengeStore(1_000, 0, 1L);
+    CreateChallengeService svc = service(slow);
+
+    long start = System.nanoTime();
+    CompletableFuture<ChallengeResponse> f = svc.handleAsync(request("tx-slow"), Duration.ofMillis(30));
+
+    assertThatThrownBy(() -> f.get(2, TimeUnit.SECONDS))
+        .isInstanceOf(ExecutionException.class)
+        .hasCauseInstanceOf(TimeoutException.class);
+    assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(500);
+  }
+
+  @Test
+  void timedOutCaller_doesNotPoisonIdempotentIssuance() throws Exception {
+    JitteryChallengeStore store = new JitteryChallengeStore(100, 0, 1L);
+    CreateChallengeService svc = service(store);
+
+    CompletableFuture<ChallengeResponse> impatient = svc.handleAsync(request("tx-1"), Duration.ofMillis(5));
+    CompletableFuture<ChallengeResponse> patient = svc.handleAsync(request("tx-1"), Duration.ofSeconds(2));
+
+    assertThatThrownBy(() -> impatient.get(1, TimeUnit.SECONDS)).hasCauseInstanceOf(TimeoutException.class);
+    ChallengeResponse res = patient.get(2, TimeUnit.SECONDS);
+
+    assertThat(res.challenge()).isEqualTo(store.get("tx-1").challengeB64Url());
+  }
+
+  @Test
+  void invalidRequest_completesExceptionally_withoutTouchingStore() {
+    ChallengeStore sync = mock(ChallengeStore.class);
+    CreateChallengeService svc = new CreateChallengeService(GENERATOR, sync, new AsyncChallengeStoreAdapter(sync, Runnable::run),
+        Clock.systemUTC(), new IssuedChallengeCache(Clock.systemUTC(), Duration.ofSeconds(30)), CreateChallengeService.Options.DEFAULTS);
+
+    ChallengeRequest bad = new ChallengeRequest(
+        "AUTHENTICATION", "user-1", " ", "https://example.com", 1000,
+        null, 120, 32
+    );
+
+    assertThat(svc.handleAsync(bad, Duration.ofSeconds(1)))
+        .failsWithin(Duration.ofSeconds(1))
+        .withThrowableOfType(ExecutionException.class)
+        .withCauseInstanceOf(IllegalArgumentException.class);
+    verifyNoInteractions(sync);
+  }
+
+  @Test
+  void defaultAsyncPath_delegatesToSyncStore() throws Exception {
+    ChallengeStore sync = mock(ChallengeStore.class);
+    CreateChallengeService svc = new CreateChallengeService(GENERATOR, sync, new AsyncChallengeStoreAdapter(sync, Runnable::run),
+        Clock.systemUTC(), new IssuedChallengeCache(Clock.systemUTC(), Duration.ofSeconds(30)), CreateChallengeService.Options.DEFAULTS);
+
+    ChallengeResponse res = svc.handleAsync(request(null), Duration.ofSeconds(1)).get(1, TimeUnit.SECONDS);
+
+    assertThat(res.transactionId()).isNotBlank();
+    verify(sync).save(any());
+  }
+
+  private static CreateChallengeService service(JitteryChallengeStore store) {
+    Clock clock = Clock.systemUTC();
+    return new CreateChallengeService(
+        GENERATOR,
+        mock(ChallengeStore.class),
+        store,
+        clock,
+        new IssuedChallengeCache(clock, Duration.ofSeconds(30)),
+        CreateChallengeService.Options.DEFAULTS
+    );
+  }
+
+  private static ChallengeRequest request(String transactionId) {
+    return new ChallengeRequest(
+        "AUTHENTICATION", "user-1", "example.com", "https://example.com", 5000,
+        transactionId, 120, 32
+    );
+  }
+}
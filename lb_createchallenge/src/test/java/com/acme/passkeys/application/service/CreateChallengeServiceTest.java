@@ -1,14 +1,27 @@
 package com.acme.passkeys.application.service;
 
 import com.acme.passkeys.adapters.in.function.dto.ChallengeRequest;
+import com.acme.passkeys.adapters.out.async.AsyncChallengeStoreAdapter;
+import com.acme.passkeys.application.ports.in.Deadline;
+import com.acme.passkeys.application.ports.in.DeadlineExceededException;
+import com.acme.passkeys.application.ports.out.AuditLog;
 import com.acme.passkeys.application.ports.out.ChallengeStore;
+import com.acme.passkeys.application.ports.out.ChallengeStoreUnavailableException;
+import com.acme.passkeys.application.ports.out.StageMetrics;
+import com.acme.passkeys.domain.model.ChallengeType;
 import com.acme.passkeys.domain.service.ChallengeGenerator;
+import com.acme.passkeys.domain.service.ChallengeSealer;
+import com.acme.passkeys.support.RecordingStageMetrics;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 
+import java.security.SecureRandom;
 import java.time.Clock;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -23,7 +36,7 @@ class CreateChallengeServiceTest {
     ChallengeStore store = mock(ChallengeStore.class);
     Clock fixed = Clock.fixed(Instant.parse("2026-01-24T10:00:00Z"), ZoneOffset.UTC);
 
-    CreateChallengeService svc = new CreateChallengeService(generator, store, fixed);
+    CreateChallengeService svc = service(generator, store, fixed);
 
     ChallengeRequest req = new ChallengeRequest(
         "REGISTRATION", "user-1", "example.com", "https://example.com", 60000,
@@ -55,7 +68,7 @@ class CreateChallengeServiceTest {
     ChallengeStore store = mock(ChallengeStore.class);
     Clock fixed = Clock.fixed(Instant.parse("2026-01-24T10:00:00Z"), ZoneOffset.UTC);
 
-    CreateChallengeService svc = new CreateChallengeService(generator, store, fixed);
+    CreateChallengeService svc = service(generator, store, fixed);
 
     ChallengeRequest req = new ChallengeRequest(
         "AUTHENTICATION", "user-1", "example.com", "https://example.com", 5000,
@@ -68,13 +81,137 @@ class CreateChallengeServiceTest {
   }
 
   @Test
-  void validationFails_whenMissingUserId() {
-    CreateChallengeService svc = new CreateChallengeService(
-        mock(ChallengeGenerator.class),
-        mock(ChallengeStore.class),
-        Clock.systemUTC()
+  void retryWithSameTransactionId_returnsSameChallenge_andSavesOnce() {
+    ChallengeGenerator generator = mock(ChallengeGenerator.class);
+    when(generator.generateBase64UrlChallenge(32)).thenReturn("FIRST", "SECOND");
+
+    ChallengeStore store = mock(ChallengeStore.class);
+    Clock fixed = Clock.fixed(Instant.parse("2026-01-24T10:00:00Z"), ZoneOffset.UTC);
+
+    CreateChallengeService svc = service(generator, store, fixed);
+
+    ChallengeRequest req = new ChallengeRequest(
+        "AUTHENTICATION", "user-1", "example.com", "https://example.com", 5000,
+        "tx-123", 120, 32
+    );
+
+    var first = svc.handle(req);
+    var retry = svc.handle(req);
+
+    assertThat(retry).isEqualTo(first);
+    assertThat(retry.challenge()).isEqualTo("FIRST");
+    verify(store, times(1)).save(any());
+    verify(generator, times(1)).generateBase64UrlChallenge(32);
+  }
+
+  @Test
+  void retryWithSameTransactionId_andDifferentParameters_isRejected() {
+    ChallengeGenerator generator = mock(ChallengeGenerator.class);
+    when(generator.generateBase64UrlChallenge(32)).thenReturn("C");
+
+    ChallengeStore store = mock(ChallengeStore.class);
+    CreateChallengeService svc = service(generator, store, Clock.systemUTC());
+
+    svc.handle(new ChallengeRequest(
+        "AUTHENTICATION", "user-1", "example.com", "https://example.com", 5000,
+        "tx-123", 120, 32
+    ));
+
+    ChallengeRequest otherUser = new ChallengeRequest(
+        "AUTHENTICATION", "user-2", "example.com", "https://example.com", 5000,
+        "tx-123", 120, 32
+    );
+
+    assertThatThrownBy(() -> svc.handle(otherUser))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("transactionId");
+    verify(store, times(1)).save(any());
+  }
+
+  @Test
+  void withoutTransactionId_everyCallIssuesNewChallenge() {
+    ChallengeGenerator generator = mock(ChallengeGenerator.class);
+    when(generator.generateBase64UrlChallenge(32)).thenReturn("A", "B");
+
+    ChallengeStore store = mock(ChallengeStore.class);
+    CreateChallengeService svc = service(generator, store, Clock.systemUTC());
+
+    ChallengeRequest req = new ChallengeRequest(
+        "REGISTRATION", "user-1", "example.com", "https://example.com", 5000,
+        null, 120, 32
     );
 
+    assertThat(svc.handle(req).challenge()).isEqualTo("A");
+    assertThat(svc.handle(req).challenge()).isEqualTo("B");
+    verify(store, times(2)).save(any());
+  }
+
+  @Test
+  void storeUnavailable_fallsBackToSealedChallenge() {
+    ChallengeGenerator generator = mock(ChallengeGenerator.class);
+    when(generator.generateBase64UrlChallenge(32)).thenReturn("STORED");
+
+    ChallengeStore store = mock(ChallengeStore.class);
+    doThrow(new ChallengeStoreUnavailableException("challenge store circuit is open")).when(store).save(any());
+
+    Clock fixed = Clock.fixed(Instant.parse("2026-01-24T10:00:00Z"), ZoneOffset.UTC);
+    ChallengeSealer sealer = new ChallengeSealer(new byte[32], new SecureRandom());
+    CreateChallengeService svc = service(generator, store, fixed, CreateChallengeService.Options.DEFAULTS.withSealer(sealer));
+
+    ChallengeRequest req = new ChallengeRequest(
+        "AUTHENTICATION", "user-1", "example.com", "https://example.com", 5000,
+        "tx-123", 120, 32
+    );
+
+    var res = svc.handle(req);
+
+    assertThat(res.challenge()).isNotEqualTo("STORED");
+    assertThat(sealer.verify(res.challenge(), new ChallengeSealer.SealedContext(
+        "tx-123", "user-1", ChallengeType.AUTHENTICATION, "example.com", "https://example.com", res.expiresAt()
+    ), res.createdAt())).isTrue();
+    assertThat(svc.handleAsync(req, Duration.ofSeconds(1)).join()).isEqualTo(res);
+  }
+
+  @Test
+  void storeUnavailable_withoutSealer_propagates() {
+    ChallengeGenerator generator = mock(ChallengeGenerator.class);
+    when(generator.generateBase64UrlChallenge(32)).thenReturn("C");
+
+    ChallengeStore store = mock(ChallengeStore.class);
+    doThrow(new ChallengeStoreUnavailableException("down")).when(store).save(any());
+    CreateChallengeService svc = service(generator, store, Clock.systemUTC());
+
+    ChallengeRequest req = new ChallengeRequest(
+        "AUTHENTICATION", "user-1", "example.com", "https://example.com", 5000,
+        null, 120, 32
+    );
+
+    assertThatThrownBy(() -> svc.handle(req)).isInstanceOf(ChallengeStoreUnavailableException.class);
+  }
+
+  @Test
+  void asyncStoreUnavailable_fallsBackToSealedChallenge() {
+    ChallengeStore store = mock(ChallengeStore.class);
+    doThrow(new ChallengeStoreUnavailableException("down")).when(store).save(any());
+    Clock clock = Clock.systemUTC();
+    ChallengeSealer sealer = new ChallengeSealer(new byte[32], new SecureRandom());
+    CreateChallengeService svc = service(new ChallengeGenerator(new SecureRandom()), store, clock, CreateChallengeService.Options.DEFAULTS.withSealer(sealer));
+
+    ChallengeRequest req = new ChallengeRequest(
+        "REGISTRATION", "user-1", "example.com", "https://example.com", 5000,
+        null, 120, 32
+    );
+
+    var res = svc.handleAsync(req, Duration.ofSeconds(1)).join();
+    assertThat(sealer.verify(res.challenge(), new ChallengeSealer.SealedContext(
+        res.transactionId(), "user-1", ChallengeType.REGISTRATION, "example.com", "https://example.com", res.expiresAt()
+    ), res.createdAt())).isTrue();
+  }
+
+  @Test
+  void validationFails_whenMissingUserId() {
+    CreateChallengeService svc = service(mock(ChallengeGenerator.class), mock(ChallengeStore.class), Clock.systemUTC());
+
     ChallengeRequest bad = new ChallengeRequest(
         "AUTHENTICATION", "   ", "example.com", "https://example.com", 1000,
         null, 120, 32
@@ -87,11 +224,7 @@ class CreateChallengeServiceTest {
 
   @Test
   void validationFails_whenTtlOutOfRange() {
-    CreateChallengeService svc = new CreateChallengeService(
-        mock(ChallengeGenerator.class),
-        mock(ChallengeStore.class),
-        Clock.systemUTC()
-    );
+    CreateChallengeService svc = service(mock(ChallengeGenerator.class), mock(ChallengeStore.class), Clock.systemUTC());
 
     ChallengeRequest bad = new ChallengeRequest(
         "AUTHENTICATION", "user-1", "example.com", "https://example.com", 1000,
@@ -105,11 +238,7 @@ class CreateChallengeServiceTest {
 
   @Test
   void validationFails_whenChallengeBytesOutOfRange() {
-    CreateChallengeService svc = new CreateChallengeService(
-        mock(ChallengeGenerator.class),
-        mock(ChallengeStore.class),
-        Clock.systemUTC()
-    );
+    CreateChallengeService svc = service(mock(ChallengeGenerator.class), mock(ChallengeStore.class), Clock.systemUTC());
 
     ChallengeRequest bad = new ChallengeRequest(
         "AUTHENTICATION", "user-1", "example.com", "https://example.com", 1000,
@@ -120,4 +249,93 @@ class CreateChallengeServiceTest {
         .isInstanceOf(IllegalArgumentException.class)
         .hasMessageContaining("challengeBytes");
   }
+
+  @Test
+  void metrics_recordStagesAndOutcomeReasons() {
+    ChallengeStore store = mock(ChallengeStore.class);
+    Clock clock = Clock.systemUTC();
+    RecordingStageMetrics metrics = new RecordingStageMetrics();
+    CreateChallengeService svc = service(new ChallengeGenerator(new SecureRandom()), store, clock, CreateChallengeService.Options.DEFAULTS.withMetrics(metrics));
+    ChallengeRequest ok = new ChallengeRequest(
+        "REGISTRATION", "user-1", "example.com", "https://example.com", 5000, null, 120, 32
+    );
+
+    svc.handle(ok);
+    assertThat(metrics.stages()).containsExactly("validateRequest", "generate", "store", StageMetrics.TOTAL);
+
+    ChallengeRequest bad = new ChallengeRequest(
+        "REGISTRATION", " ", "example.com", "https://example.com", 5000, null, 120, 32
+    );
+    assertThatThrownBy(() -> svc.handle(bad)).isInstanceOf(IllegalArgumentException.class);
+
+    doThrow(new ChallengeStoreUnavailableException("down")).when(store).save(any());
+    assertThatThrownBy(() -> svc.handle(ok)).isInstanceOf(ChallengeStoreUnavailableException.class);
+    assertThat(svc.handleAsync(ok, Duration.ofSeconds(1))).isCompletedExceptionally();
+
+    assertThat(metrics.outcomes()).containsOnly(
+        entry(StageMetrics.OK, 1),
+        entry(StageMetrics.INVALID_REQUEST, 1),
+        entry("ChallengeStoreUnavailableException", 2)
+    );
+  }
+
+  @Test
+  void deadline_withoutTimeForStore_failsBeforeWriting() {
+    ChallengeStore store = mock(ChallengeStore.class);
+    Clock clock = Clock.systemUTC();
+    RecordingStageMetrics metrics = new RecordingStageMetrics();
+    CreateChallengeService svc = service(new ChallengeGenerator(new SecureRandom()), store, clock,
+        CreateChallengeService.Options.DEFAULTS.withMetrics(metrics).withStoreCost(Duration.ofMillis(50)));
+    ChallengeRequest req = new ChallengeRequest(
+        "REGISTRATION", "user-1", "example.com", "https://example.com", 5000, "tx-1", 120, 32
+    );
+
+    assertThatThrownBy(() -> svc.handle(req, Deadline.in(Duration.ofMillis(10))))
+        .isInstanceOf(DeadlineExceededException.class)
+        .hasMessage("deadline exceeded before store");
+    verifyNoInteractions(store);
+
+    // El fallo no queda en la caché de idempotencia: el reintento con tiempo emite el challenge
+    assertThat(svc.handle(req, Deadline.in(Duration.ofSeconds(5))).transactionId()).isEqualTo("tx-1");
+    verify(store).save(any());
+    assertThat(metrics.outcomes()).containsOnly(entry(StageMetrics.DEADLINE_EXCEEDED, 1), entry(StageMetrics.OK, 1));
+  }
+
+  @Test
+  void audit_recordsEveryOutcomeWithUserAndRpId() {
+    ChallengeStore store = mock(ChallengeStore.class);
+    Clock clock = Clock.systemUTC();
+    List<String> events = new CopyOnWriteArrayList<>();
+    AuditLog audit = (ceremony, outcome, subject, rpId) -> events.add(ceremony + " " + outcome + " " + subject + " " + rpId);
+    CreateChallengeService svc = service(new ChallengeGenerator(new SecureRandom()), store, clock, CreateChallengeService.Options.DEFAULTS.withAudit(audit));
+    ChallengeRequest ok = new ChallengeRequest(
+        "REGISTRATION", "user-1", "example.com", "https://example.com", 5000, null, 120, 32
+    );
+
+    svc.handle(ok);
+    assertThatThrownBy(() -> svc.handle(null)).isInstanceOf(IllegalArgumentException.class);
+    doThrow(new ChallengeStoreUnavailableException("down")).when(store).save(any());
+    assertThat(svc.handleAsync(ok, Duration.ofSeconds(1))).isCompletedExceptionally();
+
+    assertThat(events).containsExactly(
+        "CHALLENGE ok user-1 example.com",
+        "CHALLENGE invalid_request null null",
+        "CHALLENGE ChallengeStoreUnavailableException user-1 example.com"
+    );
+  }
+
+  private static CreateChallengeService service(ChallengeGenerator generator, ChallengeStore store, Clock clock) {
+    return service(generator, store, clock, CreateChallengeService.Options.DEFAULTS);
+  }
+
+  // El guardado asíncrono en el hilo llamador, con la ventana de idempotencia por defecto
+  private static CreateChallengeService service(
+      ChallengeGenerator generator,
+      ChallengeStore store,
+      Clock clock,
+      CreateChallengeService.Options options
+  ) {
+    return new CreateChallengeService(generator, store, new AsyncChallengeStoreAdapter(store, Runnable::run), clock,
+        new IssuedChallengeCache(clock, CreateChallengeService.DEFAULT_IDEMPOTENCY_WINDOW), options);
+  }
 }
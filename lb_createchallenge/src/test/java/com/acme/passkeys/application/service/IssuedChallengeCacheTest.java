@@ -0,0 +1,143 @@
+package com.acme.passkeys.application.service;
+
+import com.acme.passkeys.adapters.in.function.dto.ChallengeResponse;
+import com.acme.passkeys.domain.model.ChallengeType;
+import com.acme.passkeys.support.MutableClock;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+class IssuedChallengeCacheTest {
+
+  private static final IssuedChallengeCache.Fingerprint FP = new IssuedChallengeCache.Fingerprint(
+      ChallengeType.AUTHENTICATION, "user-1", "example.com", "https://example.com", 5000, 120, 32
+  );
+
+  @Test
+  void concurrentDuplicates_areCoalescedIntoSingleIssuance() throws Exception {
+    IssuedChallengeCache cache = new IssuedChallengeCache(Clock.systemUTC(), Duration.ofSeconds(30));
+    AtomicInteger issued = new AtomicInteger();
+    CountDownLatch release = new CountDownLatch(1);
+
+    ExecutorService pool = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<ChallengeResponse>> results = new ArrayList<>();
+      for (int i = 0; i < 8; i++) {
+        results.add(pool.submit(() -> cache.getOrIssue("tx-1", FP, () -> {
+          issued.incrementAndGet();
+          await(release);
+          return response("C-" + issued.get(), Instant.now().plusSeconds(120));
+        })));
+      }
+      Thread.sleep(50);
+      release.countDown();
+
+      for (Future<ChallengeResponse> r : results) {
+        assertThat(r.get(5, TimeUnit.SECONDS).challenge()).isEqualTo("C-1");
+      }
+      assertThat(issued).hasValue(1);
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  @Test
+  void entryExpiresAfterRetentionWindow() {
+    MutableClock clock = new MutableClock(Instant.parse("2026-01-24T10:00:00Z"));
+    IssuedChallengeCache cache = new IssuedChallengeCache(clock, Duration.ofSeconds(30));
+
+    cache.getOrIssue("tx-1", FP, () -> response("A", clock.instant().plusSeconds(120)));
+    assertThat(cache.getOrIssue("tx-1", FP, () -> response("B", clock.instant().plusSeconds(120))).challenge())
+        .isEqualTo("A");
+
+    clock.advance(Duration.ofSeconds(31));
+
+    assertThat(cache.getOrIssue("tx-1", FP, () -> response("B", clock.instant().plusSeconds(120))).challenge())
+        .isEqualTo("B");
+  }
+
+  @Test
+  void entryNeverOutlivesChallengeExpiry() {
+    MutableClock clock = new MutableClock(Instant.parse("2026-01-24T10:00:00Z"));
+    IssuedChallengeCache cache = new IssuedChallengeCache(clock, Duration.ofSeconds(30));
+
+    cache.getOrIssue("tx-1", FP, () -> response("A", clock.instant().plusSeconds(5)));
+    clock.advance(Duration.ofSeconds(5));
+
+    assertThat(cache.getOrIssue("tx-1", FP, () -> response("B", clock.instant().plusSeconds(5))).challenge())
+        .isEqualTo("B");
+  }
+
+  @Test
+  void failedIssuance_isNotCached() {
+    IssuedChallengeCache cache = new IssuedChallengeCache(Clock.systemUTC(), Duration.ofSeconds(30));
+
+    assertThatThrownBy(() -> cache.getOrIssue("tx-1", FP, () -> { throw new IllegalStateException("store down"); }))
+        .isInstanceOf(IllegalStateException.class);
+    assertThat(cache.size()).isZero();
+
+    assertThat(cache.getOrIssue("tx-1", FP, () -> response("A", Instant.now().plusSeconds(120))).challenge())
+        .isEqualTo("A");
+  }
+
+  @Test
+  void hungIssuance_doesNotHoldTheTransactionIdPastTheWindow() {
+    MutableClock clock = new MutableClock(Instant.parse("2026-01-24T10:00:00Z"));
+    IssuedChallengeCache cache = new IssuedChallengeCache(clock, Duration.ofSeconds(30));
+
+    cache.getOrIssueAsync("tx-1", FP, CompletableFuture::new);
+    clock.advance(Duration.ofSeconds(31));
+
+    CompletableFuture<ChallengeResponse> retry = cache.getOrIssueAsync("tx-1", FP,
+        () -> CompletableFuture.completedFuture(response("B", clock.instant().plusSeconds(120))));
+    assertThat(retry.join().challenge()).isEqualTo("B");
+  }
+
+  @Test
+  void hungIssuance_timesOutItsWaitersAndIsEvicted() {
+    IssuedChallengeCache cache = new IssuedChallengeCache(Clock.systemUTC(), Duration.ofMillis(50));
+
+    CompletableFuture<ChallengeResponse> first = cache.getOrIssueAsync("tx-1", FP, CompletableFuture::new);
+    CompletableFuture<ChallengeResponse> duplicate = cache.getOrIssueAsync("tx-1", FP, CompletableFuture::new);
+
+    assertThatThrownBy(() -> first.get(5, TimeUnit.SECONDS))
+        .isInstanceOf(ExecutionException.class)
+        .hasCauseInstanceOf(TimeoutException.class);
+    assertThatThrownBy(() -> duplicate.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(TimeoutException.class);
+    assertThat(cache.size()).isZero();
+  }
+
+  @Test
+  void rejectsNonPositiveRetention() {
+    assertThatThrownBy(() -> new IssuedChallengeCache(Clock.systemUTC(), Duration.ZERO))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  private static ChallengeResponse response(String challenge, Instant expiresAt) {
+    return new ChallengeResponse("tx-1", "AUTHENTICATION", "user-1", "example.com", "https://example.com",
+        5000, challenge, expiresAt.minusSeconds(120), expiresAt);
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
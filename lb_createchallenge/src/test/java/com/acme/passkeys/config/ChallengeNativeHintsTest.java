@@ -0,0 +1,21 @@
+package com.acme.passkeys.config;
+
+import com.acme.passkeys.adapters.in.function.dto.ChallengeRequest;
+import com.acme.passkeys.adapters.in.function.dto.ChallengeResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ChallengeNativeHintsTest {
+
+  @Test
+  void registersJacksonBindingForDtos() throws Exception {
+    RuntimeHints hints = new RuntimeHints();
+    new ChallengeNativeHints().registerHints(hints, getClass().getClassLoader());
+
+    assertThat(RuntimeHintsPredicates.reflection().onType(ChallengeRequest.class)).accepts(hints);
+    assertThat(RuntimeHintsPredicates.reflection().onMethod(ChallengeResponse.class.getMethod("expiresAt"))).accepts(hints);
+  }
+}
@@ -0,0 +1,28 @@
+package com.acme.passkeys.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.*;
+
+class FunctionConfigTest {
+
+  private final FunctionConfig config = new FunctionConfig();
+
+  @Test
+  void sealFallback_withoutSharedKey_failsStartup() {
+    assertThatThrownBy(() -> config.challengeSealer(new SecureRandom(), " ", true))
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessageContaining("passkeys.challenge.seal-key");
+  }
+
+  @Test
+  void sealFallback_withSharedKey_orDisabled_starts() {
+    String key = Base64.getEncoder().encodeToString(new byte[32]);
+
+    assertThat(config.challengeSealer(new SecureRandom(), key, true)).isNotNull();
+    assertThat(config.challengeSealer(new SecureRandom(), "", false)).isNotNull();
+  }
+}
@@ -0,0 +1,94 @@
+package com.acme.passkeys.config;
+
+import com.acme.passkeys.domain.service.ChallengeGenerator;
+import com.acme.passkeys.domain.service.ChallengeSealer;
+import com.acme.passkeys.domain.service.ReseedableSecureRandom;
+import com.acme.passkeys.support.MutableClock;
+import org.junit.jupiter.api.Test;
+
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.*;
+
+class SnapshotPrimingTest {
+
+  private final MutableClock clock = new MutableClock(Instant.parse("2026-01-01T00:00:00Z"));
+
+  @Test
+  void restoredClones_neverEmitTheSameChallenge() {
+    Clone a = new Clone();
+    Clone b = new Clone();
+
+    // Sin reseed los dos clones continúan la misma secuencia
+    assertThat(a.generator.generateBase64UrlChallenge(32)).isEqualTo(b.generator.generateBase64UrlChallenge(32));
+
+    a.priming.afterRestore(null);
+    b.priming.afterRestore(null);
+
+    Set<String> fromA = new HashSet<>();
+    List<String> fromB = new ArrayList<>();
+    for (int i = 0; i < 1_000; i++) {
+      fromA.add(a.generator.generateBase64UrlChallenge(32));
+      fromB.add(b.generator.generateBase64UrlChallenge(32));
+    }
+    assertThat(fromA).hasSize(1_000).doesNotContainAnyElementsOf(fromB);
+    assertThat(a.priming.restores()).isEqualTo(1);
+  }
+
+  @Test
+  void beforeCheckpoint_runsEveryPrimer_inOrder() {
+    List<String> calls = new ArrayList<>();
+    AtomicInteger hooks = new AtomicInteger();
+    SnapshotPriming priming = new SnapshotPriming(
+        List.of(() -> calls.add("json"), () -> calls.add("jca")),
+        List.of(hooks::incrementAndGet));
+
+    priming.beforeCheckpoint(null);
+
+    assertThat(calls).containsExactly("json", "jca");
+    assertThat(hooks).hasValue(0);
+  }
+
+  @Test
+  void challengePriming_exercisesGeneratorSealerAndJson() {
+    Clone clone = new Clone();
+    AtomicInteger json = new AtomicInteger();
+    SnapshotPriming priming = FunctionConfig.challengePriming(clone.random, clone.generator, clone.sealer, clock, json::incrementAndGet);
+
+    assertThatCode(priming::prime).doesNotThrowAnyException();
+    assertThat(json).hasValue(1);
+  }
+
+  /** Un proceso restaurado: el generador arranca con el mismo estado que todos los demás clones. */
+  private final class Clone {
+    private final ReseedableSecureRandom random = new ReseedableSecureRandom(new SnapshotState());
+    private final ChallengeGenerator generator = new ChallengeGenerator(random);
+    private final ChallengeSealer sealer = new ChallengeSealer(new byte[32], random);
+    private final SnapshotPriming priming = FunctionConfig.challengePriming(random, generator, sealer, clock, () -> {});
+  }
+
+  /** Primera llamada: estado "congelado" en el snapshot (semilla fija); después, SecureRandom nuevo. */
+  private static final class SnapshotState implements Supplier<SecureRandom> {
+    private boolean restored;
+
+    @Override
+    public SecureRandom get() {
+      if (restored) return new SecureRandom();
+      restored = true;
+      try {
+        SecureRandom frozen = SecureRandom.getInstance("SHA1PRNG");
+        frozen.setSeed(42L);
+        return frozen;
+      } catch (Exception e) {
+        throw new IllegalStateException(e);
+      }
+    }
+  }
+}
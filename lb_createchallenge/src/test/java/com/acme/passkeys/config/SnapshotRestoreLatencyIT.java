@@ -0,0 +1,64 @@
+package com.acme.passkeys.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Latencia de la primera invocación tras un restore, con y sin priming. Cada muestra es una JVM
+ * nueva. Ejecutar con {@code mvn test -Dtest=SnapshotRestoreLatencyIT [-Dsnapshot.runs=7]}.
+ */
+class SnapshotRestoreLatencyIT {
+
+  private static final int RUNS = Integer.getInteger("snapshot.runs", 5);
+
+  @Test
+  void primedFirstInvokeIsFasterThanCold() throws Exception {
+    long[] cold = new long[RUNS];
+    long[] primed = new long[RUNS];
+    for (int i = 0; i < RUNS; i++) {
+      cold[i] = Long.parseLong(probe("cold").get("firstInvokeUs"));
+      primed[i] = Long.parseLong(probe("primed").get("firstInvokeUs"));
+    }
+    Arrays.sort(cold);
+    Arrays.sort(primed);
+
+    System.out.printf("first invoke after restore (median of %d): cold=%.2fms primed=%.2fms%n",
+        RUNS, cold[RUNS / 2] / 1000.0, primed[RUNS / 2] / 1000.0);
+
+    assertThat(primed[RUNS / 2]).isLessThan(cold[RUNS / 2]);
+  }
+
+  private static Map<String, String> probe(String mode) throws Exception {
+    String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+    Process p = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+        SnapshotRestoreProbe.class.getName(), mode).redirectErrorStream(true).start();
+
+    String line = null;
+    StringBuilder output = new StringBuilder();
+    try (BufferedReader r = new BufferedReader(new InputStreamReader(p.getInputStream(), StandardCharsets.UTF_8))) {
+      for (String l; (l = r.readLine()) != null; ) {
+        output.append(l).append('\n');
+        if (l.startsWith("PROBE ")) line = l;
+      }
+    }
+    assertThat(p.waitFor(1, TimeUnit.MINUTES)).isTrue();
+    assertThat(line).as("probe output for %s:%n%s", mode, output).isNotNull();
+
+    Map<String, String> values = new HashMap<>();
+    for (String kv : line.substring("PROBE ".length()).split(" ")) {
+      int eq = kv.indexOf('=');
+      values.put(kv.substring(0, eq), kv.substring(eq + 1));
+    }
+    return values;
+  }
+}
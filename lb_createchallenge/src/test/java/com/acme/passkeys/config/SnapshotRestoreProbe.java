@@ -0,0 +1,37 @@
+package com.acme.passkeys.config;
+
+import com.acme.passkeys.adapters.in.lambda.CreateChallengeStreamHandlerAccess;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Simula en una JVM nueva el estado tras un restore: {@code primed} ejecuta los primers y el hook de
+ * restore antes de medir la primera invocación; {@code cold} mide sin priming. Lo lanza {@link SnapshotRestoreLatencyIT}.
+ */
+public final class SnapshotRestoreProbe {
+
+  private SnapshotRestoreProbe() {}
+
+  public static void main(String[] args) throws Exception {
+    boolean primed = "primed".equals(args[0]);
+    CreateChallengeStreamHandlerAccess wiring = CreateChallengeStreamHandlerAccess.wire();
+
+    if (primed) {
+      wiring.priming().beforeCheckpoint(null);
+      wiring.priming().afterRestore(null);
+    }
+
+    byte[] request = FunctionConfig.PRIME_REQUEST.replace("prime", "user-1").getBytes(StandardCharsets.UTF_8);
+    long start = System.nanoTime();
+    wiring.handler().handleRequest(new ByteArrayInputStream(request), new ByteArrayOutputStream(), null);
+    long first = System.nanoTime() - start;
+
+    start = System.nanoTime();
+    wiring.handler().handleRequest(new ByteArrayInputStream(request), new ByteArrayOutputStream(), null);
+    long second = System.nanoTime() - start;
+
+    System.out.printf("PROBE mode=%s firstInvokeUs=%d secondInvokeUs=%d%n", args[0], first / 1_000, second / 1_000);
+  }
+}
@@ -0,0 +1,30 @@
+package com.acme.passkeys.domain.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.*;
+
+class BinaryTest {
+
+  @Test
+  void invalidBase64Url_failsOnFirstUse() {
+    Binary binary = Binary.ofBase64Url("not*base64");
+    assertThatThrownBy(binary::bytes)
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("invalid base64url");
+    assertThat(Binary.ofBase64Url(null)).isNull();
+    assertThat(Binary.of("x".getBytes(StandardCharsets.UTF_8)).base64Url()).isEqualTo("eA");
+  }
+
+  @Test
+  void standardAlphabetAndPadding_areStillAccepted() {
+    byte[] raw = {(byte) 0xfb, (byte) 0xff, (byte) 0xbf, 0x01};
+
+    assertThat(Binary.ofBase64Url("-_-_AQ").bytes()).isEqualTo(raw);
+    assertThat(Binary.ofBase64Url("+/+/AQ").bytes()).isEqualTo(raw);
+    assertThat(Binary.ofBase64Url("+/+/AQ==").bytes()).isEqualTo(raw);
+    assertThatThrownBy(() -> Binary.ofBase64Url("+/+/A").bytes()).hasMessage("invalid base64url");
+  }
+}
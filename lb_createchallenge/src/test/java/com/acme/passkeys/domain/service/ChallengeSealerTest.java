@@ -0,0 +1,65 @@
+package com.acme.passkeys.domain.service;
+
+import com.acme.passkeys.domain.model.ChallengeType;
+import org.junit.jupiter.api.Test;
+
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ChallengeSealerTest {
+
+  private static final Instant EXPIRES = Instant.parse("2026-01-24T10:02:00Z");
+  private static final ChallengeSealer.SealedContext CTX = new ChallengeSealer.SealedContext(
+      "tx-1", "user-1", ChallengeType.AUTHENTICATION, "example.com", "https://example.com", EXPIRES
+  );
+
+  private final ChallengeSealer sealer = new ChallengeSealer(key((byte) 1), new SecureRandom());
+
+  @Test
+  void sealedChallenge_verifiesForSameContext_beforeExpiry() {
+    String c = sealer.seal(CTX, 32);
+
+    assertThat(c).doesNotContain("=");
+    assertThat(sealer.verify(c, CTX, EXPIRES.minusSeconds(1))).isTrue();
+    assertThat(sealer.verify(c, CTX, EXPIRES)).isFalse();
+  }
+
+  @Test
+  void sealedChallenge_isBoundToContext() {
+    String c = sealer.seal(CTX, 32);
+
+    var otherUser = new ChallengeSealer.SealedContext("tx-1", "user-2", ChallengeType.AUTHENTICATION,
+        "example.com", "https://example.com", EXPIRES);
+    var otherType = new ChallengeSealer.SealedContext("tx-1", "user-1", ChallengeType.REGISTRATION,
+        "example.com", "https://example.com", EXPIRES);
+
+    assertThat(sealer.verify(c, otherUser, EXPIRES.minusSeconds(60))).isFalse();
+    assertThat(sealer.verify(c, otherType, EXPIRES.minusSeconds(60))).isFalse();
+  }
+
+  @Test
+  void sealedChallenge_rejectsOtherKeyAndGarbage() {
+    String c = sealer.seal(CTX, 32);
+    ChallengeSealer other = new ChallengeSealer(key((byte) 2), new SecureRandom());
+
+    assertThat(other.verify(c, CTX, EXPIRES.minusSeconds(60))).isFalse();
+    assertThat(sealer.verify("not*base64", CTX, EXPIRES.minusSeconds(60))).isFalse();
+    assertThat(sealer.verify("AAAA", CTX, EXPIRES.minusSeconds(60))).isFalse();
+  }
+
+  @Test
+  void rejectsShortKeyOrNonce() {
+    assertThatThrownBy(() -> new ChallengeSealer(new byte[16], new SecureRandom()))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> sealer.seal(CTX, 8)).isInstanceOf(IllegalArgumentException.class);
+  }
+
+  private static byte[] key(byte b) {
+    byte[] k = new byte[32];
+    Arrays.fill(k, b);
+    return k;
+  }
+}
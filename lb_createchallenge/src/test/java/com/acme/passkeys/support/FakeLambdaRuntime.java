@@ -0,0 +1,103 @@
+package com.acme.passkeys.support;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runtime API de Lambda mínima (next / response / error) para probar un binario nativo como
+ * custom runtime: {@code AWS_LAMBDA_RUNTIME_API=}{@link #address()}.
+ */
+public final class FakeLambdaRuntime implements AutoCloseable {
+
+  private static final String BASE = "/2018-06-01/runtime/";
+
+  public record Result(boolean error, String body) {}
+
+  private record Invocation(String requestId, String event) {}
+
+  private final HttpServer server;
+  private final ExecutorService executor = Executors.newCachedThreadPool();
+  private final BlockingQueue<Invocation> pending = new LinkedBlockingQueue<>();
+  private final Map<String, CompletableFuture<Result>> results = new ConcurrentHashMap<>();
+  private final CompletableFuture<String> initError = new CompletableFuture<>();
+
+  private FakeLambdaRuntime() throws IOException {
+    server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    server.createContext(BASE, this::handle);
+    server.setExecutor(executor);
+    server.start();
+  }
+
+  public static FakeLambdaRuntime start() throws IOException {
+    return new FakeLambdaRuntime();
+  }
+
+  public String address() {
+    return "127.0.0.1:" + server.getAddress().getPort();
+  }
+
+  public Result invoke(String event, Duration timeout) throws Exception {
+    String requestId = UUID.randomUUID().toString();
+    CompletableFuture<Result> result = new CompletableFuture<>();
+    results.put(requestId, result);
+    pending.add(new Invocation(requestId, event));
+    return CompletableFuture.anyOf(result, initError.thenApply(e -> new Result(true, e)))
+        .thenApply(Result.class::cast)
+        .get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+  }
+
+  private void handle(HttpExchange ex) throws IOException {
+    String path = ex.getRequestURI().getPath().substring(BASE.length());
+    try (ex) {
+      if (path.equals("invocation/next")) {
+        Invocation next = pending.take();
+        ex.getResponseHeaders().add("Lambda-Runtime-Aws-Request-Id", next.requestId());
+        ex.getResponseHeaders().add("Lambda-Runtime-Deadline-Ms", Long.toString(System.currentTimeMillis() + 30_000));
+        ex.getResponseHeaders().add("Lambda-Runtime-Invoked-Function-Arn", "arn:aws:lambda:local:000000000000:function:smoke");
+        ex.getResponseHeaders().add("Content-Type", "application/json");
+        send(ex, 200, next.event());
+        return;
+      }
+      String body = new String(ex.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+      if (path.equals("init/error")) {
+        initError.complete(body);
+      } else if (path.startsWith("invocation/")) {
+        String[] parts = path.split("/");
+        CompletableFuture<Result> result = results.remove(parts[1]);
+        if (result != null) result.complete(new Result("error".equals(parts[2]), body));
+      }
+      send(ex, 202, "{}");
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static void send(HttpExchange ex, int status, String body) throws IOException {
+    byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+    ex.sendResponseHeaders(status, bytes.length);
+    try (OutputStream out = ex.getResponseBody()) {
+      out.write(bytes);
+    }
+  }
+
+  @Override
+  public void close() {
+    server.stop(0);
+    executor.shutdownNow();
+  }
+}
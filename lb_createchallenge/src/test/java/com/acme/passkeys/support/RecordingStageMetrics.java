@@ -0,0 +1,20 @@
+package com.acme.passkeys.support;
+
+import com.acme.passkeys.application.ports.out.StageMetrics;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/** Sin muestreo: guarda las etapas en orden de registro y cuenta los resultados por motivo. */
+public final class RecordingStageMetrics implements StageMetrics {
+  private final List<String> stages = new CopyOnWriteArrayList<>();
+  private final Map<String, Integer> outcomes = new ConcurrentHashMap<>();
+
+  @Override public void recordStage(String stage, long nanos) { stages.add(stage); }
+  @Override public void recordOutcome(String reason) { outcomes.merge(reason, 1, Integer::sum); }
+
+  public List<String> stages() { return List.copyOf(stages); }
+  public Map<String, Integer> outcomes() { return Map.copyOf(outcomes); }
+}
@@ -0,0 +1,414 @@
+package com.acme.passkeys.adapters.in.batch;
+
+import com.acme.passkeys.adapters.in.function.dto.FinishRegistrationRequest;
+import com.acme.passkeys.adapters.in.function.dto.FinishRegistrationResponse;
+import com.acme.passkeys.application.ports.out.CredentialIndex;
+import com.acme.passkeys.application.ports.out.RegistrationVerifier;
+import com.acme.passkeys.application.ports.out.StageMetrics;
+import com.acme.passkeys.config.FinishRegistrationConfig;
+import com.acme.passkeys.domain.model.Binary;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Importación masiva de registros passkey de otro proveedor. Lee NDJSON en streaming, verifica cada registro con el
+ * mismo {@link RegistrationVerifier} que finishRegistration en {@code workers} hilos y escribe, en el orden de
+ * entrada, las credenciales aceptadas y los rechazos con su motivo. Los credentialId se reservan al escribir, también
+ * en el orden de entrada: de un credentialId repetido se importa siempre la primera línea.
+ *
+ * <p>Memoria acotada: como mucho dos bloques de {@code chunkSize} líneas en vuelo, uno verificándose y el siguiente
+ * ya leído. Tras escribir cada bloque se sincronizan las salidas y se guarda el checkpoint; al reanudar se truncan
+ * las salidas a lo confirmado y se saltan las líneas ya procesadas, así que el resultado es el de una sola pasada.
+ *
+ * <p>Propiedades: {@code import.input} (obligatoria), {@code import.credentials} ({@code <input>.credentials.ndjson}),
+ * {@code import.rejects} ({@code <input>.rejects.ndjson}), {@code import.checkpoint} ({@code <input>.checkpoint}),
+ * {@code import.workers} (núcleos disponibles), {@code import.chunk} (4096), {@code import.progressSeconds} (10),
+ * {@code import.attestationMetadata} (modo estricto, como {@code ATTESTATION_METADATA}),
+ * {@code import.credentialSnapshot} (ids ya registrados) e {@code import.expectedCredentials} (10000000).
+ */
+public class BulkRegistrationImport {
+
+  /** Línea que no es JSON o no tiene la forma de {@link ImportRecord}. */
+  static final String MALFORMED = "malformed_record";
+  /** Mismo motivo que finishRegistration: el credentialId ya estaba registrado o se repite en el fichero. */
+  static final String DUPLICATE = "duplicate_credential";
+
+  private static final ObjectMapper MAPPER = new ObjectMapper()
+      .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+  private static final byte[] NEWLINE = {'\n'};
+
+  public record Settings(int workers, int chunkSize, Duration progressEvery) {
+    public Settings {
+      if (workers <= 0) throw new IllegalArgumentException("workers must be > 0");
+      if (chunkSize <= 0) throw new IllegalArgumentException("chunkSize must be > 0");
+      Objects.requireNonNull(progressEvery, "progressEvery");
+    }
+  }
+
+  /** Una línea de entrada: la misma forma que la petición de finishRegistration más el usuario de origen. */
+  public record ImportRecord(
+      String userId,
+      FinishRegistrationRequest.Server server,
+      FinishRegistrationRequest.Credential credential
+  ) {}
+
+  /** Línea de {@code credentials}: lo que devolvería finishRegistration, con la línea de origen. */
+  record Imported(long line, String userId, FinishRegistrationResponse.Data credential) {}
+
+  /** Línea de {@code rejects}: motivo de baja cardinalidad, nunca el mensaje de la excepción. */
+  record Rejected(long line, String userId, String reason) {}
+
+  /** Lo confirmado en disco: líneas de entrada procesadas y tamaño de cada salida en ese punto. */
+  record Checkpoint(long lines, long credentialsBytes, long rejectsBytes, long imported, long rejected) {
+    static final Checkpoint START = new Checkpoint(0, 0, 0, 0, 0);
+  }
+
+  public record Report(
+      long resumedAt,       // línea desde la que se reanudó (0 en una pasada nueva)
+      long lines,           // líneas confirmadas en total
+      long processed,       // registros procesados en esta ejecución
+      long imported,        // totales, incluidas ejecuciones anteriores
+      long rejected,
+      double seconds,
+      Map<String, Long> rejectReasons // sólo esta ejecución
+  ) {
+    public double recordsPerSecond() {
+      return seconds == 0 ? 0 : processed / seconds;
+    }
+
+    public String toText() {
+      return String.format(Locale.ROOT,
+          "lines=%d (resumed at %d) processed=%d in %.1fs (%.0f records/s) imported=%d rejected=%d reasons=%s",
+          lines, resumedAt, processed, seconds, recordsPerSecond(), imported, rejected, rejectReasons);
+    }
+  }
+
+  // reason null = verificado; json ya serializado en el worker, con el salto de línea aparte. El credentialId se
+  // reserva en el índice al escribir, no en el worker: entre duplicados del mismo bloque gana siempre la primera línea
+  private record Outcome(String reason, byte[] json, long line, String userId, byte[] credentialId) {}
+
+  private record Chunk(long firstLine, List<String> lines) {
+    long end() { return firstLine + lines.size(); }
+  }
+
+  private record Pending(Chunk chunk, List<Future<Outcome[]>> parts) {}
+
+  private final Settings settings;
+  private final RegistrationVerifier verifier;
+  private final CredentialIndex credentials;
+
+  public BulkRegistrationImport(Settings settings, RegistrationVerifier verifier, CredentialIndex credentials) {
+    this.settings = Objects.requireNonNull(settings, "settings");
+    this.verifier = Objects.requireNonNull(verifier, "verifier");
+    this.credentials = Objects.requireNonNull(credentials, "credentials");
+  }
+
+  public static void main(String[] args) throws Exception {
+    String inputSpec = System.getProperty("import.input");
+    if (inputSpec == null || inputSpec.isBlank()) throw new IllegalArgumentException("import.input is required");
+    Path input = Path.of(inputSpec);
+
+    Settings settings = new Settings(
+        Integer.getInteger("import.workers", Runtime.getRuntime().availableProcessors()),
+        Integer.getInteger("import.chunk", 4096),
+        Duration.ofSeconds(Long.getLong("import.progressSeconds", 10))
+    );
+
+    // Defaults de passkeys.attestation.* y passkeys.credentials.*, como el handler sin Spring
+    FinishRegistrationConfig c = new FinishRegistrationConfig();
+    var trust = c.attestationTrust(
+        System.getProperty("import.attestationMetadata", ""), true, Duration.ofHours(1), 1024, StageMetrics.NOOP);
+    RegistrationVerifier verifier = c.registrationVerifier(c.webAuthnManager(), c.registrationDataVerifier(), trust, StageMetrics.NOOP);
+    CredentialIndex credentials = c.credentialIndex(
+        true, System.getProperty("import.credentialSnapshot", ""), Long.getLong("import.expectedCredentials", 10_000_000), 0.01,
+        StageMetrics.NOOP);
+
+    Report report = new BulkRegistrationImport(settings, verifier, credentials).run(
+        input,
+        Path.of(System.getProperty("import.credentials", inputSpec + ".credentials.ndjson")),
+        Path.of(System.getProperty("import.rejects", inputSpec + ".rejects.ndjson")),
+        Path.of(System.getProperty("import.checkpoint", inputSpec + ".checkpoint")),
+        progress -> System.err.println(progress.toText())
+    );
+    System.out.println(report.toText());
+  }
+
+  public Report run(Path input, Path credentialsOut, Path rejectsOut, Path checkpointFile)
+      throws IOException, InterruptedException {
+    return run(input, credentialsOut, rejectsOut, checkpointFile, progress -> {});
+  }
+
+  /**
+   * Procesa {@code input} desde el checkpoint (o desde el principio si no existe). Al terminar el checkpoint queda
+   * al final del fichero: volver a lanzarlo no procesa nada.
+   */
+  public Report run(Path input, Path credentialsOut, Path rejectsOut, Path checkpointFile, Consumer<Report> progress)
+      throws IOException, InterruptedException {
+    Checkpoint checkpoint = Files.exists(checkpointFile) ? readCheckpoint(checkpointFile) : Checkpoint.START;
+    long resumedAt = checkpoint.lines();
+    Map<String, Long> reasons = new TreeMap<>();
+    long processed = 0;
+    long start = System.nanoTime();
+    long nextProgress = start + settings.progressEvery().toNanos();
+
+    ExecutorService pool = Executors.newFixedThreadPool(settings.workers(), r -> {
+      Thread t = new Thread(r, "bulk-import");
+      t.setDaemon(true);
+      return t;
+    });
+    try (BufferedReader reader = Files.newBufferedReader(input, StandardCharsets.UTF_8);
+         Output imported = Output.open(credentialsOut, checkpoint.credentialsBytes());
+         Output rejected = Output.open(rejectsOut, checkpoint.rejectsBytes())) {
+      // Las credenciales ya confirmadas vuelven al índice: un duplicado tras reanudar se sigue detectando
+      if (checkpoint.credentialsBytes() > 0) restoreIndex(credentialsOut);
+      for (long i = 0; i < resumedAt; i++) {
+        if (reader.readLine() == null) throw new IllegalStateException("checkpoint beyond end of input: " + checkpointFile);
+      }
+
+      Chunk first = read(reader, resumedAt);
+      Pending pending = first == null ? null : submit(pool, first);
+      while (pending != null) {
+        // El siguiente bloque se lee mientras se verifica éste y se encola antes de escribir
+        Chunk next = read(reader, pending.chunk().end());
+        List<Outcome[]> outcomes = await(pending);
+        Pending following = next == null ? null : submit(pool, next);
+
+        long importedCount = checkpoint.imported();
+        long rejectedCount = checkpoint.rejected();
+        for (Outcome[] part : outcomes) {
+          for (Outcome verified : part) {
+            if (verified == null) continue; // línea en blanco
+            processed++;
+            Outcome outcome = reserve(verified);
+            if (outcome.reason() == null) {
+              imported.write(outcome.json());
+              importedCount++;
+            } else {
+              rejected.write(outcome.json());
+              reasons.merge(outcome.reason(), 1L, Long::sum);
+              rejectedCount++;
+            }
+          }
+        }
+        checkpoint = new Checkpoint(pending.chunk().end(), imported.commit(), rejected.commit(), importedCount, rejectedCount);
+        writeCheckpoint(checkpointFile, checkpoint);
+
+        long now = System.nanoTime();
+        if (now >= nextProgress) {
+          progress.accept(report(resumedAt, checkpoint, processed, now - start, reasons));
+          nextProgress = now + settings.progressEvery().toNanos();
+        }
+        pending = following;
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+    return report(resumedAt, checkpoint, processed, System.nanoTime() - start, reasons);
+  }
+
+  private Chunk read(BufferedReader reader, long firstLine) throws IOException {
+    List<String> lines = new ArrayList<>(settings.chunkSize());
+    String line;
+    while (lines.size() < settings.chunkSize() && (line = reader.readLine()) != null) lines.add(line);
+    return lines.isEmpty() ? null : new Chunk(firstLine, lines);
+  }
+
+  private Pending submit(ExecutorService pool, Chunk chunk) {
+    // Varias partes por worker: un tramo lento no deja a los demás parados al final del bloque
+    int size = chunk.lines().size();
+    int parts = Math.min(size, settings.workers() * 4);
+    List<Future<Outcome[]>> futures = new ArrayList<>(parts);
+    for (int p = 0; p < parts; p++) {
+      int from = (int) ((long) size * p / parts);
+      int to = (int) ((long) size * (p + 1) / parts);
+      futures.add(pool.submit(() -> {
+        Outcome[] out = new Outcome[to - from];
+        for (int i = from; i < to; i++) out[i - from] = process(chunk.firstLine() + i + 1, chunk.lines().get(i));
+        return out;
+      }));
+    }
+    return new Pending(chunk, futures);
+  }
+
+  private static List<Outcome[]> await(Pending pending) throws InterruptedException {
+    List<Outcome[]> outcomes = new ArrayList<>(pending.parts().size());
+    for (Future<Outcome[]> part : pending.parts()) {
+      try {
+        outcomes.add(part.get());
+      } catch (ExecutionException e) {
+        // Los fallos de un registro ya son rechazos: aquí sólo llegan errores de la JVM
+        if (e.getCause() instanceof Error error) throw error;
+        throw new IllegalStateException("bulk import worker failed", e.getCause());
+      }
+    }
+    return outcomes;
+  }
+
+  /** @param line número de línea desde 1, el que se escribe en las salidas */
+  private Outcome process(long line, String text) {
+    if (text.isBlank()) return null;
+    ImportRecord record;
+    try {
+      record = MAPPER.readValue(text, ImportRecord.class);
+    } catch (JsonProcessingException e) {
+      return rejected(line, null, MALFORMED);
+    }
+    if (!complete(record)) return rejected(line, record.userId(), StageMetrics.INVALID_REQUEST);
+
+    try {
+      var verified = verifier.verify(new RegistrationVerifier.VerifyRegistrationCommand(
+          record.server().challenge(),
+          record.server().rpId(),
+          record.server().origin(),
+          record.server().userVerificationRequired(),
+          record.credential().response().clientDataJSON(),
+          record.credential().response().attestationObject()
+      ));
+      byte[] credentialId = Base64.getUrlDecoder().decode(verified.credentialIdB64Url());
+      return new Outcome(null, json(new Imported(line, record.userId(), new FinishRegistrationResponse.Data(
+          verified.credentialIdB64Url(),
+          verified.publicKeyCoseB64Url(),
+          verified.aaguid(),
+          verified.signCount(),
+          verified.algorithm(),
+          verified.publicKeySpkiB64Url()
+      ))), line, record.userId(), credentialId);
+    } catch (RuntimeException e) {
+      return rejected(line, record.userId(), StageMetrics.reason(e));
+    }
+  }
+
+  /** Reserva el credentialId de un registro verificado; si ya estaba, la línea pasa a rechazo por duplicado. */
+  private Outcome reserve(Outcome verified) {
+    if (verified.reason() != null || credentials.add(verified.credentialId())) return verified;
+    return rejected(verified.line(), verified.userId(), DUPLICATE);
+  }
+
+  /** Los mismos campos obligatorios que finishRegistration. */
+  private static boolean complete(ImportRecord r) {
+    return r.server() != null
+        && !blank(r.server().challenge())
+        && !blank(r.server().rpId())
+        && !blank(r.server().origin())
+        && r.credential() != null
+        && r.credential().response() != null
+        && !blank(r.credential().response().clientDataJSON())
+        && !blank(r.credential().response().attestationObject());
+  }
+
+  private static Outcome rejected(long line, String userId, String reason) {
+    return new Outcome(reason, json(new Rejected(line, userId, reason)), line, userId, null);
+  }
+
+  private static byte[] json(Object value) {
+    try {
+      return MAPPER.writeValueAsBytes(value);
+    } catch (JsonProcessingException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private void restoreIndex(Path credentialsOut) throws IOException {
+    try (BufferedReader reader = Files.newBufferedReader(credentialsOut, StandardCharsets.UTF_8)) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        JsonNode id = MAPPER.readTree(line).path("credential").path("credentialId");
+        credentials.add(Base64.getUrlDecoder().decode(id.asText()));
+      }
+    }
+  }
+
+  private static Checkpoint readCheckpoint(Path file) throws IOException {
+    return MAPPER.readValue(file.toFile(), Checkpoint.class);
+  }
+
+  /** Escritura síncrona a un temporal y rename atómico: nunca queda un checkpoint a medias. */
+  private static void writeCheckpoint(Path file, Checkpoint checkpoint) throws IOException {
+    Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+    Files.write(tmp, MAPPER.writeValueAsBytes(checkpoint),
+        StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE, StandardOpenOption.DSYNC);
+    Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+  }
+
+  private static Report report(long resumedAt, Checkpoint checkpoint, long processed, long nanos, Map<String, Long> reasons) {
+    return new Report(
+        resumedAt, checkpoint.lines(), processed, checkpoint.imported(), checkpoint.rejected(), nanos / 1e9, Map.copyOf(reasons));
+  }
+
+  private static boolean blank(String s) { return s == null || s.trim().isEmpty(); }
+
+  private static boolean blank(Binary b) { return b == null || b.isBlank(); }
+
+  /** Salida con buffer sobre un {@link FileChannel}: se trunca a lo confirmado al abrir y se sincroniza en cada commit. */
+  private static final class Output implements Closeable {
+    private final FileChannel channel;
+    private final OutputStream out;
+
+    private Output(FileChannel channel) {
+      this.channel = channel;
+      this.out = new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16);
+    }
+
+    static Output open(Path path, long committed) throws IOException {
+      FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+      if (channel.size() < committed) {
+        channel.close();
+        throw new IllegalStateException("output shorter than checkpoint: " + path);
+      }
+      // Lo escrito tras el último checkpoint se descarta: esas líneas se vuelven a procesar
+      channel.truncate(committed);
+      channel.position(committed);
+      return new Output(channel);
+    }
+
+    void write(byte[] line) throws IOException {
+      out.write(line);
+      out.write(NEWLINE);
+    }
+
+    /** @return tamaño confirmado en disco */
+    long commit() throws IOException {
+      out.flush();
+      channel.force(false);
+      return channel.position();
+    }
+
+    @Override
+    public void close() throws IOException {
+      try {
+        out.flush();
+      } finally {
+        channel.close();
+      }
+    }
+  }
+}
@@ -3,10 +3,12 @@ package com.acme.passkeys.adapters.in.function;
 import com.acme.passkeys.adapters.in.function.dto.FinishRegistrationRequest;
 import com.acme.passkeys.adapters.in.function.dto.FinishRegistrationResponse;
 import com.acme.passkeys.application.ports.in.FinishRegistrationUseCase;
+import org.springframework.messaging.Message;
 
 import java.util.function.Function;
 
-public class FinishRegistrationFunction implements Function<FinishRegistrationRequest, FinishRegistrationResponse> {
+/** Recibe el mensaje, y no sólo el payload, para sacar el plazo de la invocación de sus cabeceras ({@link FunctionDeadlines}). */
+public class FinishRegistrationFunction implements Function<Message<FinishRegistrationRequest>, FinishRegistrationResponse> {
 
   private final FinishRegistrationUseCase useCase;
 
@@ -15,7 +17,7 @@ public class FinishRegistrationFunction implements Function<FinishRegistrationRe
   }
 
   @Override
-  public FinishRegistrationResponse apply(FinishRegistrationRequest req) {
-    return useCase.handle(req);
+  public FinishRegistrationResponse apply(Message<FinishRegistrationRequest> message) {
+    return useCase.handle(message.getPayload(), FunctionDeadlines.of(message.getHeaders()));
   }
 }
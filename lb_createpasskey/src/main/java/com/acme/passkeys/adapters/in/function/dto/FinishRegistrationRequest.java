@@ -1,8 +1,14 @@
 package com.acme.passkeys.adapters.in.function.dto;
 
+import com.acme.passkeys.domain.model.Binary;
+
+import java.time.Instant;
+
 public record FinishRegistrationRequest(
     Server server,
-    Credential credential
+    Credential credential,
+    NextChallenge nextChallenge, // null: no se emite
+    Sealed sealed                // null: challenge del store
 ) {
   public record Server(
       String challenge, // base64url
@@ -18,8 +24,29 @@ public record FinishRegistrationRequest(
       Response response
   ) {
     public record Response(
-        String clientDataJSON,     // base64url
-        String attestationObject   // base64url
+        Binary clientDataJSON,     // base64url en JSON, byte string en CBOR
+        Binary attestationObject   // base64url en JSON, byte string en CBOR
     ) {}
   }
+
+  /**
+   * Opcional: si viene, se emite y guarda también un challenge AUTHENTICATION para el siguiente paso (step-up,
+   * re-autenticación) con el rpId y el origin de {@code server}, y vuelve en {@code nextChallenge} de la respuesta.
+   */
+  public record NextChallenge(
+      String userId,
+      long timeoutMs,
+      String transactionId, // opcional, idempotencia igual que en createChallenge
+      long ttlSeconds       // opcional, default 120
+  ) {}
+
+  /**
+   * Opcional: el challenge se emitió sellado porque el store no estaba disponible (ver createChallenge). Es el contexto
+   * con que se selló, de la respuesta de createChallenge; {@code server.challenge} se verifica con la clave compartida.
+   */
+  public record Sealed(
+      String transactionId,
+      String userId,
+      Instant expiresAt
+  ) {}
 }
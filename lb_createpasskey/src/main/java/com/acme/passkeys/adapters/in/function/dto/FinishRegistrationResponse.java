@@ -3,20 +3,35 @@ package com.acme.passkeys.adapters.in.function.dto;
 public record FinishRegistrationResponse(
     int code,
     String message,
-    Data data
+    Data data,
+    ChallengeResponse nextChallenge // sólo si se pidió y se pudo emitir
 ) {
   public record Data(
       String credentialId,
       String publicKeyCose,
       String aaguid,
-      long signCount
+      long signCount,
+      long algorithm,       // COSE: -7 ES256, -257 RS256, -8 EdDSA
+      String publicKeySpki  // base64url, X.509 SubjectPublicKeyInfo DER: guardar junto a publicKeyCose
   ) {}
 
   public static FinishRegistrationResponse ok(Data data) {
-    return new FinishRegistrationResponse(200, "PASSKEY_CREATED", data);
+    return ok(data, null);
+  }
+
+  public static FinishRegistrationResponse ok(Data data, ChallengeResponse nextChallenge) {
+    return new FinishRegistrationResponse(200, "PASSKEY_CREATED", data, nextChallenge);
   }
 
   public static FinishRegistrationResponse bad(String msg) {
-    return new FinishRegistrationResponse(400, msg, null);
+    return new FinishRegistrationResponse(400, msg, null, null);
+  }
+
+  public static FinishRegistrationResponse conflict(String msg) {
+    return new FinishRegistrationResponse(409, msg, null, null);
+  }
+
+  public static FinishRegistrationResponse timeout(String msg) {
+    return new FinishRegistrationResponse(504, msg, null, null);
   }
 }
@@ -0,0 +1,92 @@
+package com.acme.passkeys.adapters.in.lambda;
+
+import com.acme.passkeys.adapters.in.function.dto.FinishRegistrationRequest;
+import com.acme.passkeys.adapters.in.function.dto.FinishRegistrationResponse;
+import com.acme.passkeys.adapters.in.lambda.CreateChallengeStreamHandler.NextChallenges;
+import com.acme.passkeys.application.ports.in.FinishRegistrationUseCase;
+import com.acme.passkeys.application.ports.out.AuditLog;
+import com.acme.passkeys.application.ports.out.StageMetrics;
+import com.acme.passkeys.application.service.FinishRegistrationService;
+import com.acme.passkeys.config.FinishRegistrationConfig;
+
+import java.time.Duration;
+
+/**
+ * Entrada rápida para Lambda sin contexto de Spring; cablea lo mismo que {@link FinishRegistrationConfig}.
+ * Con {@code NEXT_CHALLENGE_ENABLED=true} emite el siguiente challenge y con {@code CHALLENGE_SEAL_KEY} acepta challenges
+ * sellados; sin ninguna de las dos no cablea nada de createChallenge.
+ * Handler: {@code com.acme.passkeys.adapters.in.lambda.FinishRegistrationStreamHandler::handleRequest}
+ */
+public class FinishRegistrationStreamHandler extends JsonStreamHandler<FinishRegistrationRequest, FinishRegistrationResponse> {
+
+  // Defaults de passkeys.attestation.*
+  static final boolean ATTESTATION_ALLOW_NONE = true;
+  static final Duration ATTESTATION_CACHE_TTL = Duration.ofHours(1);
+  static final int ATTESTATION_CACHE_SIZE = 1024;
+
+  // Defaults de passkeys.credentials.*
+  static final long CREDENTIALS_EXPECTED_INSERTIONS = 1_000_000;
+  static final double CREDENTIALS_FPP = 0.01;
+
+  // Defaults de passkeys.audit.*
+  static final int AUDIT_CAPACITY = 8192;
+  static final int AUDIT_RECORDS_PER_FILE = 65_536;
+  static final int AUDIT_MAX_FILES = 8;
+
+  // Default de passkeys.metrics.sample-every: frente a la verificación, medir cada invocación es despreciable
+  static final int METRICS_SAMPLE_EVERY = 1;
+
+  // Defaults de passkeys.deadline.*
+  static final FinishRegistrationService.StageCosts DEADLINE_COSTS = FinishRegistrationService.StageCosts.DEFAULTS;
+
+  // Se cablea en la fase init de Lambda y se comparte entre invocaciones
+  private static final StageMetrics METRICS =
+      new FinishRegistrationConfig().finishRegistrationMetrics(true, "Passkeys", METRICS_FLUSH_INTERVAL, METRICS_SAMPLE_EVERY);
+  private static final AuditLog AUDIT = auditLog(System.getenv("AUDIT_DIR"));
+  private static final NextChallenges NEXT_CHALLENGES = CreateChallengeStreamHandler.nextChallenges(
+      Boolean.parseBoolean(System.getenv("NEXT_CHALLENGE_ENABLED")), System.getenv("CHALLENGE_SEAL_KEY"), METRICS, AUDIT);
+  private static final FinishRegistrationUseCase USE_CASE =
+      wire(System.getenv("ATTESTATION_METADATA"), System.getenv("CREDENTIAL_SNAPSHOT"), NEXT_CHALLENGES, METRICS, AUDIT);
+
+  public FinishRegistrationStreamHandler() {
+    this(USE_CASE, METRICS);
+  }
+
+  // El caso de uso directamente, para pasarle el tiempo que le queda a la invocación
+  FinishRegistrationStreamHandler(FinishRegistrationUseCase useCase, StageMetrics metrics) {
+    super(FinishRegistrationRequest.class, (request, deadline) -> useCase.handle(request, deadline), metrics);
+  }
+
+  /**
+   * @param attestationMetadata fichero o directorio de metadata FIDO (modo estricto); {@code null} o vacío: sin evaluar la cadena
+   * @param credentialSnapshot  credentialIds ya registrados, uno base64url por línea; {@code null} o vacío: índice vacío
+   */
+  static FinishRegistrationUseCase wire(
+      String attestationMetadata,
+      String credentialSnapshot,
+      NextChallenges nextChallenges,
+      StageMetrics metrics,
+      AuditLog audit
+  ) {
+    FinishRegistrationConfig c = new FinishRegistrationConfig();
+    var trust = c.attestationTrust(
+        attestationMetadata == null ? "" : attestationMetadata,
+        ATTESTATION_ALLOW_NONE, ATTESTATION_CACHE_TTL, ATTESTATION_CACHE_SIZE, metrics);
+    return c.finishRegistrationUseCase(
+        c.registrationVerifier(c.webAuthnManager(), c.registrationDataVerifier(), trust, metrics),
+        c.credentialIndex(
+            true, credentialSnapshot == null ? "" : credentialSnapshot, CREDENTIALS_EXPECTED_INSERTIONS, CREDENTIALS_FPP, metrics),
+        nextChallenges.useCase(),
+        nextChallenges.sealer(),
+        metrics,
+        audit,
+        DEADLINE_COSTS
+    );
+  }
+
+  /** @param auditDir directorio de los ficheros de auditoría; {@code null} o vacío: sin auditoría */
+  static AuditLog auditLog(String auditDir) {
+    return new FinishRegistrationConfig()
+        .registrationAuditLog(auditDir == null ? "" : auditDir, AUDIT_CAPACITY, AUDIT_RECORDS_PER_FILE, AUDIT_MAX_FILES);
+  }
+}
@@ -0,0 +1,21 @@
+package com.acme.passkeys.adapters.out.attestation;
+
+import java.security.cert.X509Certificate;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Confianza en la attestation de un registro que webauthn4j ya validó (firma del attStmt, rpIdHash,
+ * flags). Se evalúa después de esa validación, sólo sobre el AAGUID y la cadena {@code x5c}.
+ */
+public interface AttestationTrust {
+
+  /** Modo no estricto, como {@code createNonStrictWebAuthnManager}: no se evalúa la cadena. */
+  AttestationTrust PERMISSIVE = (aaguid, chain) -> {};
+
+  /**
+   * @param chain {@code x5c} con la hoja primero; vacío para {@code none} y self attestation
+   * @throws UntrustedAttestationException si la attestation no encadena con un ancla del metadata
+   */
+  void verify(UUID aaguid, List<X509Certificate> chain);
+}
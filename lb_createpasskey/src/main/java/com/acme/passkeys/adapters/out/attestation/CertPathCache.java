@@ -0,0 +1,56 @@
+package com.acme.passkeys.adapters.out.attestation;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Huellas de cadenas de attestation ya validadas contra el metadata, con TTL. Los autenticadores
+ * comparten certificado de attestation por lote, así que los registros de un mismo modelo repiten
+ * cadena y se saltan la validación PKIX.
+ */
+public class CertPathCache {
+
+  private final Map<String, Instant> validUntil = new ConcurrentHashMap<>();
+  private final Clock clock;
+  private final Duration ttl;
+  private final int maxEntries;
+
+  public CertPathCache(Clock clock, Duration ttl, int maxEntries) {
+    this.clock = Objects.requireNonNull(clock, "clock");
+    this.ttl = Objects.requireNonNull(ttl, "ttl");
+    if (ttl.isNegative() || ttl.isZero()) throw new IllegalArgumentException("ttl must be > 0");
+    if (maxEntries <= 0) throw new IllegalArgumentException("maxEntries must be > 0");
+    this.maxEntries = maxEntries;
+  }
+
+  public boolean contains(String fingerprint) {
+    Instant until = validUntil.get(fingerprint);
+    if (until == null) return false;
+    if (Instant.now(clock).isBefore(until)) return true;
+    validUntil.remove(fingerprint, until);
+    return false;
+  }
+
+  /** Nunca más allá de {@code notAfter}: una cadena caducada debe volver a validarse (y fallar). */
+  public void put(String fingerprint, Instant notAfter) {
+    Instant now = Instant.now(clock);
+    Instant until = now.plus(ttl);
+    if (notAfter.isBefore(until)) until = notAfter;
+    if (validUntil.size() >= maxEntries) evict(now);
+    validUntil.put(fingerprint, until);
+  }
+
+  public int size() {
+    return validUntil.size();
+  }
+
+  private void evict(Instant now) {
+    validUntil.values().removeIf(until -> !now.isBefore(until));
+    // Pocos modelos en la práctica: si aun así se llena, se vacía en vez de llevar un LRU
+    if (validUntil.size() >= maxEntries) validUntil.clear();
+  }
+}
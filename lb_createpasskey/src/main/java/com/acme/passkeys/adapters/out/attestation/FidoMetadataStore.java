@@ -0,0 +1,104 @@
+package com.acme.passkeys.adapters.out.attestation;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.cert.CertificateException;
+import java.security.cert.CertificateFactory;
+import java.security.cert.TrustAnchor;
+import java.security.cert.X509Certificate;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Anclas de confianza FIDO por AAGUID, cargadas una vez al arrancar desde un fichero o un directorio
+ * local (no recursivo) de {@code .json}. Cada fichero es un metadata statement o el payload ya
+ * decodificado de un BLOB MDS3 ({@code {"entries": [{"aaguid", "metadataStatement", "statusReports"}]}});
+ * la firma del BLOB se comprueba al descargarlo, fuera de la Lambda.
+ *
+ * <p>Se ignoran los statements sin {@code aaguid} (U2F, indexados por key identifier) y las entradas
+ * cuyo último estado es de compromiso o revocación.
+ */
+public final class FidoMetadataStore {
+
+  private static final Set<String> UNTRUSTED_STATUS = Set.of(
+      "REVOKED",
+      "ATTESTATION_KEY_COMPROMISE",
+      "USER_KEY_REMOTE_COMPROMISE",
+      "USER_KEY_PHYSICAL_COMPROMISE",
+      "USER_VERIFICATION_BYPASS"
+  );
+
+  private final Map<UUID, Set<TrustAnchor>> anchors;
+
+  private FidoMetadataStore(Map<UUID, Set<TrustAnchor>> anchors) {
+    this.anchors = anchors;
+  }
+
+  public static FidoMetadataStore load(Path fileOrDirectory) {
+    ObjectMapper json = new ObjectMapper();
+    Map<UUID, Set<TrustAnchor>> anchors = new HashMap<>();
+    for (Path file : files(fileOrDirectory)) {
+      try {
+        JsonNode root = json.readTree(file.toFile());
+        if (root.has("entries")) {
+          for (JsonNode entry : root.get("entries")) {
+            if (!revoked(entry)) add(anchors, entry.path("metadataStatement"));
+          }
+        } else {
+          add(anchors, root);
+        }
+      } catch (IOException | CertificateException | IllegalArgumentException e) {
+        throw new IllegalStateException("invalid FIDO metadata: " + file, e);
+      }
+    }
+    anchors.replaceAll((aaguid, set) -> Set.copyOf(set));
+    return new FidoMetadataStore(Map.copyOf(anchors));
+  }
+
+  /** Anclas del modelo de autenticador; vacío si no hay metadata para ese AAGUID. */
+  public Set<TrustAnchor> trustAnchors(UUID aaguid) {
+    return anchors.getOrDefault(aaguid, Set.of());
+  }
+
+  public int size() {
+    return anchors.size();
+  }
+
+  private static List<Path> files(Path fileOrDirectory) {
+    if (!Files.isDirectory(fileOrDirectory)) return List.of(fileOrDirectory);
+    try (Stream<Path> list = Files.list(fileOrDirectory)) {
+      return list.filter(p -> p.getFileName().toString().endsWith(".json")).sorted().toList();
+    } catch (IOException e) {
+      throw new IllegalStateException("invalid FIDO metadata: " + fileOrDirectory, e);
+    }
+  }
+
+  private static boolean revoked(JsonNode entry) {
+    JsonNode reports = entry.path("statusReports");
+    // El último informe es el estado vigente
+    return reports.size() > 0 && UNTRUSTED_STATUS.contains(reports.get(reports.size() - 1).path("status").asText());
+  }
+
+  private static void add(Map<UUID, Set<TrustAnchor>> anchors, JsonNode statement) throws CertificateException {
+    String aaguid = statement.path("aaguid").asText("");
+    if (aaguid.isEmpty()) return;
+    CertificateFactory x509 = CertificateFactory.getInstance("X.509");
+    Set<TrustAnchor> set = anchors.computeIfAbsent(UUID.fromString(aaguid), k -> new HashSet<>());
+    for (JsonNode der : statement.path("attestationRootCertificates")) {
+      X509Certificate root = (X509Certificate) x509.generateCertificate(
+          new ByteArrayInputStream(Base64.getMimeDecoder().decode(der.asText())));
+      set.add(new TrustAnchor(root, null));
+    }
+  }
+}
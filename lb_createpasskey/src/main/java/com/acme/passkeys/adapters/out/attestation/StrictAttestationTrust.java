@@ -0,0 +1,120 @@
+package com.acme.passkeys.adapters.out.attestation;
+
+import com.acme.passkeys.application.ports.out.StageMetrics;
+
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.cert.CertPath;
+import java.security.cert.CertPathValidator;
+import java.security.cert.CertificateFactory;
+import java.security.cert.PKIXParameters;
+import java.security.cert.TrustAnchor;
+import java.security.cert.X509Certificate;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Modo estricto: la cadena {@code x5c} tiene que encadenar (PKIX, sin revocación online) con un ancla
+ * del metadata del AAGUID. Las cadenas validadas se cachean por huella (AAGUID + DER de cada
+ * certificado) en {@link CertPathCache}. La validación PKIX usa el mismo {@link Clock} que la caché: una cadena
+ * fuera de su validez según ese reloj no se acepta ni se cachea.
+ *
+ * <p>Métricas como etapas propias, sin muestrear: {@value #CACHE_HIT} (acierto de caché) y
+ * {@value #PATH_VALIDATION} (fallo de caché: tiempo de la validación PKIX). El número de muestras de
+ * cada una es el número de aciertos y de fallos.
+ */
+public class StrictAttestationTrust implements AttestationTrust {
+
+  public static final String CACHE_HIT = "attestationCacheHit";
+  public static final String PATH_VALIDATION = "attestationPathValidation";
+
+  private final FidoMetadataStore metadata;
+  private final CertPathCache cache;
+  private final Clock clock;
+  private final boolean allowNone;
+  private final StageMetrics metrics;
+
+  /**
+   * @param allowNone si se aceptan {@code none} y self attestation (sin {@code x5c}), que no se pueden
+   *                  evaluar contra el metadata; casi todas las passkeys de plataforma llegan así
+   */
+  public StrictAttestationTrust(
+      FidoMetadataStore metadata,
+      CertPathCache cache,
+      Clock clock,
+      boolean allowNone,
+      StageMetrics metrics
+  ) {
+    this.metadata = metadata;
+    this.cache = cache;
+    this.clock = Objects.requireNonNull(clock, "clock");
+    this.allowNone = allowNone;
+    this.metrics = metrics;
+  }
+
+  @Override
+  public void verify(UUID aaguid, List<X509Certificate> chain) {
+    if (chain == null || chain.isEmpty()) {
+      if (allowNone) return;
+      throw new UntrustedAttestationException("attestation without certificate chain");
+    }
+
+    long start = System.nanoTime();
+    String fingerprint = fingerprint(aaguid, chain);
+    if (cache.contains(fingerprint)) {
+      metrics.recordStage(CACHE_HIT, System.nanoTime() - start);
+      return;
+    }
+
+    try {
+      validate(metadata.trustAnchors(aaguid), chain);
+    } finally {
+      metrics.recordStage(PATH_VALIDATION, System.nanoTime() - start);
+    }
+    cache.put(fingerprint, notAfter(chain));
+  }
+
+  private void validate(Set<TrustAnchor> anchors, List<X509Certificate> chain) {
+    if (anchors.isEmpty()) throw new UntrustedAttestationException("no metadata for authenticator");
+    try {
+      CertPath path = CertificateFactory.getInstance("X.509").generateCertPath(chain);
+      PKIXParameters params = new PKIXParameters(anchors);
+      params.setRevocationEnabled(false);
+      params.setDate(Date.from(clock.instant()));
+      CertPathValidator.getInstance("PKIX").validate(path, params);
+    } catch (GeneralSecurityException e) {
+      throw new UntrustedAttestationException("attestation chain not trusted", e);
+    }
+  }
+
+  static String fingerprint(UUID aaguid, List<X509Certificate> chain) {
+    try {
+      MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+      sha256.update(ByteBuffer.allocate(16).putLong(aaguid.getMostSignificantBits()).putLong(aaguid.getLeastSignificantBits()).array());
+      for (X509Certificate certificate : chain) {
+        byte[] der = certificate.getEncoded();
+        sha256.update(ByteBuffer.allocate(4).putInt(der.length).array());
+        sha256.update(der);
+      }
+      return HexFormat.of().formatHex(sha256.digest());
+    } catch (GeneralSecurityException e) {
+      throw new UntrustedAttestationException("invalid attestation certificate", e);
+    }
+  }
+
+  private static Instant notAfter(List<X509Certificate> chain) {
+    Instant earliest = Instant.MAX;
+    for (X509Certificate certificate : chain) {
+      Instant notAfter = certificate.getNotAfter().toInstant();
+      if (notAfter.isBefore(earliest)) earliest = notAfter;
+    }
+    return earliest;
+  }
+}
@@ -0,0 +1,13 @@
+package com.acme.passkeys.adapters.out.attestation;
+
+/** La attestation es válida pero no se confía en ella; el nombre de la clase es el motivo en las métricas. */
+public class UntrustedAttestationException extends RuntimeException {
+
+  public UntrustedAttestationException(String message) {
+    super(message);
+  }
+
+  public UntrustedAttestationException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
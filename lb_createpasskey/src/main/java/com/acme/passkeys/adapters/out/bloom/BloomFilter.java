@@ -0,0 +1,104 @@
+package com.acme.passkeys.adapters.out.bloom;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtro de Bloom sobre bytes crudos, sin locks: {@code k} posiciones por doble hashing
+ * (Kirsch-Mitzenmacher) sobre dos hashes de 64 bits de una sola pasada. Sin falsos negativos; la tasa
+ * de falsos positivos crece con el llenado y se estima con los bits puestos.
+ */
+public final class BloomFilter {
+
+  private static final double LN2 = Math.log(2);
+
+  private final AtomicLongArray words;
+  private final long bits;
+  private final int hashFunctions;
+  private final AtomicLong bitsSet = new AtomicLong();
+
+  private BloomFilter(long bits, int hashFunctions) {
+    this.words = new AtomicLongArray(Math.toIntExact(bits >>> 6));
+    this.bits = bits;
+    this.hashFunctions = hashFunctions;
+  }
+
+  /** Dimensionado para {@code expectedInsertions} con tasa de falsos positivos {@code fpp}. */
+  public static BloomFilter create(long expectedInsertions, double fpp) {
+    if (expectedInsertions <= 0) throw new IllegalArgumentException("expectedInsertions must be > 0");
+    if (!(fpp > 0 && fpp < 1)) throw new IllegalArgumentException("fpp must be in (0, 1)");
+    long bits = (long) Math.ceil(-expectedInsertions * Math.log(fpp) / (LN2 * LN2));
+    bits = Math.max(64, (bits + 63) & ~63L);
+    int k = (int) Math.max(1, Math.round((double) bits / expectedInsertions * LN2));
+    return new BloomFilter(bits, k);
+  }
+
+  public boolean mightContain(byte[] key) {
+    long h1 = hash(key, 0x9E3779B97F4A7C15L);
+    long h2 = hash(key, 0xC2B2AE3D27D4EB4FL) | 1;
+    for (int i = 0; i < hashFunctions; i++) {
+      long bit = Long.remainderUnsigned(h1 + i * h2, bits);
+      if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) return false;
+    }
+    return true;
+  }
+
+  public void put(byte[] key) {
+    long h1 = hash(key, 0x9E3779B97F4A7C15L);
+    long h2 = hash(key, 0xC2B2AE3D27D4EB4FL) | 1;
+    for (int i = 0; i < hashFunctions; i++) {
+      long bit = Long.remainderUnsigned(h1 + i * h2, bits);
+      int word = (int) (bit >>> 6);
+      long mask = 1L << bit;
+      long current;
+      do {
+        current = words.get(word);
+        if ((current & mask) != 0) break;
+      } while (!words.compareAndSet(word, current, current | mask));
+      if ((current & mask) == 0) bitsSet.incrementAndGet();
+    }
+  }
+
+  /** Probabilidad de falso positivo con el llenado actual: (bits puestos / bits)^k. */
+  public double expectedFpp() {
+    return Math.pow((double) bitsSet.get() / bits, hashFunctions);
+  }
+
+  public long bitSize() {
+    return bits;
+  }
+
+  public int hashFunctions() {
+    return hashFunctions;
+  }
+
+  public long memoryBytes() {
+    return bits >>> 3;
+  }
+
+  // Mezcla por palabras de 8 bytes con el finalizador de MurmurHash3 (fmix64)
+  private static long hash(byte[] key, long seed) {
+    long h = seed ^ key.length;
+    int i = 0;
+    for (; i + 8 <= key.length; i += 8) {
+      h = Long.rotateLeft(h ^ fmix(word(key, i, 8)), 27) * 5 + 0x52DCE729;
+    }
+    if (i < key.length) h ^= fmix(word(key, i, key.length - i));
+    return fmix(h ^ seed);
+  }
+
+  private static long word(byte[] key, int offset, int length) {
+    long w = 0;
+    for (int j = 0; j < length; j++) w |= (key[offset + j] & 0xffL) << (j << 3);
+    return w;
+  }
+
+  private static long fmix(long h) {
+    h ^= h >>> 33;
+    h *= 0xFF51AFD7ED558CCDL;
+    h ^= h >>> 33;
+    h *= 0xC4CEB9FE1A85EC53L;
+    h ^= h >>> 33;
+    return h;
+  }
+}
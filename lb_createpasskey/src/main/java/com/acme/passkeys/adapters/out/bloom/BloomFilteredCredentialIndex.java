@@ -0,0 +1,113 @@
+package com.acme.passkeys.adapters.out.bloom;
+
+import com.acme.passkeys.adapters.out.memory.InMemoryCredentialIndex;
+import com.acme.passkeys.application.ports.out.CredentialIndex;
+import com.acme.passkeys.application.ports.out.StageMetrics;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Filtro de Bloom delante del índice exacto: un negativo del filtro descarta el duplicado sin
+ * consultar el índice; sólo un posible acierto paga la consulta exacta. El alta va siempre al índice
+ * exacto, que es quien resuelve los registros concurrentes.
+ *
+ * <p>Métricas como etapas propias, sin muestrear: {@value #FILTER_NEGATIVE} (descartado por el filtro),
+ * {@value #INDEX_LOOKUP} (consulta exacta) y {@value #FALSE_POSITIVE} (consulta exacta que no encontró
+ * nada). Falsos positivos observados = muestras de {@value #FALSE_POSITIVE} / (las de
+ * {@value #FILTER_NEGATIVE} + las de {@value #FALSE_POSITIVE}).
+ */
+public class BloomFilteredCredentialIndex implements CredentialIndex {
+
+  public static final String FILTER_NEGATIVE = "credentialFilterNegative";
+  public static final String INDEX_LOOKUP = "credentialIndexLookup";
+  public static final String FALSE_POSITIVE = "credentialFalsePositive";
+
+  private final CredentialIndex exact;
+  private final BloomFilter filter;
+  private final StageMetrics metrics;
+
+  private final LongAdder negatives = new LongAdder();
+  private final LongAdder lookups = new LongAdder();
+  private final LongAdder falsePositives = new LongAdder();
+
+  /** {@code filter} debe contener ya todo lo que contiene {@code exact}. */
+  public BloomFilteredCredentialIndex(CredentialIndex exact, BloomFilter filter, StageMetrics metrics) {
+    this.exact = Objects.requireNonNull(exact, "exact");
+    this.filter = Objects.requireNonNull(filter, "filter");
+    this.metrics = Objects.requireNonNull(metrics, "metrics");
+  }
+
+  /**
+   * Filtro reconstruido desde el índice exacto, con capacidad para {@code expectedInsertions} o el
+   * doble de lo que ya hay si es más.
+   */
+  public static BloomFilteredCredentialIndex rebuild(
+      InMemoryCredentialIndex exact,
+      long expectedInsertions,
+      double fpp,
+      StageMetrics metrics
+  ) {
+    BloomFilter filter = BloomFilter.create(Math.max(expectedInsertions, 2L * exact.size()), fpp);
+    exact.forEach(filter::put);
+    return new BloomFilteredCredentialIndex(exact, filter, metrics);
+  }
+
+  @Override
+  public boolean contains(byte[] credentialId) {
+    long start = System.nanoTime();
+    if (!filter.mightContain(credentialId)) {
+      negatives.increment();
+      metrics.recordStage(FILTER_NEGATIVE, System.nanoTime() - start);
+      return false;
+    }
+    lookups.increment();
+    boolean found = exact.contains(credentialId);
+    long nanos = System.nanoTime() - start;
+    metrics.recordStage(INDEX_LOOKUP, nanos);
+    if (!found) {
+      falsePositives.increment();
+      metrics.recordStage(FALSE_POSITIVE, nanos);
+    }
+    return found;
+  }
+
+  @Override
+  public boolean add(byte[] credentialId) {
+    if (contains(credentialId)) return false;
+    // Primero el filtro: así nunca hay en el índice algo que el filtro no tenga
+    filter.put(credentialId);
+    return exact.add(credentialId);
+  }
+
+  public Stats stats() {
+    long negatives = this.negatives.sum();
+    long falsePositives = this.falsePositives.sum();
+    long absent = negatives + falsePositives;
+    return new Stats(
+        negatives,
+        lookups.sum(),
+        falsePositives,
+        absent == 0 ? 0 : (double) falsePositives / absent,
+        filter.expectedFpp(),
+        filter.bitSize(),
+        filter.hashFunctions(),
+        filter.memoryBytes()
+    );
+  }
+
+  /**
+   * @param observedFpp falsos positivos / consultas de credenciales que no estaban
+   * @param expectedFpp la del filtro con su llenado actual
+   */
+  public record Stats(
+      long filterNegatives,
+      long indexLookups,
+      long falsePositives,
+      double observedFpp,
+      double expectedFpp,
+      long bits,
+      int hashFunctions,
+      long memoryBytes
+  ) {}
+}
@@ -0,0 +1,58 @@
+package com.acme.passkeys.adapters.out.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+/**
+ * Campos comunes de los eventos JFR del registro. Sin identificadores de usuario ni de credencial:
+ * sólo lo necesario para perfilar una ceremonia lenta.
+ */
+@Category({"Passkeys", "Finish Registration"})
+@StackTrace(false)
+abstract class RegistrationEvent extends Event {
+
+  @Label("Relying Party")
+  String rpId;
+
+  @Label("Algorithm")
+  @Description("Identificador COSE de la clave (-7 ES256, -257 RS256, -8 EdDSA); 0 si no se llegó a leer")
+  long algorithm;
+
+  @Label("Attestation Format")
+  String attestationFormat;
+
+  @Label("Outcome")
+  String outcome;
+
+  @Label("Client Data Size")
+  @DataAmount
+  int clientDataSize;
+
+  @Label("Attestation Object Size")
+  @DataAmount
+  int attestationObjectSize;
+
+  /** Cierra el evento; sólo se graba si JFR lo tiene activo y supera el threshold. */
+  public void complete(
+      String rpId,
+      long algorithm,
+      String attestationFormat,
+      String outcome,
+      int clientDataSize,
+      int attestationObjectSize
+  ) {
+    end();
+    if (!shouldCommit()) return;
+    this.rpId = rpId;
+    this.algorithm = algorithm;
+    this.attestationFormat = attestationFormat;
+    this.outcome = outcome;
+    this.clientDataSize = clientDataSize;
+    this.attestationObjectSize = attestationObjectSize;
+    commit();
+  }
+}
@@ -0,0 +1,23 @@
+package com.acme.passkeys.adapters.out.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/** Parseo de clientDataJSON y attestationObject (CBOR) con webauthn4j. */
+@Name(RegistrationParsedEvent.NAME)
+@Label("Registration Parsed")
+@Description("WebAuthnManager.parse de una respuesta de registro")
+@Threshold(RegistrationParsedEvent.DEFAULT_THRESHOLD)
+public class RegistrationParsedEvent extends RegistrationEvent {
+
+  public static final String NAME = "com.acme.passkeys.RegistrationParsed";
+  public static final String DEFAULT_THRESHOLD = "20 ms";
+
+  public static RegistrationParsedEvent start() {
+    RegistrationParsedEvent event = new RegistrationParsedEvent();
+    event.begin();
+    return event;
+  }
+}
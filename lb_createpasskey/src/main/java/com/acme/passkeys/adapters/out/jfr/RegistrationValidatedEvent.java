@@ -0,0 +1,23 @@
+package com.acme.passkeys.adapters.out.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/** Validación del registro ya parseado: challenge, origin, rpIdHash, flags y attestation. */
+@Name(RegistrationValidatedEvent.NAME)
+@Label("Registration Validated")
+@Description("RegistrationDataVerifier.verify de una respuesta de registro")
+@Threshold(RegistrationValidatedEvent.DEFAULT_THRESHOLD)
+public class RegistrationValidatedEvent extends RegistrationEvent {
+
+  public static final String NAME = "com.acme.passkeys.RegistrationValidated";
+  public static final String DEFAULT_THRESHOLD = "20 ms";
+
+  public static RegistrationValidatedEvent start() {
+    RegistrationValidatedEvent event = new RegistrationValidatedEvent();
+    event.begin();
+    return event;
+  }
+}
@@ -0,0 +1,65 @@
+package com.acme.passkeys.adapters.out.memory;
+
+import com.acme.passkeys.application.ports.out.CredentialIndex;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Índice exacto en memoria. Se reconstruye al arrancar desde un snapshot de texto: un credentialId
+ * base64url por línea (se ignoran las líneas vacías y las que empiezan por {@code #}).
+ */
+public class InMemoryCredentialIndex implements CredentialIndex {
+
+  // ByteBuffer compara por contenido; los arrays no se modifican tras entrar
+  private final Set<ByteBuffer> ids = ConcurrentHashMap.newKeySet();
+
+  public static InMemoryCredentialIndex load(Path snapshot) {
+    InMemoryCredentialIndex index = new InMemoryCredentialIndex();
+    Base64.Decoder b64url = Base64.getUrlDecoder();
+    try (BufferedReader in = Files.newBufferedReader(snapshot, StandardCharsets.US_ASCII)) {
+      String line;
+      int n = 0;
+      while ((line = in.readLine()) != null) {
+        n++;
+        line = line.strip();
+        if (line.isEmpty() || line.startsWith("#")) continue;
+        try {
+          index.add(b64url.decode(line));
+        } catch (IllegalArgumentException e) {
+          throw new IllegalStateException("invalid credential snapshot: " + snapshot + ":" + n, e);
+        }
+      }
+    } catch (IOException e) {
+      throw new IllegalStateException("invalid credential snapshot: " + snapshot, e);
+    }
+    return index;
+  }
+
+  @Override
+  public boolean contains(byte[] credentialId) {
+    return ids.contains(ByteBuffer.wrap(credentialId));
+  }
+
+  @Override
+  public boolean add(byte[] credentialId) {
+    return ids.add(ByteBuffer.wrap(credentialId.clone()));
+  }
+
+  public int size() {
+    return ids.size();
+  }
+
+  /** Recorre los ids registrados (de sólo lectura), p. ej. para reconstruir un filtro. */
+  public void forEach(Consumer<byte[]> action) {
+    for (ByteBuffer id : ids) action.accept(id.array());
+  }
+}
@@ -0,0 +1,256 @@
+package com.acme.passkeys.adapters.out.webauthn4j;
+
+import com.webauthn4j.data.attestation.AttestationObject;
+import com.webauthn4j.data.attestation.authenticator.AAGUID;
+import com.webauthn4j.data.attestation.authenticator.AttestedCredentialData;
+import com.webauthn4j.data.attestation.authenticator.AuthenticatorData;
+import com.webauthn4j.data.attestation.authenticator.COSEKey;
+import com.webauthn4j.data.attestation.authenticator.Curve;
+import com.webauthn4j.data.attestation.authenticator.EC2COSEKey;
+import com.webauthn4j.data.attestation.authenticator.EdDSACOSEKey;
+import com.webauthn4j.data.attestation.authenticator.RSACOSEKey;
+import com.webauthn4j.data.attestation.statement.AttestationStatement;
+import com.webauthn4j.data.attestation.statement.COSEAlgorithmIdentifier;
+import com.webauthn4j.data.attestation.statement.NoneAttestationStatement;
+import com.webauthn4j.data.attestation.statement.PackedAttestationStatement;
+import com.webauthn4j.data.extension.authenticator.AuthenticationExtensionsAuthenticatorOutputs;
+import com.webauthn4j.data.extension.authenticator.RegistrationExtensionAuthenticatorOutput;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Lector CBOR de una pasada para attestationObject {@code none} y {@code packed} autoatestado (sin
+ * {@code x5c}), que son casi todos los registros: saca {@code fmt}, {@code attStmt}, {@code authData}
+ * y la attested credential data (AAGUID, credentialId, clave COSE) directamente del array, sin el
+ * árbol Jackson-CBOR de webauthn4j.
+ *
+ * <p>Devuelve {@code null} en cuanto el objeto se sale de ese subconjunto (otro formato, {@code x5c},
+ * extensiones, longitudes indefinidas, CBOR mal formado o con bytes de sobra): el verificador usa
+ * entonces webauthn4j, que también es quien produce los errores.
+ */
+final class AttestationObjectReader {
+
+  private static final byte[] FMT = ascii("fmt");
+  private static final byte[] ATT_STMT = ascii("attStmt");
+  private static final byte[] AUTH_DATA = ascii("authData");
+  private static final byte[] NONE = ascii("none");
+  private static final byte[] PACKED = ascii("packed");
+  private static final byte[] ALG = ascii("alg");
+  private static final byte[] SIG = ascii("sig");
+
+  private static final int FLAG_AT = 0x40;
+  private static final int FLAG_ED = 0x80;
+
+  private static final int KTY_OKP = 1;
+  private static final int KTY_EC2 = 2;
+  private static final int KTY_RSA = 3;
+
+  private static final Unsupported UNSUPPORTED = new Unsupported();
+
+  private final byte[] in;
+  private int pos;
+
+  private AttestationObjectReader(byte[] in) {
+    this.in = in;
+  }
+
+  static AttestationObject read(byte[] attestationObject) {
+    if (attestationObject == null) return null;
+    try {
+      return new AttestationObjectReader(attestationObject).attestationObject();
+    } catch (Unsupported | IllegalArgumentException e) {
+      // IllegalArgumentException: curva o algoritmo que webauthn4j no conoce
+      return null;
+    }
+  }
+
+  private AttestationObject attestationObject() {
+    if (mapHeader() != 3) throw UNSUPPORTED;
+    byte[] fmt = null;
+    int attStmtEntries = -1;
+    Long alg = null;
+    byte[] sig = null;
+    int authDataStart = -1;
+    int authDataEnd = -1;
+
+    for (int i = 0; i < 3; i++) {
+      int keyLength = textHeader();
+      if (fmt == null && matches(keyLength, FMT)) {
+        int valueLength = textHeader();
+        if (matches(valueLength, NONE)) fmt = NONE;
+        else if (matches(valueLength, PACKED)) fmt = PACKED;
+        else throw UNSUPPORTED;
+      } else if (attStmtEntries < 0 && matches(keyLength, ATT_STMT)) {
+        attStmtEntries = mapHeader();
+        for (int j = 0; j < attStmtEntries; j++) {
+          int stmtKeyLength = textHeader();
+          if (alg == null && matches(stmtKeyLength, ALG)) alg = integer();
+          else if (sig == null && matches(stmtKeyLength, SIG)) sig = bytes();
+          else throw UNSUPPORTED; // x5c, ecdaaKeyId u otros
+        }
+      } else if (authDataStart < 0 && matches(keyLength, AUTH_DATA)) {
+        int length = bytesHeader();
+        authDataStart = pos;
+        authDataEnd = skip(length);
+      } else {
+        throw UNSUPPORTED;
+      }
+    }
+    if (pos != in.length) throw UNSUPPORTED;
+
+    AttestationStatement statement;
+    if (fmt == NONE && attStmtEntries == 0) {
+      statement = new NoneAttestationStatement();
+    } else if (fmt == PACKED && alg != null && sig != null) {
+      statement = new PackedAttestationStatement(COSEAlgorithmIdentifier.create(alg), sig, null);
+    } else {
+      throw UNSUPPORTED;
+    }
+
+    pos = authDataStart;
+    return new AttestationObject(authenticatorData(authDataEnd), statement);
+  }
+
+  private AuthenticatorData<RegistrationExtensionAuthenticatorOutput> authenticatorData(int end) {
+    byte[] rpIdHash = copy(32);
+    byte flags = (byte) u8();
+    long signCount = (long) u16() << 16 | u16();
+    if ((flags & FLAG_ED) != 0) throw UNSUPPORTED;
+
+    AttestedCredentialData attested = null;
+    if ((flags & FLAG_AT) != 0) {
+      AAGUID aaguid = new AAGUID(copy(16));
+      byte[] credentialId = copy(u16());
+      attested = new AttestedCredentialData(aaguid, credentialId, coseKey());
+    }
+    if (pos != end) throw UNSUPPORTED;
+    return new AuthenticatorData<>(rpIdHash, flags, signCount, attested, new AuthenticationExtensionsAuthenticatorOutputs<>());
+  }
+
+  private COSEKey coseKey() {
+    int entries = mapHeader();
+    long kty = 0;
+    Long alg = null;
+    Long crv = null;
+    byte[] minus1 = null; // n (RSA)
+    byte[] minus2 = null; // x (EC2, OKP) o e (RSA)
+    byte[] minus3 = null; // y (EC2)
+
+    for (int i = 0; i < entries; i++) {
+      long label = integer();
+      if (label == 1 && kty == 0) kty = integer();
+      else if (label == 3 && alg == null) alg = integer();
+      else if (label == -1 && crv == null && minus1 == null) {
+        if (major() == 2) minus1 = bytes();
+        else crv = integer();
+      } else if (label == -2 && minus2 == null) minus2 = bytes();
+      else if (label == -3 && minus3 == null) minus3 = bytes();
+      else throw UNSUPPORTED; // kid, key_ops, d...
+    }
+
+    COSEAlgorithmIdentifier algorithm = alg == null ? null : COSEAlgorithmIdentifier.create(alg);
+    if (kty == KTY_EC2 && crv != null && minus2 != null && minus3 != null) {
+      return new EC2COSEKey(null, algorithm, null, Curve.create(crv.intValue()), minus2, minus3);
+    }
+    if (kty == KTY_RSA && minus1 != null && minus2 != null && minus3 == null) {
+      return new RSACOSEKey(null, algorithm, null, minus1, minus2);
+    }
+    if (kty == KTY_OKP && crv != null && minus2 != null && minus3 == null) {
+      return new EdDSACOSEKey(null, algorithm, null, Curve.create(crv.intValue()), minus2, null);
+    }
+    throw UNSUPPORTED;
+  }
+
+  // --- CBOR (RFC 8949): sólo longitudes definidas ---
+
+  private int major() {
+    need(1);
+    return (in[pos] & 0xff) >>> 5;
+  }
+
+  private long head(int expectedMajor) {
+    int initial = u8();
+    if (initial >>> 5 != expectedMajor) throw UNSUPPORTED;
+    int info = initial & 0x1f;
+    if (info < 24) return info;
+    if (info == 24) return u8();
+    if (info == 25) return u16();
+    if (info == 26) return (long) u16() << 16 | u16();
+    if (info == 27) {
+      long value = (long) u16() << 48 | (long) u16() << 32 | (long) u16() << 16 | u16();
+      if (value < 0) throw UNSUPPORTED;
+      return value;
+    }
+    throw UNSUPPORTED; // indefinida o reservada
+  }
+
+  private int length(int major) {
+    long length = head(major);
+    if (length > in.length - pos) throw UNSUPPORTED;
+    return (int) length;
+  }
+
+  private int mapHeader() { return length(5); }
+  private int textHeader() { return length(3); }
+  private int bytesHeader() { return length(2); }
+
+  private long integer() {
+    int major = major();
+    if (major == 0) return head(0);
+    if (major == 1) return -1 - head(1);
+    throw UNSUPPORTED;
+  }
+
+  private byte[] bytes() {
+    return copy(bytesHeader());
+  }
+
+  private boolean matches(int length, byte[] expected) {
+    if (length != expected.length || !Arrays.equals(in, pos, pos + length, expected, 0, length)) return false;
+    pos += length;
+    return true;
+  }
+
+  // --- bytes crudos ---
+
+  private void need(int n) {
+    if (n < 0 || n > in.length - pos) throw UNSUPPORTED;
+  }
+
+  private int skip(int n) {
+    need(n);
+    pos += n;
+    return pos;
+  }
+
+  private byte[] copy(int n) {
+    need(n);
+    byte[] out = Arrays.copyOfRange(in, pos, pos + n);
+    pos += n;
+    return out;
+  }
+
+  private int u8() {
+    need(1);
+    return in[pos++] & 0xff;
+  }
+
+  private int u16() {
+    need(2);
+    int value = (in[pos] & 0xff) << 8 | (in[pos + 1] & 0xff);
+    pos += 2;
+    return value;
+  }
+
+  private static byte[] ascii(String s) {
+    return s.getBytes(StandardCharsets.US_ASCII);
+  }
+
+  /** Fuera del subconjunto soportado; sin stack trace porque sólo decide el fallback. */
+  private static final class Unsupported extends RuntimeException {
+    private Unsupported() {
+      super(null, null, false, false);
+    }
+  }
+}
@@ -1,31 +1,66 @@
 package com.acme.passkeys.adapters.out.webauthn4j;
 
+import com.acme.passkeys.adapters.out.attestation.AttestationTrust;
+import com.acme.passkeys.adapters.out.jfr.RegistrationParsedEvent;
+import com.acme.passkeys.adapters.out.jfr.RegistrationValidatedEvent;
 import com.acme.passkeys.application.ports.out.RegistrationVerifier;
+import com.acme.passkeys.application.ports.out.StageMetrics;
+import com.acme.passkeys.domain.model.Binary;
 import com.webauthn4j.WebAuthnManager;
+import com.webauthn4j.converter.CollectedClientDataConverter;
+import com.webauthn4j.converter.util.ObjectConverter;
 import com.webauthn4j.data.RegistrationData;
+import com.webauthn4j.data.RegistrationParameters;
+import com.webauthn4j.data.RegistrationRequest;
+import com.webauthn4j.data.attestation.AttestationObject;
+import com.webauthn4j.data.attestation.statement.AttestationStatement;
+import com.webauthn4j.data.attestation.statement.CertificateBaseAttestationStatement;
 import com.webauthn4j.data.client.Origin;
 import com.webauthn4j.data.client.challenge.Challenge;
 import com.webauthn4j.data.client.challenge.DefaultChallenge;
 import com.webauthn4j.server.ServerProperty;
-import com.webauthn4j.validator.RegistrationDataValidator;
-import com.webauthn4j.validator.RegistrationParameters;
+import com.webauthn4j.verifier.RegistrationDataVerifier;
 
+import java.security.cert.X509Certificate;
 import java.util.Base64;
+import java.util.List;
 
 public class WebAuthn4jRegistrationVerifier implements RegistrationVerifier {
 
+  private static final ObjectConverter CONVERTER = new ObjectConverter();
+  private static final CollectedClientDataConverter CLIENT_DATA = new CollectedClientDataConverter(CONVERTER);
+
   private final WebAuthnManager manager;
-  private final RegistrationDataValidator validator;
+  private final RegistrationDataVerifier dataVerifier;
+  private final AttestationTrust trust;
+  private final StageMetrics metrics;
+
+  public WebAuthn4jRegistrationVerifier(WebAuthnManager manager, RegistrationDataVerifier dataVerifier) {
+    this(manager, dataVerifier, AttestationTrust.PERMISSIVE, StageMetrics.NOOP);
+  }
 
-  public WebAuthn4jRegistrationVerifier(WebAuthnManager manager, RegistrationDataValidator validator) {
+  public WebAuthn4jRegistrationVerifier(WebAuthnManager manager, RegistrationDataVerifier dataVerifier, StageMetrics metrics) {
+    this(manager, dataVerifier, AttestationTrust.PERMISSIVE, metrics);
+  }
+
+  public WebAuthn4jRegistrationVerifier(
+      WebAuthnManager manager,
+      RegistrationDataVerifier dataVerifier,
+      AttestationTrust trust,
+      StageMetrics metrics
+  ) {
     this.manager = manager;
-    this.validator = validator;
+    this.dataVerifier = dataVerifier;
+    this.trust = trust;
+    this.metrics = metrics;
   }
 
   @Override
   public VerifiedRegistration verify(VerifyRegistrationCommand cmd) {
-    byte[] clientDataJSON = b64urlDecode(cmd.clientDataJSONB64Url());
-    byte[] attestationObject = b64urlDecode(cmd.attestationObjectB64Url());
+    long start = metrics.start();
+    // Por CBOR llegan en crudo y no se decodifica nada
+    byte[] clientDataJSON = bytes(cmd.clientDataJSON());
+    byte[] attestationObject = bytes(cmd.attestationObject());
 
     Challenge challenge = new DefaultChallenge(b64urlDecode(cmd.challengeB64Url()));
 
@@ -36,7 +71,19 @@ public class WebAuthn4jRegistrationVerifier implements RegistrationVerifier {
         null
     );
 
-    RegistrationData registrationData = manager.parse(clientDataJSON, attestationObject);
+    long parsing = metrics.lap("decode", start);
+    RegistrationParsedEvent parsed = RegistrationParsedEvent.start();
+    RegistrationData registrationData;
+    try {
+      registrationData = parseRegistrationData(clientDataJSON, attestationObject);
+    } catch (RuntimeException e) {
+      parsed.complete(cmd.rpId(), 0, null, StageMetrics.reason(e), clientDataJSON.length, attestationObject.length);
+      throw e;
+    }
+    long algorithm = algorithm(registrationData);
+    String format = registrationData.getAttestationObject() == null ? null : registrationData.getAttestationObject().getFormat();
+    parsed.complete(cmd.rpId(), algorithm, format, StageMetrics.OK, clientDataJSON.length, attestationObject.length);
+    long validating = metrics.lap("parse", parsing);
 
     RegistrationParameters params = new RegistrationParameters(
         serverProperty,
@@ -44,23 +91,67 @@ public class WebAuthn4jRegistrationVerifier implements RegistrationVerifier {
         true
     );
 
-    validator.validate(registrationData, params);
+    RegistrationValidatedEvent validated = RegistrationValidatedEvent.start();
+    try {
+      dataVerifier.verify(registrationData, params);
+      var attestation = registrationData.getAttestationObject();
+      trust.verify(
+          attestation.getAuthenticatorData().getAttestedCredentialData().getAaguid().getValue(),
+          certificateChain(attestation.getAttestationStatement())
+      );
+    } catch (RuntimeException e) {
+      validated.complete(cmd.rpId(), algorithm, format, StageMetrics.reason(e), clientDataJSON.length, attestationObject.length);
+      throw e;
+    }
+    validated.complete(cmd.rpId(), algorithm, format, StageMetrics.OK, clientDataJSON.length, attestationObject.length);
+    long extracting = metrics.lap("validate", validating);
 
     var attested = registrationData.getAttestationObject()
         .getAuthenticatorData()
         .getAttestedCredentialData();
 
     String credentialId = b64urlEncode(attested.getCredentialId());
-    String publicKeyCose = b64urlEncode(attested.getCOSEKey().getBytes());
+    String publicKeyCose = b64urlEncode(CONVERTER.getCborConverter().writeValueAsBytes(attested.getCOSEKey()));
+    // La clave ya está decodificada y validada: serializarla en DER ahorra el CBOR a cada autenticación
+    String publicKeySpki = b64urlEncode(attested.getCOSEKey().getPublicKey().getEncoded());
     String aaguid = attested.getAaguid().toString();
     long signCount = registrationData.getAttestationObject()
         .getAuthenticatorData()
         .getSignCount();
 
-    return new VerifiedRegistration(credentialId, publicKeyCose, aaguid, signCount);
+    metrics.lap("extract", extracting);
+    return new VerifiedRegistration(credentialId, publicKeyCose, aaguid, signCount, algorithm, publicKeySpki);
+  }
+
+  private RegistrationData parseRegistrationData(byte[] clientDataJSON, byte[] attestationObject) {
+    // none / packed sin x5c: lector propio de una pasada; el resto (y cualquier error) lo resuelve webauthn4j
+    AttestationObject decoded = AttestationObjectReader.read(attestationObject);
+    if (decoded == null) return manager.parse(new RegistrationRequest(attestationObject, clientDataJSON));
+    return new RegistrationData(decoded, attestationObject, CLIENT_DATA.convert(clientDataJSON), clientDataJSON, null, null);
+  }
+
+  private static List<X509Certificate> certificateChain(AttestationStatement statement) {
+    if (statement instanceof CertificateBaseAttestationStatement withCertificates && withCertificates.getX5c() != null) {
+      return withCertificates.getX5c();
+    }
+    return List.of(); // none y self attestation
+  }
+
+  // COSE alg de la credencial; 0 si el parseo no llegó a la clave (se valida después)
+  private static long algorithm(RegistrationData data) {
+    var attestation = data.getAttestationObject();
+    var attested = attestation == null ? null : attestation.getAuthenticatorData().getAttestedCredentialData();
+    if (attested == null || attested.getCOSEKey() == null || attested.getCOSEKey().getAlgorithm() == null) return 0;
+    return attested.getCOSEKey().getAlgorithm().getValue();
+  }
+
+  private static byte[] bytes(Binary b) {
+    if (b == null) throw new IllegalArgumentException("invalid base64url");
+    return b.bytes();
   }
 
-  private static byte[] b64urlDecode(String s) {
+  // Visible en el paquete para los benchmarks JMH
+  static byte[] b64urlDecode(String s) {
     if (s == null) throw new IllegalArgumentException("invalid base64url");
     String padded = s.replace('-', '+').replace('_', '/');
     int mod = padded.length() % 4;
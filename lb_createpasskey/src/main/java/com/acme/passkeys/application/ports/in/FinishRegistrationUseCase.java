@@ -5,4 +5,9 @@ import com.acme.passkeys.adapters.in.function.dto.FinishRegistrationResponse;
 
 public interface FinishRegistrationUseCase {
   FinishRegistrationResponse handle(FinishRegistrationRequest request);
+
+  /** Como {@link #handle(FinishRegistrationRequest)}, pero sin empezar etapas que no quepan en {@code deadline} (504). */
+  default FinishRegistrationResponse handle(FinishRegistrationRequest request, Deadline deadline) {
+    return handle(request);
+  }
 }
@@ -0,0 +1,26 @@
+package com.acme.passkeys.application.ports.out;
+
+/** Credenciales ya registradas, por los bytes crudos del credentialId. */
+public interface CredentialIndex {
+
+  /** Sin control de duplicados: acepta cualquier credencial. */
+  CredentialIndex NONE = new CredentialIndex() {
+    @Override
+    public boolean contains(byte[] credentialId) {
+      return false;
+    }
+
+    @Override
+    public boolean add(byte[] credentialId) {
+      return true;
+    }
+  };
+
+  boolean contains(byte[] credentialId);
+
+  /**
+   * Registra la credencial si no estaba y devuelve {@code false} si ya estaba. Atómico: de varios
+   * registros concurrentes del mismo credentialId, exactamente uno devuelve {@code true}.
+   */
+  boolean add(byte[] credentialId);
+}
@@ -1,5 +1,7 @@
 package com.acme.passkeys.application.ports.out;
 
+import com.acme.passkeys.domain.model.Binary;
+
 public interface RegistrationVerifier {
 
   VerifiedRegistration verify(VerifyRegistrationCommand cmd);
@@ -9,14 +11,20 @@ public interface RegistrationVerifier {
       String rpId,
       String origin,
       boolean userVerificationRequired,
-      String clientDataJSONB64Url,
-      String attestationObjectB64Url
+      Binary clientDataJSON,
+      Binary attestationObject
   ) {}
 
+  /**
+   * Además del COSE_Key, la clave lista para verificar: algoritmo COSE y SubjectPublicKeyInfo X.509
+   * (DER), que cualquier {@code KeyFactory} decodifica sin parsear CBOR.
+   */
   record VerifiedRegistration(
       String credentialIdB64Url,
       String publicKeyCoseB64Url,
       String aaguid,
-      long signCount
+      long signCount,
+      long algorithm,
+      String publicKeySpkiB64Url
   ) {}
 }
@@ -3,42 +3,209 @@ package com.acme.passkeys.config;
 import com.acme.passkeys.adapters.in.function.FinishRegistrationFunction;
 import com.acme.passkeys.adapters.in.function.dto.FinishRegistrationRequest;
 import com.acme.passkeys.adapters.in.function.dto.FinishRegistrationResponse;
+import com.acme.passkeys.adapters.out.attestation.AttestationTrust;
+import com.acme.passkeys.adapters.out.attestation.CertPathCache;
+import com.acme.passkeys.adapters.out.attestation.FidoMetadataStore;
+import com.acme.passkeys.adapters.out.attestation.StrictAttestationTrust;
+import com.acme.passkeys.adapters.out.audit.RingBufferAuditLog;
+import com.acme.passkeys.adapters.out.bloom.BloomFilteredCredentialIndex;
+import com.acme.passkeys.adapters.out.jfr.RegistrationParsedEvent;
+import com.acme.passkeys.adapters.out.jfr.RegistrationValidatedEvent;
+import com.acme.passkeys.adapters.out.memory.InMemoryCredentialIndex;
+import com.acme.passkeys.adapters.out.metrics.EmfStageMetrics;
 import com.acme.passkeys.adapters.out.webauthn4j.WebAuthn4jRegistrationVerifier;
+import com.acme.passkeys.application.ports.in.CreateChallengeUseCase;
 import com.acme.passkeys.application.ports.in.FinishRegistrationUseCase;
+import com.acme.passkeys.application.ports.out.AuditLog;
+import com.acme.passkeys.application.ports.out.CredentialIndex;
 import com.acme.passkeys.application.ports.out.RegistrationVerifier;
+import com.acme.passkeys.application.ports.out.StageMetrics;
 import com.acme.passkeys.application.service.FinishRegistrationService;
+import com.acme.passkeys.domain.service.ChallengeSealer;
 import com.webauthn4j.WebAuthnManager;
-import com.webauthn4j.validator.RegistrationDataValidator;
+import com.webauthn4j.verifier.RegistrationDataVerifier;
+import com.webauthn4j.verifier.attestation.statement.androidkey.NullAndroidKeyAttestationStatementVerifier;
+import com.webauthn4j.verifier.attestation.statement.androidsafetynet.NullAndroidSafetyNetAttestationStatementVerifier;
+import com.webauthn4j.verifier.attestation.statement.apple.NullAppleAnonymousAttestationStatementVerifier;
+import com.webauthn4j.verifier.attestation.statement.none.NoneAttestationStatementVerifier;
+import com.webauthn4j.verifier.attestation.statement.packed.PackedAttestationStatementVerifier;
+import com.webauthn4j.verifier.attestation.statement.tpm.NullTPMAttestationStatementVerifier;
+import com.webauthn4j.verifier.attestation.statement.u2f.NullFIDOU2FAttestationStatementVerifier;
+import com.webauthn4j.verifier.attestation.trustworthiness.certpath.NullCertPathTrustworthinessVerifier;
+import com.webauthn4j.verifier.attestation.trustworthiness.self.NullSelfAttestationTrustworthinessVerifier;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.cloud.function.json.JsonMapper;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.messaging.Message;
 
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
 import java.util.function.Function;
 
 @Configuration
+@ImportRuntimeHints(RegistrationNativeHints.class)
 public class FinishRegistrationConfig {
 
   @Bean
+  @ConditionalOnMissingBean(WebAuthnManager.class) // en modo servidor se comparte entre funciones
   public WebAuthnManager webAuthnManager() {
     return WebAuthnManager.createNonStrictWebAuthnManager();
   }
 
   @Bean
-  public RegistrationDataValidator registrationDataValidator() {
-    return new RegistrationDataValidator();
+  public RegistrationDataVerifier registrationDataVerifier() {
+    // Como el non-strict, pero la firma de packed sí se comprueba (también en self attestation); la confianza en la
+    // cadena x5c la evalúa AttestationTrust
+    return new WebAuthnManager(
+        List.of(
+            new NoneAttestationStatementVerifier(),
+            new PackedAttestationStatementVerifier(),
+            new NullFIDOU2FAttestationStatementVerifier(),
+            new NullTPMAttestationStatementVerifier(),
+            new NullAndroidKeyAttestationStatementVerifier(),
+            new NullAndroidSafetyNetAttestationStatementVerifier(),
+            new NullAppleAnonymousAttestationStatementVerifier()
+        ),
+        new NullCertPathTrustworthinessVerifier(),
+        new NullSelfAttestationTrustworthinessVerifier()
+    ).getRegistrationDataVerifier();
   }
 
   @Bean
-  public RegistrationVerifier registrationVerifier(WebAuthnManager m, RegistrationDataValidator v) {
-    return new WebAuthn4jRegistrationVerifier(m, v);
+  public StageMetrics finishRegistrationMetrics(
+      @Value("${passkeys.metrics.enabled:true}") boolean enabled,
+      @Value("${passkeys.metrics.namespace:Passkeys}") String namespace,
+      @Value("${passkeys.metrics.flush-interval:0s}") Duration flushInterval,
+      @Value("${passkeys.metrics.sample-every:1}") int sampleEvery
+  ) {
+    return enabled ? new EmfStageMetrics(namespace, "finishRegistration", flushInterval, sampleEvery) : StageMetrics.NOOP;
   }
 
+  /**
+   * Sin {@code passkeys.attestation.metadata} no se evalúa la cadena de attestation (como hasta ahora);
+   * con él, modo estricto contra el metadata FIDO local.
+   */
   @Bean
-  public FinishRegistrationUseCase finishRegistrationUseCase(RegistrationVerifier verifier) {
-    return new FinishRegistrationService(verifier);
+  public AttestationTrust attestationTrust(
+      @Value("${passkeys.attestation.metadata:}") String metadata,
+      @Value("${passkeys.attestation.allow-none:true}") boolean allowNone,
+      @Value("${passkeys.attestation.cache-ttl:1h}") Duration cacheTtl,
+      @Value("${passkeys.attestation.cache-size:1024}") int cacheSize,
+      @Qualifier("finishRegistrationMetrics") StageMetrics metrics
+  ) {
+    if (metadata.isBlank()) return AttestationTrust.PERMISSIVE;
+    Clock clock = Clock.systemUTC();
+    return new StrictAttestationTrust(
+        FidoMetadataStore.load(Path.of(metadata)),
+        new CertPathCache(clock, cacheTtl, cacheSize),
+        clock,
+        allowNone,
+        metrics
+    );
+  }
+
+  @Bean
+  public RegistrationVerifier registrationVerifier(
+      WebAuthnManager m,
+      RegistrationDataVerifier v,
+      AttestationTrust trust,
+      @Qualifier("finishRegistrationMetrics") StageMetrics metrics
+  ) {
+    return new WebAuthn4jRegistrationVerifier(m, v, trust, metrics);
+  }
+
+  /**
+   * Control de credentialId duplicados: índice exacto en memoria (reconstruido desde
+   * {@code passkeys.credentials.snapshot} si lo hay) con un filtro de Bloom delante.
+   */
+  @Bean
+  public CredentialIndex credentialIndex(
+      @Value("${passkeys.credentials.duplicate-check:true}") boolean enabled,
+      @Value("${passkeys.credentials.snapshot:}") String snapshot,
+      @Value("${passkeys.credentials.expected-insertions:1000000}") long expectedInsertions,
+      @Value("${passkeys.credentials.fpp:0.01}") double fpp,
+      @Qualifier("finishRegistrationMetrics") StageMetrics metrics
+  ) {
+    if (!enabled) return CredentialIndex.NONE;
+    InMemoryCredentialIndex exact = snapshot.isBlank() ? new InMemoryCredentialIndex() : InMemoryCredentialIndex.load(Path.of(snapshot));
+    return BloomFilteredCredentialIndex.rebuild(exact, expectedInsertions, fpp, metrics);
+  }
+
+  /** Sin {@code directory} no se audita; el anillo ocupa {@code capacity} × 256 bytes de heap. */
+  @Bean
+  public AuditLog registrationAuditLog(
+      @Value("${passkeys.audit.directory:}") String directory,
+      @Value("${passkeys.audit.capacity:8192}") int capacity,
+      @Value("${passkeys.audit.records-per-file:65536}") int recordsPerFile,
+      @Value("${passkeys.audit.max-files:8}") int maxFiles
+  ) {
+    return RingBufferAuditLog.forDirectory(directory, "finishRegistration", capacity, recordsPerFile, maxFiles, Clock.systemUTC());
+  }
+
+  /** Sólo cuenta con el handler sin Spring, que conoce el tiempo que le queda a la invocación. */
+  @Bean
+  public FinishRegistrationService.StageCosts registrationStageCosts(
+      @Value("${passkeys.deadline.verify-cost:25ms}") Duration verify,
+      @Value("${passkeys.deadline.store-cost:10ms}") Duration store,
+      @Value("${passkeys.deadline.next-challenge-cost:10ms}") Duration nextChallenge
+  ) {
+    return new FinishRegistrationService.StageCosts(verify, store, nextChallenge);
+  }
+
+  /**
+   * Sin createChallenge en el contexto, {@code nextChallenge} se rechaza con 400; sin su {@link ChallengeSealer}, los
+   * challenges sellados también.
+   */
+  @Bean
+  public FinishRegistrationUseCase finishRegistrationUseCase(
+      RegistrationVerifier verifier,
+      CredentialIndex credentials,
+      Optional<CreateChallengeUseCase> nextChallenges,
+      Optional<ChallengeSealer> challengeSealer,
+      @Qualifier("finishRegistrationMetrics") StageMetrics metrics,
+      @Qualifier("registrationAuditLog") AuditLog audit,
+      FinishRegistrationService.StageCosts costs
+  ) {
+    return new FinishRegistrationService(verifier, FinishRegistrationService.Options.DEFAULTS
+        .withCredentials(credentials)
+        .withNextChallenges(nextChallenges.orElse(null))
+        .withSealer(challengeSealer.orElse(null))
+        .withMetrics(metrics)
+        .withAudit(audit)
+        .withCosts(costs));
+  }
+
+  @Bean
+  public SnapshotPriming registrationSnapshotPriming(WebAuthnManager webAuthnManager, ObjectProvider<JsonMapper> jsonMapper) {
+    JsonMapper json = jsonMapper.getIfAvailable();
+    Runnable jsonPrimer = json == null ? () -> {} : () -> json.fromJson(RegistrationPrimingSample.requestJson(), FinishRegistrationRequest.class);
+    return registrationPriming(webAuthnManager, jsonPrimer).register();
+  }
+
+  /** Primers antes del checkpoint; no hay fuentes aleatorias que resembrar tras el restore. */
+  public static SnapshotPriming registrationPriming(WebAuthnManager manager, Runnable jsonPrimer) {
+    return new SnapshotPriming(
+        List.of(jsonPrimer, () -> manager.parse(RegistrationPrimingSample.request()), FinishRegistrationConfig::primeJfr),
+        List.of()
+    );
+  }
+
+  // El primer evento JFR de la JVM inicializa FlightRecorder: cientos de ms que no deben caer en la primera invocación
+  private static void primeJfr() {
+    RegistrationParsedEvent.start();
+    RegistrationValidatedEvent.start();
   }
 
   @Bean(name = "finishRegistration")
-  public Function<FinishRegistrationRequest, FinishRegistrationResponse> finishRegistration(FinishRegistrationUseCase uc) {
+  public Function<Message<FinishRegistrationRequest>, FinishRegistrationResponse> finishRegistration(FinishRegistrationUseCase uc) {
     return new FinishRegistrationFunction(uc);
   }
 }
@@ -0,0 +1,75 @@
+package com.acme.passkeys.config;
+
+import com.acme.passkeys.adapters.in.function.dto.FinishRegistrationRequest;
+import com.acme.passkeys.adapters.in.function.dto.FinishRegistrationResponse;
+import com.acme.passkeys.domain.model.Binary;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORGenerator;
+import com.fasterxml.jackson.dataformat.cbor.CBORParser;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.core.type.classreading.CachingMetadataReaderFactory;
+import org.springframework.core.type.classreading.MetadataReaderFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Metadata para la imagen nativa. Además de los DTOs, webauthn4j bindea con Jackson (JSON y CBOR)
+ * los tipos de {@code com.webauthn4j.data} y sus (de)serializers; se registran escaneando el jar
+ * durante el procesado AOT, así no hay que mantener la lista a mano entre versiones.
+ */
+public class RegistrationNativeHints implements RuntimeHintsRegistrar {
+
+  static final String[] WEBAUTHN4J_PACKAGES = {
+      "com/webauthn4j/data",
+      "com/webauthn4j/converter/jackson"
+  };
+
+  private static final MemberCategory[] JACKSON_BINDING = {
+      MemberCategory.DECLARED_FIELDS,
+      MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+      MemberCategory.INVOKE_DECLARED_METHODS
+  };
+
+  @Override
+  public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+    new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(), FinishRegistrationRequest.class, FinishRegistrationResponse.class);
+    // Binary se crea con su @JsonCreator de paquete y se escribe con su serializer anidado
+    hints.reflection().registerType(Binary.class, JACKSON_BINDING);
+    hints.reflection().registerType(TypeReference.of(Binary.class.getName() + "$Serializer"), JACKSON_BINDING);
+
+    for (String pkg : WEBAUTHN4J_PACKAGES) {
+      for (String type : classesIn(classLoader, pkg)) {
+        hints.reflection().registerType(TypeReference.of(type), JACKSON_BINDING);
+      }
+    }
+
+    // Jackson CBOR: el ObjectConverter de webauthn4j crea su CBORFactory/mapper
+    hints.reflection().registerType(CBORFactory.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+    hints.reflection().registerType(CBORParser.class, MemberCategory.INVOKE_PUBLIC_METHODS);
+    hints.reflection().registerType(CBORGenerator.class, MemberCategory.INVOKE_PUBLIC_METHODS);
+    hints.resources().registerPattern("META-INF/services/com.fasterxml.jackson.*");
+  }
+
+  static List<String> classesIn(ClassLoader classLoader, String pkg) {
+    PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver(classLoader);
+    MetadataReaderFactory readers = new CachingMetadataReaderFactory(resolver);
+    try {
+      List<String> types = new ArrayList<>();
+      for (Resource r : resolver.getResources("classpath*:" + pkg + "/**/*.class")) {
+        types.add(readers.getMetadataReader(r).getClassMetadata().getClassName());
+      }
+      return types;
+    } catch (IOException e) {
+      throw new UncheckedIOException("cannot scan " + pkg, e);
+    }
+  }
+}
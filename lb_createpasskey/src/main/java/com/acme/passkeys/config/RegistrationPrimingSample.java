@@ -0,0 +1,33 @@
+package com.acme.passkeys.config;
+
+import com.webauthn4j.data.RegistrationRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Registro "none" + ES256 generado offline (rpId example.com). Sólo se usa para recorrer los caminos
+ * de parseo antes de un checkpoint; nunca se valida contra un challenge real.
+ */
+final class RegistrationPrimingSample {
+
+  static final String CLIENT_DATA_JSON =
+      "eyJ0eXBlIjoid2ViYXV0aG4uY3JlYXRlIiwiY2hhbGxlbmdlIjoiVFBOSVlJekN0b3lhYlp0Ylp5LXJTM3JhYWo5aDJtYkpCUEFOQUNxcVhwOCIsIm9yaWdpbiI6Imh0dHBzOi8vZXhhbXBsZS5jb20iLCJjcm9zc09yaWdpbiI6ZmFsc2V9";
+  static final String ATTESTATION_OBJECT =
+      "o2NmbXRkbm9uZWdhdHRTdG10oGhhdXRoRGF0YViUo3mm9u6vuaVeN4wRgDTidR5oL6ufLTCrE9ISVYbOGUdFAAAAAAAAAAAAAAAAAAAAAAAAAAAAEGw2bPx0odxsUw1PEdOl5ROlAQIDJiABIVgg8n8CFu-hWUMKsniv0xzEnf5iMGU5cZaWq_BtaOzCqzMiWCADYZ8kn9YTiBMQ8Sxp0QmrCjossvbjWWWQabf88iGaBw";
+  static final String CHALLENGE = "TPNIYIzCtoyabZtbZy-rS3raaj9h2mbJBPANACqqXp8";
+
+  private RegistrationPrimingSample() {}
+
+  static RegistrationRequest request() {
+    Base64.Decoder d = Base64.getUrlDecoder();
+    return new RegistrationRequest(d.decode(ATTESTATION_OBJECT), d.decode(CLIENT_DATA_JSON));
+  }
+
+  static byte[] requestJson() {
+    return ("""
+        {"server":{"challenge":"%s","rpId":"example.com","origin":"https://example.com","userVerificationRequired":true},
+         "credential":{"id":"prime","rawId":"prime","type":"public-key","response":{"clientDataJSON":"%s","attestationObject":"%s"}}}
+        """.formatted(CHALLENGE, CLIENT_DATA_JSON, ATTESTATION_OBJECT)).getBytes(StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,172 @@
+package com.acme.passkeys.adapters.in.batch;
+
+import com.acme.passkeys.adapters.out.memory.InMemoryCredentialIndex;
+import com.acme.passkeys.application.ports.out.RegistrationVerifier;
+import com.acme.passkeys.application.ports.out.StageMetrics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.*;
+
+class BulkRegistrationImportTest {
+
+  @TempDir
+  Path tempDir;
+
+  @Test
+  void importsValidRecords_andRejectsTheRestWithReasons() throws Exception {
+    Path input = write("input.ndjson", List.of(
+        record(1, "att-1"),
+        record(2, "bad"),
+        "{not json",
+        """
+            {"userId":"user-4","server":{"challenge":" ","rpId":"example.com","origin":"https://example.com"},\
+            "credential":{"response":{"clientDataJSON":"cd","attestationObject":"att-4"}}}""",
+        record(5, "att-1"), // mismo credentialId que la línea 1
+        "",
+        record(7, "att-7")
+    ));
+
+    BulkRegistrationImport.Report report = importer(4, 2).run(input, out("credentials"), out("rejects"), out("checkpoint"));
+
+    assertThat(Files.readAllLines(out("credentials"))).containsExactly(
+        "{\"line\":1,\"userId\":\"user-1\",\"credential\":{\"credentialId\":\"" + b64url("att-1") + "\",\"publicKeyCose\":\"cose\","
+            + "\"aaguid\":\"00000000-0000-0000-0000-000000000000\",\"signCount\":0,\"algorithm\":-7,\"publicKeySpki\":\"spki\"}}",
+        "{\"line\":7,\"userId\":\"user-7\",\"credential\":{\"credentialId\":\"" + b64url("att-7") + "\",\"publicKeyCose\":\"cose\","
+            + "\"aaguid\":\"00000000-0000-0000-0000-000000000000\",\"signCount\":0,\"algorithm\":-7,\"publicKeySpki\":\"spki\"}}"
+    );
+    assertThat(Files.readAllLines(out("rejects"))).containsExactly(
+        "{\"line\":2,\"userId\":\"user-2\",\"reason\":\"IllegalStateException\"}",
+        "{\"line\":3,\"userId\":null,\"reason\":\"malformed_record\"}",
+        "{\"line\":4,\"userId\":\"user-4\",\"reason\":\"invalid_request\"}",
+        "{\"line\":5,\"userId\":\"user-5\",\"reason\":\"duplicate_credential\"}"
+    );
+    assertThat(report.lines()).isEqualTo(7);
+    assertThat(report.processed()).isEqualTo(6);
+    assertThat(report.imported()).isEqualTo(2);
+    assertThat(report.rejected()).isEqualTo(4);
+    assertThat(report.rejectReasons()).containsOnly(
+        entry("IllegalStateException", 1L),
+        entry(BulkRegistrationImport.MALFORMED, 1L),
+        entry(StageMetrics.INVALID_REQUEST, 1L),
+        entry(BulkRegistrationImport.DUPLICATE, 1L)
+    );
+  }
+
+  @Test
+  void resumeAfterACrash_producesTheSameOutputAsASinglePass() throws Exception {
+    List<String> lines = new ArrayList<>();
+    for (int i = 1; i <= 100; i++) {
+      String attestation = i % 9 == 0 ? "bad" : i == 80 ? "att-5" : "att-" + i; // 80 repite una credencial ya confirmada
+      lines.add(record(i, attestation));
+    }
+    Path input = write("input.ndjson", lines);
+
+    Path reference = Files.createDirectory(tempDir.resolve("reference"));
+    importer(3, 10).run(input, reference.resolve("credentials"), reference.resolve("rejects"), reference.resolve("checkpoint"));
+
+    // Cae en el bloque de las líneas 51-60: el último checkpoint es el de la línea 50
+    AtomicBoolean crash = new AtomicBoolean(true);
+    RegistrationVerifier crashing = cmd -> {
+      if (cmd.attestationObject().base64Url().equals("att-55") && crash.getAndSet(false)) throw new Crash();
+      return VERIFIER.verify(cmd);
+    };
+    BulkRegistrationImport.Settings settings = new BulkRegistrationImport.Settings(3, 10, Duration.ofMinutes(1));
+    assertThatThrownBy(() -> new BulkRegistrationImport(settings, crashing, new InMemoryCredentialIndex())
+        .run(input, out("credentials"), out("rejects"), out("checkpoint")))
+        .isInstanceOf(Crash.class);
+    // Escritura a medias posterior al checkpoint
+    Files.writeString(out("credentials"), "{\"line\":51,\"us", StandardOpenOption.APPEND);
+
+    // Otro proceso: índice vacío, se rellena con lo confirmado
+    BulkRegistrationImport.Report resumed = importer(3, 10).run(input, out("credentials"), out("rejects"), out("checkpoint"));
+
+    assertThat(resumed.resumedAt()).isEqualTo(50);
+    assertThat(resumed.processed()).isEqualTo(50);
+    assertThat(resumed.rejectReasons()).containsEntry(BulkRegistrationImport.DUPLICATE, 1L);
+    assertThat(Files.readString(out("credentials"))).isEqualTo(Files.readString(reference.resolve("credentials")));
+    assertThat(Files.readString(out("rejects"))).isEqualTo(Files.readString(reference.resolve("rejects")));
+  }
+
+  @Test
+  void duplicateInsideOneChunk_keepsTheFirstLine() throws Exception {
+    // La línea 1 se verifica la última: el resultado no depende del orden en que terminan los workers
+    RegistrationVerifier slowFirst = cmd -> {
+      if (cmd.clientDataJSON().base64Url().equals("cd-1")) {
+        try {
+          Thread.sleep(100);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+      return VERIFIER.verify(cmd);
+    };
+    Path input = write("input.ndjson", List.of(record(1, "att-1"), record(2, "att-2"), record(3, "att-1"), record(4, "att-1")));
+
+    BulkRegistrationImport.Report report = new BulkRegistrationImport(
+        new BulkRegistrationImport.Settings(4, 10, Duration.ofMinutes(1)), slowFirst, new InMemoryCredentialIndex())
+        .run(input, out("credentials"), out("rejects"), out("checkpoint"));
+
+    assertThat(Files.readAllLines(out("credentials"))).extracting(l -> l.substring(0, l.indexOf(',')))
+        .containsExactly("{\"line\":1", "{\"line\":2");
+    assertThat(Files.readAllLines(out("rejects"))).containsExactly(
+        "{\"line\":3,\"userId\":\"user-3\",\"reason\":\"duplicate_credential\"}",
+        "{\"line\":4,\"userId\":\"user-4\",\"reason\":\"duplicate_credential\"}"
+    );
+    assertThat(report.rejectReasons()).containsOnly(entry(BulkRegistrationImport.DUPLICATE, 2L));
+  }
+
+  @Test
+  void rerunAfterCompletion_processesNothing() throws Exception {
+    Path input = write("input.ndjson", List.of(record(1, "att-1"), record(2, "att-2")));
+    importer(2, 1).run(input, out("credentials"), out("rejects"), out("checkpoint"));
+
+    BulkRegistrationImport.Report again = importer(2, 1).run(input, out("credentials"), out("rejects"), out("checkpoint"));
+
+    assertThat(again.processed()).isZero();
+    assertThat(again.imported()).isEqualTo(2);
+    assertThat(Files.readAllLines(out("credentials"))).hasSize(2);
+  }
+
+  // credentialId derivado del attestationObject: mismo attestationObject, mismo credentialId
+  private static final RegistrationVerifier VERIFIER = cmd -> {
+    if (cmd.attestationObject().base64Url().equals("bad")) throw new IllegalStateException("signature mismatch");
+    return new RegistrationVerifier.VerifiedRegistration(
+        b64url(cmd.attestationObject().base64Url()), "cose", "00000000-0000-0000-0000-000000000000", 0L, -7L, "spki");
+  };
+
+  private static BulkRegistrationImport importer(int workers, int chunkSize) {
+    return new BulkRegistrationImport(
+        new BulkRegistrationImport.Settings(workers, chunkSize, Duration.ofMinutes(1)), VERIFIER, new InMemoryCredentialIndex());
+  }
+
+  private static String record(int n, String attestationObject) {
+    return ("{\"userId\":\"user-%d\",\"server\":{\"challenge\":\"ch-%d\",\"rpId\":\"example.com\",\"origin\":\"https://example.com\","
+        + "\"userVerificationRequired\":true},\"credential\":{\"id\":\"id\",\"rawId\":\"id\",\"type\":\"public-key\","
+        + "\"response\":{\"clientDataJSON\":\"cd-%d\",\"attestationObject\":\"%s\"}}}").formatted(n, n, n, attestationObject);
+  }
+
+  private Path write(String name, List<String> lines) throws Exception {
+    return Files.write(tempDir.resolve(name), lines, StandardCharsets.UTF_8);
+  }
+
+  private Path out(String name) {
+    return tempDir.resolve(name);
+  }
+
+  private static String b64url(String s) {
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(s.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static final class Crash extends Error {}
+}
@@ -4,6 +4,7 @@ import com.acme.passkeys.Application;
 import com.acme.passkeys.adapters.in.function.dto.FinishRegistrationRequest;
 import com.acme.passkeys.adapters.in.function.dto.FinishRegistrationResponse;
 import com.acme.passkeys.application.ports.out.RegistrationVerifier;
+import com.acme.passkeys.domain.model.Binary;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -33,8 +34,10 @@ class FinishRegistrationFunctionIT {
         new FinishRegistrationRequest.Server("challenge", "example.com", "https://example.com", true),
         new FinishRegistrationRequest.Credential(
             "id","rawId","public-key",
-            new FinishRegistrationRequest.Credential.Response("clientData","attObj")
-        )
+            new FinishRegistrationRequest.Credential.Response(Binary.ofBase64Url("clientData"), Binary.ofBase64Url("attObj"))
+        ),
+        null,
+        null
     );
 
     FinishRegistrationResponse res = fn.apply(req);
@@ -50,7 +53,7 @@ class FinishRegistrationFunctionIT {
     @Bean
     public RegistrationVerifier registrationVerifier() {
       return cmd -> new RegistrationVerifier.VerifiedRegistration(
-          "cred", "cose", "00000000-0000-0000-0000-000000000000", 0L
+          "cred", "cose", "00000000-0000-0000-0000-000000000000", 0L, -7L, "spki"
       );
     }
   }
@@ -2,8 +2,12 @@ package com.acme.passkeys.adapters.in.function;
 
 import com.acme.passkeys.adapters.in.function.dto.FinishRegistrationRequest;
 import com.acme.passkeys.adapters.in.function.dto.FinishRegistrationResponse;
+import com.acme.passkeys.application.ports.in.Deadline;
 import com.acme.passkeys.application.ports.in.FinishRegistrationUseCase;
+import com.amazonaws.services.lambda.runtime.Context;
 import org.junit.jupiter.api.Test;
+import org.springframework.cloud.function.adapter.aws.AWSLambdaUtils;
+import org.springframework.messaging.support.MessageBuilder;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -15,17 +19,29 @@ class FinishRegistrationFunctionTest {
     FinishRegistrationUseCase uc = mock(FinishRegistrationUseCase.class);
 
     FinishRegistrationResponse expected =
-        FinishRegistrationResponse.ok(new FinishRegistrationResponse.Data("c","p","a",0));
+        FinishRegistrationResponse.ok(new FinishRegistrationResponse.Data("c","p","a",0,-7,"s"));
 
-    when(uc.handle(any())).thenReturn(expected);
+    when(uc.handle(any(), any())).thenReturn(expected);
 
     FinishRegistrationFunction fn = new FinishRegistrationFunction(uc);
 
-    FinishRegistrationRequest req = new FinishRegistrationRequest(null, null);
+    FinishRegistrationRequest req = new FinishRegistrationRequest(null, null, null, null);
 
-    FinishRegistrationResponse res = fn.apply(req);
+    FinishRegistrationResponse res = fn.apply(MessageBuilder.withPayload(req).build());
 
     assertThat(res).isEqualTo(expected);
-    verify(uc).handle(req);
+    verify(uc).handle(req, Deadline.NONE);
+  }
+
+  @Test
+  void deadlineComesFromTheLambdaContextHeader() {
+    FinishRegistrationUseCase uc = mock(FinishRegistrationUseCase.class);
+    Context context = mock(Context.class);
+    when(context.getRemainingTimeInMillis()).thenReturn(250);
+
+    FinishRegistrationRequest req = new FinishRegistrationRequest(null, null, null, null);
+    new FinishRegistrationFunction(uc).apply(MessageBuilder.withPayload(req).setHeader(AWSLambdaUtils.AWS_CONTEXT, context).build());
+
+    verify(uc).handle(eq(req), argThat(d -> d.remainingNanos() > 0 && d.remainingNanos() <= 250_000_000L));
   }
 }
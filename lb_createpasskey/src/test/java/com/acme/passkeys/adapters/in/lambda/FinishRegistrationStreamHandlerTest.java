@@ -0,0 +1,58 @@
+package com.acme.passkeys.adapters.in.lambda;
+
+import com.acme.passkeys.application.ports.out.RegistrationVerifier;
+import com.acme.passkeys.application.ports.out.StageMetrics;
+import com.acme.passkeys.application.service.FinishRegistrationService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.*;
+
+class FinishRegistrationStreamHandlerTest {
+
+  private static final String REQUEST = """
+      {"server":{"challenge":"Y2hhbGxlbmdl","rpId":"example.com","origin":"https://example.com","userVerificationRequired":true},
+       "credential":{"id":"id","rawId":"rawId","type":"public-key","response":{"clientDataJSON":"e30","attestationObject":"oA"}}}
+      """;
+
+  private final ObjectMapper mapper = new ObjectMapper();
+
+  private final RegistrationVerifier verifier = cmd -> new RegistrationVerifier.VerifiedRegistration(
+      "cred", "cose", "00000000-0000-0000-0000-000000000000", 7L, -7L, "spki");
+
+  private final FinishRegistrationStreamHandler handler = new FinishRegistrationStreamHandler(
+      new FinishRegistrationService(verifier, FinishRegistrationService.Options.DEFAULTS), StageMetrics.NOOP);
+
+  @Test
+  void directInvocation_bindsAndWritesResponse() throws Exception {
+    JsonNode res = invoke(REQUEST);
+
+    assertThat(res.get("code").asInt()).isEqualTo(200);
+    assertThat(res.at("/data/credentialId").asText()).isEqualTo("cred");
+    assertThat(res.at("/data/signCount").asLong()).isEqualTo(7L);
+  }
+
+  @Test
+  void apiGatewayEvent_unwrapsBody_andWrapsResponse() throws Exception {
+    String event = mapper.createObjectNode()
+        .put("httpMethod", "POST")
+        .put("body", REQUEST)
+        .toString();
+
+    JsonNode res = invoke(event);
+
+    assertThat(res.get("statusCode").asInt()).isEqualTo(200);
+    assertThat(mapper.readTree(res.get("body").asText()).get("message").asText()).isEqualTo("PASSKEY_CREATED");
+  }
+
+  private JsonNode invoke(String json) throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    handler.handleRequest(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), out, null);
+    return mapper.readTree(out.toByteArray());
+  }
+}
@@ -0,0 +1,167 @@
+package com.acme.passkeys.adapters.out.attestation;
+
+import com.acme.passkeys.support.RecordingStageMetrics;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.nio.file.Path;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509Certificate;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * PKI de prueba en {@code src/test/resources/attestation} (openssl, P-256): {@code root-a.pem} firma
+ * {@code leaf.pem}; el metadata asocia root A a {@link #TRUSTED} y a {@link #REVOKED} (con compromiso
+ * de clave como último estado) y un root B distinto a {@link #OTHER_VENDOR}.
+ */
+class StrictAttestationTrustTest {
+
+  private static final UUID TRUSTED = UUID.fromString("6d44ba9b-f6ec-2e49-b930-0c8fe920cb73");
+  private static final UUID REVOKED = UUID.fromString("0b1e7d4a-2f3c-4a5b-9c6d-7e8f90a1b2c3");
+  private static final UUID OTHER_VENDOR = UUID.fromString("c5ef55ff-ad9a-4b9f-b580-adebafe026d0");
+
+  private static final FidoMetadataStore METADATA = FidoMetadataStore.load(resource("attestation/metadata"));
+  private static final X509Certificate LEAF = certificate("attestation/leaf.pem");
+  private static final X509Certificate ROOT_A = certificate("attestation/root-a.pem");
+
+  private final MutableClock clock = new MutableClock(Instant.parse("2027-01-01T00:00:00Z"));
+  private final RecordingStageMetrics metrics = new RecordingStageMetrics();
+
+  @Test
+  void metadata_indexesByAaguid_skippingRevokedAndU2f() {
+    assertThat(METADATA.size()).isEqualTo(2);
+    assertThat(METADATA.trustAnchors(TRUSTED)).hasSize(1);
+    assertThat(METADATA.trustAnchors(OTHER_VENDOR)).hasSize(1);
+    assertThat(METADATA.trustAnchors(REVOKED)).isEmpty();
+  }
+
+  @Test
+  void trustedChain_isValidatedOnce_thenServedFromCache() {
+    StrictAttestationTrust trust = trust(false);
+
+    trust.verify(TRUSTED, List.of(LEAF));
+    trust.verify(TRUSTED, List.of(LEAF));
+
+    assertThat(metrics.stages()).containsExactly(StrictAttestationTrust.PATH_VALIDATION, StrictAttestationTrust.CACHE_HIT);
+  }
+
+  @Test
+  void chainIncludingTheRoot_isTrusted() {
+    trust(false).verify(TRUSTED, List.of(LEAF, ROOT_A));
+  }
+
+  @Test
+  void untrustedChains_areRejected_andNotCached() {
+    StrictAttestationTrust trust = trust(false);
+
+    assertThatThrownBy(() -> trust.verify(OTHER_VENDOR, List.of(LEAF)))
+        .isInstanceOf(UntrustedAttestationException.class)
+        .hasMessage("attestation chain not trusted");
+    assertThatThrownBy(() -> trust.verify(REVOKED, List.of(LEAF)))
+        .isInstanceOf(UntrustedAttestationException.class)
+        .hasMessage("no metadata for authenticator");
+    assertThatThrownBy(() -> trust.verify(new UUID(0, 0), List.of(LEAF)))
+        .isInstanceOf(UntrustedAttestationException.class);
+    assertThatThrownBy(() -> trust.verify(OTHER_VENDOR, List.of(LEAF)))
+        .isInstanceOf(UntrustedAttestationException.class);
+
+    assertThat(metrics.stages()).containsOnly(StrictAttestationTrust.PATH_VALIDATION);
+  }
+
+  @Test
+  void sameChain_forAnotherAaguid_isNotACacheHit() {
+    StrictAttestationTrust trust = trust(false);
+    trust.verify(TRUSTED, List.of(LEAF));
+
+    assertThatThrownBy(() -> trust.verify(OTHER_VENDOR, List.of(LEAF))).isInstanceOf(UntrustedAttestationException.class);
+  }
+
+  @Test
+  void cacheEntries_expireAfterTtl() {
+    StrictAttestationTrust trust = trust(false);
+    trust.verify(TRUSTED, List.of(LEAF));
+
+    clock.advance(Duration.ofMinutes(61));
+    trust.verify(TRUSTED, List.of(LEAF));
+
+    assertThat(metrics.stages()).containsExactly(StrictAttestationTrust.PATH_VALIDATION, StrictAttestationTrust.PATH_VALIDATION);
+  }
+
+  @Test
+  void pathValidation_usesTheInjectedClock() {
+    StrictAttestationTrust trust = trust(false);
+
+    // leaf.pem: válido de 2026-10-19 a 2125-05-13
+    clock.advance(Duration.between(clock.instant(), Instant.parse("2125-06-01T00:00:00Z")));
+    assertThatThrownBy(() -> trust.verify(TRUSTED, List.of(LEAF)))
+        .isInstanceOf(UntrustedAttestationException.class)
+        .hasMessage("attestation chain not trusted");
+
+    clock.advance(Duration.between(clock.instant(), Instant.parse("2026-01-01T00:00:00Z")));
+    assertThatThrownBy(() -> trust.verify(TRUSTED, List.of(LEAF)))
+        .isInstanceOf(UntrustedAttestationException.class);
+    assertThat(metrics.stages()).containsOnly(StrictAttestationTrust.PATH_VALIDATION);
+  }
+
+  @Test
+  void cacheEntries_neverOutliveTheCertificate() {
+    CertPathCache cache = new CertPathCache(clock, Duration.ofHours(1), 16);
+    cache.put("fp", clock.instant().plusSeconds(60));
+
+    assertThat(cache.contains("fp")).isTrue();
+    clock.advance(Duration.ofSeconds(60));
+    assertThat(cache.contains("fp")).isFalse();
+    assertThat(cache.size()).isZero();
+  }
+
+  @Test
+  void attestationWithoutChain_dependsOnAllowNone() {
+    trust(true).verify(TRUSTED, List.of());
+
+    assertThatThrownBy(() -> trust(false).verify(TRUSTED, List.of()))
+        .isInstanceOf(UntrustedAttestationException.class)
+        .hasMessage("attestation without certificate chain");
+    assertThat(metrics.stages()).isEmpty();
+  }
+
+  private StrictAttestationTrust trust(boolean allowNone) {
+    return new StrictAttestationTrust(METADATA, new CertPathCache(clock, Duration.ofHours(1), 16), clock, allowNone, metrics);
+  }
+
+  private static Path resource(String name) {
+    try {
+      return Path.of(StrictAttestationTrustTest.class.getClassLoader().getResource(name).toURI());
+    } catch (URISyntaxException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static X509Certificate certificate(String name) {
+    try (InputStream in = StrictAttestationTrustTest.class.getClassLoader().getResourceAsStream(name)) {
+      return (X509Certificate) CertificateFactory.getInstance("X.509").generateCertificate(in);
+    } catch (Exception e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static final class MutableClock extends Clock {
+    private Instant now;
+
+    MutableClock(Instant now) { this.now = now; }
+
+    void advance(Duration d) { now = now.plus(d); }
+
+    @Override public ZoneId getZone() { return ZoneOffset.UTC; }
+    @Override public Clock withZone(ZoneId zone) { return this; }
+    @Override public Instant instant() { return now; }
+  }
+}
@@ -0,0 +1,136 @@
+package com.acme.passkeys.adapters.out.bloom;
+
+import com.acme.passkeys.adapters.out.memory.InMemoryCredentialIndex;
+import com.acme.passkeys.application.ports.out.StageMetrics;
+import com.acme.passkeys.support.RecordingStageMetrics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.*;
+
+class BloomFilteredCredentialIndexTest {
+
+  @TempDir
+  Path tempDir;
+
+  @Test
+  void rebuildsFromSnapshot_andRejectsKnownIds() throws Exception {
+    Path snapshot = Files.writeString(tempDir.resolve("credentials.txt"), """
+        # exportado de la tabla de credenciales
+        %s
+
+        %s
+        """.formatted(b64url(id(1)), b64url(id(2))));
+    InMemoryCredentialIndex exact = InMemoryCredentialIndex.load(snapshot);
+    RecordingStageMetrics metrics = new RecordingStageMetrics();
+    BloomFilteredCredentialIndex index = BloomFilteredCredentialIndex.rebuild(exact, 1000, 0.01, metrics);
+
+    assertThat(exact.size()).isEqualTo(2);
+    assertThat(index.add(id(1))).isFalse();
+    assertThat(index.add(id(3))).isTrue();
+    assertThat(index.add(id(3))).isFalse();
+    assertThat(index.contains(id(3))).isTrue();
+    assertThat(metrics.stages()).contains(BloomFilteredCredentialIndex.INDEX_LOOKUP);
+  }
+
+  @Test
+  void invalidSnapshotLine_failsAtStartup() throws Exception {
+    Path snapshot = Files.writeString(tempDir.resolve("credentials.txt"), b64url(id(1)) + "\nnot*base64\n");
+
+    assertThatThrownBy(() -> InMemoryCredentialIndex.load(snapshot))
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessageEndingWith("credentials.txt:2");
+  }
+
+  @Test
+  void absentIds_skipTheExactIndex_withinTheConfiguredFalsePositiveRate() {
+    // Lleno hasta su capacidad: es el peor caso de la tasa configurada
+    InMemoryCredentialIndex exact = new InMemoryCredentialIndex();
+    BloomFilter filter = BloomFilter.create(10_000, 0.01);
+    Random random = new Random(42);
+    for (int i = 0; i < 10_000; i++) {
+      byte[] id = randomId(random);
+      exact.add(id);
+      filter.put(id);
+    }
+    BloomFilteredCredentialIndex index = new BloomFilteredCredentialIndex(exact, filter, StageMetrics.NOOP);
+
+    for (int i = 0; i < 100_000; i++) assertThat(index.contains(randomId(random))).isFalse();
+
+    var stats = index.stats();
+    assertThat(stats.filterNegatives() + stats.falsePositives()).isEqualTo(100_000);
+    assertThat(stats.observedFpp()).isLessThan(0.02);
+    assertThat(stats.expectedFpp()).isBetween(0.005, 0.015);
+    assertThat(stats.hashFunctions()).isEqualTo(7);
+    assertThat(stats.memoryBytes()).isEqualTo(stats.bits() / 8).isLessThan(13_000);
+  }
+
+  @Test
+  void filterNeverHasFalseNegatives() {
+    BloomFilter filter = BloomFilter.create(1000, 0.01);
+    List<byte[]> ids = new ArrayList<>();
+    Random random = new Random(7);
+    for (int i = 0; i < 5000; i++) { // 5x la capacidad: sube la tasa de falsos positivos, nunca hay falsos negativos
+      byte[] id = new byte[1 + random.nextInt(64)];
+      random.nextBytes(id);
+      ids.add(id);
+      filter.put(id);
+    }
+
+    assertThat(ids).allMatch(filter::mightContain);
+    assertThat(filter.expectedFpp()).isGreaterThan(0.01);
+  }
+
+  @Test
+  void concurrentRegistrationsOfTheSameId_exactlyOneWins() throws Exception {
+    BloomFilteredCredentialIndex index = BloomFilteredCredentialIndex.rebuild(new InMemoryCredentialIndex(), 1000, 0.01, StageMetrics.NOOP);
+    int threads = 8;
+    ExecutorService pool = Executors.newFixedThreadPool(threads);
+    try {
+      for (int round = 0; round < 200; round++) {
+        byte[] id = id(round);
+        CountDownLatch go = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+          results.add(pool.submit(() -> {
+            go.await();
+            return index.add(id.clone());
+          }));
+        }
+        go.countDown();
+
+        int winners = 0;
+        for (Future<Boolean> r : results) if (r.get()) winners++;
+        assertThat(winners).as("round %d", round).isEqualTo(1);
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  private static byte[] id(int n) {
+    return ByteBuffer.allocate(16).putLong(0x5EED).putLong(n).array();
+  }
+
+  private static byte[] randomId(Random random) {
+    byte[] id = new byte[32];
+    random.nextBytes(id);
+    return id;
+  }
+
+  private static String b64url(byte[] bytes) {
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+  }
+}
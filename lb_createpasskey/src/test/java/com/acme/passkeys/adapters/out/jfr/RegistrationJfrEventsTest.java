@@ -0,0 +1,127 @@
+package com.acme.passkeys.adapters.out.jfr;
+
+import com.acme.passkeys.adapters.out.attestation.AttestationTrust;
+import com.acme.passkeys.application.ports.out.RegistrationVerifier;
+import com.acme.passkeys.application.ports.out.RegistrationVerifier.VerifyRegistrationCommand;
+import com.acme.passkeys.application.ports.out.StageMetrics;
+import com.acme.passkeys.authenticator.AttestationFormat;
+import com.acme.passkeys.authenticator.ChallengeBinding;
+import com.acme.passkeys.authenticator.CoseAlgorithm;
+import com.acme.passkeys.authenticator.Mutation;
+import com.acme.passkeys.authenticator.SoftwareAuthenticator;
+import com.acme.passkeys.config.FinishRegistrationConfig;
+import com.acme.passkeys.domain.model.Binary;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+
+class RegistrationJfrEventsTest {
+
+  private static final SoftwareAuthenticator AUTHENTICATOR = SoftwareAuthenticator.seeded(5);
+
+  @TempDir
+  Path dir;
+
+  private final RegistrationVerifier verifier = verifier();
+
+  static Stream<Arguments> algorithmsAndFormats() {
+    return Arrays.stream(CoseAlgorithm.values())
+        .flatMap(alg -> Arrays.stream(AttestationFormat.values()).map(format -> Arguments.of(alg, format)));
+  }
+
+  @ParameterizedTest
+  @MethodSource("algorithmsAndFormats")
+  void parsedAndValidatedEvents_areComplete_andCarryNoCredentialIdentifiers(CoseAlgorithm alg, AttestationFormat format) throws Exception {
+    SoftwareAuthenticator.Registration reg = AUTHENTICATOR.register(binding(), alg, format);
+
+    List<RecordedEvent> events = record(Duration.ZERO, () -> verifier.verify(command(reg)));
+
+    assertThat(named(events, RegistrationParsedEvent.NAME)).singleElement().satisfies(e -> assertComplete(e, alg, format));
+    assertThat(named(events, RegistrationValidatedEvent.NAME)).singleElement().satisfies(e -> {
+      assertComplete(e, alg, format);
+      assertThat(e.getString("outcome")).isEqualTo(StageMetrics.OK);
+    });
+    assertThat(events).allSatisfy(e -> e.getFields().forEach(f -> assertThat(String.valueOf((Object) e.getValue(f.getName())))
+        .doesNotContain(reg.credential().id())
+        .doesNotContain(reg.credential().publicKeyCose())));
+  }
+
+  @Test
+  void failedValidation_isRecordedWithItsReason() throws Exception {
+    SoftwareAuthenticator.Registration reg =
+        AUTHENTICATOR.register(binding(), CoseAlgorithm.ES256, AttestationFormat.NONE, Mutation.WRONG_CHALLENGE);
+
+    List<RecordedEvent> events = record(Duration.ZERO, () ->
+        assertThatThrownBy(() -> verifier.verify(command(reg))).isInstanceOf(RuntimeException.class));
+
+    assertThat(named(events, RegistrationParsedEvent.NAME)).singleElement()
+        .satisfies(e -> assertThat(e.getString("outcome")).isEqualTo(StageMetrics.OK));
+    assertThat(named(events, RegistrationValidatedEvent.NAME)).singleElement()
+        .satisfies(e -> assertThat(e.getString("outcome")).isNotBlank().isNotEqualTo(StageMetrics.OK));
+  }
+
+  @Test
+  void eventsUnderThreshold_areNotRecorded() throws Exception {
+    SoftwareAuthenticator.Registration reg = AUTHENTICATOR.register(binding(), CoseAlgorithm.ES256, AttestationFormat.NONE);
+
+    List<RecordedEvent> events = record(Duration.ofHours(1), () -> verifier.verify(command(reg)));
+
+    assertThat(named(events, RegistrationParsedEvent.NAME)).isEmpty();
+    assertThat(named(events, RegistrationValidatedEvent.NAME)).isEmpty();
+  }
+
+  private void assertComplete(RecordedEvent e, CoseAlgorithm alg, AttestationFormat format) {
+    assertThat(e.getString("rpId")).isEqualTo("example.com");
+    assertThat(e.getLong("algorithm")).isEqualTo(alg.coseId());
+    assertThat(e.getString("attestationFormat")).isEqualTo(format.fmt());
+    assertThat(e.getString("outcome")).isNotBlank();
+    assertThat(e.getInt("clientDataSize")).isPositive();
+    assertThat(e.getInt("attestationObjectSize")).isPositive();
+    assertThat(e.getDuration().isNegative()).isFalse();
+  }
+
+  private List<RecordedEvent> record(Duration threshold, Runnable body) throws Exception {
+    Path file = dir.resolve("passkeys.jfr");
+    try (Recording recording = new Recording()) {
+      recording.enable(RegistrationParsedEvent.NAME).withThreshold(threshold);
+      recording.enable(RegistrationValidatedEvent.NAME).withThreshold(threshold);
+      recording.start();
+      body.run();
+      recording.stop();
+      recording.dump(file);
+    }
+    return RecordingFile.readAllEvents(file);
+  }
+
+  private static List<RecordedEvent> named(List<RecordedEvent> events, String name) {
+    return events.stream().filter(e -> e.getEventType().getName().equals(name)).toList();
+  }
+
+  private static RegistrationVerifier verifier() {
+    FinishRegistrationConfig c = new FinishRegistrationConfig();
+    return c.registrationVerifier(c.webAuthnManager(), c.registrationDataVerifier(), AttestationTrust.PERMISSIVE, StageMetrics.NOOP);
+  }
+
+  private static ChallengeBinding binding() {
+    return new ChallengeBinding(AUTHENTICATOR.randomChallenge(), "example.com", "https://example.com");
+  }
+
+  private static VerifyRegistrationCommand command(SoftwareAuthenticator.Registration reg) {
+    return new VerifyRegistrationCommand(
+        reg.binding().challenge(), reg.binding().rpId(), reg.binding().origin(), true,
+        Binary.ofBase64Url(reg.clientDataJSON()), Binary.ofBase64Url(reg.attestationObject()));
+  }
+}
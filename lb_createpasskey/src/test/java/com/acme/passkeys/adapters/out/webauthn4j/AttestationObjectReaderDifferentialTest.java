@@ -0,0 +1,80 @@
+package com.acme.passkeys.adapters.out.webauthn4j;
+
+import com.acme.passkeys.authenticator.AttestationFormat;
+import com.acme.passkeys.authenticator.ChallengeBinding;
+import com.acme.passkeys.authenticator.CoseAlgorithm;
+import com.acme.passkeys.authenticator.Mutation;
+import com.acme.passkeys.authenticator.SoftwareAuthenticator;
+import com.webauthn4j.WebAuthnManager;
+import com.webauthn4j.data.RegistrationRequest;
+import com.webauthn4j.data.attestation.AttestationObject;
+import com.webauthn4j.data.attestation.authenticator.AttestedCredentialData;
+import com.webauthn4j.data.attestation.authenticator.AuthenticatorData;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Diferencial contra {@link WebAuthnManager#parse}: en cada registro del autenticador por software (algoritmos,
+ * formatos y mutaciones), {@link AttestationObjectReader} lee campo a campo lo mismo que webauthn4j, o devuelve
+ * {@code null} si webauthn4j no puede parsearlo.
+ */
+class AttestationObjectReaderDifferentialTest {
+
+  private static final WebAuthnManager WEBAUTHN4J = WebAuthnManager.createNonStrictWebAuthnManager();
+  private static final SoftwareAuthenticator AUTHENTICATOR = SoftwareAuthenticator.seeded(13);
+  // El lector no mira clientDataJSON: uno bien formado para que parse llegue al attestationObject en todas las mutaciones
+  private static final byte[] CLIENT_DATA =
+      "{\"type\":\"webauthn.create\",\"challenge\":\"AA\",\"origin\":\"https://example.com\"}".getBytes(StandardCharsets.UTF_8);
+
+  static Stream<Arguments> registrations() {
+    return Arrays.stream(CoseAlgorithm.values()).flatMap(alg -> Arrays.stream(AttestationFormat.values())
+        .flatMap(format -> Arrays.stream(Mutation.values())
+            .filter(m -> m.appliesTo(Mutation.Ceremony.REGISTRATION, format))
+            .map(m -> Arguments.of(alg, format, m))));
+  }
+
+  @ParameterizedTest(name = "{0} {1} {2}")
+  @MethodSource("registrations")
+  void readsTheSameFieldsAsWebAuthnManagerParse(CoseAlgorithm alg, AttestationFormat format, Mutation mutation) {
+    ChallengeBinding binding = new ChallengeBinding(AUTHENTICATOR.randomChallenge(), "example.com", "https://example.com");
+    byte[] attestationObject = Base64.getUrlDecoder().decode(
+        AUTHENTICATOR.register(binding, alg, format, mutation).attestationObject());
+
+    AttestationObject actual = AttestationObjectReader.read(attestationObject);
+    AttestationObject expected;
+    try {
+      expected = WEBAUTHN4J.parse(new RegistrationRequest(attestationObject, CLIENT_DATA)).getAttestationObject();
+    } catch (RuntimeException e) {
+      assertThat(actual).as("webauthn4j rejects it (%s): the reader must fall back", e).isNull();
+      return;
+    }
+
+    assertThat(actual).isNotNull();
+    assertThat(actual.getFormat()).as("fmt").isEqualTo(expected.getFormat());
+    // NoneAttestationStatement no define equals
+    assertThat(actual.getAttestationStatement()).as("attStmt").usingRecursiveComparison().isEqualTo(expected.getAttestationStatement());
+
+    AuthenticatorData<?> data = actual.getAuthenticatorData();
+    AuthenticatorData<?> expectedData = expected.getAuthenticatorData();
+    assertThat(data.getRpIdHash()).as("rpIdHash").isEqualTo(expectedData.getRpIdHash());
+    assertThat(data.getFlags()).as("flags").isEqualTo(expectedData.getFlags());
+    assertThat(data.getSignCount()).as("signCount").isEqualTo(expectedData.getSignCount());
+    assertThat(data.getExtensions()).as("extensions").isEqualTo(expectedData.getExtensions());
+
+    AttestedCredentialData attested = data.getAttestedCredentialData();
+    AttestedCredentialData expectedAttested = expectedData.getAttestedCredentialData();
+    assertThat(attested.getAaguid()).as("aaguid").isEqualTo(expectedAttested.getAaguid());
+    assertThat(attested.getCredentialId()).as("credentialId").isEqualTo(expectedAttested.getCredentialId());
+    assertThat(attested.getCOSEKey()).as("COSEKey").isEqualTo(expectedAttested.getCOSEKey());
+    assertThat(attested.getCOSEKey().getPublicKey().getEncoded()).as("publicKey")
+        .isEqualTo(expectedAttested.getCOSEKey().getPublicKey().getEncoded());
+  }
+}
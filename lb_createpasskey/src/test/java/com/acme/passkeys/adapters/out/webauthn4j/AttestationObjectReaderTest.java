@@ -0,0 +1,82 @@
+package com.acme.passkeys.adapters.out.webauthn4j;
+
+import com.acme.passkeys.authenticator.AttestationFormat;
+import com.acme.passkeys.authenticator.Cbor;
+import com.acme.passkeys.authenticator.ChallengeBinding;
+import com.acme.passkeys.authenticator.CoseAlgorithm;
+import com.acme.passkeys.authenticator.SoftwareAuthenticator;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.*;
+
+/** Lo que {@link AttestationObjectReader} no lee y deja a webauthn4j; la equivalencia, en {@link AttestationObjectReaderDifferentialTest}. */
+class AttestationObjectReaderTest {
+
+  private static final SoftwareAuthenticator AUTHENTICATOR = SoftwareAuthenticator.seeded(11);
+
+  @Test
+  void unsupportedFormat_fallsBack() throws Exception {
+    byte[] authData = authData(registration(CoseAlgorithm.ES256, AttestationFormat.NONE));
+
+    assertThat(AttestationObjectReader.read(attestationObject("fido-u2f", new Cbor().map(0), authData))).isNull();
+  }
+
+  @Test
+  void packedWithCertificateChain_fallsBack() throws Exception {
+    Cbor attStmt = new Cbor().map(3)
+        .text("alg").integer(-7)
+        .text("sig").bytes(new byte[70])
+        .text("x5c").array(1).bytes(new byte[300]);
+    byte[] authData = authData(registration(CoseAlgorithm.ES256, AttestationFormat.PACKED));
+
+    assertThat(AttestationObjectReader.read(attestationObject("packed", attStmt, authData))).isNull();
+  }
+
+  @Test
+  void extensionData_fallsBack() throws Exception {
+    byte[] authData = authData(registration(CoseAlgorithm.ES256, AttestationFormat.NONE));
+    authData[32] |= (byte) 0x80; // ED
+    byte[] withExtensions = concat(authData, new Cbor().map(1).text("credProtect").integer(2).toByteArray());
+
+    assertThat(AttestationObjectReader.read(attestationObject("none", new Cbor().map(0), withExtensions))).isNull();
+  }
+
+  @Test
+  void malformedInput_fallsBack_soWebAuthn4jReportsTheError() {
+    byte[] valid = registration(CoseAlgorithm.ES256, AttestationFormat.NONE);
+    byte[] indefiniteMap = valid.clone();
+    indefiniteMap[0] = (byte) 0xbf;
+
+    assertThat(AttestationObjectReader.read(Arrays.copyOf(valid, valid.length - 1))).isNull();
+    assertThat(AttestationObjectReader.read(concat(valid, new byte[] {0}))).isNull();
+    assertThat(AttestationObjectReader.read(indefiniteMap)).isNull();
+    assertThat(AttestationObjectReader.read(new byte[0])).isNull();
+    assertThat(AttestationObjectReader.read(null)).isNull();
+  }
+
+  private static byte[] registration(CoseAlgorithm alg, AttestationFormat format) {
+    ChallengeBinding binding = new ChallengeBinding(AUTHENTICATOR.randomChallenge(), "example.com", "https://example.com");
+    return Base64.getUrlDecoder().decode(AUTHENTICATOR.register(binding, alg, format).attestationObject());
+  }
+
+  private static byte[] authData(byte[] attestationObject) throws IOException {
+    return new CBORMapper().readTree(attestationObject).get("authData").binaryValue();
+  }
+
+  private static byte[] attestationObject(String fmt, Cbor attStmt, byte[] authData) {
+    return concat(
+        concat(new Cbor().map(3).text("fmt").text(fmt).text("attStmt").toByteArray(), attStmt.toByteArray()),
+        new Cbor().text("authData").bytes(authData).toByteArray());
+  }
+
+  private static byte[] concat(byte[] a, byte[] b) {
+    byte[] out = Arrays.copyOf(a, a.length + b.length);
+    System.arraycopy(b, 0, out, a.length, b.length);
+    return out;
+  }
+}
@@ -0,0 +1,77 @@
+package com.acme.passkeys.adapters.out.webauthn4j;
+
+import com.acme.passkeys.adapters.out.attestation.AttestationTrust;
+import com.acme.passkeys.application.ports.out.RegistrationVerifier;
+import com.acme.passkeys.application.ports.out.RegistrationVerifier.VerifiedRegistration;
+import com.acme.passkeys.application.ports.out.RegistrationVerifier.VerifyRegistrationCommand;
+import com.acme.passkeys.application.ports.out.StageMetrics;
+import com.acme.passkeys.authenticator.AttestationFormat;
+import com.acme.passkeys.authenticator.ChallengeBinding;
+import com.acme.passkeys.authenticator.CoseAlgorithm;
+import com.acme.passkeys.authenticator.Mutation;
+import com.acme.passkeys.authenticator.SoftwareAuthenticator;
+import com.acme.passkeys.config.FinishRegistrationConfig;
+import com.acme.passkeys.domain.model.Binary;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+
+/** Registros del autenticador por software: válidos con todos los algoritmos y formatos, y cada variante inválida. */
+class WebAuthn4jRegistrationVerifierTest {
+
+  private static final SoftwareAuthenticator AUTHENTICATOR = SoftwareAuthenticator.seeded(7);
+
+  private final RegistrationVerifier verifier = verifier();
+
+  static Stream<Arguments> algorithmsAndFormats() {
+    return Arrays.stream(CoseAlgorithm.values())
+        .flatMap(alg -> Arrays.stream(AttestationFormat.values()).map(format -> Arguments.of(alg, format)));
+  }
+
+  static Stream<Arguments> mutations() {
+    return algorithmsAndFormats().flatMap(args -> Arrays.stream(Mutation.values())
+        .filter(m -> m != Mutation.NONE && m.appliesTo(Mutation.Ceremony.REGISTRATION, (AttestationFormat) args.get()[1]))
+        .map(m -> Arguments.of(args.get()[0], args.get()[1], m)));
+  }
+
+  @ParameterizedTest
+  @MethodSource("algorithmsAndFormats")
+  void acceptsEveryAlgorithmAndFormat(CoseAlgorithm alg, AttestationFormat format) {
+    SoftwareAuthenticator.Registration reg = AUTHENTICATOR.register(binding(), alg, format);
+
+    VerifiedRegistration verified = verifier.verify(command(reg));
+
+    assertThat(verified.credentialIdB64Url()).isEqualTo(reg.credential().id());
+    assertThat(verified.algorithm()).isEqualTo(alg.coseId());
+    assertThat(verified.publicKeySpkiB64Url()).isEqualTo(reg.credential().publicKeySpki());
+    assertThat(verified.signCount()).isZero();
+  }
+
+  @ParameterizedTest
+  @MethodSource("mutations")
+  void rejectsEveryMutation(CoseAlgorithm alg, AttestationFormat format, Mutation mutation) {
+    SoftwareAuthenticator.Registration reg = AUTHENTICATOR.register(binding(), alg, format, mutation);
+
+    assertThatThrownBy(() -> verifier.verify(command(reg))).isInstanceOf(RuntimeException.class);
+  }
+
+  private static ChallengeBinding binding() {
+    return new ChallengeBinding(AUTHENTICATOR.randomChallenge(), "example.com", "https://example.com");
+  }
+
+  static VerifyRegistrationCommand command(SoftwareAuthenticator.Registration reg) {
+    return new VerifyRegistrationCommand(
+        reg.binding().challenge(), reg.binding().rpId(), reg.binding().origin(), true,
+        Binary.ofBase64Url(reg.clientDataJSON()), Binary.ofBase64Url(reg.attestationObject()));
+  }
+
+  private static RegistrationVerifier verifier() {
+    FinishRegistrationConfig c = new FinishRegistrationConfig();
+    return c.registrationVerifier(c.webAuthnManager(), c.registrationDataVerifier(), AttestationTrust.PERMISSIVE, StageMetrics.NOOP);
+  }
+}
@@ -2,9 +2,31 @@ package com.acme.passkeys.application.service;
 
 import com.acme.passkeys.adapters.in.function.dto.FinishRegistrationRequest;
 import com.acme.passkeys.adapters.in.function.dto.FinishRegistrationResponse;
+import com.acme.passkeys.adapters.out.async.AsyncChallengeStoreAdapter;
+import com.acme.passkeys.adapters.out.memory.InMemoryChallengeStore;
+import com.acme.passkeys.adapters.out.memory.InMemoryCredentialIndex;
+import com.acme.passkeys.application.ports.in.CreateChallengeUseCase;
+import com.acme.passkeys.application.ports.in.Deadline;
+import com.acme.passkeys.application.ports.out.AuditLog;
+import com.acme.passkeys.application.ports.out.ChallengeStoreUnavailableException;
+import com.acme.passkeys.application.ports.out.CredentialIndex;
 import com.acme.passkeys.application.ports.out.RegistrationVerifier;
+import com.acme.passkeys.application.ports.out.StageMetrics;
+import com.acme.passkeys.domain.model.Binary;
+import com.acme.passkeys.domain.model.ChallengeType;
+import com.acme.passkeys.support.RecordingStageMetrics;
+import com.acme.passkeys.domain.service.ChallengeGenerator;
+import com.acme.passkeys.domain.service.ChallengeSealer;
 import org.junit.jupiter.api.Test;
 
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
@@ -19,11 +41,13 @@ class FinishRegistrationServiceTest {
             "credId",
             "coseKey",
             "00000000-0000-0000-0000-000000000000",
-            12L
+            12L,
+            -7L,
+            "spki"
         )
     );
 
-    FinishRegistrationService svc = new FinishRegistrationService(verifier);
+    FinishRegistrationService svc = service(verifier);
 
     FinishRegistrationResponse res = svc.handle(sampleReq());
 
@@ -34,6 +58,8 @@ class FinishRegistrationServiceTest {
     assertThat(res.data().publicKeyCose()).isEqualTo("coseKey");
     assertThat(res.data().aaguid()).isEqualTo("00000000-0000-0000-0000-000000000000");
     assertThat(res.data().signCount()).isEqualTo(12L);
+    assertThat(res.data().algorithm()).isEqualTo(-7L);
+    assertThat(res.data().publicKeySpki()).isEqualTo("spki");
 
     verify(verifier).verify(any());
   }
@@ -41,11 +67,13 @@ class FinishRegistrationServiceTest {
   @Test
   void returns400_whenMissingChallenge() {
     RegistrationVerifier verifier = mock(RegistrationVerifier.class);
-    FinishRegistrationService svc = new FinishRegistrationService(verifier);
+    FinishRegistrationService svc = service(verifier);
 
     FinishRegistrationRequest bad = new FinishRegistrationRequest(
         new FinishRegistrationRequest.Server("  ", "example.com", "https://example.com", true),
-        sampleReq().credential()
+        sampleReq().credential(),
+        null,
+        null
     );
 
     FinishRegistrationResponse res = svc.handle(bad);
@@ -59,14 +87,16 @@ class FinishRegistrationServiceTest {
   @Test
   void returns400_whenMissingClientDataJSON() {
     RegistrationVerifier verifier = mock(RegistrationVerifier.class);
-    FinishRegistrationService svc = new FinishRegistrationService(verifier);
+    FinishRegistrationService svc = service(verifier);
 
     FinishRegistrationRequest bad = new FinishRegistrationRequest(
         sampleReq().server(),
         new FinishRegistrationRequest.Credential(
             "id","rawId","public-key",
-            new FinishRegistrationRequest.Credential.Response(" ", "attObj")
-        )
+            new FinishRegistrationRequest.Credential.Response(Binary.ofBase64Url(" "), Binary.ofBase64Url("attObj"))
+        ),
+        null,
+        null
     );
 
     FinishRegistrationResponse res = svc.handle(bad);
@@ -81,7 +111,7 @@ class FinishRegistrationServiceTest {
     RegistrationVerifier verifier = mock(RegistrationVerifier.class);
     when(verifier.verify(any())).thenThrow(new IllegalArgumentException("invalid base64url"));
 
-    FinishRegistrationService svc = new FinishRegistrationService(verifier);
+    FinishRegistrationService svc = service(verifier);
 
     FinishRegistrationResponse res = svc.handle(sampleReq());
 
@@ -95,7 +125,7 @@ class FinishRegistrationServiceTest {
     RegistrationVerifier verifier = mock(RegistrationVerifier.class);
     when(verifier.verify(any())).thenThrow(new RuntimeException("boom"));
 
-    FinishRegistrationService svc = new FinishRegistrationService(verifier);
+    FinishRegistrationService svc = service(verifier);
 
     FinishRegistrationResponse res = svc.handle(sampleReq());
 
@@ -104,13 +134,253 @@ class FinishRegistrationServiceTest {
     assertThat(res.data()).isNull();
   }
 
+  @Test
+  void metrics_recordStagesAndLowCardinalityReasons() {
+    RegistrationVerifier verifier = mock(RegistrationVerifier.class);
+    when(verifier.verify(any()))
+        .thenReturn(new RegistrationVerifier.VerifiedRegistration("credId", "coseKey", "00000000-0000-0000-0000-000000000000", 0L, -7L, "spki"))
+        .thenThrow(new IllegalArgumentException("Illegal base64 character 2e"));
+    RecordingStageMetrics metrics = new RecordingStageMetrics();
+    FinishRegistrationService svc = service(verifier, FinishRegistrationService.Options.DEFAULTS.withMetrics(metrics));
+
+    svc.handle(sampleReq());
+    assertThat(metrics.stages()).containsExactly("validateRequest", "verify", "duplicateCheck", StageMetrics.TOTAL);
+
+    svc.handle(sampleReq());
+    svc.handle(new FinishRegistrationRequest(null, sampleReq().credential(), null, null));
+
+    // El motivo es el tipo de error, nunca el mensaje (que puede llevar datos de la petición)
+    assertThat(metrics.outcomes()).containsOnly(
+        entry(StageMetrics.OK, 1),
+        entry("IllegalArgumentException", 1),
+        entry(StageMetrics.INVALID_REQUEST, 1)
+    );
+  }
+
+  @Test
+  void returns409_whenCredentialIdIsAlreadyRegistered() {
+    RegistrationVerifier verifier = mock(RegistrationVerifier.class);
+    when(verifier.verify(any())).thenReturn(
+        new RegistrationVerifier.VerifiedRegistration("credId", "coseKey", "00000000-0000-0000-0000-000000000000", 0L, -7L, "spki"));
+    RecordingStageMetrics metrics = new RecordingStageMetrics();
+    FinishRegistrationService svc = service(verifier, FinishRegistrationService.Options.DEFAULTS.withCredentials(new InMemoryCredentialIndex()).withMetrics(metrics));
+
+    assertThat(svc.handle(sampleReq()).code()).isEqualTo(200);
+    FinishRegistrationResponse again = svc.handle(sampleReq());
+
+    assertThat(again.code()).isEqualTo(409);
+    assertThat(again.message()).isEqualTo("credential_already_registered");
+    assertThat(again.data()).isNull();
+    assertThat(metrics.outcomes()).containsOnly(entry(StageMetrics.OK, 1), entry(FinishRegistrationService.DUPLICATE_CREDENTIAL, 1));
+  }
+
+  @Test
+  void failedVerification_doesNotReserveTheCredentialId() {
+    RegistrationVerifier verifier = mock(RegistrationVerifier.class);
+    CredentialIndex credentials = mock(CredentialIndex.class);
+    when(verifier.verify(any())).thenThrow(new RuntimeException("bad signature"));
+    FinishRegistrationService svc = service(verifier, FinishRegistrationService.Options.DEFAULTS.withCredentials(credentials));
+
+    assertThat(svc.handle(sampleReq()).code()).isEqualTo(400);
+    verifyNoInteractions(credentials);
+  }
+
+  @Test
+  void issuesTheNextAuthenticationChallenge_forTheVerifiedRp() {
+    RegistrationVerifier verifier = mock(RegistrationVerifier.class);
+    when(verifier.verify(any())).thenReturn(
+        new RegistrationVerifier.VerifiedRegistration("credId", "coseKey", "00000000-0000-0000-0000-000000000000", 0L, -7L, "spki"));
+    InMemoryChallengeStore store = new InMemoryChallengeStore();
+    Clock clock = Clock.fixed(Instant.parse("2026-06-01T00:00:00Z"), ZoneOffset.UTC);
+    RecordingStageMetrics metrics = new RecordingStageMetrics();
+    FinishRegistrationService svc = service(verifier, FinishRegistrationService.Options.DEFAULTS
+        .withNextChallenges(nextChallenges(store, clock))
+        .withMetrics(metrics));
+
+    FinishRegistrationResponse res = svc.handle(withNextChallenge(new FinishRegistrationRequest.NextChallenge("user-1", 60_000, null, 0)));
+
+    assertThat(res.code()).isEqualTo(200);
+    var next = res.nextChallenge();
+    assertThat(next.type()).isEqualTo("AUTHENTICATION");
+    assertThat(next.userId()).isEqualTo("user-1");
+    assertThat(next.rpId()).isEqualTo("example.com");
+    assertThat(next.origin()).isEqualTo("https://example.com");
+    assertThat(next.expiresAt()).isEqualTo(next.createdAt().plusSeconds(120));
+    assertThat(store.get(next.transactionId())).isNotNull();
+    assertThat(metrics.stages()).containsExactly("validateRequest", "verify", "duplicateCheck", "nextChallenge", StageMetrics.TOTAL);
+  }
+
+  @Test
+  void returns400_whenNextChallengeIsIncompleteOrUnsupported() {
+    RegistrationVerifier verifier = mock(RegistrationVerifier.class);
+    CreateChallengeUseCase challenges = mock(CreateChallengeUseCase.class);
+    var next = new FinishRegistrationRequest.NextChallenge("user-1", 60_000, null, 0);
+
+    FinishRegistrationResponse unsupported = service(verifier).handle(withNextChallenge(next));
+    FinishRegistrationResponse noUser = service(verifier, FinishRegistrationService.Options.DEFAULTS.withNextChallenges(challenges))
+        .handle(withNextChallenge(new FinishRegistrationRequest.NextChallenge(" ", 60_000, null, 0)));
+    FinishRegistrationResponse longTtl = service(verifier, FinishRegistrationService.Options.DEFAULTS.withNextChallenges(challenges))
+        .handle(withNextChallenge(new FinishRegistrationRequest.NextChallenge("user-1", 60_000, null, 601)));
+
+    assertThat(unsupported.code()).isEqualTo(400);
+    assertThat(unsupported.message()).isEqualTo("nextChallenge is not supported");
+    assertThat(noUser.code()).isEqualTo(400);
+    assertThat(noUser.message()).contains("nextChallenge.userId");
+    assertThat(longTtl.code()).isEqualTo(400);
+    assertThat(longTtl.message()).isEqualTo("nextChallenge.ttlSeconds must be 0..600 (0 = 120)");
+    verifyNoInteractions(verifier, challenges);
+  }
+
+  @Test
+  void failedNextChallenge_keepsTheRegistration() {
+    RegistrationVerifier verifier = mock(RegistrationVerifier.class);
+    when(verifier.verify(any())).thenReturn(
+        new RegistrationVerifier.VerifiedRegistration("credId", "coseKey", "00000000-0000-0000-0000-000000000000", 0L, -7L, "spki"));
+    CreateChallengeUseCase challenges = mock(CreateChallengeUseCase.class);
+    when(challenges.handle(any())).thenThrow(new ChallengeStoreUnavailableException("circuit open"));
+    InMemoryCredentialIndex credentials = new InMemoryCredentialIndex();
+    RecordingStageMetrics metrics = new RecordingStageMetrics();
+    FinishRegistrationService svc = service(verifier, FinishRegistrationService.Options.DEFAULTS
+        .withCredentials(credentials)
+        .withNextChallenges(challenges)
+        .withMetrics(metrics));
+
+    FinishRegistrationResponse res = svc.handle(withNextChallenge(new FinishRegistrationRequest.NextChallenge("user-1", 60_000, null, 0)));
+
+    // El cliente pide el challenge a createChallenge como antes
+    assertThat(res.code()).isEqualTo(200);
+    assertThat(res.data().credentialId()).isEqualTo("credId");
+    assertThat(res.nextChallenge()).isNull();
+    assertThat(credentials.size()).isEqualTo(1);
+    assertThat(metrics.outcomes()).containsOnly(
+        entry(StageMetrics.OK, 1),
+        entry(FinishRegistrationService.NEXT_CHALLENGE_FAILED + ":ChallengeStoreUnavailableException", 1));
+  }
+
+  @Test
+  void audit_recordsEveryOutcomeWithCredentialAndRpId() {
+    RegistrationVerifier verifier = mock(RegistrationVerifier.class);
+    when(verifier.verify(any())).thenReturn(
+        new RegistrationVerifier.VerifiedRegistration("credId", "coseKey", "00000000-0000-0000-0000-000000000000", 0L, -7L, "spki"));
+    List<String> events = new CopyOnWriteArrayList<>();
+    AuditLog audit = (ceremony, outcome, subject, rpId) -> events.add(ceremony + " " + outcome + " " + subject + " " + rpId);
+    FinishRegistrationService svc = service(verifier, FinishRegistrationService.Options.DEFAULTS.withCredentials(new InMemoryCredentialIndex()).withAudit(audit));
+
+    svc.handle(sampleReq());
+    svc.handle(sampleReq());
+    svc.handle(new FinishRegistrationRequest(null, sampleReq().credential(), null, null));
+
+    assertThat(events).containsExactly(
+        "REGISTRATION ok id example.com",
+        "REGISTRATION duplicate_credential id example.com",
+        "REGISTRATION invalid_request id null"
+    );
+  }
+
+  @Test
+  void deadline_withoutTimeForVerify_returns504BeforeVerifying() {
+    RegistrationVerifier verifier = mock(RegistrationVerifier.class);
+    CredentialIndex credentials = mock(CredentialIndex.class);
+    RecordingStageMetrics metrics = new RecordingStageMetrics();
+    FinishRegistrationService svc = service(verifier, FinishRegistrationService.Options.DEFAULTS
+        .withCredentials(credentials)
+        .withMetrics(metrics)
+        .withCosts(new FinishRegistrationService.StageCosts(Duration.ofMillis(50), Duration.ofMillis(10), Duration.ofMillis(10))));
+
+    FinishRegistrationResponse res = svc.handle(sampleReq(), Deadline.in(Duration.ofMillis(10)));
+
+    assertThat(res.code()).isEqualTo(504);
+    assertThat(res.message()).isEqualTo(StageMetrics.DEADLINE_EXCEEDED);
+    assertThat(res.data()).isNull();
+    verifyNoInteractions(verifier, credentials);
+    assertThat(metrics.outcomes()).containsOnly(entry(StageMetrics.DEADLINE_EXCEEDED, 1));
+  }
+
+  @Test
+  void deadline_withoutTimeForNextChallenge_keepsTheRegistrationWithoutIt() {
+    RegistrationVerifier verifier = mock(RegistrationVerifier.class);
+    when(verifier.verify(any())).thenReturn(
+        new RegistrationVerifier.VerifiedRegistration("credId", "coseKey", "00000000-0000-0000-0000-000000000000", 0L, -7L, "spki"));
+    CreateChallengeUseCase challenges = mock(CreateChallengeUseCase.class);
+    FinishRegistrationService svc = service(verifier, FinishRegistrationService.Options.DEFAULTS
+        .withNextChallenges(challenges)
+        .withCosts(new FinishRegistrationService.StageCosts(Duration.ZERO, Duration.ZERO, Duration.ofMinutes(1))));
+
+    FinishRegistrationResponse res = svc.handle(
+        withNextChallenge(new FinishRegistrationRequest.NextChallenge("user-1", 60_000, null, 0)), Deadline.in(Duration.ofSeconds(5)));
+
+    assertThat(res.code()).isEqualTo(200);
+    assertThat(res.data().credentialId()).isEqualTo("credId");
+    assertThat(res.nextChallenge()).isNull();
+    verifyNoInteractions(challenges);
+  }
+
+  @Test
+  void sealedChallenge_isVerifiedWithTheSharedKeyBeforeTheCeremony() {
+    RegistrationVerifier verifier = mock(RegistrationVerifier.class);
+    when(verifier.verify(any())).thenReturn(
+        new RegistrationVerifier.VerifiedRegistration("credId", "coseKey", "00000000-0000-0000-0000-000000000000", 0L, -7L, "spki"));
+    Clock clock = Clock.fixed(Instant.parse("2026-06-01T00:00:00Z"), ZoneOffset.UTC);
+    ChallengeSealer sealer = new ChallengeSealer(new byte[32], new SecureRandom());
+    Instant expiresAt = clock.instant().plusSeconds(120);
+    String challenge = sealer.seal(new ChallengeSealer.SealedContext(
+        "tx-1", "user-1", ChallengeType.REGISTRATION, "example.com", "https://example.com", expiresAt), 32);
+    RecordingStageMetrics metrics = new RecordingStageMetrics();
+    FinishRegistrationService svc = service(verifier, FinishRegistrationService.Options.DEFAULTS
+        .withSealer(sealer)
+        .withClock(clock)
+        .withMetrics(metrics));
+
+    FinishRegistrationResponse ok = svc.handle(sealed(challenge, new FinishRegistrationRequest.Sealed("tx-1", "user-1", expiresAt)));
+    FinishRegistrationResponse otherUser = svc.handle(sealed(challenge, new FinishRegistrationRequest.Sealed("tx-1", "user-2", expiresAt)));
+    FinishRegistrationResponse noSealer = service(verifier)
+        .handle(sealed(challenge, new FinishRegistrationRequest.Sealed("tx-1", "user-1", expiresAt)));
+
+    assertThat(ok.code()).isEqualTo(200);
+    assertThat(otherUser.code()).isEqualTo(400);
+    assertThat(otherUser.message()).isEqualTo(FinishRegistrationService.SEALED_CHALLENGE_INVALID);
+    assertThat(noSealer.code()).isEqualTo(400);
+    assertThat(noSealer.message()).isEqualTo(FinishRegistrationService.SEALED_CHALLENGE_INVALID);
+    verify(verifier, times(1)).verify(any());
+    assertThat(metrics.outcomes()).containsOnly(entry(StageMetrics.OK, 1), entry(FinishRegistrationService.SEALED_CHALLENGE_INVALID, 1));
+  }
+
+  private static FinishRegistrationService service(RegistrationVerifier verifier) {
+    return service(verifier, FinishRegistrationService.Options.DEFAULTS);
+  }
+
+  private static FinishRegistrationService service(RegistrationVerifier verifier, FinishRegistrationService.Options options) {
+    return new FinishRegistrationService(verifier, options);
+  }
+
+  private static CreateChallengeService nextChallenges(InMemoryChallengeStore store, Clock clock) {
+    return new CreateChallengeService(new ChallengeGenerator(new SecureRandom()), store, new AsyncChallengeStoreAdapter(store, Runnable::run),
+        clock, new IssuedChallengeCache(clock, CreateChallengeService.DEFAULT_IDEMPOTENCY_WINDOW), CreateChallengeService.Options.DEFAULTS);
+  }
+
+  private static FinishRegistrationRequest withNextChallenge(FinishRegistrationRequest.NextChallenge next) {
+    return new FinishRegistrationRequest(sampleReq().server(), sampleReq().credential(), next, null);
+  }
+
+  private static FinishRegistrationRequest sealed(String challenge, FinishRegistrationRequest.Sealed sealed) {
+    var server = sampleReq().server();
+    return new FinishRegistrationRequest(
+        new FinishRegistrationRequest.Server(challenge, server.rpId(), server.origin(), server.userVerificationRequired()),
+        sampleReq().credential(),
+        null,
+        sealed
+    );
+  }
+
   private static FinishRegistrationRequest sampleReq() {
     return new FinishRegistrationRequest(
         new FinishRegistrationRequest.Server("challengeB64Url", "example.com", "https://example.com", true),
         new FinishRegistrationRequest.Credential(
             "id", "rawId", "public-key",
-            new FinishRegistrationRequest.Credential.Response("clientData", "attObj")
-        )
+            new FinishRegistrationRequest.Credential.Response(Binary.ofBase64Url("clientData"), Binary.ofBase64Url("attObj"))
+        ),
+        null,
+        null
     );
   }
 }
@@ -0,0 +1,37 @@
+package com.acme.passkeys.config;
+
+import com.acme.passkeys.adapters.in.function.dto.FinishRegistrationRequest;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.webauthn4j.data.attestation.authenticator.EC2COSEKey;
+import com.webauthn4j.data.attestation.statement.NoneAttestationStatement;
+import com.webauthn4j.data.client.CollectedClientData;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import static org.assertj.core.api.Assertions.*;
+
+class RegistrationNativeHintsTest {
+
+  private final RuntimeHints hints = new RuntimeHints();
+
+  RegistrationNativeHintsTest() {
+    new RegistrationNativeHints().registerHints(hints, getClass().getClassLoader());
+  }
+
+  @Test
+  void registersDtos_andWebAuthn4jDataTypes() {
+    assertThat(RuntimeHintsPredicates.reflection().onType(FinishRegistrationRequest.class)).accepts(hints);
+    for (Class<?> type : new Class<?>[]{CollectedClientData.class, EC2COSEKey.class, NoneAttestationStatement.class}) {
+      assertThat(RuntimeHintsPredicates.reflection().onType(type).withMemberCategory(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS))
+          .as(type.getName())
+          .accepts(hints);
+    }
+  }
+
+  @Test
+  void registersJacksonCbor() {
+    assertThat(RuntimeHintsPredicates.reflection().onType(CBORFactory.class)).accepts(hints);
+  }
+}
@@ -0,0 +1,52 @@
+package com.acme.passkeys.domain.model;
+
+import com.acme.passkeys.adapters.in.function.dto.FinishRegistrationRequest;
+import com.acme.passkeys.authenticator.AttestationFormat;
+import com.acme.passkeys.authenticator.ChallengeBinding;
+import com.acme.passkeys.authenticator.CoseAlgorithm;
+import com.acme.passkeys.authenticator.SoftwareAuthenticator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+class BinaryTest {
+
+  private final ObjectMapper json = new ObjectMapper();
+  private final ObjectMapper cbor = new CBORMapper();
+  private final SoftwareAuthenticator authenticator = SoftwareAuthenticator.seeded(3);
+
+  @Test
+  void json_keepsBase64Url_andDecodesOnDemand() throws Exception {
+    SoftwareAuthenticator.Registration reg = registration();
+    FinishRegistrationRequest req = json.readValue(reg.requestJson(), FinishRegistrationRequest.class);
+
+    Binary attestation = req.credential().response().attestationObject();
+    assertThat(attestation.isRaw()).isFalse();
+    assertThat(attestation.base64Url()).isEqualTo(reg.attestationObject());
+    assertThat(attestation.bytes()).isSameAs(attestation.bytes());
+  }
+
+  @Test
+  void cbor_carriesByteStrings_andIsSmallerThanJson() throws Exception {
+    String requestJson = registration().requestJson();
+    FinishRegistrationRequest fromJson = json.readValue(requestJson, FinishRegistrationRequest.class);
+
+    byte[] wire = cbor.writeValueAsBytes(fromJson);
+    JsonNode tree = cbor.readTree(wire);
+    assertThat(tree.at("/credential/response/attestationObject").isBinary()).isTrue();
+    assertThat(tree.at("/credential/id").isTextual()).isTrue();
+    assertThat(wire.length).isLessThan(json.writeValueAsBytes(fromJson).length);
+
+    FinishRegistrationRequest fromCbor = cbor.readValue(wire, FinishRegistrationRequest.class);
+    assertThat(fromCbor.credential().response().attestationObject().isRaw()).isTrue();
+    assertThat(fromCbor).isEqualTo(fromJson);
+  }
+
+  private SoftwareAuthenticator.Registration registration() {
+    ChallengeBinding binding = new ChallengeBinding(authenticator.randomChallenge(), "example.com", "https://example.com");
+    return authenticator.register(binding, CoseAlgorithm.ES256, AttestationFormat.PACKED);
+  }
+}
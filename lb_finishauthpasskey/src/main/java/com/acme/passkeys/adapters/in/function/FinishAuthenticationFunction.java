@@ -3,10 +3,12 @@ package com.acme.passkeys.adapters.in.function;
 import com.acme.passkeys.adapters.in.function.dto.FinishAuthenticationRequest;
 import com.acme.passkeys.adapters.in.function.dto.FinishAuthenticationResponse;
 import com.acme.passkeys.application.ports.in.FinishAuthenticationUseCase;
+import org.springframework.messaging.Message;
 
 import java.util.function.Function;
 
-public class FinishAuthenticationFunction implements Function<FinishAuthenticationRequest, FinishAuthenticationResponse> {
+/** Recibe el mensaje, y no sólo el payload, para sacar el plazo de la invocación de sus cabeceras ({@link FunctionDeadlines}). */
+public class FinishAuthenticationFunction implements Function<Message<FinishAuthenticationRequest>, FinishAuthenticationResponse> {
 
   private final FinishAuthenticationUseCase useCase;
 
@@ -15,7 +17,7 @@ public class FinishAuthenticationFunction implements Function<FinishAuthenticati
   }
 
   @Override
-  public FinishAuthenticationResponse apply(FinishAuthenticationRequest req) {
-    return useCase.handle(req);
+  public FinishAuthenticationResponse apply(Message<FinishAuthenticationRequest> message) {
+    return useCase.handle(message.getPayload(), FunctionDeadlines.of(message.getHeaders()));
   }
 }
@@ -1,9 +1,15 @@
 package com.acme.passkeys.adapters.in.function.dto;
 
+import com.acme.passkeys.domain.model.Binary;
+
+import java.time.Instant;
+
 public record FinishAuthenticationRequest(
     Server server,
     Credential credential,
-    StoredCredential storedCredential
+    StoredCredential storedCredential,
+    NextChallenge nextChallenge, // null: no se emite
+    Sealed sealed                // null: challenge del store
 ) {
   public record Server(
       String challenge, // base64url
@@ -18,14 +24,37 @@ public record FinishAuthenticationRequest(
       Response response
   ) {
     public record Response(
-        String clientDataJSON,      // base64url
-        String authenticatorData,   // base64url
-        String signature,           // base64url
+        Binary clientDataJSON,      // base64url en JSON, byte string en CBOR
+        Binary authenticatorData,   // base64url en JSON, byte string en CBOR
+        Binary signature,           // base64url en JSON, byte string en CBOR
         String userHandle           // base64url o null
     ) {}
   }
 
   public record StoredCredential(
-      String publicKeyCose // base64url
+      Binary publicKeyCose, // credenciales registradas antes de publicKeySpki
+      long algorithm,       // COSE alg (-7 ES256, -257 RS256, -8 EdDSA); obligatorio con publicKeySpki
+      Binary publicKeySpki  // SubjectPublicKeyInfo DER; si viene, no se parsea el COSE
+  ) {}
+
+  /**
+   * Opcional: si viene, se emite y guarda también un challenge AUTHENTICATION para el siguiente paso (step-up,
+   * re-autenticación) con el rpId y el origin de {@code server}, y vuelve en {@code nextChallenge} de la respuesta.
+   */
+  public record NextChallenge(
+      String userId,
+      long timeoutMs,
+      String transactionId, // opcional, idempotencia igual que en createChallenge
+      long ttlSeconds       // opcional, default 120
+  ) {}
+
+  /**
+   * Opcional: el challenge se emitió sellado porque el store no estaba disponible (ver createChallenge). Es el contexto
+   * con que se selló, de la respuesta de createChallenge; {@code server.challenge} se verifica con la clave compartida.
+   */
+  public record Sealed(
+      String transactionId,
+      String userId,
+      Instant expiresAt
   ) {}
 }
@@ -3,17 +3,34 @@ package com.acme.passkeys.adapters.in.function.dto;
 public record FinishAuthenticationResponse(
     int code,
     String message,
-    Data data
+    Data data,
+    ChallengeResponse nextChallenge // sólo si se pidió y se pudo emitir
 ) {
   public record Data(
       String credentialId
   ) {}
 
   public static FinishAuthenticationResponse ok(Data data) {
-    return new FinishAuthenticationResponse(200, "AUTHENTICATED", data);
+    return ok(data, null);
+  }
+
+  public static FinishAuthenticationResponse ok(Data data, ChallengeResponse nextChallenge) {
+    return new FinishAuthenticationResponse(200, "AUTHENTICATED", data, nextChallenge);
   }
 
   public static FinishAuthenticationResponse bad(String msg) {
-    return new FinishAuthenticationResponse(401, msg, null);
+    return new FinishAuthenticationResponse(401, msg, null, null);
+  }
+
+  public static FinishAuthenticationResponse replayed(String msg) {
+    return new FinishAuthenticationResponse(409, msg, null, null);
+  }
+
+  public static FinishAuthenticationResponse unavailable(String msg) {
+    return new FinishAuthenticationResponse(503, msg, null, null);
+  }
+
+  public static FinishAuthenticationResponse timeout(String msg) {
+    return new FinishAuthenticationResponse(504, msg, null, null);
   }
 }
@@ -0,0 +1,73 @@
+package com.acme.passkeys.adapters.in.lambda;
+
+import com.acme.passkeys.adapters.in.function.dto.FinishAuthenticationRequest;
+import com.acme.passkeys.adapters.in.function.dto.FinishAuthenticationResponse;
+import com.acme.passkeys.adapters.in.lambda.CreateChallengeStreamHandler.NextChallenges;
+import com.acme.passkeys.application.ports.in.FinishAuthenticationUseCase;
+import com.acme.passkeys.application.ports.out.AuditLog;
+import com.acme.passkeys.application.ports.out.StageMetrics;
+import com.acme.passkeys.application.service.FinishAuthenticationService;
+import com.acme.passkeys.config.FinishAuthenticationConfig;
+
+import java.time.Duration;
+
+/**
+ * Entrada rápida para Lambda sin contexto de Spring; cablea lo mismo que {@link FinishAuthenticationConfig}.
+ * Con {@code NEXT_CHALLENGE_ENABLED=true} emite el siguiente challenge y con {@code CHALLENGE_SEAL_KEY} acepta challenges
+ * sellados; sin ninguna de las dos no cablea nada de createChallenge.
+ * Handler: {@code com.acme.passkeys.adapters.in.lambda.FinishAuthenticationStreamHandler::handleRequest}
+ */
+public class FinishAuthenticationStreamHandler extends JsonStreamHandler<FinishAuthenticationRequest, FinishAuthenticationResponse> {
+
+  // Defaults de passkeys.replay.*
+  static final Duration REPLAY_WINDOW = Duration.ofMinutes(10);
+  static final int REPLAY_BUCKETS = 4;
+  static final int REPLAY_EXPECTED_PER_WINDOW = 50_000;
+
+  // Defaults de passkeys.audit.*
+  static final int AUDIT_CAPACITY = 8192;
+  static final int AUDIT_RECORDS_PER_FILE = 65_536;
+  static final int AUDIT_MAX_FILES = 8;
+
+  // Default de passkeys.metrics.sample-every: frente a la verificación, medir cada invocación es despreciable
+  static final int METRICS_SAMPLE_EVERY = 1;
+
+  // Defaults de passkeys.deadline.*
+  static final FinishAuthenticationService.StageCosts DEADLINE_COSTS = FinishAuthenticationService.StageCosts.DEFAULTS;
+
+  // Se cablea en la fase init de Lambda y se comparte entre invocaciones
+  private static final StageMetrics METRICS =
+      new FinishAuthenticationConfig().finishAuthenticationMetrics(true, "Passkeys", METRICS_FLUSH_INTERVAL, METRICS_SAMPLE_EVERY);
+  private static final AuditLog AUDIT = auditLog(System.getenv("AUDIT_DIR"));
+  private static final NextChallenges NEXT_CHALLENGES = CreateChallengeStreamHandler.nextChallenges(
+      Boolean.parseBoolean(System.getenv("NEXT_CHALLENGE_ENABLED")), System.getenv("CHALLENGE_SEAL_KEY"), METRICS, AUDIT);
+  private static final FinishAuthenticationUseCase USE_CASE = wire(NEXT_CHALLENGES, METRICS, AUDIT);
+
+  public FinishAuthenticationStreamHandler() {
+    this(USE_CASE, METRICS);
+  }
+
+  // El caso de uso directamente, para pasarle el tiempo que le queda a la invocación
+  FinishAuthenticationStreamHandler(FinishAuthenticationUseCase useCase, StageMetrics metrics) {
+    super(FinishAuthenticationRequest.class, (request, deadline) -> useCase.handle(request, deadline), metrics);
+  }
+
+  static FinishAuthenticationUseCase wire(NextChallenges nextChallenges, StageMetrics metrics, AuditLog audit) {
+    FinishAuthenticationConfig c = new FinishAuthenticationConfig();
+    return c.finishAuthenticationUseCase(
+        c.authenticationVerifier(c.webAuthnManager(), c.authenticationDataVerifier(), metrics),
+        c.assertionReplayFilter(true, REPLAY_WINDOW, REPLAY_BUCKETS, REPLAY_EXPECTED_PER_WINDOW),
+        nextChallenges.useCase(),
+        nextChallenges.sealer(),
+        metrics,
+        audit,
+        DEADLINE_COSTS
+    );
+  }
+
+  /** @param auditDir directorio de los ficheros de auditoría; {@code null} o vacío: sin auditoría */
+  static AuditLog auditLog(String auditDir) {
+    return new FinishAuthenticationConfig()
+        .authenticationAuditLog(auditDir == null ? "" : auditDir, AUDIT_CAPACITY, AUDIT_RECORDS_PER_FILE, AUDIT_MAX_FILES);
+  }
+}
@@ -0,0 +1,74 @@
+package com.acme.passkeys.adapters.out.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Parseo y verificación de una assertion con webauthn4j, firma incluida. Sin identificadores de
+ * usuario ni de credencial: sólo lo necesario para perfilar una ceremonia lenta.
+ */
+@Name(AssertionVerifiedEvent.NAME)
+@Label("Assertion Verified")
+@Category({"Passkeys", "Finish Authentication"})
+@Description("WebAuthnManager.parse + AuthenticationDataVerifier.verify de una assertion")
+@StackTrace(false)
+@Threshold(AssertionVerifiedEvent.DEFAULT_THRESHOLD)
+public class AssertionVerifiedEvent extends Event {
+
+  public static final String NAME = "com.acme.passkeys.AssertionVerified";
+  public static final String DEFAULT_THRESHOLD = "20 ms";
+
+  @Label("Relying Party")
+  String rpId;
+
+  @Label("Algorithm")
+  @Description("Identificador COSE de la clave guardada (-7 ES256, -257 RS256, -8 EdDSA); 0 si no se conoce")
+  long algorithm;
+
+  @Label("Outcome")
+  String outcome;
+
+  @Label("Client Data Size")
+  @DataAmount
+  int clientDataSize;
+
+  @Label("Authenticator Data Size")
+  @DataAmount
+  int authenticatorDataSize;
+
+  @Label("Signature Size")
+  @DataAmount
+  int signatureSize;
+
+  public static AssertionVerifiedEvent start() {
+    AssertionVerifiedEvent event = new AssertionVerifiedEvent();
+    event.begin();
+    return event;
+  }
+
+  /** Cierra el evento; sólo se graba si JFR lo tiene activo y supera el threshold. */
+  public void complete(
+      String rpId,
+      long algorithm,
+      String outcome,
+      int clientDataSize,
+      int authenticatorDataSize,
+      int signatureSize
+  ) {
+    end();
+    if (!shouldCommit()) return;
+    this.rpId = rpId;
+    this.algorithm = algorithm;
+    this.outcome = outcome;
+    this.clientDataSize = clientDataSize;
+    this.authenticatorDataSize = authenticatorDataSize;
+    this.signatureSize = signatureSize;
+    commit();
+  }
+}
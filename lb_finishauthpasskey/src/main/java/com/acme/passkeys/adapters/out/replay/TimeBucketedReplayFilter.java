@@ -0,0 +1,189 @@
+package com.acme.passkeys.adapters.out.replay;
+
+import com.acme.passkeys.application.ports.out.AssertionReplayFilter;
+import com.acme.passkeys.application.ports.out.ReplayFilterSaturatedException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Conjunto de huellas de 64 bits por intervalo de tiempo, sin locks. Cada intervalo dura
+ * {@code window / (buckets - 1)}: con {@code buckets} intervalos en el anillo, una aserción se recuerda
+ * al menos {@code window} (el TTL máximo del challenge) y la memoria queda acotada a
+ * {@code buckets} tablas fijas. El intervalo que sale del anillo se sustituye por una tabla vacía.
+ *
+ * <p>Cada tabla es direccionamiento abierto con sondeo lineal sobre un {@link AtomicLongArray}: el alta es
+ * un CAS de 0 a la huella, así que de dos aceptaciones concurrentes de la misma aserción gana una.
+ * Un falso positivo exige dos aserciones con la misma huella de 64 bits en la misma secuencia de sondeo.
+ *
+ * <p>En el cambio de intervalo, una aserción que entró en la tabla anterior mientras otro hilo ya había abierto la
+ * siguiente se copia también en ésta: o el hilo del intervalo nuevo la ve en la anterior, o el CAS de la copia choca
+ * con el suyo. Así sigue ganando una sola aceptación aunque cada una lea el reloj a un lado del cambio.
+ *
+ * <p>Si la tabla del intervalo actual se llena (más de {@code expectedPerWindow} con margen) la aserción
+ * se rechaza con {@link ReplayFilterSaturatedException}, sin recordarla, y se cuenta en {@link Stats#overflows()}.
+ */
+public class TimeBucketedReplayFilter implements AssertionReplayFilter {
+
+  private static final int MAX_PROBES = 32;
+  private static final long SEED_INDEX = 0x9E3779B97F4A7C15L;
+  private static final long SEED_FINGERPRINT = 0xC2B2AE3D27D4EB4FL;
+
+  private final Clock clock;
+  private final long bucketMillis;
+  private final int slotsPerBucket;
+  private final AtomicReferenceArray<Bucket> ring;
+
+  private final LongAdder replays = new LongAdder();
+  private final LongAdder overflows = new LongAdder();
+
+  /**
+   * @param window            TTL máximo de un challenge
+   * @param buckets           intervalos en el anillo (>= 2); más intervalos ajustan mejor la memoria a la ventana
+   * @param expectedPerWindow aserciones aceptadas por ventana en el pico; cada tabla tiene el doble de huecos
+   */
+  public TimeBucketedReplayFilter(Clock clock, Duration window, int buckets, int expectedPerWindow) {
+    this.clock = Objects.requireNonNull(clock, "clock");
+    if (window.isNegative() || window.isZero()) throw new IllegalArgumentException("window must be > 0");
+    if (buckets < 2) throw new IllegalArgumentException("buckets must be >= 2");
+    if (expectedPerWindow <= 0) throw new IllegalArgumentException("expectedPerWindow must be > 0");
+    this.bucketMillis = Math.max(1, (window.toMillis() + buckets - 2) / (buckets - 1));
+    long perBucket = ((long) expectedPerWindow + buckets - 2) / (buckets - 1);
+    this.slotsPerBucket = (int) Math.min(1 << 30, Long.highestOneBit(Math.max(2, 2 * perBucket - 1)) << 1);
+    this.ring = new AtomicReferenceArray<>(buckets);
+  }
+
+  @Override
+  public boolean firstUse(byte[] credentialId, byte[] authenticatorData, byte[] clientDataJSON) {
+    long index = hash(SEED_INDEX, credentialId, authenticatorData, clientDataJSON);
+    long fingerprint = hash(SEED_FINGERPRINT, credentialId, authenticatorData, clientDataJSON);
+    if (fingerprint == 0) fingerprint = 1; // 0 marca hueco libre
+
+    long epoch = clock.millis() / bucketMillis;
+    // Se publica la tabla actual antes de mirar las anteriores: un alta concurrente en la anterior la verá
+    Bucket bucket = current(epoch);
+    int buckets = ring.length();
+    for (long e = epoch - buckets + 1; e < epoch; e++) {
+      Bucket previous = ring.get(slot(e));
+      if (previous != null && previous.epoch == e && previous.contains(index, fingerprint)) {
+        replays.increment();
+        return false;
+      }
+    }
+
+    while (true) {
+      switch (bucket.insert(index, fingerprint)) {
+        case Bucket.INSERTED:
+          break;
+        case Bucket.PRESENT:
+          replays.increment();
+          return false;
+        default:
+          overflows.increment();
+          throw new ReplayFilterSaturatedException("replay filter bucket is full");
+      }
+      // Otro hilo abrió ya el intervalo siguiente y quizá miró esta tabla antes del alta: la copia decide quién gana
+      Bucket next = ring.get(slot(bucket.epoch + 1));
+      if (next == null || next.epoch != bucket.epoch + 1) return true;
+      bucket = next;
+    }
+  }
+
+  public Stats stats() {
+    int allocated = 0;
+    for (int i = 0; i < ring.length(); i++) if (ring.get(i) != null) allocated++;
+    return new Stats(replays.sum(), overflows.sum(), bucketMillis, slotsPerBucket, (long) allocated * slotsPerBucket * Long.BYTES);
+  }
+
+  private Bucket current(long epoch) {
+    int slot = slot(epoch);
+    while (true) {
+      Bucket bucket = ring.get(slot);
+      if (bucket != null && bucket.epoch >= epoch) return bucket;
+      Bucket fresh = new Bucket(epoch, slotsPerBucket);
+      if (ring.compareAndSet(slot, bucket, fresh)) return fresh;
+    }
+  }
+
+  private int slot(long epoch) {
+    return (int) Math.floorMod(epoch, (long) ring.length());
+  }
+
+  // fmix64 (MurmurHash3) por palabras de 8 bytes; la longitud de cada parte evita ambigüedades al concatenar
+  private static long hash(long seed, byte[]... parts) {
+    long h = seed;
+    for (byte[] part : parts) {
+      h = Long.rotateLeft(h ^ fmix(part.length ^ seed), 27) * 5 + 0x52DCE729;
+      int i = 0;
+      for (; i + 8 <= part.length; i += 8) {
+        h = Long.rotateLeft(h ^ fmix(word(part, i, 8) ^ seed), 27) * 5 + 0x52DCE729;
+      }
+      if (i < part.length) h = Long.rotateLeft(h ^ fmix(word(part, i, part.length - i) ^ seed), 27) * 5 + 0x52DCE729;
+    }
+    return fmix(h);
+  }
+
+  private static long word(byte[] bytes, int offset, int length) {
+    long w = 0;
+    for (int j = 0; j < length; j++) w |= (bytes[offset + j] & 0xffL) << (j << 3);
+    return w;
+  }
+
+  private static long fmix(long h) {
+    h ^= h >>> 33;
+    h *= 0xFF51AFD7ED558CCDL;
+    h ^= h >>> 33;
+    h *= 0xC4CEB9FE1A85EC53L;
+    h ^= h >>> 33;
+    return h;
+  }
+
+  private static final class Bucket {
+    static final int INSERTED = 0;
+    static final int PRESENT = 1;
+    static final int FULL = 2;
+
+    final long epoch;
+    final AtomicLongArray fingerprints;
+    final int mask;
+
+    Bucket(long epoch, int slots) {
+      this.epoch = epoch;
+      this.fingerprints = new AtomicLongArray(slots);
+      this.mask = slots - 1;
+    }
+
+    boolean contains(long index, long fingerprint) {
+      int i = (int) index & mask;
+      for (int probe = 0; probe < MAX_PROBES; probe++, i = (i + 1) & mask) {
+        long current = fingerprints.get(i);
+        if (current == fingerprint) return true;
+        if (current == 0) return false;
+      }
+      return false;
+    }
+
+    int insert(long index, long fingerprint) {
+      int i = (int) index & mask;
+      for (int probe = 0; probe < MAX_PROBES; probe++, i = (i + 1) & mask) {
+        long current = fingerprints.get(i);
+        if (current == 0) {
+          if (fingerprints.compareAndSet(i, 0, fingerprint)) return INSERTED;
+          current = fingerprints.get(i); // otro hilo ocupó el hueco: puede ser la misma aserción
+        }
+        if (current == fingerprint) return PRESENT;
+      }
+      return FULL;
+    }
+  }
+
+  /**
+   * @param overflows   aserciones rechazadas porque la tabla del intervalo estaba llena
+   * @param memoryBytes tablas asignadas ahora mismo (como mucho {@code buckets})
+   */
+  public record Stats(long replays, long overflows, long bucketMillis, int slotsPerBucket, long memoryBytes) {}
+}
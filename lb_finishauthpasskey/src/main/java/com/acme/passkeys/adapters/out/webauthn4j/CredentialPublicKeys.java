@@ -0,0 +1,97 @@
+package com.acme.passkeys.adapters.out.webauthn4j;
+
+import com.webauthn4j.converter.util.CborConverter;
+import com.webauthn4j.converter.util.ObjectConverter;
+import com.webauthn4j.data.attestation.authenticator.COSEKey;
+import com.webauthn4j.data.attestation.authenticator.EC2COSEKey;
+import com.webauthn4j.data.attestation.authenticator.EdDSACOSEKey;
+import com.webauthn4j.data.attestation.authenticator.RSACOSEKey;
+import com.webauthn4j.data.attestation.statement.COSEAlgorithmIdentifier;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.EdECPublicKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.X509EncodedKeySpec;
+
+/**
+ * Clave pública guardada de una credencial → {@link COSEKey} que usa webauthn4j para verificar.
+ *
+ * <p>La forma que devuelve finishRegistration (algoritmo COSE + SubjectPublicKeyInfo DER) se
+ * decodifica con un {@link KeyFactory}, sin CBOR, y la {@link PublicKey} resultante es la que usa
+ * la verificación: las claves COSE de webauthn4j reconstruyen la clave JCA en cada
+ * {@code getPublicKey()}. {@code publicKeyCose} sigue aceptándose para las credenciales registradas antes.
+ */
+public final class CredentialPublicKeys {
+
+  private static final CborConverter CBOR = new ObjectConverter().getCborConverter();
+
+  private CredentialPublicKeys() {}
+
+  public static COSEKey fromSpki(long algorithm, byte[] spki) {
+    COSEAlgorithmIdentifier alg = COSEAlgorithmIdentifier.create(algorithm);
+    PublicKey key;
+    try {
+      key = KeyFactory.getInstance(keyFamily(algorithm)).generatePublic(new X509EncodedKeySpec(spki));
+    } catch (GeneralSecurityException e) {
+      throw new IllegalArgumentException("invalid publicKeySpki", e);
+    }
+    if (key instanceof ECPublicKey ec) return new DecodedEC2Key(EC2COSEKey.create(ec, alg), key);
+    if (key instanceof RSAPublicKey rsa) return new DecodedRSAKey(RSACOSEKey.create(rsa, alg), key);
+    if (key instanceof EdECPublicKey ed) return new DecodedEdDSAKey(EdDSACOSEKey.create(ed, COSEAlgorithmIdentifier.EdDSA), key);
+    throw new IllegalArgumentException("unsupported publicKeySpki");
+  }
+
+  public static COSEKey fromCose(byte[] cose) {
+    COSEKey key = CBOR.readValue(cose, COSEKey.class);
+    if (key == null) throw new IllegalArgumentException("invalid publicKeyCose");
+    return key;
+  }
+
+  private static String keyFamily(long algorithm) {
+    return switch ((int) algorithm) {
+      case -7, -35, -36 -> "EC";                   // ES256, ES384, ES512
+      case -8 -> "Ed25519";                        // EdDSA
+      case -257, -258, -259, -37, -38, -39 -> "RSA"; // RS256..RS512, PS256..PS512
+      default -> throw new IllegalArgumentException("unsupported algorithm " + algorithm);
+    };
+  }
+
+  private static final class DecodedEC2Key extends EC2COSEKey {
+    private final transient PublicKey publicKey;
+
+    private DecodedEC2Key(EC2COSEKey k, PublicKey publicKey) {
+      super(k.getKeyId(), k.getAlgorithm(), k.getKeyOps(), k.getCurve(), k.getX(), k.getY());
+      this.publicKey = publicKey;
+    }
+
+    @Override
+    public PublicKey getPublicKey() { return publicKey; }
+  }
+
+  private static final class DecodedRSAKey extends RSACOSEKey {
+    private final transient PublicKey publicKey;
+
+    private DecodedRSAKey(RSACOSEKey k, PublicKey publicKey) {
+      super(k.getKeyId(), k.getAlgorithm(), k.getKeyOps(), k.getN(), k.getE());
+      this.publicKey = publicKey;
+    }
+
+    @Override
+    public PublicKey getPublicKey() { return publicKey; }
+  }
+
+  private static final class DecodedEdDSAKey extends EdDSACOSEKey {
+    private final transient PublicKey publicKey;
+
+    private DecodedEdDSAKey(EdDSACOSEKey k, PublicKey publicKey) {
+      super(k.getKeyId(), k.getAlgorithm(), k.getKeyOps(), k.getCurve(), k.getX(), null);
+      this.publicKey = publicKey;
+    }
+
+    @Override
+    public PublicKey getPublicKey() { return publicKey; }
+  }
+}
@@ -1,35 +1,51 @@
 package com.acme.passkeys.adapters.out.webauthn4j;
 
+import com.acme.passkeys.adapters.out.jfr.AssertionVerifiedEvent;
 import com.acme.passkeys.application.ports.out.AuthenticationVerifier;
+import com.acme.passkeys.application.ports.out.StageMetrics;
+import com.acme.passkeys.domain.model.Binary;
 import com.webauthn4j.WebAuthnManager;
+import com.webauthn4j.authenticator.Authenticator;
+import com.webauthn4j.authenticator.AuthenticatorImpl;
 import com.webauthn4j.data.AuthenticationData;
+import com.webauthn4j.data.AuthenticationParameters;
+import com.webauthn4j.data.AuthenticationRequest;
+import com.webauthn4j.data.attestation.authenticator.AAGUID;
+import com.webauthn4j.data.attestation.authenticator.AttestedCredentialData;
+import com.webauthn4j.data.attestation.authenticator.COSEKey;
+import com.webauthn4j.data.attestation.statement.NoneAttestationStatement;
 import com.webauthn4j.data.client.Origin;
 import com.webauthn4j.data.client.challenge.Challenge;
 import com.webauthn4j.data.client.challenge.DefaultChallenge;
 import com.webauthn4j.server.ServerProperty;
-import com.webauthn4j.validator.AuthenticationDataValidator;
-import com.webauthn4j.validator.AuthenticationParameters;
+import com.webauthn4j.verifier.AuthenticationDataVerifier;
 
-import java.lang.reflect.Method;
 import java.util.Base64;
 
 public class WebAuthn4jAuthenticationVerifier implements AuthenticationVerifier {
 
   private final WebAuthnManager manager;
-  private final AuthenticationDataValidator validator;
+  private final AuthenticationDataVerifier dataVerifier;
+  private final StageMetrics metrics;
 
-  public WebAuthn4jAuthenticationVerifier(WebAuthnManager manager, AuthenticationDataValidator validator) {
+  public WebAuthn4jAuthenticationVerifier(WebAuthnManager manager, AuthenticationDataVerifier dataVerifier) {
+    this(manager, dataVerifier, StageMetrics.NOOP);
+  }
+
+  public WebAuthn4jAuthenticationVerifier(WebAuthnManager manager, AuthenticationDataVerifier dataVerifier, StageMetrics metrics) {
     this.manager = manager;
-    this.validator = validator;
+    this.dataVerifier = dataVerifier;
+    this.metrics = metrics;
   }
 
   @Override
   public VerifiedAuthentication verify(VerifyAuthenticationCommand cmd) {
+    long start = metrics.start();
     byte[] credentialId = b64urlDecode(cmd.credentialIdB64Url());
-    byte[] clientDataJSON = b64urlDecode(cmd.clientDataJSONB64Url());
-    byte[] authenticatorData = b64urlDecode(cmd.authenticatorDataB64Url());
-    byte[] signature = b64urlDecode(cmd.signatureB64Url());
-    byte[] publicKeyCose = b64urlDecode(cmd.publicKeyCoseB64Url());
+    // Por CBOR llegan en crudo y no se decodifica nada
+    byte[] clientDataJSON = bytes(cmd.clientDataJSON());
+    byte[] authenticatorData = bytes(cmd.authenticatorData());
+    byte[] signature = bytes(cmd.signature());
 
     Challenge challenge = new DefaultChallenge(b64urlDecode(cmd.challengeB64Url()));
 
@@ -40,55 +56,69 @@ public class WebAuthn4jAuthenticationVerifier implements AuthenticationVerifier
         null
     );
 
-    AuthenticationData authenticationData = parseAuthenticationData(credentialId, clientDataJSON, authenticatorData, signature, publicKeyCose);
-
-    // ✅ NO validamos signCount: pasamos counter = null
-    AuthenticationParameters params = new AuthenticationParameters(
-        serverProperty,
-        null, // expectedUserHandle (username-first)
-        cmd.userVerificationRequired(),
-        true,
-        null // counter
-    );
-
-    validator.validate(authenticationData, params);
+    long parsing = metrics.lap("decode", start);
+    AssertionVerifiedEvent event = AssertionVerifiedEvent.start();
+    long algorithm = cmd.algorithm();
+    try {
+      COSEKey publicKey = storedPublicKey(cmd);
+      algorithm = publicKey.getAlgorithm() == null ? algorithm : publicKey.getAlgorithm().getValue();
+      AuthenticationData authenticationData = parseAuthenticationData(credentialId, clientDataJSON, authenticatorData, signature);
+      long validating = metrics.lap("parse", parsing);
+
+      // ✅ NO validamos signCount: con contador guardado 0 cualquier valor presentado pasa
+      Authenticator authenticator = new AuthenticatorImpl(
+          new AttestedCredentialData(AAGUID.ZERO, credentialId, publicKey),
+          new NoneAttestationStatement(),
+          0
+      );
+      AuthenticationParameters params = new AuthenticationParameters(
+          serverProperty,
+          authenticator,
+          null, // allowCredentials (username-first)
+          cmd.userVerificationRequired(),
+          true
+      );
+
+      dataVerifier.verify(authenticationData, params);
+      metrics.lap("validate", validating);
+    } catch (RuntimeException e) {
+      event.complete(cmd.rpId(), algorithm, StageMetrics.reason(e), length(clientDataJSON), length(authenticatorData), length(signature));
+      throw e;
+    }
+    event.complete(cmd.rpId(), algorithm, StageMetrics.OK, length(clientDataJSON), length(authenticatorData), length(signature));
 
     return new VerifiedAuthentication(cmd.credentialIdB64Url());
   }
 
+  /** SPKI + alg (finishRegistration actual) sin CBOR; si no, el COSE de credenciales anteriores. */
+  private static COSEKey storedPublicKey(VerifyAuthenticationCommand cmd) {
+    Binary spki = cmd.publicKeySpki();
+    if (spki != null && !spki.isBlank()) {
+      return CredentialPublicKeys.fromSpki(cmd.algorithm(), spki.bytes());
+    }
+    return CredentialPublicKeys.fromCose(bytes(cmd.publicKeyCose()));
+  }
+
   private AuthenticationData parseAuthenticationData(
       byte[] credentialId,
       byte[] clientDataJSON,
       byte[] authenticatorData,
-      byte[] signature,
-      byte[] publicKeyCose
+      byte[] signature
   ) {
-    // Intentamos encontrar un overload compatible de WebAuthnManager#parse(...) vía reflexión
-    // para evitar fragilidad entre versiones.
-    try {
-      for (Method m : WebAuthnManager.class.getMethods()) {
-        if (!m.getName().equals("parse")) continue;
-        Class<?>[] p = m.getParameterTypes();
-
-        // Variante común: parse(byte[] credentialId, byte[] clientDataJSON, byte[] authenticatorData, byte[] signature, byte[] publicKeyCose)
-        if (p.length == 5 &&
-            p[0] == byte[].class && p[1] == byte[].class && p[2] == byte[].class && p[3] == byte[].class && p[4] == byte[].class) {
-          Object out = m.invoke(manager, credentialId, clientDataJSON, authenticatorData, signature, publicKeyCose);
-          return (AuthenticationData) out;
-        }
-
-        // Variante alternativa: parse(byte[] credentialId, byte[] clientDataJSON, byte[] authenticatorData, byte[] signature)
-        // (publicKey se asocia de otra forma). No la usamos porque necesitamos publicKey. Seguimos buscando.
-      }
-      throw new IllegalStateException("Unsupported webauthn4j WebAuthnManager.parse(...) signature");
-    } catch (RuntimeException e) {
-      throw e;
-    } catch (Exception e) {
-      throw new IllegalStateException("Failed to parse authentication data", e);
-    }
+    // Llamada directa (sin reflexión) para que el binario nativo no necesite metadata de WebAuthnManager
+    return manager.parse(new AuthenticationRequest(credentialId, authenticatorData, clientDataJSON, signature));
+  }
+
+  private static byte[] bytes(Binary b) {
+    return b == null ? null : b.bytes();
+  }
+
+  private static int length(byte[] bytes) {
+    return bytes == null ? 0 : bytes.length;
   }
 
-  private static byte[] b64urlDecode(String s) {
+  // Visible en el paquete para los benchmarks JMH
+  static byte[] b64urlDecode(String s) {
     if (s == null) return null;
     String padded = s.replace('-', '+').replace('_', '/');
     int mod = padded.length() % 4;
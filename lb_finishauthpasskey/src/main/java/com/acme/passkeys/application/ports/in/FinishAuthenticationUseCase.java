@@ -5,4 +5,9 @@ import com.acme.passkeys.adapters.in.function.dto.FinishAuthenticationResponse;
 
 public interface FinishAuthenticationUseCase {
   FinishAuthenticationResponse handle(FinishAuthenticationRequest request);
+
+  /** Como {@link #handle(FinishAuthenticationRequest)}, pero sin empezar etapas que no quepan en {@code deadline} (504). */
+  default FinishAuthenticationResponse handle(FinishAuthenticationRequest request, Deadline deadline) {
+    return handle(request);
+  }
 }
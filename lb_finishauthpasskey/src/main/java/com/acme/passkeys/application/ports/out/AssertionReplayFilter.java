@@ -0,0 +1,20 @@
+package com.acme.passkeys.application.ports.out;
+
+/**
+ * Recuerda las aserciones ya aceptadas mientras su challenge podría seguir vigente. La aserción se
+ * identifica por lo que firma el autenticador (credentialId, authenticatorData y clientDataJSON, que
+ * lleva el challenge), no por los bytes de la firma: una firma ECDSA admite variantes igual de válidas.
+ */
+public interface AssertionReplayFilter {
+
+  /** Sin control de réplicas. */
+  AssertionReplayFilter NONE = (credentialId, authenticatorData, clientDataJSON) -> true;
+
+  /**
+   * {@code true} la primera vez que se ve la aserción y {@code false} si ya se había aceptado.
+   * Atómico: de varias aceptaciones concurrentes de la misma aserción, exactamente una devuelve {@code true}.
+   *
+   * @throws ReplayFilterSaturatedException si no puede recordarla: no se acepta una aserción que no se recuerda
+   */
+  boolean firstUse(byte[] credentialId, byte[] authenticatorData, byte[] clientDataJSON);
+}
@@ -1,5 +1,7 @@
 package com.acme.passkeys.application.ports.out;
 
+import com.acme.passkeys.domain.model.Binary;
+
 public interface AuthenticationVerifier {
 
   VerifiedAuthentication verify(VerifyAuthenticationCommand cmd);
@@ -11,11 +13,13 @@ public interface AuthenticationVerifier {
       boolean userVerificationRequired,
 
       String credentialIdB64Url,
-      String publicKeyCoseB64Url,
+      Binary publicKeyCose,  // null si viene publicKeySpki
+      long algorithm,        // COSE alg de publicKeySpki
+      Binary publicKeySpki,  // puede ser null
 
-      String clientDataJSONB64Url,
-      String authenticatorDataB64Url,
-      String signatureB64Url,
+      Binary clientDataJSON,
+      Binary authenticatorData,
+      Binary signature,
       String userHandleB64Url // puede ser null
   ) {}
 
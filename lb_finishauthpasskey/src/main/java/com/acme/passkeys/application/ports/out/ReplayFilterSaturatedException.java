@@ -0,0 +1,8 @@
+package com.acme.passkeys.application.ports.out;
+
+/** El filtro de réplicas no puede recordar más aserciones en este intervalo; la aserción no se acepta. */
+public class ReplayFilterSaturatedException extends RuntimeException {
+  public ReplayFilterSaturatedException(String message) {
+    super(message);
+  }
+}
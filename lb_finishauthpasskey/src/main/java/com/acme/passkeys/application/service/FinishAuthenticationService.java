@@ -1,22 +1,144 @@
 package com.acme.passkeys.application.service;
 
+import com.acme.passkeys.adapters.in.function.dto.ChallengeRequest;
+import com.acme.passkeys.adapters.in.function.dto.ChallengeResponse;
 import com.acme.passkeys.adapters.in.function.dto.FinishAuthenticationRequest;
 import com.acme.passkeys.adapters.in.function.dto.FinishAuthenticationResponse;
+import com.acme.passkeys.application.ports.in.CreateChallengeUseCase;
+import com.acme.passkeys.application.ports.in.Deadline;
+import com.acme.passkeys.application.ports.in.DeadlineExceededException;
 import com.acme.passkeys.application.ports.in.FinishAuthenticationUseCase;
+import com.acme.passkeys.application.ports.out.AssertionReplayFilter;
+import com.acme.passkeys.application.ports.out.AuditLog;
 import com.acme.passkeys.application.ports.out.AuthenticationVerifier;
+import com.acme.passkeys.application.ports.out.ReplayFilterSaturatedException;
+import com.acme.passkeys.application.ports.out.StageMetrics;
+import com.acme.passkeys.domain.model.Binary;
+import com.acme.passkeys.domain.model.ChallengeType;
+import com.acme.passkeys.domain.service.ChallengeSealer;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Objects;
 
 public class FinishAuthenticationService implements FinishAuthenticationUseCase {
 
+  /**
+   * Coste estimado de cada etapa: con un {@link Deadline} no se empieza una etapa si el tiempo que queda no lo cubre.
+   * {@code store} es registrar la aserción; sin tiempo para {@code nextChallenge} se responde sin él.
+   */
+  public record StageCosts(Duration verify, Duration store, Duration nextChallenge) {
+    public static final StageCosts DEFAULTS = new StageCosts(Duration.ofMillis(25), Duration.ofMillis(10), Duration.ofMillis(10));
+  }
+
+  /** Motivo de resultado de una aserción ya aceptada. */
+  static final String REPLAYED = "assertion_replayed";
+
+  /** Motivo de resultado cuando el filtro de réplicas está lleno: la aserción no se acepta. */
+  static final String REPLAY_FILTER_FULL = "replay_filter_full";
+
+  /** Motivo de resultado de un challenge sellado que no verifica (o sin sellador con el que verificarlo). */
+  static final String SEALED_CHALLENGE_INVALID = "sealed_challenge_invalid";
+
+  /**
+   * Prefijo del motivo que se cuenta, además del de la ceremonia, cuando falla el siguiente challenge:
+   * {@code next_challenge_failed:<excepción>}. La ceremonia sigue respondiendo {@link StageMetrics#OK}.
+   */
+  static final String NEXT_CHALLENGE_FAILED = "next_challenge_failed";
+
+  /**
+   * Lo opcional de la ceremonia; {@link #DEFAULTS} no filtra réplicas, no ofrece el siguiente challenge ni observa nada.
+   * Sin {@code sealer} se rechazan los challenges sellados.
+   */
+  public record Options(
+      AssertionReplayFilter replays,
+      CreateChallengeUseCase nextChallenges,
+      ChallengeSealer sealer,
+      Clock clock,
+      StageMetrics metrics,
+      AuditLog audit,
+      StageCosts costs
+  ) {
+    public static final Options DEFAULTS =
+        new Options(AssertionReplayFilter.NONE, null, null, Clock.systemUTC(), StageMetrics.NOOP, AuditLog.NOOP, StageCosts.DEFAULTS);
+
+    public Options {
+      Objects.requireNonNull(replays, "replays");
+      Objects.requireNonNull(clock, "clock");
+      Objects.requireNonNull(metrics, "metrics");
+      Objects.requireNonNull(audit, "audit");
+      Objects.requireNonNull(costs, "costs");
+    }
+
+    public Options withReplays(AssertionReplayFilter replays) {
+      return new Options(replays, nextChallenges, sealer, clock, metrics, audit, costs);
+    }
+
+    public Options withNextChallenges(CreateChallengeUseCase nextChallenges) {
+      return new Options(replays, nextChallenges, sealer, clock, metrics, audit, costs);
+    }
+
+    public Options withSealer(ChallengeSealer sealer) {
+      return new Options(replays, nextChallenges, sealer, clock, metrics, audit, costs);
+    }
+
+    public Options withClock(Clock clock) {
+      return new Options(replays, nextChallenges, sealer, clock, metrics, audit, costs);
+    }
+
+    public Options withMetrics(StageMetrics metrics) {
+      return new Options(replays, nextChallenges, sealer, clock, metrics, audit, costs);
+    }
+
+    public Options withAudit(AuditLog audit) {
+      return new Options(replays, nextChallenges, sealer, clock, metrics, audit, costs);
+    }
+
+    public Options withCosts(StageCosts costs) {
+      return new Options(replays, nextChallenges, sealer, clock, metrics, audit, costs);
+    }
+  }
+
   private final AuthenticationVerifier verifier;
+  private final AssertionReplayFilter replays;
+  private final CreateChallengeUseCase nextChallenges; // null = no se ofrece el siguiente challenge
+  private final ChallengeSealer sealer; // null = se rechazan los challenges sellados
+  private final Clock clock;
+  private final StageMetrics metrics;
+  private final AuditLog audit;
+  private final StageCosts costs;
 
-  public FinishAuthenticationService(AuthenticationVerifier verifier) {
-    this.verifier = verifier;
+  public FinishAuthenticationService(AuthenticationVerifier verifier, Options options) {
+    this.verifier = Objects.requireNonNull(verifier, "verifier");
+    this.replays = options.replays();
+    this.nextChallenges = options.nextChallenges();
+    this.sealer = options.sealer();
+    this.clock = options.clock();
+    this.metrics = options.metrics();
+    this.audit = options.audit();
+    this.costs = options.costs();
   }
 
   @Override
   public FinishAuthenticationResponse handle(FinishAuthenticationRequest req) {
+    return handle(req, Deadline.NONE);
+  }
+
+  @Override
+  public FinishAuthenticationResponse handle(FinishAuthenticationRequest req, Deadline deadline) {
+    long start = metrics.start();
+    boolean validated = false;
     try {
-      validate(req);
+      validate(req, nextChallenges != null);
+      validated = true;
+      long verifying = metrics.lap("validateRequest", start);
+
+      // Un challenge sellado no está en el store: lo respalda el HMAC con la clave compartida
+      if (req.sealed() != null && !sealVerified(req)) {
+        complete(req, SEALED_CHALLENGE_INVALID, start);
+        return FinishAuthenticationResponse.bad(SEALED_CHALLENGE_INVALID);
+      }
 
       var cmd = new AuthenticationVerifier.VerifyAuthenticationCommand(
           req.server().challenge(),
@@ -26,6 +148,8 @@ public class FinishAuthenticationService implements FinishAuthenticationUseCase
 
           req.credential().id(),
           req.storedCredential().publicKeyCose(),
+          req.storedCredential().algorithm(),
+          req.storedCredential().publicKeySpki(),
 
           req.credential().response().clientDataJSON(),
           req.credential().response().authenticatorData(),
@@ -33,18 +157,95 @@ public class FinishAuthenticationService implements FinishAuthenticationUseCase
           req.credential().response().userHandle()
       );
 
+      deadline.check("verify", costs.verify());
       var verified = verifier.verify(cmd);
+      long checking = metrics.lap("verify", verifying);
+
+      deadline.check("replayCheck", costs.store());
+      // Sólo se recuerdan aserciones válidas: una inválida no puede bloquear la buena.
+      // authenticatorData y clientDataJSON ya los decodificó el verificador (o llegaron en crudo por CBOR)
+      if (!replays.firstUse(
+          Base64.getUrlDecoder().decode(verified.credentialIdB64Url()),
+          cmd.authenticatorData().bytes(),
+          cmd.clientDataJSON().bytes())) {
+        complete(req, REPLAYED, start);
+        return FinishAuthenticationResponse.replayed("assertion_replayed");
+      }
+      long issuing = metrics.lap("replayCheck", checking);
 
-      return FinishAuthenticationResponse.ok(new FinishAuthenticationResponse.Data(verified.credentialIdB64Url()));
+      ChallengeResponse next = deadline.allows(costs.nextChallenge())
+          ? nextChallenge(req.server(), req.nextChallenge(), issuing)
+          : null;
+      complete(req, StageMetrics.OK, start);
+      return FinishAuthenticationResponse.ok(new FinishAuthenticationResponse.Data(verified.credentialIdB64Url()), next);
 
+    } catch (ReplayFilterSaturatedException e) {
+      complete(req, REPLAY_FILTER_FULL, start);
+      return FinishAuthenticationResponse.unavailable(REPLAY_FILTER_FULL);
+    } catch (DeadlineExceededException e) {
+      complete(req, StageMetrics.DEADLINE_EXCEEDED, start);
+      return FinishAuthenticationResponse.timeout(StageMetrics.DEADLINE_EXCEEDED);
     } catch (IllegalArgumentException e) {
+      complete(req, validated ? StageMetrics.reason(e) : StageMetrics.INVALID_REQUEST, start);
       return FinishAuthenticationResponse.bad(e.getMessage());
     } catch (Exception e) {
+      complete(req, StageMetrics.reason(e), start);
       return FinishAuthenticationResponse.bad("authentication_validation_failed");
     }
   }
 
-  private static void validate(FinishAuthenticationRequest req) {
+  /**
+   * Emite el challenge AUTHENTICATION pedido con el mismo {@link CreateChallengeUseCase} que createChallenge
+   * (generador, expiración, idempotencia y store). El rpId y el origin son los ya verificados en esta ceremonia.
+   * Si falla, la ceremonia sigue siendo válida: se responde sin él, se cuenta {@link #NEXT_CHALLENGE_FAILED} con
+   * la excepción y el cliente llama a createChallenge.
+   */
+  private ChallengeResponse nextChallenge(FinishAuthenticationRequest.Server server, FinishAuthenticationRequest.NextChallenge next, long issuing) {
+    if (next == null) return null;
+    try {
+      return nextChallenges.handle(new ChallengeRequest(
+          "AUTHENTICATION",
+          next.userId(),
+          server.rpId(),
+          server.origin(),
+          next.timeoutMs(),
+          next.transactionId(),
+          next.ttlSeconds(),
+          0
+      ));
+    } catch (RuntimeException e) {
+      metrics.recordOutcome(NEXT_CHALLENGE_FAILED + ":" + StageMetrics.reason(e));
+      return null;
+    } finally {
+      metrics.lap("nextChallenge", issuing);
+    }
+  }
+
+  /** Misma clave y mismo contexto con que lo selló createChallenge, y sin expirar. */
+  private boolean sealVerified(FinishAuthenticationRequest req) {
+    if (sealer == null) return false;
+    var sealed = req.sealed();
+    return sealer.verify(req.server().challenge(), new ChallengeSealer.SealedContext(
+        sealed.transactionId(),
+        sealed.userId(),
+        ChallengeType.AUTHENTICATION,
+        req.server().rpId(),
+        req.server().origin(),
+        sealed.expiresAt()
+    ), clock.instant());
+  }
+
+  private void complete(FinishAuthenticationRequest req, String reason, long start) {
+    metrics.complete(reason, start);
+    audit.record(
+        AuditLog.Ceremony.AUTHENTICATION,
+        reason,
+        req == null || req.credential() == null ? null : req.credential().id(),
+        req == null || req.server() == null ? null : req.server().rpId()
+    );
+  }
+
+  private static void validate(FinishAuthenticationRequest req, boolean nextChallengeAvailable) {
     if (req == null) throw new IllegalArgumentException("request is required");
     if (req.server() == null) throw new IllegalArgumentException("server is required");
     if (blank(req.server().challenge())) throw new IllegalArgumentException("server.challenge is required");
@@ -59,8 +260,32 @@ public class FinishAuthenticationService implements FinishAuthenticationUseCase
     if (blank(req.credential().response().signature())) throw new IllegalArgumentException("signature is required");
 
     if (req.storedCredential() == null) throw new IllegalArgumentException("storedCredential is required");
-    if (blank(req.storedCredential().publicKeyCose())) throw new IllegalArgumentException("storedCredential.publicKeyCose is required");
+    var stored = req.storedCredential();
+    if (blank(stored.publicKeySpki())) {
+      if (blank(stored.publicKeyCose())) throw new IllegalArgumentException("storedCredential.publicKeyCose or storedCredential.publicKeySpki is required");
+    } else if (stored.algorithm() == 0) {
+      throw new IllegalArgumentException("storedCredential.algorithm is required with publicKeySpki");
+    }
+    validateSealed(req.sealed());
+    validateNextChallenge(req.nextChallenge(), nextChallengeAvailable);
+  }
+
+  private static void validateSealed(FinishAuthenticationRequest.Sealed sealed) {
+    if (sealed == null) return;
+    if (blank(sealed.transactionId())) throw new IllegalArgumentException("sealed.transactionId is required");
+    if (blank(sealed.userId())) throw new IllegalArgumentException("sealed.userId is required");
+    if (sealed.expiresAt() == null) throw new IllegalArgumentException("sealed.expiresAt is required");
+  }
+
+  private static void validateNextChallenge(FinishAuthenticationRequest.NextChallenge next, boolean available) {
+    if (next == null) return;
+    if (!available) throw new IllegalArgumentException("nextChallenge is not supported");
+    if (blank(next.userId())) throw new IllegalArgumentException("nextChallenge.userId is required");
+    if (next.timeoutMs() <= 0) throw new IllegalArgumentException("nextChallenge.timeoutMs must be > 0");
+    if (next.ttlSeconds() < 0 || next.ttlSeconds() > 600) throw new IllegalArgumentException("nextChallenge.ttlSeconds must be 0..600 (0 = 120)");
   }
 
   private static boolean blank(String s) { return s == null || s.trim().isEmpty(); }
+
+  private static boolean blank(Binary b) { return b == null || b.isBlank(); }
 }
@@ -0,0 +1,43 @@
+package com.acme.passkeys.config;
+
+import com.webauthn4j.data.AuthenticationRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Aserción ES256 generada offline (rpId example.com) con su clave en COSE y en SPKI. Sólo se usa
+ * para recorrer los caminos de parseo y de verificación JCA antes de un checkpoint.
+ */
+final class AuthenticationPrimingSample {
+
+  static final String CREDENTIAL_ID = "bDZs_HSh3GxTDU8R06XlEw";
+  static final String CLIENT_DATA_JSON =
+      "eyJ0eXBlIjoid2ViYXV0aG4uZ2V0IiwiY2hhbGxlbmdlIjoiUUstcHN1Z2hxc3hWamlVN3NKWTNTTW83T0hQTzRiX0NEaEdTMElVcFRZNCIsIm9yaWdpbiI6Imh0dHBzOi8vZXhhbXBsZS5jb20iLCJjcm9zc09yaWdpbiI6ZmFsc2V9";
+  static final String AUTHENTICATOR_DATA = "o3mm9u6vuaVeN4wRgDTidR5oL6ufLTCrE9ISVYbOGUcFAAAAAQ";
+  static final String SIGNATURE =
+      "MEYCIQDjuG1j9UqTYmQVd0xiOTVh2Gdilt0_P_KuT9vALwAh6AIhAP8L7VZERB-kL46a0RCtQeOB14HFr95n1ThEsLYYlHjl";
+  static final String PUBLIC_KEY_COSE =
+      "pQECAyYgASFYIPJ_AhbvoVlDCrJ4r9McxJ3-YjBlOXGWlqvwbWjswqszIlggA2GfJJ_WE4gTEPEsadEJqwo6LLL241llkGm3_PIhmgc";
+  static final String PUBLIC_KEY_SPKI =
+      "MFkwEwYHKoZIzj0CAQYIKoZIzj0DAQcDQgAE8n8CFu-hWUMKsniv0xzEnf5iMGU5cZaWq_BtaOzCqzMDYZ8kn9YTiBMQ8Sxp0QmrCjossvbjWWWQabf88iGaBw";
+  static final String CHALLENGE = "QK-psughqsxVjiU7sJY3SMo7OHPO4b_CDhGS0IUpTY4";
+
+  private AuthenticationPrimingSample() {}
+
+  static byte[] decode(String b64url) {
+    return Base64.getUrlDecoder().decode(b64url);
+  }
+
+  static AuthenticationRequest request() {
+    return new AuthenticationRequest(decode(CREDENTIAL_ID), decode(AUTHENTICATOR_DATA), decode(CLIENT_DATA_JSON), decode(SIGNATURE));
+  }
+
+  static byte[] requestJson() {
+    return ("""
+        {"server":{"challenge":"%s","rpId":"example.com","origin":"https://example.com","userVerificationRequired":true},
+         "credential":{"id":"%s","type":"public-key","response":{"clientDataJSON":"%s","authenticatorData":"%s","signature":"%s","userHandle":null}},
+         "storedCredential":{"algorithm":-7,"publicKeySpki":"%s"}}
+        """.formatted(CHALLENGE, CREDENTIAL_ID, CLIENT_DATA_JSON, AUTHENTICATOR_DATA, SIGNATURE, PUBLIC_KEY_SPKI)).getBytes(StandardCharsets.UTF_8);
+  }
+}
@@ -3,42 +3,173 @@ package com.acme.passkeys.config;
 import com.acme.passkeys.adapters.in.function.FinishAuthenticationFunction;
 import com.acme.passkeys.adapters.in.function.dto.FinishAuthenticationRequest;
 import com.acme.passkeys.adapters.in.function.dto.FinishAuthenticationResponse;
+import com.acme.passkeys.adapters.out.audit.RingBufferAuditLog;
+import com.acme.passkeys.adapters.out.jfr.AssertionVerifiedEvent;
+import com.acme.passkeys.adapters.out.metrics.EmfStageMetrics;
+import com.acme.passkeys.adapters.out.replay.TimeBucketedReplayFilter;
 import com.acme.passkeys.adapters.out.webauthn4j.WebAuthn4jAuthenticationVerifier;
+import com.acme.passkeys.application.ports.in.CreateChallengeUseCase;
 import com.acme.passkeys.application.ports.in.FinishAuthenticationUseCase;
+import com.acme.passkeys.application.ports.out.AssertionReplayFilter;
+import com.acme.passkeys.application.ports.out.AuditLog;
 import com.acme.passkeys.application.ports.out.AuthenticationVerifier;
+import com.acme.passkeys.application.ports.out.StageMetrics;
 import com.acme.passkeys.application.service.FinishAuthenticationService;
+import com.acme.passkeys.domain.service.ChallengeSealer;
 import com.webauthn4j.WebAuthnManager;
-import com.webauthn4j.validator.AuthenticationDataValidator;
+import com.webauthn4j.converter.util.ObjectConverter;
+import com.webauthn4j.data.attestation.authenticator.COSEKey;
+import com.webauthn4j.verifier.AuthenticationDataVerifier;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.cloud.function.json.JsonMapper;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.messaging.Message;
 
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.Signature;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
 import java.util.function.Function;
 
 @Configuration
+@ImportRuntimeHints(AuthenticationNativeHints.class)
 public class FinishAuthenticationConfig {
 
   @Bean
+  @ConditionalOnMissingBean(WebAuthnManager.class) // en modo servidor se comparte entre funciones
   public WebAuthnManager webAuthnManager() {
     return WebAuthnManager.createNonStrictWebAuthnManager();
   }
 
   @Bean
-  public AuthenticationDataValidator authenticationDataValidator() {
-    return new AuthenticationDataValidator();
+  public AuthenticationDataVerifier authenticationDataVerifier() {
+    return new AuthenticationDataVerifier();
   }
 
   @Bean
-  public AuthenticationVerifier authenticationVerifier(WebAuthnManager m, AuthenticationDataValidator v) {
-    return new WebAuthn4jAuthenticationVerifier(m, v);
+  public StageMetrics finishAuthenticationMetrics(
+      @Value("${passkeys.metrics.enabled:true}") boolean enabled,
+      @Value("${passkeys.metrics.namespace:Passkeys}") String namespace,
+      @Value("${passkeys.metrics.flush-interval:0s}") Duration flushInterval,
+      @Value("${passkeys.metrics.sample-every:1}") int sampleEvery
+  ) {
+    return enabled ? new EmfStageMetrics(namespace, "finishAuthentication", flushInterval, sampleEvery) : StageMetrics.NOOP;
   }
 
   @Bean
-  public FinishAuthenticationUseCase finishAuthenticationUseCase(AuthenticationVerifier verifier) {
-    return new FinishAuthenticationService(verifier);
+  public AuthenticationVerifier authenticationVerifier(
+      WebAuthnManager m,
+      AuthenticationDataVerifier v,
+      @Qualifier("finishAuthenticationMetrics") StageMetrics metrics
+  ) {
+    return new WebAuthn4jAuthenticationVerifier(m, v, metrics);
+  }
+
+  /** {@code window} es el TTL máximo de un challenge (createChallenge admite hasta 600s). */
+  @Bean
+  public AssertionReplayFilter assertionReplayFilter(
+      @Value("${passkeys.replay.enabled:true}") boolean enabled,
+      @Value("${passkeys.replay.window:10m}") Duration window,
+      @Value("${passkeys.replay.buckets:4}") int buckets,
+      @Value("${passkeys.replay.expected-per-window:50000}") int expectedPerWindow
+  ) {
+    return enabled ? new TimeBucketedReplayFilter(Clock.systemUTC(), window, buckets, expectedPerWindow) : AssertionReplayFilter.NONE;
+  }
+
+  /** Sin {@code directory} no se audita; el anillo ocupa {@code capacity} × 256 bytes de heap. */
+  @Bean
+  public AuditLog authenticationAuditLog(
+      @Value("${passkeys.audit.directory:}") String directory,
+      @Value("${passkeys.audit.capacity:8192}") int capacity,
+      @Value("${passkeys.audit.records-per-file:65536}") int recordsPerFile,
+      @Value("${passkeys.audit.max-files:8}") int maxFiles
+  ) {
+    return RingBufferAuditLog.forDirectory(directory, "finishAuthentication", capacity, recordsPerFile, maxFiles, Clock.systemUTC());
+  }
+
+  /** Sólo cuenta con el handler sin Spring, que conoce el tiempo que le queda a la invocación. */
+  @Bean
+  public FinishAuthenticationService.StageCosts authenticationStageCosts(
+      @Value("${passkeys.deadline.verify-cost:25ms}") Duration verify,
+      @Value("${passkeys.deadline.store-cost:10ms}") Duration store,
+      @Value("${passkeys.deadline.next-challenge-cost:10ms}") Duration nextChallenge
+  ) {
+    return new FinishAuthenticationService.StageCosts(verify, store, nextChallenge);
+  }
+
+  /**
+   * Sin createChallenge en el contexto, {@code nextChallenge} se rechaza con 400; sin su {@link ChallengeSealer}, los
+   * challenges sellados también.
+   */
+  @Bean
+  public FinishAuthenticationUseCase finishAuthenticationUseCase(
+      AuthenticationVerifier verifier,
+      AssertionReplayFilter replays,
+      Optional<CreateChallengeUseCase> nextChallenges,
+      Optional<ChallengeSealer> challengeSealer,
+      @Qualifier("finishAuthenticationMetrics") StageMetrics metrics,
+      @Qualifier("authenticationAuditLog") AuditLog audit,
+      FinishAuthenticationService.StageCosts costs
+  ) {
+    return new FinishAuthenticationService(verifier, FinishAuthenticationService.Options.DEFAULTS
+        .withReplays(replays)
+        .withNextChallenges(nextChallenges.orElse(null))
+        .withSealer(challengeSealer.orElse(null))
+        .withMetrics(metrics)
+        .withAudit(audit)
+        .withCosts(costs));
+  }
+
+  @Bean
+  public SnapshotPriming authenticationSnapshotPriming(WebAuthnManager webAuthnManager, ObjectProvider<JsonMapper> jsonMapper) {
+    JsonMapper json = jsonMapper.getIfAvailable();
+    Runnable jsonPrimer = json == null ? () -> {} : () -> json.fromJson(AuthenticationPrimingSample.requestJson(), FinishAuthenticationRequest.class);
+    return authenticationPriming(webAuthnManager, jsonPrimer).register();
+  }
+
+  /** Primers antes del checkpoint; no hay fuentes aleatorias que resembrar tras el restore. */
+  public static SnapshotPriming authenticationPriming(WebAuthnManager manager, Runnable jsonPrimer) {
+    return new SnapshotPriming(
+        List.of(
+            jsonPrimer,
+            () -> manager.parse(AuthenticationPrimingSample.request()),
+            FinishAuthenticationConfig::primeSignatureVerification,
+            FinishAuthenticationConfig::primeJfr
+        ),
+        List.of()
+    );
+  }
+
+  // El primer evento JFR de la JVM inicializa FlightRecorder: cientos de ms que no deben caer en la primera invocación
+  private static void primeJfr() {
+    AssertionVerifiedEvent.start();
+  }
+
+  // COSE (CBOR) -> PublicKey y verificación ES256: carga los proveedores JCA de EC
+  private static void primeSignatureVerification() {
+    try {
+      COSEKey key = new ObjectConverter().getCborConverter()
+          .readValue(AuthenticationPrimingSample.decode(AuthenticationPrimingSample.PUBLIC_KEY_COSE), COSEKey.class);
+      Signature es256 = Signature.getInstance("SHA256withECDSA");
+      es256.initVerify(key.getPublicKey());
+      es256.update(AuthenticationPrimingSample.decode(AuthenticationPrimingSample.AUTHENTICATOR_DATA));
+      es256.update(MessageDigest.getInstance("SHA-256").digest(AuthenticationPrimingSample.decode(AuthenticationPrimingSample.CLIENT_DATA_JSON)));
+      es256.verify(AuthenticationPrimingSample.decode(AuthenticationPrimingSample.SIGNATURE));
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException(e);
+    }
   }
 
   @Bean(name = "finishAuthentication")
-  public Function<FinishAuthenticationRequest, FinishAuthenticationResponse> finishAuthentication(FinishAuthenticationUseCase uc) {
+  public Function<Message<FinishAuthenticationRequest>, FinishAuthenticationResponse> finishAuthentication(FinishAuthenticationUseCase uc) {
     return new FinishAuthenticationFunction(uc);
   }
 }
@@ -4,6 +4,7 @@ import com.acme.passkeys.Application;
 import com.acme.passkeys.adapters.in.function.dto.FinishAuthenticationRequest;
 import com.acme.passkeys.adapters.in.function.dto.FinishAuthenticationResponse;
 import com.acme.passkeys.application.ports.out.AuthenticationVerifier;
+import com.acme.passkeys.domain.model.Binary;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -33,9 +34,12 @@ class FinishAuthenticationFunctionIT {
         new FinishAuthenticationRequest.Server("challenge", "example.com", "https://example.com", true),
         new FinishAuthenticationRequest.Credential(
             "credId", "public-key",
-            new FinishAuthenticationRequest.Credential.Response("clientData", "authData", "sig", null)
+            new FinishAuthenticationRequest.Credential.Response(
+                Binary.ofBase64Url("clientData"), Binary.ofBase64Url("authData"), Binary.ofBase64Url("sig"), null)
         ),
-        new FinishAuthenticationRequest.StoredCredential("publicKeyCose")
+        new FinishAuthenticationRequest.StoredCredential(Binary.ofBase64Url("publicKeyCose"), 0, null),
+        null,
+        null
     );
 
     FinishAuthenticationResponse res = fn.apply(req);
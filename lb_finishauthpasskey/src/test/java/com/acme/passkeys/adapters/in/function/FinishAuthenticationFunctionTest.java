@@ -2,8 +2,12 @@ package com.acme.passkeys.adapters.in.function;
 
 import com.acme.passkeys.adapters.in.function.dto.FinishAuthenticationRequest;
 import com.acme.passkeys.adapters.in.function.dto.FinishAuthenticationResponse;
+import com.acme.passkeys.application.ports.in.Deadline;
 import com.acme.passkeys.application.ports.in.FinishAuthenticationUseCase;
+import com.amazonaws.services.lambda.runtime.Context;
 import org.junit.jupiter.api.Test;
+import org.springframework.cloud.function.adapter.aws.AWSLambdaUtils;
+import org.springframework.messaging.support.MessageBuilder;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -17,15 +21,27 @@ class FinishAuthenticationFunctionTest {
     FinishAuthenticationResponse expected =
         FinishAuthenticationResponse.ok(new FinishAuthenticationResponse.Data("cred"));
 
-    when(uc.handle(any())).thenReturn(expected);
+    when(uc.handle(any(), any())).thenReturn(expected);
 
     FinishAuthenticationFunction fn = new FinishAuthenticationFunction(uc);
 
-    FinishAuthenticationRequest req = new FinishAuthenticationRequest(null, null, null);
+    FinishAuthenticationRequest req = new FinishAuthenticationRequest(null, null, null, null, null);
 
-    FinishAuthenticationResponse res = fn.apply(req);
+    FinishAuthenticationResponse res = fn.apply(MessageBuilder.withPayload(req).build());
 
     assertThat(res).isEqualTo(expected);
-    verify(uc).handle(req);
+    verify(uc).handle(req, Deadline.NONE);
+  }
+
+  @Test
+  void deadlineComesFromTheLambdaContextHeader() {
+    FinishAuthenticationUseCase uc = mock(FinishAuthenticationUseCase.class);
+    Context context = mock(Context.class);
+    when(context.getRemainingTimeInMillis()).thenReturn(250);
+
+    FinishAuthenticationRequest req = new FinishAuthenticationRequest(null, null, null, null, null);
+    new FinishAuthenticationFunction(uc).apply(MessageBuilder.withPayload(req).setHeader(AWSLambdaUtils.AWS_CONTEXT, context).build());
+
+    verify(uc).handle(eq(req), argThat(d -> d.remainingNanos() > 0 && d.remainingNanos() <= 250_000_000L));
   }
 }
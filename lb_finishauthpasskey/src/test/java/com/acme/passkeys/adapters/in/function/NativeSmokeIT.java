@@ -0,0 +1,53 @@
+package com.acme.passkeys.adapters.in.function;
+
+import com.acme.passkeys.authenticator.AttestationFormat;
+import com.acme.passkeys.authenticator.ChallengeBinding;
+import com.acme.passkeys.authenticator.CoseAlgorithm;
+import com.acme.passkeys.authenticator.SoftwareAuthenticator;
+import com.acme.passkeys.support.FakeLambdaRuntime;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.File;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.*;
+
+/** Lo ejecuta el perfil {@code native} (failsafe) contra el binario recién compilado. */
+@EnabledIfSystemProperty(named = "native.binary", matches = ".+")
+class NativeSmokeIT {
+
+  @Test
+  void finishAuthentication_runsInNativeBinary() throws Exception {
+    try (FakeLambdaRuntime runtime = FakeLambdaRuntime.start()) {
+      Process lambda = start(runtime, "finishAuthentication");
+      try {
+        SoftwareAuthenticator authenticator = new SoftwareAuthenticator();
+        SoftwareAuthenticator.Registration reg = authenticator.register(
+            binding(authenticator), CoseAlgorithm.ES256, AttestationFormat.NONE);
+        SoftwareAuthenticator.Assertion auth = authenticator.authenticate(reg.credential(), binding(authenticator));
+        FakeLambdaRuntime.Result r = runtime.invoke(auth.requestJson(), Duration.ofSeconds(30));
+
+        assertThat(r.error()).as(r.body()).isFalse();
+        // Fixture válido: la clave SPKI y la firma ES256 se verifican también en el binario nativo
+        assertThat(r.body()).contains("\"code\":200");
+      } finally {
+        lambda.destroy();
+      }
+    }
+  }
+
+  private static ChallengeBinding binding(SoftwareAuthenticator authenticator) {
+    return new ChallengeBinding(authenticator.randomChallenge(), "example.com", "https://example.com");
+  }
+
+  private static Process start(FakeLambdaRuntime runtime, String function) throws Exception {
+    ProcessBuilder pb = new ProcessBuilder(System.getProperty("native.binary"))
+        .redirectErrorStream(true)
+        .redirectOutput(new File(System.getProperty("native.binary") + "-smoke.log"));
+    pb.environment().put("AWS_LAMBDA_RUNTIME_API", runtime.address());
+    pb.environment().put("_HANDLER", function);
+    pb.environment().put("SPRING_CLOUD_FUNCTION_DEFINITION", function);
+    return pb.start();
+  }
+}
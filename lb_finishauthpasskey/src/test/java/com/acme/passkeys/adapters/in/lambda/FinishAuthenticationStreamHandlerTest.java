@@ -0,0 +1,57 @@
+package com.acme.passkeys.adapters.in.lambda;
+
+import com.acme.passkeys.application.ports.out.AuthenticationVerifier;
+import com.acme.passkeys.application.ports.out.StageMetrics;
+import com.acme.passkeys.application.service.FinishAuthenticationService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.*;
+
+class FinishAuthenticationStreamHandlerTest {
+
+  private static final String REQUEST = """
+      {"server":{"challenge":"Y2hhbGxlbmdl","rpId":"example.com","origin":"https://example.com","userVerificationRequired":true},
+       "credential":{"id":"Y3JlZA","type":"public-key","response":{"clientDataJSON":"e30","authenticatorData":"AA","signature":"AA","userHandle":null}},
+       "storedCredential":{"publicKeyCose":"oA"}}
+      """;
+
+  private final ObjectMapper mapper = new ObjectMapper();
+
+  private final AuthenticationVerifier verifier = cmd -> new AuthenticationVerifier.VerifiedAuthentication(cmd.credentialIdB64Url());
+
+  private final FinishAuthenticationStreamHandler handler = new FinishAuthenticationStreamHandler(
+      new FinishAuthenticationService(verifier, FinishAuthenticationService.Options.DEFAULTS), StageMetrics.NOOP);
+
+  @Test
+  void directInvocation_bindsAndWritesResponse() throws Exception {
+    JsonNode res = invoke(REQUEST);
+
+    assertThat(res.get("code").asInt()).isEqualTo(200);
+    assertThat(res.at("/data/credentialId").asText()).isEqualTo("Y3JlZA");
+  }
+
+  @Test
+  void apiGatewayEvent_unwrapsBody_andWrapsResponse() throws Exception {
+    String event = mapper.createObjectNode()
+        .put("httpMethod", "POST")
+        .put("body", REQUEST)
+        .toString();
+
+    JsonNode res = invoke(event);
+
+    assertThat(res.get("statusCode").asInt()).isEqualTo(200);
+    assertThat(mapper.readTree(res.get("body").asText()).get("message").asText()).isEqualTo("AUTHENTICATED");
+  }
+
+  private JsonNode invoke(String json) throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    handler.handleRequest(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), out, null);
+    return mapper.readTree(out.toByteArray());
+  }
+}
@@ -0,0 +1,106 @@
+package com.acme.passkeys.adapters.out.jfr;
+
+import com.acme.passkeys.application.ports.out.AuthenticationVerifier;
+import com.acme.passkeys.application.ports.out.AuthenticationVerifier.VerifyAuthenticationCommand;
+import com.acme.passkeys.application.ports.out.StageMetrics;
+import com.acme.passkeys.authenticator.AttestationFormat;
+import com.acme.passkeys.authenticator.ChallengeBinding;
+import com.acme.passkeys.authenticator.CoseAlgorithm;
+import com.acme.passkeys.authenticator.SoftwareAuthenticator;
+import com.acme.passkeys.config.FinishAuthenticationConfig;
+import com.acme.passkeys.domain.model.Binary;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class AssertionJfrEventsTest {
+
+  private static final SoftwareAuthenticator AUTHENTICATOR = SoftwareAuthenticator.seeded(5);
+
+  @TempDir
+  Path dir;
+
+  private final AuthenticationVerifier verifier = verifier();
+
+  @ParameterizedTest
+  @EnumSource(CoseAlgorithm.class)
+  void assertionVerifiedEvent_isComplete_andCarriesNoCredentialIdentifiers(CoseAlgorithm alg) throws Exception {
+    SoftwareAuthenticator.Assertion auth = assertion(alg);
+
+    List<RecordedEvent> events = record(Duration.ZERO, () -> verify(auth));
+
+    assertThat(named(events)).singleElement().satisfies(e -> {
+      assertThat(e.getString("rpId")).isEqualTo("example.com");
+      assertThat(e.getString("outcome")).isEqualTo(StageMetrics.OK);
+      assertThat(e.getLong("algorithm")).isEqualTo(alg.coseId());
+      assertThat(e.getInt("clientDataSize")).isPositive();
+      assertThat(e.getInt("authenticatorDataSize")).isEqualTo(37);
+      assertThat(e.getInt("signatureSize")).isPositive();
+      assertThat(e.getDuration().isNegative()).isFalse();
+    });
+    assertThat(events).allSatisfy(e -> e.getFields().forEach(f -> assertThat(String.valueOf((Object) e.getValue(f.getName())))
+        .doesNotContain(auth.credential().id())
+        .doesNotContain(auth.credential().publicKeyCose())
+        .doesNotContain(auth.credential().publicKeySpki())));
+  }
+
+  @Test
+  void eventsUnderThreshold_areNotRecorded() throws Exception {
+    SoftwareAuthenticator.Assertion auth = assertion(CoseAlgorithm.ES256);
+
+    List<RecordedEvent> events = record(Duration.ofHours(1), () -> verify(auth));
+
+    assertThat(named(events)).isEmpty();
+  }
+
+  private static SoftwareAuthenticator.Assertion assertion(CoseAlgorithm alg) {
+    SoftwareAuthenticator.Registration reg = AUTHENTICATOR.register(binding(), alg, AttestationFormat.NONE);
+    return AUTHENTICATOR.authenticate(reg.credential(), binding());
+  }
+
+  private static ChallengeBinding binding() {
+    return new ChallengeBinding(AUTHENTICATOR.randomChallenge(), "example.com", "https://example.com");
+  }
+
+  private void verify(SoftwareAuthenticator.Assertion auth) {
+    try {
+      verifier.verify(new VerifyAuthenticationCommand(
+          auth.binding().challenge(), auth.binding().rpId(), auth.binding().origin(), true,
+          auth.credential().id(), null, auth.credential().algorithm().coseId(), Binary.ofBase64Url(auth.credential().publicKeySpki()),
+          Binary.ofBase64Url(auth.clientDataJSON()), Binary.ofBase64Url(auth.authenticatorData()), Binary.ofBase64Url(auth.signature()), null));
+    } catch (RuntimeException e) {
+      // El evento se graba también cuando la verificación falla
+    }
+  }
+
+  private List<RecordedEvent> record(Duration threshold, Runnable body) throws Exception {
+    Path file = dir.resolve("passkeys.jfr");
+    try (Recording recording = new Recording()) {
+      recording.enable(AssertionVerifiedEvent.NAME).withThreshold(threshold);
+      recording.start();
+      body.run();
+      recording.stop();
+      recording.dump(file);
+    }
+    return RecordingFile.readAllEvents(file);
+  }
+
+  private static List<RecordedEvent> named(List<RecordedEvent> events) {
+    return events.stream().filter(e -> e.getEventType().getName().equals(AssertionVerifiedEvent.NAME)).toList();
+  }
+
+  private static AuthenticationVerifier verifier() {
+    FinishAuthenticationConfig c = new FinishAuthenticationConfig();
+    return c.authenticationVerifier(c.webAuthnManager(), c.authenticationDataVerifier(), StageMetrics.NOOP);
+  }
+}
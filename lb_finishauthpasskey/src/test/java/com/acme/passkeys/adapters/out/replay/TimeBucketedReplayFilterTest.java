@@ -0,0 +1,189 @@
+package com.acme.passkeys.adapters.out.replay;
+
+import com.acme.passkeys.application.ports.out.ReplayFilterSaturatedException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.*;
+
+class TimeBucketedReplayFilterTest {
+
+  private static final byte[] AUTH_DATA = new byte[37];
+
+  private final MutableClock clock = new MutableClock(Instant.parse("2026-06-01T00:00:00Z"));
+
+  @Test
+  void secondUse_isAReplay() {
+    TimeBucketedReplayFilter filter = new TimeBucketedReplayFilter(clock, Duration.ofMinutes(10), 4, 1000);
+
+    assertThat(filter.firstUse(credentialId(1), AUTH_DATA, clientData("c1"))).isTrue();
+    assertThat(filter.firstUse(credentialId(1), AUTH_DATA, clientData("c1"))).isFalse();
+    // Otro challenge u otra credencial: otra aserción
+    assertThat(filter.firstUse(credentialId(1), AUTH_DATA, clientData("c2"))).isTrue();
+    assertThat(filter.firstUse(credentialId(2), AUTH_DATA, clientData("c1"))).isTrue();
+
+    assertThat(filter.stats().replays()).isEqualTo(1);
+  }
+
+  @Test
+  void assertionsAreRemembered_forTheWholeWindow_thenForgotten() {
+    TimeBucketedReplayFilter filter = new TimeBucketedReplayFilter(clock, Duration.ofMinutes(10), 4, 1000);
+    filter.firstUse(credentialId(1), AUTH_DATA, clientData("c1"));
+
+    // Se recuerda al menos la ventana completa
+    clock.advance(Duration.ofMinutes(10).minusMillis(1));
+    assertThat(filter.firstUse(credentialId(1), AUTH_DATA, clientData("c1"))).isFalse();
+
+    clock.advance(Duration.ofMinutes(4));
+    assertThat(filter.firstUse(credentialId(1), AUTH_DATA, clientData("c1"))).isTrue();
+  }
+
+  @Test
+  void memoryIsBounded_byTheNumberOfBuckets() {
+    TimeBucketedReplayFilter filter = new TimeBucketedReplayFilter(clock, Duration.ofMinutes(10), 4, 3000);
+    for (int minute = 0; minute < 60; minute++) {
+      filter.firstUse(credentialId(minute), AUTH_DATA, clientData("c"));
+      clock.advance(Duration.ofMinutes(1));
+    }
+
+    var stats = filter.stats();
+    assertThat(stats.bucketMillis()).isEqualTo(Duration.ofSeconds(200).toMillis());
+    assertThat(stats.slotsPerBucket()).isEqualTo(2048); // 1000 por intervalo, con margen x2
+    assertThat(stats.memoryBytes()).isEqualTo(4L * 2048 * Long.BYTES);
+  }
+
+  @Test
+  void falsePositiveRate_atTheExpectedLoad() {
+    int expected = 30_000;
+    TimeBucketedReplayFilter filter = new TimeBucketedReplayFilter(clock, Duration.ofMinutes(10), 4, expected);
+    Random random = new Random(42);
+    // Ventana completa: cada intervalo recibe su parte
+    for (int bucket = 0; bucket < 3; bucket++) {
+      for (int i = 0; i < expected / 3; i++) assertThat(filter.firstUse(randomBytes(random, 32), AUTH_DATA, randomBytes(random, 64))).isTrue();
+      clock.advance(Duration.ofSeconds(200));
+    }
+
+    int probes = 10_000; // aserciones nuevas en el intervalo actual, sin pasar de su capacidad
+    int falsePositives = 0;
+    for (int i = 0; i < probes; i++) {
+      if (!filter.firstUse(randomBytes(random, 32), AUTH_DATA, randomBytes(random, 64))) falsePositives++;
+    }
+
+    // Huellas de 64 bits: el esperado es del orden de 1e-15, cero en la práctica
+    assertThat((double) falsePositives / probes).isZero();
+    assertThat(filter.stats().overflows()).isZero();
+  }
+
+  @Test
+  void fullBucket_rejectsTheAssertion_andCountsTheOverflow() {
+    TimeBucketedReplayFilter filter = new TimeBucketedReplayFilter(clock, Duration.ofMinutes(10), 4, 3);
+    Random random = new Random(1);
+    int slots = filter.stats().slotsPerBucket();
+    for (int i = 0; i < slots; i++) filter.firstUse(randomBytes(random, 32), AUTH_DATA, randomBytes(random, 64));
+
+    byte[] credentialId = credentialId(9);
+    assertThatThrownBy(() -> filter.firstUse(credentialId, AUTH_DATA, clientData("late")))
+        .isInstanceOf(ReplayFilterSaturatedException.class);
+    assertThatThrownBy(() -> filter.firstUse(credentialId, AUTH_DATA, clientData("late")))
+        .isInstanceOf(ReplayFilterSaturatedException.class);
+    assertThat(filter.stats().overflows()).isGreaterThanOrEqualTo(2);
+  }
+
+  @Test
+  void usesOnBothSidesOfABucketBoundary_exactlyOneWins() {
+    long bucketMillis = new TimeBucketedReplayFilter(clock, Duration.ofMinutes(10), 4, 1000).stats().bucketMillis();
+    long boundary = (clock.millis() / bucketMillis + 1) * bucketMillis;
+    boolean[] late = new boolean[1];
+    TimeBucketedReplayFilter[] filter = new TimeBucketedReplayFilter[1];
+
+    // El primer uso lee el reloj justo antes del cambio; el segundo entra entero, ya en el intervalo siguiente,
+    // antes de que el primero llegue a dar de alta la aserción
+    Clock racing = new Clock() {
+      boolean first = true;
+
+      @Override public ZoneId getZone() { return ZoneOffset.UTC; }
+      @Override public Clock withZone(ZoneId zone) { return this; }
+
+      @Override public Instant instant() {
+        if (!first) return Instant.ofEpochMilli(boundary);
+        first = false;
+        late[0] = filter[0].firstUse(credentialId(1), AUTH_DATA, clientData("c1"));
+        return Instant.ofEpochMilli(boundary - 1);
+      }
+    };
+    filter[0] = new TimeBucketedReplayFilter(racing, Duration.ofMinutes(10), 4, 1000);
+
+    boolean early = filter[0].firstUse(credentialId(1), AUTH_DATA, clientData("c1"));
+
+    assertThat(late[0]).isTrue();
+    assertThat(early).isFalse();
+    assertThat(filter[0].stats().replays()).isEqualTo(1);
+  }
+
+  @Test
+  void concurrentUsesOfTheSameAssertion_exactlyOneWins() throws Exception {
+    TimeBucketedReplayFilter filter = new TimeBucketedReplayFilter(Clock.systemUTC(), Duration.ofMinutes(10), 4, 10_000);
+    int threads = 8;
+    ExecutorService pool = Executors.newFixedThreadPool(threads);
+    try {
+      for (int round = 0; round < 200; round++) {
+        byte[] clientData = clientData("round-" + round);
+        CountDownLatch go = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+          results.add(pool.submit(() -> {
+            go.await();
+            return filter.firstUse(credentialId(1), AUTH_DATA, clientData.clone());
+          }));
+        }
+        go.countDown();
+
+        int winners = 0;
+        for (Future<Boolean> r : results) if (r.get()) winners++;
+        assertThat(winners).as("round %d", round).isEqualTo(1);
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  private static byte[] credentialId(int n) {
+    return ByteBuffer.allocate(16).putLong(0x5EED).putLong(n).array();
+  }
+
+  private static byte[] clientData(String challenge) {
+    return ("{\"type\":\"webauthn.get\",\"challenge\":\"" + challenge + "\"}").getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static byte[] randomBytes(Random random, int n) {
+    byte[] bytes = new byte[n];
+    random.nextBytes(bytes);
+    return bytes;
+  }
+
+  private static final class MutableClock extends Clock {
+    private Instant now;
+
+    MutableClock(Instant now) { this.now = now; }
+
+    void advance(Duration d) { now = now.plus(d); }
+
+    @Override public ZoneId getZone() { return ZoneOffset.UTC; }
+    @Override public Clock withZone(ZoneId zone) { return this; }
+    @Override public Instant instant() { return now; }
+  }
+}
@@ -0,0 +1,84 @@
+package com.acme.passkeys.adapters.out.webauthn4j;
+
+import com.acme.passkeys.application.ports.out.AuthenticationVerifier;
+import com.acme.passkeys.application.ports.out.AuthenticationVerifier.VerifyAuthenticationCommand;
+import com.acme.passkeys.application.ports.out.StageMetrics;
+import com.acme.passkeys.authenticator.AttestationFormat;
+import com.acme.passkeys.authenticator.ChallengeBinding;
+import com.acme.passkeys.authenticator.CoseAlgorithm;
+import com.acme.passkeys.authenticator.Mutation;
+import com.acme.passkeys.authenticator.SoftwareAuthenticator;
+import com.acme.passkeys.config.FinishAuthenticationConfig;
+import com.acme.passkeys.domain.model.Binary;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+
+/** Aserciones del autenticador por software: válidas con todos los algoritmos (clave SPKI o COSE) y cada variante inválida. */
+class WebAuthn4jAuthenticationVerifierTest {
+
+  private static final SoftwareAuthenticator AUTHENTICATOR = SoftwareAuthenticator.seeded(9);
+
+  private final AuthenticationVerifier verifier = verifier();
+
+  static Stream<Arguments> mutations() {
+    return Arrays.stream(CoseAlgorithm.values()).flatMap(alg -> Arrays.stream(Mutation.values())
+        .filter(m -> m != Mutation.NONE && m.appliesTo(Mutation.Ceremony.AUTHENTICATION, null))
+        .map(m -> Arguments.of(alg, m)));
+  }
+
+  @ParameterizedTest
+  @EnumSource(CoseAlgorithm.class)
+  void acceptsEveryAlgorithm_withTheSpkiKey(CoseAlgorithm alg) {
+    SoftwareAuthenticator.Assertion auth = AUTHENTICATOR.authenticate(credential(alg), binding());
+
+    assertThat(verifier.verify(command(auth, false)).credentialIdB64Url()).isEqualTo(auth.credential().id());
+  }
+
+  @ParameterizedTest
+  @EnumSource(CoseAlgorithm.class)
+  void acceptsEveryAlgorithm_withTheCoseKey(CoseAlgorithm alg) {
+    SoftwareAuthenticator.Assertion auth = AUTHENTICATOR.authenticate(credential(alg), binding());
+
+    assertThat(verifier.verify(command(auth, true)).credentialIdB64Url()).isEqualTo(auth.credential().id());
+  }
+
+  @ParameterizedTest
+  @MethodSource("mutations")
+  void rejectsEveryMutation(CoseAlgorithm alg, Mutation mutation) {
+    SoftwareAuthenticator.Assertion auth = AUTHENTICATOR.authenticate(credential(alg), binding(), mutation);
+
+    assertThatThrownBy(() -> verifier.verify(command(auth, false))).isInstanceOf(RuntimeException.class);
+  }
+
+  private static SoftwareAuthenticator.Credential credential(CoseAlgorithm alg) {
+    return AUTHENTICATOR.register(binding(), alg, AttestationFormat.NONE).credential();
+  }
+
+  private static ChallengeBinding binding() {
+    return new ChallengeBinding(AUTHENTICATOR.randomChallenge(), "example.com", "https://example.com");
+  }
+
+  private static VerifyAuthenticationCommand command(SoftwareAuthenticator.Assertion auth, boolean cose) {
+    SoftwareAuthenticator.Credential credential = auth.credential();
+    return new VerifyAuthenticationCommand(
+        auth.binding().challenge(), auth.binding().rpId(), auth.binding().origin(), true,
+        credential.id(),
+        cose ? Binary.ofBase64Url(credential.publicKeyCose()) : null,
+        credential.algorithm().coseId(),
+        cose ? null : Binary.ofBase64Url(credential.publicKeySpki()),
+        Binary.ofBase64Url(auth.clientDataJSON()), Binary.ofBase64Url(auth.authenticatorData()), Binary.ofBase64Url(auth.signature()),
+        null);
+  }
+
+  private static AuthenticationVerifier verifier() {
+    FinishAuthenticationConfig c = new FinishAuthenticationConfig();
+    return c.authenticationVerifier(c.webAuthnManager(), c.authenticationDataVerifier(), StageMetrics.NOOP);
+  }
+}
@@ -2,9 +2,32 @@ package com.acme.passkeys.application.service;
 
 import com.acme.passkeys.adapters.in.function.dto.FinishAuthenticationRequest;
 import com.acme.passkeys.adapters.in.function.dto.FinishAuthenticationResponse;
+import com.acme.passkeys.adapters.out.async.AsyncChallengeStoreAdapter;
+import com.acme.passkeys.adapters.out.memory.InMemoryChallengeStore;
+import com.acme.passkeys.adapters.out.replay.TimeBucketedReplayFilter;
+import com.acme.passkeys.application.ports.in.CreateChallengeUseCase;
+import com.acme.passkeys.application.ports.in.Deadline;
+import com.acme.passkeys.application.ports.out.AssertionReplayFilter;
+import com.acme.passkeys.application.ports.out.AuditLog;
 import com.acme.passkeys.application.ports.out.AuthenticationVerifier;
+import com.acme.passkeys.application.ports.out.ChallengeStoreUnavailableException;
+import com.acme.passkeys.application.ports.out.ReplayFilterSaturatedException;
+import com.acme.passkeys.application.ports.out.StageMetrics;
+import com.acme.passkeys.domain.model.Binary;
+import com.acme.passkeys.domain.model.ChallengeType;
+import com.acme.passkeys.support.RecordingStageMetrics;
+import com.acme.passkeys.domain.service.ChallengeGenerator;
+import com.acme.passkeys.domain.service.ChallengeSealer;
 import org.junit.jupiter.api.Test;
 
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
@@ -15,7 +38,7 @@ class FinishAuthenticationServiceTest {
     AuthenticationVerifier verifier = mock(AuthenticationVerifier.class);
     when(verifier.verify(any())).thenReturn(new AuthenticationVerifier.VerifiedAuthentication("credId"));
 
-    FinishAuthenticationService svc = new FinishAuthenticationService(verifier);
+    FinishAuthenticationService svc = service(verifier);
 
     FinishAuthenticationResponse res = svc.handle(sampleReq());
 
@@ -30,12 +53,14 @@ class FinishAuthenticationServiceTest {
   @Test
   void returns401_whenMissingCredentialId() {
     AuthenticationVerifier verifier = mock(AuthenticationVerifier.class);
-    FinishAuthenticationService svc = new FinishAuthenticationService(verifier);
+    FinishAuthenticationService svc = service(verifier);
 
     FinishAuthenticationRequest bad = new FinishAuthenticationRequest(
         sampleReq().server(),
         new FinishAuthenticationRequest.Credential(" ", "public-key", sampleReq().credential().response()),
-        sampleReq().storedCredential()
+        sampleReq().storedCredential(),
+        null,
+        null
     );
 
     FinishAuthenticationResponse res = svc.handle(bad);
@@ -49,12 +74,14 @@ class FinishAuthenticationServiceTest {
   @Test
   void returns401_whenMissingPublicKeyCose() {
     AuthenticationVerifier verifier = mock(AuthenticationVerifier.class);
-    FinishAuthenticationService svc = new FinishAuthenticationService(verifier);
+    FinishAuthenticationService svc = service(verifier);
 
     FinishAuthenticationRequest bad = new FinishAuthenticationRequest(
         sampleReq().server(),
         sampleReq().credential(),
-        new FinishAuthenticationRequest.StoredCredential(" ")
+        new FinishAuthenticationRequest.StoredCredential(Binary.ofBase64Url(" "), 0, null),
+        null,
+        null
     );
 
     FinishAuthenticationResponse res = svc.handle(bad);
@@ -64,12 +91,51 @@ class FinishAuthenticationServiceTest {
     verifyNoInteractions(verifier);
   }
 
+  @Test
+  void returns401_whenSpkiWithoutAlgorithm() {
+    AuthenticationVerifier verifier = mock(AuthenticationVerifier.class);
+    FinishAuthenticationService svc = service(verifier);
+
+    FinishAuthenticationRequest bad = new FinishAuthenticationRequest(
+        sampleReq().server(),
+        sampleReq().credential(),
+        new FinishAuthenticationRequest.StoredCredential(null, 0, Binary.ofBase64Url("spki")),
+        null,
+        null
+    );
+
+    FinishAuthenticationResponse res = svc.handle(bad);
+
+    assertThat(res.code()).isEqualTo(401);
+    assertThat(res.message()).contains("storedCredential.algorithm");
+    verifyNoInteractions(verifier);
+  }
+
+  @Test
+  void passesSpkiAndAlgorithm_toVerifier() {
+    AuthenticationVerifier verifier = mock(AuthenticationVerifier.class);
+    when(verifier.verify(any())).thenReturn(new AuthenticationVerifier.VerifiedAuthentication("credId"));
+    FinishAuthenticationService svc = service(verifier);
+
+    FinishAuthenticationResponse res = svc.handle(new FinishAuthenticationRequest(
+        sampleReq().server(),
+        sampleReq().credential(),
+        new FinishAuthenticationRequest.StoredCredential(null, -7, Binary.ofBase64Url("spki")),
+        null,
+        null
+    ));
+
+    assertThat(res.code()).isEqualTo(200);
+    verify(verifier).verify(argThat(cmd ->
+        cmd.publicKeyCose() == null && cmd.algorithm() == -7 && Binary.ofBase64Url("spki").equals(cmd.publicKeySpki())));
+  }
+
   @Test
   void returns401_whenVerifierThrowsIllegalArgument() {
     AuthenticationVerifier verifier = mock(AuthenticationVerifier.class);
     when(verifier.verify(any())).thenThrow(new IllegalArgumentException("invalid base64url"));
 
-    FinishAuthenticationService svc = new FinishAuthenticationService(verifier);
+    FinishAuthenticationService svc = service(verifier);
 
     FinishAuthenticationResponse res = svc.handle(sampleReq());
 
@@ -83,7 +149,7 @@ class FinishAuthenticationServiceTest {
     AuthenticationVerifier verifier = mock(AuthenticationVerifier.class);
     when(verifier.verify(any())).thenThrow(new RuntimeException("boom"));
 
-    FinishAuthenticationService svc = new FinishAuthenticationService(verifier);
+    FinishAuthenticationService svc = service(verifier);
 
     FinishAuthenticationResponse res = svc.handle(sampleReq());
 
@@ -92,14 +158,265 @@ class FinishAuthenticationServiceTest {
     assertThat(res.data()).isNull();
   }
 
+  @Test
+  void metrics_recordStagesAndLowCardinalityReasons() {
+    AuthenticationVerifier verifier = mock(AuthenticationVerifier.class);
+    when(verifier.verify(any()))
+        .thenReturn(new AuthenticationVerifier.VerifiedAuthentication("credId"))
+        .thenThrow(new IllegalStateException("signature mismatch for credential credId"));
+    RecordingStageMetrics metrics = new RecordingStageMetrics();
+    FinishAuthenticationService svc = service(verifier, FinishAuthenticationService.Options.DEFAULTS.withMetrics(metrics));
+
+    svc.handle(sampleReq());
+    assertThat(metrics.stages()).containsExactly("validateRequest", "verify", "replayCheck", StageMetrics.TOTAL);
+
+    svc.handle(sampleReq());
+    svc.handle(new FinishAuthenticationRequest(null, sampleReq().credential(), sampleReq().storedCredential(), null, null));
+
+    // El motivo es el tipo de error, nunca el mensaje (que puede llevar datos de la petición)
+    assertThat(metrics.outcomes()).containsOnly(
+        entry(StageMetrics.OK, 1),
+        entry("IllegalStateException", 1),
+        entry(StageMetrics.INVALID_REQUEST, 1)
+    );
+  }
+
+  @Test
+  void returns409_whenTheSameAssertionIsAcceptedTwice() {
+    AuthenticationVerifier verifier = mock(AuthenticationVerifier.class);
+    when(verifier.verify(any())).thenReturn(new AuthenticationVerifier.VerifiedAuthentication("credId"));
+    RecordingStageMetrics metrics = new RecordingStageMetrics();
+    FinishAuthenticationService svc = service(verifier, FinishAuthenticationService.Options.DEFAULTS
+        .withReplays(new TimeBucketedReplayFilter(Clock.systemUTC(), Duration.ofMinutes(10), 4, 100))
+        .withMetrics(metrics));
+
+    assertThat(svc.handle(sampleReq()).code()).isEqualTo(200);
+    FinishAuthenticationResponse replay = svc.handle(sampleReq());
+
+    assertThat(replay.code()).isEqualTo(409);
+    assertThat(replay.message()).isEqualTo("assertion_replayed");
+    assertThat(replay.data()).isNull();
+    assertThat(metrics.outcomes()).containsOnly(entry(StageMetrics.OK, 1), entry(FinishAuthenticationService.REPLAYED, 1));
+  }
+
+  @Test
+  void returns503_whenTheReplayFilterIsFull() {
+    AuthenticationVerifier verifier = mock(AuthenticationVerifier.class);
+    when(verifier.verify(any())).thenReturn(new AuthenticationVerifier.VerifiedAuthentication("credId"));
+    AssertionReplayFilter replays = mock(AssertionReplayFilter.class);
+    when(replays.firstUse(any(), any(), any())).thenThrow(new ReplayFilterSaturatedException("full"));
+    RecordingStageMetrics metrics = new RecordingStageMetrics();
+    FinishAuthenticationService svc = service(verifier, FinishAuthenticationService.Options.DEFAULTS.withReplays(replays).withMetrics(metrics));
+
+    FinishAuthenticationResponse response = svc.handle(sampleReq());
+
+    assertThat(response.code()).isEqualTo(503);
+    assertThat(response.message()).isEqualTo("replay_filter_full");
+    assertThat(metrics.outcomes()).containsOnly(entry(FinishAuthenticationService.REPLAY_FILTER_FULL, 1));
+  }
+
+  @Test
+  void rejectedAssertions_areNotRemembered() {
+    AuthenticationVerifier verifier = mock(AuthenticationVerifier.class);
+    AssertionReplayFilter replays = mock(AssertionReplayFilter.class);
+    when(verifier.verify(any())).thenThrow(new RuntimeException("bad signature"));
+    FinishAuthenticationService svc = service(verifier, FinishAuthenticationService.Options.DEFAULTS.withReplays(replays));
+
+    assertThat(svc.handle(sampleReq()).code()).isEqualTo(401);
+    verifyNoInteractions(replays);
+  }
+
+  @Test
+  void issuesTheNextAuthenticationChallenge_forTheVerifiedRp() {
+    AuthenticationVerifier verifier = mock(AuthenticationVerifier.class);
+    when(verifier.verify(any())).thenReturn(new AuthenticationVerifier.VerifiedAuthentication("credId"));
+    InMemoryChallengeStore store = new InMemoryChallengeStore();
+    Clock clock = Clock.fixed(Instant.parse("2026-06-01T00:00:00Z"), ZoneOffset.UTC);
+    RecordingStageMetrics metrics = new RecordingStageMetrics();
+    FinishAuthenticationService svc = service(verifier, FinishAuthenticationService.Options.DEFAULTS
+        .withNextChallenges(nextChallenges(store, clock))
+        .withMetrics(metrics));
+
+    FinishAuthenticationResponse res = svc.handle(withNextChallenge(new FinishAuthenticationRequest.NextChallenge("user-1", 60_000, "tx-1", 300)));
+
+    assertThat(res.code()).isEqualTo(200);
+    var next = res.nextChallenge();
+    assertThat(next.transactionId()).isEqualTo("tx-1");
+    assertThat(next.type()).isEqualTo("AUTHENTICATION");
+    assertThat(next.rpId()).isEqualTo("example.com");
+    assertThat(next.origin()).isEqualTo("https://example.com");
+    assertThat(next.expiresAt()).isEqualTo(next.createdAt().plusSeconds(300));
+    assertThat(store.get("tx-1").challengeB64Url()).isEqualTo(next.challenge());
+    assertThat(metrics.stages()).containsExactly("validateRequest", "verify", "replayCheck", "nextChallenge", StageMetrics.TOTAL);
+  }
+
+  @Test
+  void returns401_whenNextChallengeIsIncompleteOrUnsupported() {
+    AuthenticationVerifier verifier = mock(AuthenticationVerifier.class);
+    CreateChallengeUseCase challenges = mock(CreateChallengeUseCase.class);
+    FinishAuthenticationService svc = service(verifier, FinishAuthenticationService.Options.DEFAULTS.withNextChallenges(challenges));
+
+    FinishAuthenticationResponse unsupported = service(verifier)
+        .handle(withNextChallenge(new FinishAuthenticationRequest.NextChallenge("user-1", 60_000, null, 0)));
+    FinishAuthenticationResponse noTimeout = svc.handle(withNextChallenge(new FinishAuthenticationRequest.NextChallenge("user-1", 0, null, 0)));
+    FinishAuthenticationResponse longTtl = svc.handle(withNextChallenge(new FinishAuthenticationRequest.NextChallenge("user-1", 60_000, null, 601)));
+
+    assertThat(unsupported.message()).isEqualTo("nextChallenge is not supported");
+    assertThat(noTimeout.message()).contains("nextChallenge.timeoutMs");
+    assertThat(longTtl.message()).isEqualTo("nextChallenge.ttlSeconds must be 0..600 (0 = 120)");
+    assertThat(List.of(unsupported, noTimeout, longTtl)).allMatch(r -> r.code() == 401);
+    verifyNoInteractions(verifier, challenges);
+  }
+
+  @Test
+  void failedNextChallenge_keepsTheAuthentication() {
+    AuthenticationVerifier verifier = mock(AuthenticationVerifier.class);
+    when(verifier.verify(any())).thenReturn(new AuthenticationVerifier.VerifiedAuthentication("credId"));
+    CreateChallengeUseCase challenges = mock(CreateChallengeUseCase.class);
+    when(challenges.handle(any())).thenThrow(new ChallengeStoreUnavailableException("circuit open"));
+    RecordingStageMetrics metrics = new RecordingStageMetrics();
+    FinishAuthenticationService svc = service(verifier, FinishAuthenticationService.Options.DEFAULTS.withNextChallenges(challenges).withMetrics(metrics));
+
+    FinishAuthenticationResponse res = svc.handle(withNextChallenge(new FinishAuthenticationRequest.NextChallenge("user-1", 60_000, null, 0)));
+
+    // El cliente pide el challenge a createChallenge como antes
+    assertThat(res.code()).isEqualTo(200);
+    assertThat(res.data().credentialId()).isEqualTo("credId");
+    assertThat(res.nextChallenge()).isNull();
+    assertThat(metrics.outcomes()).containsOnly(
+        entry(StageMetrics.OK, 1),
+        entry(FinishAuthenticationService.NEXT_CHALLENGE_FAILED + ":ChallengeStoreUnavailableException", 1));
+  }
+
+  @Test
+  void audit_recordsEveryOutcomeWithCredentialAndRpId() {
+    AuthenticationVerifier verifier = mock(AuthenticationVerifier.class);
+    when(verifier.verify(any())).thenReturn(new AuthenticationVerifier.VerifiedAuthentication("credId"));
+    List<String> events = new CopyOnWriteArrayList<>();
+    AuditLog audit = (ceremony, outcome, subject, rpId) -> events.add(ceremony + " " + outcome + " " + subject + " " + rpId);
+    FinishAuthenticationService svc = service(verifier, FinishAuthenticationService.Options.DEFAULTS
+        .withReplays(new TimeBucketedReplayFilter(Clock.systemUTC(), Duration.ofMinutes(10), 4, 100))
+        .withAudit(audit));
+
+    svc.handle(sampleReq());
+    svc.handle(sampleReq());
+    svc.handle(null);
+
+    assertThat(events).containsExactly(
+        "AUTHENTICATION ok credId example.com",
+        "AUTHENTICATION assertion_replayed credId example.com",
+        "AUTHENTICATION invalid_request null null"
+    );
+  }
+
+  @Test
+  void deadline_withoutTimeForVerify_returns504BeforeVerifying() {
+    AuthenticationVerifier verifier = mock(AuthenticationVerifier.class);
+    AssertionReplayFilter replays = mock(AssertionReplayFilter.class);
+    RecordingStageMetrics metrics = new RecordingStageMetrics();
+    FinishAuthenticationService svc = service(verifier, FinishAuthenticationService.Options.DEFAULTS
+        .withReplays(replays)
+        .withMetrics(metrics)
+        .withCosts(new FinishAuthenticationService.StageCosts(Duration.ofMillis(50), Duration.ofMillis(10), Duration.ofMillis(10))));
+
+    FinishAuthenticationResponse res = svc.handle(sampleReq(), Deadline.in(Duration.ofMillis(10)));
+
+    assertThat(res.code()).isEqualTo(504);
+    assertThat(res.message()).isEqualTo(StageMetrics.DEADLINE_EXCEEDED);
+    assertThat(res.data()).isNull();
+    verifyNoInteractions(verifier, replays);
+    assertThat(metrics.outcomes()).containsOnly(entry(StageMetrics.DEADLINE_EXCEEDED, 1));
+  }
+
+  @Test
+  void deadline_withoutTimeForNextChallenge_keepsTheAuthenticationWithoutIt() {
+    AuthenticationVerifier verifier = mock(AuthenticationVerifier.class);
+    when(verifier.verify(any())).thenReturn(new AuthenticationVerifier.VerifiedAuthentication("credId"));
+    CreateChallengeUseCase challenges = mock(CreateChallengeUseCase.class);
+    FinishAuthenticationService svc = service(verifier, FinishAuthenticationService.Options.DEFAULTS
+        .withNextChallenges(challenges)
+        .withCosts(new FinishAuthenticationService.StageCosts(Duration.ZERO, Duration.ZERO, Duration.ofMinutes(1))));
+
+    FinishAuthenticationResponse res = svc.handle(
+        withNextChallenge(new FinishAuthenticationRequest.NextChallenge("user-1", 60_000, null, 0)), Deadline.in(Duration.ofSeconds(5)));
+
+    assertThat(res.code()).isEqualTo(200);
+    assertThat(res.data().credentialId()).isEqualTo("credId");
+    assertThat(res.nextChallenge()).isNull();
+    verifyNoInteractions(challenges);
+  }
+
+  @Test
+  void sealedChallenge_isVerifiedWithTheSharedKeyBeforeTheCeremony() {
+    AuthenticationVerifier verifier = mock(AuthenticationVerifier.class);
+    when(verifier.verify(any())).thenReturn(new AuthenticationVerifier.VerifiedAuthentication("Y3JlZA"));
+    Clock clock = Clock.fixed(Instant.parse("2026-06-01T00:00:00Z"), ZoneOffset.UTC);
+    ChallengeSealer sealer = new ChallengeSealer(new byte[32], new SecureRandom());
+    Instant expiresAt = clock.instant().plusSeconds(120);
+    String challenge = sealer.seal(new ChallengeSealer.SealedContext(
+        "tx-1", "user-1", ChallengeType.AUTHENTICATION, "example.com", "https://example.com", expiresAt), 32);
+    RecordingStageMetrics metrics = new RecordingStageMetrics();
+    FinishAuthenticationService svc = service(verifier, FinishAuthenticationService.Options.DEFAULTS
+        .withSealer(sealer)
+        .withClock(clock)
+        .withMetrics(metrics));
+
+    FinishAuthenticationResponse ok = svc.handle(sealed(challenge, new FinishAuthenticationRequest.Sealed("tx-1", "user-1", expiresAt)));
+    FinishAuthenticationResponse expired = service(verifier, FinishAuthenticationService.Options.DEFAULTS
+        .withSealer(sealer)
+        .withClock(Clock.offset(clock, Duration.ofSeconds(120))))
+        .handle(sealed(challenge, new FinishAuthenticationRequest.Sealed("tx-1", "user-1", expiresAt)));
+    FinishAuthenticationResponse noSealer = service(verifier)
+        .handle(sealed(challenge, new FinishAuthenticationRequest.Sealed("tx-1", "user-1", expiresAt)));
+
+    assertThat(ok.code()).isEqualTo(200);
+    assertThat(expired.code()).isEqualTo(401);
+    assertThat(expired.message()).isEqualTo(FinishAuthenticationService.SEALED_CHALLENGE_INVALID);
+    assertThat(noSealer.code()).isEqualTo(401);
+    assertThat(noSealer.message()).isEqualTo(FinishAuthenticationService.SEALED_CHALLENGE_INVALID);
+    verify(verifier, times(1)).verify(any());
+    assertThat(metrics.outcomes()).containsOnly(entry(StageMetrics.OK, 1));
+  }
+
+  private static FinishAuthenticationService service(AuthenticationVerifier verifier) {
+    return service(verifier, FinishAuthenticationService.Options.DEFAULTS);
+  }
+
+  private static FinishAuthenticationService service(AuthenticationVerifier verifier, FinishAuthenticationService.Options options) {
+    return new FinishAuthenticationService(verifier, options);
+  }
+
+  private static CreateChallengeService nextChallenges(InMemoryChallengeStore store, Clock clock) {
+    return new CreateChallengeService(new ChallengeGenerator(new SecureRandom()), store, new AsyncChallengeStoreAdapter(store, Runnable::run),
+        clock, new IssuedChallengeCache(clock, CreateChallengeService.DEFAULT_IDEMPOTENCY_WINDOW), CreateChallengeService.Options.DEFAULTS);
+  }
+
+  private static FinishAuthenticationRequest withNextChallenge(FinishAuthenticationRequest.NextChallenge next) {
+    return new FinishAuthenticationRequest(sampleReq().server(), sampleReq().credential(), sampleReq().storedCredential(), next, null);
+  }
+
+  private static FinishAuthenticationRequest sealed(String challenge, FinishAuthenticationRequest.Sealed sealed) {
+    var server = sampleReq().server();
+    return new FinishAuthenticationRequest(
+        new FinishAuthenticationRequest.Server(challenge, server.rpId(), server.origin(), server.userVerificationRequired()),
+        sampleReq().credential(),
+        sampleReq().storedCredential(),
+        null,
+        sealed
+    );
+  }
+
   private static FinishAuthenticationRequest sampleReq() {
     return new FinishAuthenticationRequest(
         new FinishAuthenticationRequest.Server("challengeB64Url", "example.com", "https://example.com", true),
         new FinishAuthenticationRequest.Credential(
             "credId", "public-key",
-            new FinishAuthenticationRequest.Credential.Response("clientData", "authData", "sig", null)
+            new FinishAuthenticationRequest.Credential.Response(
+                Binary.ofBase64Url("clientData"), Binary.ofBase64Url("authData"), Binary.ofBase64Url("sig"), null)
         ),
-        new FinishAuthenticationRequest.StoredCredential("publicKeyCose")
+        new FinishAuthenticationRequest.StoredCredential(Binary.ofBase64Url("publicKeyCose"), 0, null),
+        null,
+        null
     );
   }
 }
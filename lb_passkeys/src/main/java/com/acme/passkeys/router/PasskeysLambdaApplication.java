@@ -0,0 +1,20 @@
+package com.acme.passkeys.router;
+
+import com.acme.passkeys.config.FinishAuthenticationConfig;
+import com.acme.passkeys.config.FinishRegistrationConfig;
+import com.acme.passkeys.config.FunctionConfig;
+import com.acme.passkeys.router.config.RouterConfig;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.context.annotation.Import;
+
+// Un solo contexto para las tres funciones; sin component scan (cada jar trae su Application)
+@SpringBootConfiguration
+@EnableAutoConfiguration
+@Import({FunctionConfig.class, FinishRegistrationConfig.class, FinishAuthenticationConfig.class, RouterConfig.class})
+public class PasskeysLambdaApplication {
+  public static void main(String[] args) {
+    SpringApplication.run(PasskeysLambdaApplication.class, args);
+  }
+}
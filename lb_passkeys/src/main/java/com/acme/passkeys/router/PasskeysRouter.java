@@ -0,0 +1,138 @@
+package com.acme.passkeys.router;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Punto de entrada único: elige createChallenge, finishRegistration o finishAuthentication
+ * por cabecera o, si no viene, por un campo de primer nivel del JSON (que se elimina
+ * antes de delegar). Las funciones destino se resuelven una vez y se reutilizan.
+ *
+ * <p>Las cabeceras del mensaje llegan intactas al destino: con {@code Content-Type: application/cbor} el cuerpo no se
+ * lee aquí y la cabecera es obligatoria. {@link #contentType} y {@link #responseType} negocian el formato igual que
+ * passkeys-server.
+ */
+public class PasskeysRouter implements Function<Message<byte[]>, Message<byte[]>> {
+
+  public static final String JSON = "application/json";
+  public static final String CBOR = "application/cbor";
+
+  private final Set<String> routes;
+  private final Function<String, Function<Message<byte[]>, Message<byte[]>>> resolver;
+  private final String header;
+  private final String payloadField;
+  private final ObjectMapper mapper;
+  private final Map<String, Function<Message<byte[]>, Message<byte[]>>> resolved = new ConcurrentHashMap<>();
+
+  public PasskeysRouter(
+      Set<String> routes,
+      Function<String, Function<Message<byte[]>, Message<byte[]>>> resolver,
+      String header,
+      String payloadField,
+      ObjectMapper mapper
+  ) {
+    this.routes = Set.copyOf(routes);
+    this.resolver = Objects.requireNonNull(resolver, "resolver");
+    this.header = Objects.requireNonNull(header, "header");
+    this.payloadField = Objects.requireNonNull(payloadField, "payloadField");
+    this.mapper = Objects.requireNonNull(mapper, "mapper");
+  }
+
+  @Override
+  public Message<byte[]> apply(Message<byte[]> in) {
+    String name = headerValue(in);
+    Message<byte[]> forward = in;
+
+    if (name == null) {
+      if (CBOR.equals(contentType(in))) throw new IllegalArgumentException(header + " header is required for " + CBOR + " bodies");
+      ObjectNode body = parse(in.getPayload());
+      JsonNode field = body.remove(payloadField);
+      if (field == null || !field.isTextual()) {
+        throw new IllegalArgumentException(header + " header or '" + payloadField + "' field is required");
+      }
+      name = field.asText();
+      forward = MessageBuilder.withPayload(write(body)).copyHeaders(in.getHeaders()).build();
+    }
+
+    return target(name).apply(forward);
+  }
+
+  private Function<Message<byte[]>, Message<byte[]>> target(String name) {
+    if (!routes.contains(name)) throw new IllegalArgumentException("unknown function: " + name);
+    return resolved.computeIfAbsent(name, n -> {
+      Function<Message<byte[]>, Message<byte[]>> fn = resolver.apply(n);
+      if (fn == null) throw new IllegalStateException("function not registered: " + n);
+      return fn;
+    });
+  }
+
+  /** Tipo del cuerpo: {@code contentType} de Spring o la cabecera HTTP {@code Content-Type}; sin ninguna, JSON. */
+  public static String contentType(Message<?> in) {
+    String type = mediaType(headerValue(in, MessageHeaders.CONTENT_TYPE));
+    if (type == null) type = mediaType(headerValue(in, "content-type"));
+    return type == null ? JSON : type;
+  }
+
+  /** CBOR si {@code Accept} lo nombra; sin {@code Accept} (o sin preferencia), el formato de la petición. */
+  public static String responseType(Message<?> in) {
+    String accept = headerValue(in, "accept");
+    if (accept != null) {
+      for (String type : accept.split(",")) {
+        if (CBOR.equals(mediaType(type))) return CBOR;
+      }
+    }
+    return CBOR.equals(contentType(in)) ? CBOR : JSON;
+  }
+
+  private String headerValue(Message<byte[]> in) {
+    return headerValue(in, header);
+  }
+
+  // Las cabeceras HTTP llegan con mayúsculas variables según el origen del evento
+  private static String headerValue(Message<?> in, String name) {
+    for (Map.Entry<String, Object> e : in.getHeaders().entrySet()) {
+      if (e.getKey().equalsIgnoreCase(name) && e.getValue() != null) {
+        String v = e.getValue().toString().trim();
+        return v.isEmpty() ? null : v;
+      }
+    }
+    return null;
+  }
+
+  private static String mediaType(String contentType) {
+    if (contentType == null) return null;
+    int params = contentType.indexOf(';');
+    String type = (params < 0 ? contentType : contentType.substring(0, params)).trim().toLowerCase(Locale.ROOT);
+    return type.isEmpty() ? null : type;
+  }
+
+  private ObjectNode parse(byte[] payload) {
+    try {
+      JsonNode node = mapper.readTree(payload);
+      if (node instanceof ObjectNode obj) return obj;
+    } catch (IOException e) {
+      throw new IllegalArgumentException("request body must be a JSON object", e);
+    }
+    throw new IllegalArgumentException("request body must be a JSON object");
+  }
+
+  private byte[] write(ObjectNode body) {
+    try {
+      return mapper.writeValueAsBytes(body);
+    } catch (IOException e) {
+      throw new IllegalStateException("cannot serialize request", e);
+    }
+  }
+}
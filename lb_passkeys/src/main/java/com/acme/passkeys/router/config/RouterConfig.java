@@ -0,0 +1,51 @@
+package com.acme.passkeys.router.config;
+
+import com.acme.passkeys.router.PasskeysRouter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.function.context.FunctionCatalog;
+import org.springframework.cloud.function.context.catalog.SimpleFunctionRegistry.FunctionInvocationWrapper;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+@Configuration
+public class RouterConfig {
+
+  @Bean(name = "passkeys")
+  public Function<Message<byte[]>, Message<byte[]>> passkeys(
+      FunctionCatalog catalog,
+      @Value("${passkeys.router.functions:createChallenge,finishRegistration,finishAuthentication}") String[] functions,
+      @Value("${passkeys.router.header:x-passkeys-function}") String header,
+      @Value("${passkeys.router.payload-field:function}") String payloadField
+  ) {
+    // Resolución perezosa: el catálogo aún se está construyendo cuando se crea este bean
+    return new PasskeysRouter(Set.of(functions), name -> catalogTarget(catalog, name), header, payloadField, new ObjectMapper());
+  }
+
+  // Una resolución por formato de respuesta (JSON o CBOR), con el content type y el Accept de quien llama
+  private static Function<Message<byte[]>, Message<byte[]>> catalogTarget(FunctionCatalog catalog, String name) {
+    FunctionInvocationWrapper json = catalog.lookup(name, PasskeysRouter.JSON);
+    if (json == null) return null;
+    Map<String, FunctionInvocationWrapper> byResponseType = new ConcurrentHashMap<>(Map.of(PasskeysRouter.JSON, json));
+    return in -> {
+      String responseType = PasskeysRouter.responseType(in);
+      FunctionInvocationWrapper fn = byResponseType.computeIfAbsent(responseType, type -> catalog.lookup(name, type));
+      Message<byte[]> typed = MessageBuilder.fromMessage(in)
+          .setHeader(MessageHeaders.CONTENT_TYPE, PasskeysRouter.contentType(in))
+          .build();
+      Object out = fn.apply(typed);
+      if (out instanceof Message<?> m) out = m.getPayload();
+      byte[] body = out instanceof byte[] bytes ? bytes : String.valueOf(out).getBytes(StandardCharsets.UTF_8);
+      return MessageBuilder.withPayload(body).setHeader(MessageHeaders.CONTENT_TYPE, responseType).build();
+    };
+  }
+}
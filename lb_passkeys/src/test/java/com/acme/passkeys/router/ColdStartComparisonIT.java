@@ -0,0 +1,54 @@
+package com.acme.passkeys.router;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Compara tres contextos separados (uno por Lambda) con el contexto combinado: cada muestra es
+ * una JVM nueva. Ejecutar con {@code mvn test -Dtest=ColdStartComparisonIT [-Dcoldstart.runs=5]}.
+ */
+class ColdStartComparisonIT {
+
+  private static final int RUNS = Integer.getInteger("coldstart.runs", 3);
+  private static final List<String> SEPARATE = List.of("createChallenge", "finishRegistration", "finishAuthentication");
+
+  @Test
+  void combinedContextVersusOnePerFunction() throws Exception {
+    Map<String, List<Map<String, String>>> samples = new HashMap<>();
+    for (int run = 0; run < RUNS; run++) {
+      for (String mode : SEPARATE) samples.computeIfAbsent(mode, k -> new ArrayList<>()).add(ProbeRunner.probe(mode));
+      samples.computeIfAbsent("combined", k -> new ArrayList<>()).add(ProbeRunner.probe("combined"));
+    }
+
+    double separateWall = 0, separateFirst = 0, separateRss = 0;
+    System.out.printf("%-22s %10s %10s %12s %10s%n", "mode", "wallMs", "contextMs", "firstRespMs", "rssKb");
+    for (String mode : SEPARATE) {
+      double wall = ProbeRunner.median(samples.get(mode), "wallMs");
+      double first = ProbeRunner.median(samples.get(mode), "firstResponseMs");
+      double rss = ProbeRunner.median(samples.get(mode), "rssKb");
+      separateWall += wall;
+      separateFirst += first;
+      separateRss += rss;
+      print(mode, samples.get(mode));
+    }
+    print("combined", samples.get("combined"));
+    System.out.printf("%-22s %10.0f %10s %12.1f %10.0f%n", "separate (sum of 3)", separateWall, "-", separateFirst, separateRss);
+
+    double combinedRss = ProbeRunner.median(samples.get("combined"), "rssKb");
+    System.out.printf("combined vs separate: cold starts 1 vs 3, rss %.0f%% of sum%n", 100.0 * combinedRss / separateRss);
+
+    assertThat(samples.get("combined")).hasSize(RUNS);
+  }
+
+  private static void print(String mode, List<Map<String, String>> s) {
+    System.out.printf("%-22s %10.0f %10.1f %12.1f %10.0f   first invoke: %s%n",
+        mode, ProbeRunner.median(s, "wallMs"), ProbeRunner.median(s, "contextMs"), ProbeRunner.median(s, "firstResponseMs"), ProbeRunner.median(s, "rssKb"),
+        s.get(0).get("firstInvokeMs"));
+  }
+}
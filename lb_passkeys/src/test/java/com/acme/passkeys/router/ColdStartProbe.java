@@ -0,0 +1,158 @@
+package com.acme.passkeys.router;
+
+import com.acme.passkeys.adapters.in.lambda.CreateChallengeStreamHandler;
+import com.acme.passkeys.adapters.in.lambda.FinishAuthenticationStreamHandler;
+import com.acme.passkeys.adapters.in.lambda.FinishRegistrationStreamHandler;
+import com.acme.passkeys.config.FinishAuthenticationConfig;
+import com.acme.passkeys.config.FinishRegistrationConfig;
+import com.acme.passkeys.config.FunctionConfig;
+import com.amazonaws.services.lambda.runtime.RequestStreamHandler;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.cloud.function.context.FunctionCatalog;
+import org.springframework.cloud.function.context.catalog.SimpleFunctionRegistry.FunctionInvocationWrapper;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Arranca en una JVM nueva el contexto de una función (o el combinado), invoca una vez cada
+ * función y escribe una línea {@code PROBE ...} con tiempos y memoria. Lo lanzan
+ * {@link ColdStartComparisonIT} y {@link StartupPathsIT}.
+ */
+public final class ColdStartProbe {
+
+  static final Map<String, String> PAYLOADS = Map.of(
+      "createChallenge", """
+          {"type":"AUTHENTICATION","userId":"user-1","rpId":"example.com","origin":"https://example.com","timeoutMs":60000}
+          """,
+      "finishRegistration", """
+          {"server":{"challenge":"Y2hhbGxlbmdl","rpId":"example.com","origin":"https://example.com","userVerificationRequired":true},
+           "credential":{"id":"id","rawId":"rawId","type":"public-key","response":{"clientDataJSON":"e30","attestationObject":"oA"}}}
+          """,
+      "finishAuthentication", """
+          {"server":{"challenge":"Y2hhbGxlbmdl","rpId":"example.com","origin":"https://example.com","userVerificationRequired":true},
+           "credential":{"id":"Y3JlZA","type":"public-key","response":{"clientDataJSON":"e30","authenticatorData":"AA","signature":"AA","userHandle":null}},
+           "storedCredential":{"publicKeyCose":"oA"}}
+          """
+  );
+
+  private static final Map<String, Class<?>> SEPARATE = Map.of(
+      "createChallenge", FunctionConfig.class,
+      "finishRegistration", FinishRegistrationConfig.class,
+      "finishAuthentication", FinishAuthenticationConfig.class
+  );
+
+  private ColdStartProbe() {}
+
+  /**
+   * args: {@code combined}, el nombre de una función (contexto propio, como su Lambda) o
+   * {@code handler:<función>} para el camino sin Spring.
+   */
+  public static void main(String[] args) throws Exception {
+    String mode = args[0];
+    if (mode.startsWith("handler:")) {
+      handler(mode, mode.substring("handler:".length()));
+      return;
+    }
+    boolean combined = "combined".equals(mode);
+    List<String> functions = combined ? List.of("createChallenge", "finishRegistration", "finishAuthentication") : List.of(mode);
+
+    long t0 = System.nanoTime();
+    SpringApplication app = combined
+        ? new SpringApplication(PasskeysLambdaApplication.class)
+        : new SpringApplication(Boot.class, SEPARATE.get(mode));
+    app.setWebApplicationType(WebApplicationType.NONE);
+    app.setDefaultProperties(Map.of("spring.cloud.function.definition", combined ? "passkeys" : mode));
+
+    try (ConfigurableApplicationContext ctx = app.run()) {
+      long contextNanos = System.nanoTime() - t0;
+      FunctionCatalog catalog = ctx.getBean(FunctionCatalog.class);
+
+      StringBuilder firstInvokes = new StringBuilder();
+      for (String fn : functions) {
+        long s = System.nanoTime();
+        invoke(catalog, combined ? "passkeys" : fn, fn);
+        firstInvokes.append(fn).append('=').append(millis(System.nanoTime() - s)).append(';');
+      }
+      long firstResponseNanos = System.nanoTime() - t0;
+      report(mode, contextNanos, firstResponseNanos, firstInvokes.toString());
+    }
+  }
+
+  private static void handler(String mode, String fn) throws Exception {
+    long t0 = System.nanoTime();
+    RequestStreamHandler handler = switch (fn) {
+      case "createChallenge" -> new CreateChallengeStreamHandler();
+      case "finishRegistration" -> new FinishRegistrationStreamHandler();
+      case "finishAuthentication" -> new FinishAuthenticationStreamHandler();
+      default -> throw new IllegalArgumentException("unknown function: " + fn);
+    };
+    long initNanos = System.nanoTime() - t0;
+
+    long s = System.nanoTime();
+    try {
+      handler.handleRequest(new ByteArrayInputStream(PAYLOADS.get(fn).getBytes(StandardCharsets.UTF_8)), new ByteArrayOutputStream(), null);
+    } catch (RuntimeException expected) {
+      // mismo criterio que en el camino Spring
+    }
+    long firstResponseNanos = System.nanoTime() - t0;
+    report(mode, initNanos, firstResponseNanos, fn + "=" + millis(System.nanoTime() - s) + ";");
+  }
+
+  private static void report(String mode, long contextNanos, long firstResponseNanos, String firstInvokes) {
+    long jvmToMainMs = System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime() - millisLong(firstResponseNanos);
+    System.gc();
+    long heapUsed = Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory();
+    System.out.printf("PROBE mode=%s jvmToMainMs=%d contextMs=%s firstResponseMs=%s firstInvokeMs=%s heapUsedKb=%d rssKb=%d%n",
+        mode, jvmToMainMs, millis(contextNanos), millis(firstResponseNanos), firstInvokes,
+        heapUsed / 1024, rssKb());
+  }
+
+  private static void invoke(FunctionCatalog catalog, String definition, String fn) {
+    FunctionInvocationWrapper f = catalog.lookup(definition, "application/json");
+    MessageBuilder<byte[]> msg = MessageBuilder.withPayload(PAYLOADS.get(fn).getBytes(StandardCharsets.UTF_8))
+        .setHeader(MessageHeaders.CONTENT_TYPE, "application/json");
+    if ("passkeys".equals(definition)) msg.setHeader("x-passkeys-function", fn);
+    try {
+      f.apply(msg.build());
+    } catch (RuntimeException expected) {
+      // Las credenciales de prueba no son válidas: lo que importa es el camino de carga de clases
+    }
+  }
+
+  private static long rssKb() {
+    try {
+      for (String line : Files.readAllLines(Path.of("/proc/self/status"))) {
+        if (line.startsWith("VmRSS:")) return Long.parseLong(line.replaceAll("\\D", ""));
+      }
+    } catch (Exception ignored) {
+      // fuera de Linux no hay /proc
+    }
+    return -1;
+  }
+
+  private static String millis(long nanos) {
+    return String.format(java.util.Locale.ROOT, "%.1f", nanos / 1_000_000.0);
+  }
+
+  private static long millisLong(long nanos) {
+    return nanos / 1_000_000;
+  }
+
+  @SpringBootConfiguration
+  @EnableAutoConfiguration
+  static class Boot {
+  }
+}
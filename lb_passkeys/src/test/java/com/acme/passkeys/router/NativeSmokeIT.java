@@ -0,0 +1,68 @@
+package com.acme.passkeys.router;
+
+import com.acme.passkeys.authenticator.AttestationFormat;
+import com.acme.passkeys.authenticator.ChallengeBinding;
+import com.acme.passkeys.authenticator.CoseAlgorithm;
+import com.acme.passkeys.authenticator.SoftwareAuthenticator;
+import com.acme.passkeys.support.FakeLambdaRuntime;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.File;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.*;
+
+/** Lo ejecuta el perfil {@code native} (failsafe): las tres funciones contra un mismo binario. */
+@EnabledIfSystemProperty(named = "native.binary", matches = ".+")
+class NativeSmokeIT {
+
+  private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+  @Test
+  void allThreeFunctions_runInOneNativeBinary() throws Exception {
+    try (FakeLambdaRuntime runtime = FakeLambdaRuntime.start()) {
+      Process lambda = start(runtime);
+      try {
+        FakeLambdaRuntime.Result challenge = runtime.invoke(routed("createChallenge", """
+            {"type":"REGISTRATION","userId":"user-1","rpId":"example.com","origin":"https://example.com","timeoutMs":60000}
+            """), TIMEOUT);
+        assertThat(challenge.error()).as(challenge.body()).isFalse();
+        assertThat(challenge.body()).contains("\"challenge\":");
+
+        SoftwareAuthenticator authenticator = new SoftwareAuthenticator();
+        SoftwareAuthenticator.Registration reg = authenticator.register(
+            binding(authenticator), CoseAlgorithm.ES256, AttestationFormat.PACKED);
+        FakeLambdaRuntime.Result registration = runtime.invoke(routed("finishRegistration", reg.requestJson()), TIMEOUT);
+        assertThat(registration.error()).as(registration.body()).isFalse();
+        assertThat(registration.body()).contains("\"code\":200").contains(reg.credential().id());
+
+        FakeLambdaRuntime.Result authentication = runtime.invoke(
+            routed("finishAuthentication", authenticator.authenticate(reg.credential(), binding(authenticator)).requestJson()), TIMEOUT);
+        assertThat(authentication.error()).as(authentication.body()).isFalse();
+        assertThat(authentication.body()).contains("\"code\":");
+      } finally {
+        lambda.destroy();
+      }
+    }
+  }
+
+  private static ChallengeBinding binding(SoftwareAuthenticator authenticator) {
+    return new ChallengeBinding(authenticator.randomChallenge(), "example.com", "https://example.com");
+  }
+
+  // Discriminador en el payload: el evento directo de Lambda no trae cabeceras
+  private static String routed(String function, String json) {
+    return json.replaceFirst("\\{", "{\"function\":\"" + function + "\",");
+  }
+
+  private static Process start(FakeLambdaRuntime runtime) throws Exception {
+    ProcessBuilder pb = new ProcessBuilder(System.getProperty("native.binary"))
+        .redirectErrorStream(true)
+        .redirectOutput(new File(System.getProperty("native.binary") + "-smoke.log"));
+    pb.environment().put("AWS_LAMBDA_RUNTIME_API", runtime.address());
+    pb.environment().put("_HANDLER", "passkeys");
+    pb.environment().put("SPRING_CLOUD_FUNCTION_DEFINITION", "passkeys");
+    return pb.start();
+  }
+}
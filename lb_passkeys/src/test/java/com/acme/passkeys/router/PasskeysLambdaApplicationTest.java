@@ -0,0 +1,72 @@
+package com.acme.passkeys.router;
+
+import com.acme.passkeys.adapters.in.function.CborMessageConverter;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.cloud.function.context.FunctionCatalog;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.converter.MessageConverter;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.*;
+
+class PasskeysLambdaApplicationTest {
+
+  // Las tres configuraciones juntas, como en este jar y en passkeys-server: ningún bean puede repetirse
+  @Test
+  void loadsTheThreeFunctionConfigsInOneContext() {
+    try (ConfigurableApplicationContext ctx = new SpringApplicationBuilder(PasskeysLambdaApplication.class)
+        .web(WebApplicationType.NONE)
+        .properties("passkeys.metrics.enabled=false")
+        .run()) {
+      FunctionCatalog catalog = ctx.getBean(FunctionCatalog.class);
+
+      assertThat(ctx.getBeansOfType(MessageConverter.class).values()).filteredOn(CborMessageConverter.class::isInstance).hasSize(1);
+      assertThat(catalog.<Object>lookup("createChallenge")).isNotNull();
+      assertThat(catalog.<Object>lookup("finishRegistration")).isNotNull();
+      assertThat(catalog.<Object>lookup("finishAuthentication")).isNotNull();
+    }
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void router_keepsTheCallersContentTypeAndAccept() throws Exception {
+    try (ConfigurableApplicationContext ctx = new SpringApplicationBuilder(PasskeysLambdaApplication.class)
+        .web(WebApplicationType.NONE)
+        .properties("passkeys.metrics.enabled=false")
+        .run()) {
+      Function<Message<byte[]>, Message<byte[]>> passkeys = ctx.getBean("passkeys", Function.class);
+      ObjectMapper cbor = new CBORMapper();
+      byte[] request = cbor.writeValueAsBytes(Map.of("type", "REGISTRATION", "userId", "u1", "rpId", "example.com",
+          "origin", "https://example.com", "timeoutMs", 60000, "transactionId", "tx-cbor"));
+
+      Message<byte[]> out = passkeys.apply(MessageBuilder.withPayload(request)
+          .setHeader("x-passkeys-function", "createChallenge")
+          .setHeader("Content-Type", "application/cbor")
+          .build());
+
+      assertThat(out.getHeaders().get(MessageHeaders.CONTENT_TYPE)).isEqualTo(PasskeysRouter.CBOR);
+      JsonNode response = cbor.readTree(out.getPayload());
+      assertThat(response.get("transactionId").asText()).isEqualTo("tx-cbor");
+      assertThat(response.get("challenge").asText()).isNotBlank();
+
+      Message<byte[]> json = passkeys.apply(MessageBuilder
+          .withPayload("{\"function\":\"createChallenge\",\"type\":\"AUTHENTICATION\",\"userId\":\"u1\",\"rpId\":\"example.com\",\"origin\":\"https://example.com\",\"timeoutMs\":60000}"
+              .getBytes(StandardCharsets.UTF_8))
+          .setHeader("Accept", "application/cbor")
+          .build());
+      assertThat(json.getHeaders().get(MessageHeaders.CONTENT_TYPE)).isEqualTo(PasskeysRouter.CBOR);
+      assertThat(cbor.readTree(json.getPayload()).get("type").asText()).isEqualTo("AUTHENTICATION");
+    }
+  }
+}
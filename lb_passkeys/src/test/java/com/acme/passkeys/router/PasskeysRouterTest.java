@@ -0,0 +1,109 @@
+package com.acme.passkeys.router;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.*;
+
+class PasskeysRouterTest {
+
+  private final List<String> resolutions = new ArrayList<>();
+
+  private final PasskeysRouter router = new PasskeysRouter(
+      Set.of("createChallenge", "finishRegistration"),
+      this::echo,
+      "x-passkeys-function",
+      "function",
+      new ObjectMapper()
+  );
+
+  @Test
+  void routesByHeader_caseInsensitive() {
+    Message<byte[]> out = router.apply(message("{\"a\":1}", "X-Passkeys-Function", "finishRegistration"));
+
+    assertThat(body(out)).isEqualTo("finishRegistration:{\"a\":1}");
+  }
+
+  @Test
+  void routesByPayloadField_andStripsIt() {
+    Message<byte[]> out = router.apply(message("{\"function\":\"createChallenge\",\"userId\":\"u1\"}"));
+
+    assertThat(body(out)).isEqualTo("createChallenge:{\"userId\":\"u1\"}");
+  }
+
+  @Test
+  void headerWinsOverPayloadField() {
+    Message<byte[]> out = router.apply(message("{\"function\":\"createChallenge\"}", "x-passkeys-function", "finishRegistration"));
+
+    assertThat(body(out)).startsWith("finishRegistration:");
+  }
+
+  @Test
+  void resolvesEachTargetOnce() {
+    router.apply(message("{}", "x-passkeys-function", "createChallenge"));
+    router.apply(message("{}", "x-passkeys-function", "createChallenge"));
+
+    assertThat(resolutions).containsExactly("createChallenge");
+  }
+
+  @Test
+  void rejectsUnknownOrMissingDiscriminator() {
+    assertThatThrownBy(() -> router.apply(message("{}", "x-passkeys-function", "finishAuthentication")))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("unknown function");
+    assertThatThrownBy(() -> router.apply(message("{\"userId\":\"u1\"}")))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("is required");
+    assertThatThrownBy(() -> router.apply(message("[1,2]")))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("JSON object");
+  }
+
+  @Test
+  void cborBody_requiresTheHeader_andIsForwardedUntouched() {
+    byte[] cbor = {(byte) 0xa1, 0x61, 0x61, 0x01}; // {"a":1}
+    Message<byte[]> withHeader = MessageBuilder.withPayload(cbor)
+        .setHeader("Content-Type", "application/cbor")
+        .setHeader("x-passkeys-function", "createChallenge")
+        .build();
+    PasskeysRouter forwarding = new PasskeysRouter(Set.of("createChallenge"), name -> in -> in, "x-passkeys-function", "function",
+        new ObjectMapper());
+
+    assertThat(forwarding.apply(withHeader)).isSameAs(withHeader);
+    assertThatThrownBy(() -> forwarding.apply(MessageBuilder.withPayload(cbor).setHeader("Content-Type", "application/cbor").build()))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("x-passkeys-function header is required for application/cbor bodies");
+  }
+
+  @Test
+  void negotiatesLikePasskeysServer() {
+    assertThat(PasskeysRouter.contentType(message("{}"))).isEqualTo(PasskeysRouter.JSON);
+    assertThat(PasskeysRouter.contentType(message("{}", "contentType", "application/cbor; x=1"))).isEqualTo(PasskeysRouter.CBOR);
+    assertThat(PasskeysRouter.responseType(message("{}", "content-type", "application/cbor"))).isEqualTo(PasskeysRouter.CBOR);
+    assertThat(PasskeysRouter.responseType(message("{}", "Accept", "application/json, application/cbor"))).isEqualTo(PasskeysRouter.CBOR);
+    assertThat(PasskeysRouter.responseType(message("{}", "Accept", "*/*"))).isEqualTo(PasskeysRouter.JSON);
+  }
+
+  private Function<Message<byte[]>, Message<byte[]>> echo(String name) {
+    resolutions.add(name);
+    return in -> MessageBuilder.withPayload((name + ":" + body(in)).getBytes(StandardCharsets.UTF_8)).build();
+  }
+
+  private static Message<byte[]> message(String json, String... header) {
+    MessageBuilder<byte[]> b = MessageBuilder.withPayload(json.getBytes(StandardCharsets.UTF_8));
+    if (header.length == 2) b.setHeader(header[0], header[1]);
+    return b.build();
+  }
+
+  private static String body(Message<byte[]> m) {
+    return new String(m.getPayload(), StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,51 @@
+package com.acme.passkeys.router;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+/** Lanza {@link ColdStartProbe} en una JVM nueva con el classpath de test y parsea su línea PROBE. */
+final class ProbeRunner {
+
+  private ProbeRunner() {}
+
+  static Map<String, String> probe(String mode) throws Exception {
+    String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+    ProcessBuilder pb = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+        ColdStartProbe.class.getName(), mode).redirectErrorStream(true);
+
+    long start = System.nanoTime();
+    Process p = pb.start();
+    String line = null;
+    StringBuilder output = new StringBuilder();
+    try (BufferedReader r = new BufferedReader(new InputStreamReader(p.getInputStream(), StandardCharsets.UTF_8))) {
+      for (String l; (l = r.readLine()) != null; ) {
+        output.append(l).append('\n');
+        if (l.startsWith("PROBE ")) line = l;
+      }
+    }
+    assertThat(p.waitFor(2, TimeUnit.MINUTES)).isTrue();
+    long wallNanos = System.nanoTime() - start;
+    assertThat(line).as("probe output for %s:%n%s", mode, output).isNotNull();
+
+    Map<String, String> values = new HashMap<>();
+    for (String kv : line.substring("PROBE ".length()).split(" ")) {
+      int eq = kv.indexOf('=');
+      values.put(kv.substring(0, eq), kv.substring(eq + 1));
+    }
+    values.put("wallMs", Long.toString(wallNanos / 1_000_000));
+    return values;
+  }
+
+  static double median(List<Map<String, String>> samples, String key) {
+    double[] v = samples.stream().mapToDouble(m -> Double.parseDouble(m.get(key))).sorted().toArray();
+    return v[v.length / 2];
+  }
+}
@@ -0,0 +1,45 @@
+package com.acme.passkeys.router;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tiempo hasta la primera respuesta de cada función: contexto Spring (FunctionInvoker) frente
+ * al RequestStreamHandler sin Spring. Cada muestra es una JVM nueva.
+ * Ejecutar con {@code mvn test -Dtest=StartupPathsIT [-Dcoldstart.runs=5]}.
+ */
+class StartupPathsIT {
+
+  private static final int RUNS = Integer.getInteger("coldstart.runs", 3);
+  private static final List<String> FUNCTIONS = List.of("createChallenge", "finishRegistration", "finishAuthentication");
+
+  @Test
+  void springVersusPlainHandler() throws Exception {
+    System.out.printf("%-22s %8s %12s %12s %12s %10s%n", "function", "path", "wallMs", "initMs", "firstRespMs", "rssKb");
+    for (String fn : FUNCTIONS) {
+      List<Map<String, String>> spring = new ArrayList<>();
+      List<Map<String, String>> plain = new ArrayList<>();
+      for (int run = 0; run < RUNS; run++) {
+        spring.add(ProbeRunner.probe(fn));
+        plain.add(ProbeRunner.probe("handler:" + fn));
+      }
+      print(fn, "spring", spring);
+      print(fn, "handler", plain);
+      System.out.printf("%-22s time-to-first-response %.1fx faster without Spring%n", fn,
+          ProbeRunner.median(spring, "wallMs") / ProbeRunner.median(plain, "wallMs"));
+
+      assertThat(plain).hasSize(RUNS);
+    }
+  }
+
+  private static void print(String fn, String path, List<Map<String, String>> s) {
+    System.out.printf("%-22s %8s %12.0f %12.1f %12.1f %10.0f%n", fn, path,
+        ProbeRunner.median(s, "wallMs"), ProbeRunner.median(s, "contextMs"),
+        ProbeRunner.median(s, "firstResponseMs"), ProbeRunner.median(s, "rssKb"));
+  }
+}
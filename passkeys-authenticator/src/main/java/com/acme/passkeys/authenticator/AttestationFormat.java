@@ -0,0 +1,19 @@
+package com.acme.passkeys.authenticator;
+
+/** Formatos de attestation que sabe producir el autenticador. */
+public enum AttestationFormat {
+  /** {@code fmt: "none"}, attStmt vacío. */
+  NONE("none"),
+  /** {@code fmt: "packed"} con self attestation: {@code {alg, sig}} firmado con la propia credencial, sin x5c. */
+  PACKED("packed");
+
+  private final String fmt;
+
+  AttestationFormat(String fmt) {
+    this.fmt = fmt;
+  }
+
+  public String fmt() {
+    return fmt;
+  }
+}
@@ -0,0 +1,37 @@
+package com.acme.passkeys.authenticator;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Lo justo de CBOR (RFC 8949) para attestation objects y claves COSE. Público para que los tests de los módulos
+ * construyan variantes que el autenticador no emite (otros formatos, x5c, extensiones).
+ */
+public final class Cbor {
+  private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+  public Cbor map(int entries) { head(5, entries); return this; }
+  public Cbor array(int entries) { head(4, entries); return this; }
+  public Cbor text(String s) { byte[] b = s.getBytes(StandardCharsets.UTF_8); head(3, b.length); out.writeBytes(b); return this; }
+  public Cbor bytes(byte[] b) { head(2, b.length); out.writeBytes(b); return this; }
+  public Cbor integer(long v) { if (v >= 0) head(0, v); else head(1, -1 - v); return this; }
+
+  public byte[] toByteArray() { return out.toByteArray(); }
+
+  private void head(int major, long value) {
+    int mt = major << 5;
+    if (value < 24) {
+      out.write(mt | (int) value);
+    } else if (value < 0x100) {
+      out.write(mt | 24);
+      out.write((int) value);
+    } else if (value < 0x10000) {
+      out.write(mt | 25);
+      out.write((int) (value >>> 8));
+      out.write((int) value);
+    } else {
+      out.write(mt | 26);
+      for (int shift = 24; shift >= 0; shift -= 8) out.write((int) (value >>> shift));
+    }
+  }
+}
@@ -0,0 +1,40 @@
+package com.acme.passkeys.authenticator;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Objects;
+
+/** Challenge emitido por el servidor y el contexto (rpId, origin) al que el autenticador lo ata. */
+public record ChallengeBinding(String challenge, String rpId, String origin) {
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  public ChallengeBinding {
+    Objects.requireNonNull(challenge, "challenge");
+    Objects.requireNonNull(rpId, "rpId");
+    Objects.requireNonNull(origin, "origin");
+  }
+
+  /** A partir del JSON que devuelve {@code createChallenge}. */
+  public static ChallengeBinding fromCreateChallengeResponse(String json) {
+    try {
+      JsonNode node = MAPPER.readTree(json);
+      return new ChallengeBinding(
+          required(node, "challenge"),
+          required(node, "rpId"),
+          required(node, "origin")
+      );
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static String required(JsonNode node, String field) {
+    JsonNode v = node.get(field);
+    if (v == null || !v.isTextual()) throw new IllegalArgumentException(field + " is required");
+    return v.asText();
+  }
+}
@@ -0,0 +1,119 @@
+package com.acme.passkeys.authenticator;
+
+import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.SecureRandom;
+import java.security.Signature;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.NamedParameterSpec;
+import java.security.spec.RSAKeyGenParameterSpec;
+import java.util.Arrays;
+
+/** Algoritmos COSE que admite el autenticador: generación de claves, firma y COSE_Key. */
+public enum CoseAlgorithm {
+
+  ES256(-7, "SHA256withECDSA"),
+  RS256(-257, "SHA256withRSA"),
+  EdDSA(-8, "Ed25519");
+
+  private final int coseId;
+  private final String jcaSignature;
+
+  CoseAlgorithm(int coseId, String jcaSignature) {
+    this.coseId = coseId;
+    this.jcaSignature = jcaSignature;
+  }
+
+  public int coseId() {
+    return coseId;
+  }
+
+  public KeyPair generateKeyPair(SecureRandom random) {
+    try {
+      KeyPairGenerator kpg = switch (this) {
+        case ES256 -> {
+          KeyPairGenerator g = KeyPairGenerator.getInstance("EC");
+          g.initialize(new ECGenParameterSpec("secp256r1"), random);
+          yield g;
+        }
+        case RS256 -> {
+          KeyPairGenerator g = KeyPairGenerator.getInstance("RSA");
+          g.initialize(new RSAKeyGenParameterSpec(2048, RSAKeyGenParameterSpec.F4), random);
+          yield g;
+        }
+        case EdDSA -> {
+          KeyPairGenerator g = KeyPairGenerator.getInstance("Ed25519");
+          g.initialize(NamedParameterSpec.ED25519, random);
+          yield g;
+        }
+      };
+      return kpg.generateKeyPair();
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  public byte[] sign(PrivateKey key, SecureRandom random, byte[]... parts) {
+    try {
+      Signature signature = Signature.getInstance(jcaSignature);
+      signature.initSign(key, random);
+      for (byte[] part : parts) signature.update(part);
+      return signature.sign();
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * COSE_Key (RFC 9053): EC2 {1: 2, 3: -7, -1: 1, -2: x, -3: y}, RSA {1: 3, 3: -257, -1: n, -2: e},
+   * OKP {1: 1, 3: -8, -1: 6, -2: x}.
+   */
+  public byte[] coseKey(PublicKey key) {
+    return switch (this) {
+      case ES256 -> {
+        ECPublicKey ec = (ECPublicKey) key;
+        yield new Cbor().map(5)
+            .integer(1).integer(2)
+            .integer(3).integer(coseId)
+            .integer(-1).integer(1)
+            .integer(-2).bytes(unsigned(ec.getW().getAffineX(), 32))
+            .integer(-3).bytes(unsigned(ec.getW().getAffineY(), 32))
+            .toByteArray();
+      }
+      case RS256 -> {
+        RSAPublicKey rsa = (RSAPublicKey) key;
+        yield new Cbor().map(4)
+            .integer(1).integer(3)
+            .integer(3).integer(coseId)
+            .integer(-1).bytes(unsigned(rsa.getModulus(), (rsa.getModulus().bitLength() + 7) / 8))
+            .integer(-2).bytes(unsigned(rsa.getPublicExponent(), (rsa.getPublicExponent().bitLength() + 7) / 8))
+            .toByteArray();
+      }
+      case EdDSA -> {
+        // SubjectPublicKeyInfo de Ed25519: 12 bytes de cabecera + los 32 de la clave
+        byte[] spki = key.getEncoded();
+        yield new Cbor().map(4)
+            .integer(1).integer(1)
+            .integer(3).integer(coseId)
+            .integer(-1).integer(6)
+            .integer(-2).bytes(Arrays.copyOfRange(spki, spki.length - 32, spki.length))
+            .toByteArray();
+      }
+    };
+  }
+
+  private static byte[] unsigned(BigInteger v, int size) {
+    byte[] raw = v.toByteArray();
+    if (raw.length == size) return raw;
+    byte[] out = new byte[size];
+    int len = Math.min(raw.length, size);
+    System.arraycopy(raw, raw.length - len, out, size - len, len);
+    return out;
+  }
+}
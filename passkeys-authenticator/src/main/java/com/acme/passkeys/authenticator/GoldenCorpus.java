@@ -0,0 +1,122 @@
+package com.acme.passkeys.authenticator;
+
+import com.acme.passkeys.authenticator.Mutation.Ceremony;
+import com.fasterxml.jackson.core.util.DefaultIndenter;
+import com.fasterxml.jackson.core.util.DefaultPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Corpus dorado reproducible: para una semilla escribe siempre los mismos ficheros, byte a byte.
+ * Cada entrada es la petición de {@code finishRegistration} o {@code finishAuthentication} y el
+ * código que debe devolver la función ({@code 200} sólo sin mutación).
+ *
+ * <pre>
+ * &lt;dir&gt;/manifest.json
+ * &lt;dir&gt;/registration/ES256-packed-none.json
+ * &lt;dir&gt;/authentication/RS256-bad_signature.json
+ * </pre>
+ */
+public final class GoldenCorpus {
+
+  public static final String RP_ID = "example.com";
+  public static final String ORIGIN = "https://example.com";
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+  // Saltos de línea fijos: el corpus no debe depender del sistema operativo
+  private static final ObjectWriter WRITER = MAPPER.writer(
+      new DefaultPrettyPrinter().withObjectIndenter(new DefaultIndenter("  ", "\n")));
+
+  public record Entry(String name, String function, int expectedCode, ObjectNode request) {}
+
+  private GoldenCorpus() {}
+
+  public static void main(String[] args) throws IOException {
+    Path dir = Path.of(args.length > 0 ? args[0] : "golden");
+    long seed = args.length > 1 ? Long.parseLong(args[1]) : 42L;
+    List<Entry> entries = write(dir, seed);
+    System.out.println(entries.size() + " entries written to " + dir.toAbsolutePath());
+  }
+
+  /** Genera el corpus en memoria; mismo orden y mismos bytes para la misma semilla. */
+  public static List<Entry> generate(long seed) {
+    SoftwareAuthenticator authenticator = SoftwareAuthenticator.seeded(seed);
+    List<Entry> entries = new ArrayList<>();
+
+    for (CoseAlgorithm alg : CoseAlgorithm.values()) {
+      for (AttestationFormat format : AttestationFormat.values()) {
+        for (Mutation mutation : Mutation.values()) {
+          if (!mutation.appliesTo(Ceremony.REGISTRATION, format)) continue;
+          var reg = authenticator.register(binding(authenticator), alg, format, mutation);
+          entries.add(new Entry(
+              "registration/" + alg + "-" + format.fmt() + "-" + slug(mutation),
+              "finishRegistration",
+              mutation == Mutation.NONE ? 200 : 400,
+              reg.request()
+          ));
+        }
+      }
+    }
+
+    for (CoseAlgorithm alg : CoseAlgorithm.values()) {
+      var credential = authenticator.register(binding(authenticator), alg, AttestationFormat.NONE).credential();
+      for (Mutation mutation : Mutation.values()) {
+        if (!mutation.appliesTo(Ceremony.AUTHENTICATION, null)) continue;
+        var assertion = authenticator.authenticate(credential, binding(authenticator), mutation);
+        entries.add(new Entry(
+            "authentication/" + alg + "-" + slug(mutation),
+            "finishAuthentication",
+            mutation == Mutation.NONE ? 200 : 401,
+            assertion.request()
+        ));
+      }
+    }
+    return entries;
+  }
+
+  public static List<Entry> write(Path dir, long seed) throws IOException {
+    List<Entry> entries = generate(seed);
+    ObjectNode manifest = MAPPER.createObjectNode();
+    manifest.put("seed", seed);
+    manifest.put("rpId", RP_ID);
+    manifest.put("origin", ORIGIN);
+    ArrayNode list = manifest.putArray("entries");
+
+    for (Entry e : entries) {
+      Path file = dir.resolve(e.name() + ".json");
+      Files.createDirectories(file.getParent());
+      ObjectNode doc = MAPPER.createObjectNode();
+      doc.put("name", e.name());
+      doc.put("function", e.function());
+      doc.put("expectedCode", e.expectedCode());
+      doc.set("request", e.request());
+      Files.write(file, WRITER.writeValueAsBytes(doc));
+
+      list.addObject()
+          .put("name", e.name())
+          .put("file", e.name() + ".json")
+          .put("function", e.function())
+          .put("expectedCode", e.expectedCode());
+    }
+    Files.createDirectories(dir);
+    Files.write(dir.resolve("manifest.json"), WRITER.writeValueAsBytes(manifest));
+    return entries;
+  }
+
+  private static ChallengeBinding binding(SoftwareAuthenticator authenticator) {
+    return new ChallengeBinding(authenticator.randomChallenge(), RP_ID, ORIGIN);
+  }
+
+  private static String slug(Mutation mutation) {
+    return mutation.name().toLowerCase(Locale.ROOT);
+  }
+}
@@ -0,0 +1,33 @@
+package com.acme.passkeys.authenticator;
+
+/**
+ * Variantes inválidas controladas. Cada una rompe una sola comprobación de la especificación
+ * WebAuthn, así que un verificador correcto debe rechazarlas todas y aceptar {@link #NONE}.
+ */
+public enum Mutation {
+  NONE,
+  /** clientDataJSON con un challenge distinto del emitido. */
+  WRONG_CHALLENGE,
+  /** clientDataJSON con otro origin. */
+  WRONG_ORIGIN,
+  /** clientDataJSON con el type de la otra ceremonia. */
+  WRONG_TYPE,
+  /** rpIdHash calculado sobre otro rpId. */
+  WRONG_RP_ID_HASH,
+  /** Sin el flag UP (user present). */
+  USER_NOT_PRESENT,
+  /** Sin el flag UV; el servidor exige verificación de usuario. */
+  USER_NOT_VERIFIED,
+  /** Firma con un bit cambiado (aserción o attestation packed). */
+  BAD_SIGNATURE,
+  /** authenticatorData recortado. */
+  TRUNCATED_AUTHENTICATOR_DATA,
+  /** clientDataJSON que no es JSON. */
+  MALFORMED_CLIENT_DATA;
+
+  public boolean appliesTo(Ceremony ceremony, AttestationFormat format) {
+    return this != BAD_SIGNATURE || ceremony == Ceremony.AUTHENTICATION || format == AttestationFormat.PACKED;
+  }
+
+  public enum Ceremony { REGISTRATION, AUTHENTICATION }
+}
@@ -0,0 +1,269 @@
+package com.acme.passkeys.authenticator;
+
+import com.acme.passkeys.authenticator.Mutation.Ceremony;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Autenticador WebAuthn por software: genera credenciales ES256 / RS256 / EdDSA y produce
+ * attestationObject ("none" o "packed"), clientDataJSON, authenticatorData y firmas válidas para un
+ * challenge emitido por {@code createChallenge}, o las variantes inválidas de {@link Mutation}.
+ *
+ * <p>Con {@link #seeded(long)} todo (claves, ids, firmas) es reproducible byte a byte.
+ */
+public final class SoftwareAuthenticator {
+
+  /** AAGUID fijo del autenticador por software. */
+  public static final byte[] AAGUID = {
+      0x5a, 0x0f, (byte) 0xc0, 0x1e, 0x3b, 0x42, 0x4d, 0x1a, (byte) 0x9e, 0x77, 0x0d, (byte) 0xac, 0x50, (byte) 0xf7, 0x2b, 0x11
+  };
+
+  static final String FOREIGN_ORIGIN = "https://evil.example.net";
+  static final String FOREIGN_RP_ID = "evil.example.net";
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+  private static final int FLAG_UP = 0x01;
+  private static final int FLAG_UV = 0x04;
+  private static final int FLAG_AT = 0x40;
+
+  private final SecureRandom random;
+
+  public SoftwareAuthenticator(SecureRandom random) {
+    this.random = Objects.requireNonNull(random, "random");
+  }
+
+  public SoftwareAuthenticator() {
+    this(new SecureRandom());
+  }
+
+  /** Determinista: la misma semilla produce los mismos bytes en cada ejecución. */
+  public static SoftwareAuthenticator seeded(long seed) {
+    try {
+      SecureRandom random = SecureRandom.getInstance("SHA1PRNG");
+      random.setSeed(seed);
+      return new SoftwareAuthenticator(random);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /** Challenge aleatorio en base64url, como los que emite {@code createChallenge}. */
+  public String randomChallenge() {
+    return b64url(randomBytes(32));
+  }
+
+  /** Credencial registrada: par de claves y contador de firmas del autenticador. */
+  public static final class Credential {
+    private final byte[] id;
+    private final CoseAlgorithm algorithm;
+    private final KeyPair keyPair;
+    private final AtomicInteger signCount = new AtomicInteger();
+
+    Credential(byte[] id, CoseAlgorithm algorithm, KeyPair keyPair) {
+      this.id = id.clone();
+      this.algorithm = algorithm;
+      this.keyPair = keyPair;
+    }
+
+    public String id() { return b64url(id); }
+    public CoseAlgorithm algorithm() { return algorithm; }
+    public KeyPair keyPair() { return keyPair; }
+    public String publicKeyCose() { return b64url(algorithm.coseKey(keyPair.getPublic())); }
+    public String publicKeySpki() { return b64url(keyPair.getPublic().getEncoded()); }
+    public int signCount() { return signCount.get(); }
+    byte[] rawId() { return id.clone(); }
+  }
+
+  /** Respuesta de {@code navigator.credentials.create()} lista para {@code finishRegistration}. */
+  public record Registration(
+      Credential credential,
+      ChallengeBinding binding,
+      AttestationFormat format,
+      Mutation mutation,
+      String clientDataJSON,
+      String attestationObject
+  ) {
+    public ObjectNode request() {
+      ObjectNode root = MAPPER.createObjectNode();
+      root.set("server", server(binding));
+      ObjectNode credentialNode = root.putObject("credential");
+      credentialNode.put("id", credential.id());
+      credentialNode.put("rawId", credential.id());
+      credentialNode.put("type", "public-key");
+      ObjectNode response = credentialNode.putObject("response");
+      response.put("clientDataJSON", clientDataJSON);
+      response.put("attestationObject", attestationObject);
+      return root;
+    }
+
+    public String requestJson() {
+      return request().toString();
+    }
+  }
+
+  /** Respuesta de {@code navigator.credentials.get()} lista para {@code finishAuthentication}. */
+  public record Assertion(
+      Credential credential,
+      ChallengeBinding binding,
+      Mutation mutation,
+      int signCount,
+      String clientDataJSON,
+      String authenticatorData,
+      String signature
+  ) {
+    public ObjectNode request() {
+      ObjectNode root = MAPPER.createObjectNode();
+      root.set("server", server(binding));
+      ObjectNode credentialNode = root.putObject("credential");
+      credentialNode.put("id", credential.id());
+      credentialNode.put("type", "public-key");
+      ObjectNode response = credentialNode.putObject("response");
+      response.put("clientDataJSON", clientDataJSON);
+      response.put("authenticatorData", authenticatorData);
+      response.put("signature", signature);
+      response.putNull("userHandle");
+      root.putObject("storedCredential")
+          .put("publicKeyCose", credential.publicKeyCose())
+          .put("algorithm", credential.algorithm().coseId())
+          .put("publicKeySpki", credential.publicKeySpki());
+      return root;
+    }
+
+    public String requestJson() {
+      return request().toString();
+    }
+  }
+
+  public Registration register(ChallengeBinding binding, CoseAlgorithm algorithm, AttestationFormat format) {
+    return register(binding, algorithm, format, Mutation.NONE);
+  }
+
+  public Registration register(ChallengeBinding binding, CoseAlgorithm algorithm, AttestationFormat format, Mutation mutation) {
+    requireApplicable(mutation, Ceremony.REGISTRATION, format);
+    Credential credential = new Credential(randomBytes(16), algorithm, algorithm.generateKeyPair(random));
+    byte[] cose = algorithm.coseKey(credential.keyPair().getPublic());
+
+    ByteArrayOutputStream attested = new ByteArrayOutputStream();
+    attested.writeBytes(AAGUID);
+    attested.writeBytes(ByteBuffer.allocate(2).putShort((short) credential.rawId().length).array());
+    attested.writeBytes(credential.rawId());
+    attested.writeBytes(cose);
+
+    byte[] authData = authenticatorData(binding, mutation, FLAG_AT, 0, attested.toByteArray());
+    byte[] clientData = clientData("webauthn.create", binding, mutation);
+
+    Cbor att = new Cbor().map(3).text("fmt").text(format.fmt()).text("attStmt");
+    if (format == AttestationFormat.PACKED) {
+      byte[] sig = algorithm.sign(credential.keyPair().getPrivate(), random, authData, sha256(clientData));
+      att.map(2).text("alg").integer(algorithm.coseId()).text("sig").bytes(mutation == Mutation.BAD_SIGNATURE ? flip(sig) : sig);
+    } else {
+      att.map(0);
+    }
+    att.text("authData").bytes(authData);
+
+    return new Registration(credential, binding, format, mutation, b64url(clientData), b64url(att.toByteArray()));
+  }
+
+  public Assertion authenticate(Credential credential, ChallengeBinding binding) {
+    return authenticate(credential, binding, Mutation.NONE);
+  }
+
+  public Assertion authenticate(Credential credential, ChallengeBinding binding, Mutation mutation) {
+    requireApplicable(mutation, Ceremony.AUTHENTICATION, null);
+    int signCount = credential.signCount.incrementAndGet();
+    byte[] authData = authenticatorData(binding, mutation, 0, signCount, new byte[0]);
+    byte[] clientData = clientData("webauthn.get", binding, mutation);
+
+    // La firma cubre lo que se envía, también en las variantes inválidas: sólo falla la comprobación mutada
+    byte[] sig = credential.algorithm().sign(credential.keyPair().getPrivate(), random, authData, sha256(clientData));
+    if (mutation == Mutation.BAD_SIGNATURE) sig = flip(sig);
+
+    return new Assertion(credential, binding, mutation, signCount, b64url(clientData), b64url(authData), b64url(sig));
+  }
+
+  private byte[] authenticatorData(ChallengeBinding binding, Mutation mutation, int extraFlags, int signCount, byte[] attestedCredentialData) {
+    String rpId = mutation == Mutation.WRONG_RP_ID_HASH ? FOREIGN_RP_ID : binding.rpId();
+    int flags = FLAG_UP | FLAG_UV | extraFlags;
+    if (mutation == Mutation.USER_NOT_PRESENT) flags &= ~FLAG_UP;
+    if (mutation == Mutation.USER_NOT_VERIFIED) flags &= ~FLAG_UV;
+
+    byte[] data = ByteBuffer.allocate(37 + attestedCredentialData.length)
+        .put(sha256(rpId.getBytes(StandardCharsets.UTF_8)))
+        .put((byte) flags)
+        .putInt(signCount)
+        .put(attestedCredentialData)
+        .array();
+    return mutation == Mutation.TRUNCATED_AUTHENTICATOR_DATA ? Arrays.copyOf(data, data.length - 8) : data;
+  }
+
+  private byte[] clientData(String type, ChallengeBinding binding, Mutation mutation) {
+    if (mutation == Mutation.MALFORMED_CLIENT_DATA) {
+      return ("{\"type\":\"" + type + "\",\"challenge\":").getBytes(StandardCharsets.UTF_8);
+    }
+    String actualType = mutation == Mutation.WRONG_TYPE
+        ? (type.equals("webauthn.create") ? "webauthn.get" : "webauthn.create")
+        : type;
+    String challenge = mutation == Mutation.WRONG_CHALLENGE ? randomChallenge() : binding.challenge();
+    String origin = mutation == Mutation.WRONG_ORIGIN ? FOREIGN_ORIGIN : binding.origin();
+
+    ObjectNode node = MAPPER.createObjectNode();
+    node.put("type", actualType);
+    node.put("challenge", challenge);
+    node.put("origin", origin);
+    node.put("crossOrigin", false);
+    return node.toString().getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static ObjectNode server(ChallengeBinding binding) {
+    ObjectNode server = MAPPER.createObjectNode();
+    server.put("challenge", binding.challenge());
+    server.put("rpId", binding.rpId());
+    server.put("origin", binding.origin());
+    server.put("userVerificationRequired", true);
+    return server;
+  }
+
+  private static void requireApplicable(Mutation mutation, Ceremony ceremony, AttestationFormat format) {
+    Objects.requireNonNull(mutation, "mutation");
+    if (!mutation.appliesTo(ceremony, format)) {
+      throw new IllegalArgumentException(mutation + " does not apply to " + ceremony + (format == null ? "" : " with " + format));
+    }
+  }
+
+  private byte[] randomBytes(int n) {
+    byte[] b = new byte[n];
+    random.nextBytes(b);
+    return b;
+  }
+
+  private static byte[] flip(byte[] sig) {
+    byte[] out = sig.clone();
+    out[out.length / 2] ^= 0x01;
+    return out;
+  }
+
+  static byte[] sha256(byte[] in) {
+    try {
+      return MessageDigest.getInstance("SHA-256").digest(in);
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  static String b64url(byte[] bytes) {
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+  }
+}
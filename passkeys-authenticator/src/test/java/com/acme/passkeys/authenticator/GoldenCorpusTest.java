@@ -0,0 +1,66 @@
+package com.acme.passkeys.authenticator;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+
+class GoldenCorpusTest {
+
+  @TempDir
+  Path tmp;
+
+  @Test
+  void sameSeed_writesIdenticalFiles() throws Exception {
+    GoldenCorpus.write(tmp.resolve("a"), 42);
+    GoldenCorpus.write(tmp.resolve("b"), 42);
+
+    List<Path> files = files(tmp.resolve("a"));
+    assertThat(files).isNotEmpty().isEqualTo(files(tmp.resolve("b")));
+    for (Path rel : files) {
+      assertThat(Files.readAllBytes(tmp.resolve("b").resolve(rel)))
+          .as(rel.toString())
+          .isEqualTo(Files.readAllBytes(tmp.resolve("a").resolve(rel)));
+    }
+  }
+
+  @Test
+  void differentSeed_changesContent() throws Exception {
+    var a = GoldenCorpus.generate(1).get(0).request();
+    var b = GoldenCorpus.generate(2).get(0).request();
+    assertThat(a).isNotEqualTo(b);
+  }
+
+  @Test
+  void manifest_listsEveryEntry_withExpectedCodes() throws Exception {
+    List<GoldenCorpus.Entry> entries = GoldenCorpus.write(tmp, 42);
+    JsonNode manifest = new ObjectMapper().readTree(tmp.resolve("manifest.json").toFile());
+
+    assertThat(manifest.get("seed").asLong()).isEqualTo(42);
+    assertThat(manifest.get("entries")).hasSize(entries.size());
+    for (JsonNode e : manifest.get("entries")) {
+      assertThat(tmp.resolve(e.get("file").asText())).exists();
+    }
+
+    // 3 algoritmos x (none: 9 válidas/mutadas + packed: 10) en registro, 3 x 10 en autenticación
+    assertThat(entries).hasSize(3 * (9 + 10) + 3 * 10);
+    assertThat(entries).filteredOn(e -> e.expectedCode() == 200).hasSize(3 * 2 + 3);
+    assertThat(entries).filteredOn(e -> e.function().equals("finishRegistration") && e.expectedCode() != 200)
+        .allMatch(e -> e.expectedCode() == 400);
+    assertThat(entries).filteredOn(e -> e.function().equals("finishAuthentication") && e.expectedCode() != 200)
+        .allMatch(e -> e.expectedCode() == 401);
+  }
+
+  private static List<Path> files(Path dir) throws Exception {
+    try (Stream<Path> s = Files.walk(dir)) {
+      return s.filter(Files::isRegularFile).map(dir::relativize).sorted().toList();
+    }
+  }
+}
@@ -0,0 +1,170 @@
+package com.acme.passkeys.authenticator;
+
+import com.acme.passkeys.authenticator.Mutation.Ceremony;
+import com.webauthn4j.WebAuthnManager;
+import com.webauthn4j.authenticator.AuthenticatorImpl;
+import com.webauthn4j.data.AuthenticationParameters;
+import com.webauthn4j.data.AuthenticationRequest;
+import com.webauthn4j.data.PublicKeyCredentialParameters;
+import com.webauthn4j.data.PublicKeyCredentialType;
+import com.webauthn4j.data.RegistrationData;
+import com.webauthn4j.data.RegistrationParameters;
+import com.webauthn4j.data.RegistrationRequest;
+import com.webauthn4j.data.attestation.statement.COSEAlgorithmIdentifier;
+import com.webauthn4j.data.client.Origin;
+import com.webauthn4j.data.client.challenge.DefaultChallenge;
+import com.webauthn4j.server.ServerProperty;
+import com.webauthn4j.verifier.attestation.statement.none.NoneAttestationStatementVerifier;
+import com.webauthn4j.verifier.attestation.statement.packed.PackedAttestationStatementVerifier;
+import com.webauthn4j.verifier.attestation.trustworthiness.certpath.NullCertPathTrustworthinessVerifier;
+import com.webauthn4j.verifier.attestation.trustworthiness.self.DefaultSelfAttestationTrustworthinessVerifier;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.Base64;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/** Prueba diferencial: webauthn4j (verificación completa, no sólo parseo) es la referencia. */
+class SoftwareAuthenticatorTest {
+
+  private static final WebAuthnManager REFERENCE = new WebAuthnManager(
+      List.of(new NoneAttestationStatementVerifier(), new PackedAttestationStatementVerifier()),
+      new NullCertPathTrustworthinessVerifier(),
+      new DefaultSelfAttestationTrustworthinessVerifier()
+  );
+
+  private static final List<PublicKeyCredentialParameters> ALGORITHMS = List.of(
+      new PublicKeyCredentialParameters(PublicKeyCredentialType.PUBLIC_KEY, COSEAlgorithmIdentifier.ES256),
+      new PublicKeyCredentialParameters(PublicKeyCredentialType.PUBLIC_KEY, COSEAlgorithmIdentifier.RS256),
+      new PublicKeyCredentialParameters(PublicKeyCredentialType.PUBLIC_KEY, COSEAlgorithmIdentifier.EdDSA)
+  );
+
+  private final SoftwareAuthenticator authenticator = SoftwareAuthenticator.seeded(7);
+
+  @ParameterizedTest
+  @EnumSource(CoseAlgorithm.class)
+  void registration_validForEveryFormat_andEveryMutationIsRejected(CoseAlgorithm alg) {
+    for (AttestationFormat format : AttestationFormat.values()) {
+      for (Mutation mutation : Mutation.values()) {
+        if (!mutation.appliesTo(Ceremony.REGISTRATION, format)) continue;
+        var reg = authenticator.register(binding(), alg, format, mutation);
+
+        if (mutation == Mutation.NONE) {
+          RegistrationData data = verify(reg);
+          assertThat(data.getAttestationObject().getFormat()).isEqualTo(format.fmt());
+          assertThat(data.getAttestationObject().getAuthenticatorData().getAttestedCredentialData().getCOSEKey().getAlgorithm().getValue())
+              .isEqualTo(alg.coseId());
+        } else {
+          assertThatThrownBy(() -> verify(reg)).as("%s %s %s", alg, format, mutation).isInstanceOf(RuntimeException.class);
+        }
+      }
+    }
+  }
+
+  @ParameterizedTest
+  @EnumSource(CoseAlgorithm.class)
+  void assertion_validWithStoredKey_andEveryMutationIsRejected(CoseAlgorithm alg) {
+    var reg = authenticator.register(binding(), alg, AttestationFormat.NONE);
+    RegistrationData registered = verify(reg);
+
+    for (Mutation mutation : Mutation.values()) {
+      var assertion = authenticator.authenticate(reg.credential(), binding(), mutation);
+      if (mutation == Mutation.NONE) {
+        assertThatCode(() -> verify(assertion, registered)).doesNotThrowAnyException();
+      } else {
+        assertThatThrownBy(() -> verify(assertion, registered)).as("%s %s", alg, mutation).isInstanceOf(RuntimeException.class);
+      }
+    }
+  }
+
+  @Test
+  void assertion_incrementsSignCount() {
+    var credential = authenticator.register(binding(), CoseAlgorithm.ES256, AttestationFormat.NONE).credential();
+
+    assertThat(authenticator.authenticate(credential, binding()).signCount()).isEqualTo(1);
+    assertThat(authenticator.authenticate(credential, binding()).signCount()).isEqualTo(2);
+    assertThat(credential.signCount()).isEqualTo(2);
+  }
+
+  @Test
+  void badSignature_doesNotApplyToNoneAttestation() {
+    assertThatThrownBy(() -> authenticator.register(binding(), CoseAlgorithm.ES256, AttestationFormat.NONE, Mutation.BAD_SIGNATURE))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void requestJson_matchesFunctionDtos() {
+    var reg = authenticator.register(binding(), CoseAlgorithm.ES256, AttestationFormat.PACKED);
+    var assertion = authenticator.authenticate(reg.credential(), binding());
+
+    assertThat(reg.request().at("/credential/response/attestationObject").asText()).isEqualTo(reg.attestationObject());
+    assertThat(reg.request().at("/server/userVerificationRequired").asBoolean()).isTrue();
+    assertThat(assertion.request().at("/storedCredential/publicKeyCose").asText()).isEqualTo(reg.credential().publicKeyCose());
+    assertThat(assertion.request().at("/storedCredential/algorithm").asInt()).isEqualTo(-7);
+    assertThat(assertion.request().at("/storedCredential/publicKeySpki").asText()).isEqualTo(reg.credential().publicKeySpki());
+    assertThat(assertion.request().at("/credential/response/userHandle").isNull()).isTrue();
+  }
+
+  @Test
+  void bindingFromCreateChallengeResponse() {
+    var binding = ChallengeBinding.fromCreateChallengeResponse("""
+        {"transactionId":"t","type":"AUTHENTICATION","userId":"u","rpId":"example.com",
+         "origin":"https://example.com","timeoutMs":60000,"challenge":"abc","createdAt":"x","expiresAt":"y"}
+        """);
+
+    assertThat(binding).isEqualTo(new ChallengeBinding("abc", "example.com", "https://example.com"));
+    assertThatThrownBy(() -> ChallengeBinding.fromCreateChallengeResponse("{\"rpId\":\"x\"}"))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void seeded_isReproducible() {
+    var a = SoftwareAuthenticator.seeded(99);
+    var b = SoftwareAuthenticator.seeded(99);
+    var bindingA = new ChallengeBinding(a.randomChallenge(), "example.com", "https://example.com");
+    var bindingB = new ChallengeBinding(b.randomChallenge(), "example.com", "https://example.com");
+
+    for (CoseAlgorithm alg : CoseAlgorithm.values()) {
+      var regA = a.register(bindingA, alg, AttestationFormat.PACKED);
+      var regB = b.register(bindingB, alg, AttestationFormat.PACKED);
+      assertThat(regA.requestJson()).isEqualTo(regB.requestJson());
+      assertThat(a.authenticate(regA.credential(), bindingA).requestJson())
+          .isEqualTo(b.authenticate(regB.credential(), bindingB).requestJson());
+    }
+  }
+
+  private ChallengeBinding binding() {
+    return new ChallengeBinding(authenticator.randomChallenge(), "example.com", "https://example.com");
+  }
+
+  private static RegistrationData verify(SoftwareAuthenticator.Registration reg) {
+    var request = new RegistrationRequest(decode(reg.attestationObject()), decode(reg.clientDataJSON()));
+    return REFERENCE.verify(request, new RegistrationParameters(server(reg.binding()), ALGORITHMS, true, true));
+  }
+
+  private static void verify(SoftwareAuthenticator.Assertion assertion, RegistrationData registered) {
+    var stored = new AuthenticatorImpl(
+        registered.getAttestationObject().getAuthenticatorData().getAttestedCredentialData(),
+        registered.getAttestationObject().getAttestationStatement(),
+        0
+    );
+    var request = new AuthenticationRequest(
+        decode(assertion.credential().id()),
+        decode(assertion.authenticatorData()),
+        decode(assertion.clientDataJSON()),
+        decode(assertion.signature())
+    );
+    REFERENCE.verify(request, new AuthenticationParameters(server(assertion.binding()), stored, null, true, true));
+  }
+
+  private static ServerProperty server(ChallengeBinding binding) {
+    return new ServerProperty(new Origin(binding.origin()), binding.rpId(), new DefaultChallenge(decode(binding.challenge())), null);
+  }
+
+  private static byte[] decode(String b64url) {
+    return Base64.getUrlDecoder().decode(b64url);
+  }
+}
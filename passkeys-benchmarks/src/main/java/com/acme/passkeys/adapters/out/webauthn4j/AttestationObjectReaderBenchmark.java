@@ -0,0 +1,56 @@
+package com.acme.passkeys.adapters.out.webauthn4j;
+
+import com.acme.passkeys.authenticator.AttestationFormat;
+import com.acme.passkeys.authenticator.ChallengeBinding;
+import com.acme.passkeys.authenticator.CoseAlgorithm;
+import com.acme.passkeys.authenticator.SoftwareAuthenticator;
+import com.webauthn4j.converter.AttestationObjectConverter;
+import com.webauthn4j.converter.util.ObjectConverter;
+import com.webauthn4j.data.attestation.AttestationObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * attestationObject → {@link AttestationObject}: {@code AttestationObjectReader} (package-private, de ahí
+ * el paquete) frente al conversor Jackson-CBOR de webauthn4j. Lo interesante es {@code gc.alloc.rate.norm}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AttestationObjectReaderBenchmark {
+
+  @Param({"ES256", "RS256", "EdDSA"})
+  public CoseAlgorithm alg;
+
+  @Param({"NONE", "PACKED"})
+  public AttestationFormat format;
+
+  private final AttestationObjectConverter converter = new AttestationObjectConverter(new ObjectConverter());
+  private byte[] attestationObject;
+
+  @Setup
+  public void setUp() {
+    SoftwareAuthenticator authenticator = SoftwareAuthenticator.seeded(1);
+    ChallengeBinding binding = new ChallengeBinding(authenticator.randomChallenge(), "example.com", "https://example.com");
+    attestationObject = Base64.getUrlDecoder().decode(authenticator.register(binding, alg, format).attestationObject());
+  }
+
+  @Benchmark
+  public AttestationObject reader() {
+    return AttestationObjectReader.read(attestationObject);
+  }
+
+  @Benchmark
+  public AttestationObject webauthn4j() {
+    return converter.convert(attestationObject);
+  }
+}
@@ -0,0 +1,63 @@
+package com.acme.passkeys.adapters.out.webauthn4j;
+
+import com.acme.passkeys.authenticator.AttestationFormat;
+import com.acme.passkeys.authenticator.ChallengeBinding;
+import com.acme.passkeys.authenticator.CoseAlgorithm;
+import com.acme.passkeys.authenticator.SoftwareAuthenticator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Helpers {@code b64urlDecode} de ambos verificadores (en el mismo paquete para llegar a los
+ * métodos package-private) frente al decoder URL del JDK, con los campos reales de una petición.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class B64UrlDecodeBenchmark {
+
+  @Param({"challenge", "clientDataJSON", "attestationObject-ES256", "attestationObject-RS256", "signature-RS256"})
+  public String field;
+
+  private String value;
+
+  @Setup
+  public void setUp() {
+    SoftwareAuthenticator authenticator = SoftwareAuthenticator.seeded(1);
+    ChallengeBinding binding = new ChallengeBinding(authenticator.randomChallenge(), "example.com", "https://example.com");
+    var es256 = authenticator.register(binding, CoseAlgorithm.ES256, AttestationFormat.NONE);
+    var rs256 = authenticator.register(binding, CoseAlgorithm.RS256, AttestationFormat.NONE);
+    value = switch (field) {
+      case "challenge" -> binding.challenge();
+      case "clientDataJSON" -> es256.clientDataJSON();
+      case "attestationObject-ES256" -> es256.attestationObject();
+      case "attestationObject-RS256" -> rs256.attestationObject();
+      case "signature-RS256" -> authenticator.authenticate(rs256.credential(), binding).signature();
+      default -> throw new IllegalArgumentException(field);
+    };
+  }
+
+  @Benchmark
+  public byte[] registrationVerifier() {
+    return WebAuthn4jRegistrationVerifier.b64urlDecode(value);
+  }
+
+  @Benchmark
+  public byte[] authenticationVerifier() {
+    return WebAuthn4jAuthenticationVerifier.b64urlDecode(value);
+  }
+
+  @Benchmark
+  public byte[] jdkUrlDecoder() {
+    return Base64.getUrlDecoder().decode(value);
+  }
+}
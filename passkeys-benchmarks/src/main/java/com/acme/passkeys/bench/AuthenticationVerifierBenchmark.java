@@ -0,0 +1,81 @@
+package com.acme.passkeys.bench;
+
+import com.acme.passkeys.application.ports.out.AuthenticationVerifier;
+import com.acme.passkeys.application.ports.out.AuthenticationVerifier.VerifyAuthenticationCommand;
+import com.acme.passkeys.application.ports.out.StageMetrics;
+import com.acme.passkeys.authenticator.AttestationFormat;
+import com.acme.passkeys.authenticator.ChallengeBinding;
+import com.acme.passkeys.authenticator.CoseAlgorithm;
+import com.acme.passkeys.authenticator.SoftwareAuthenticator;
+import com.acme.passkeys.config.FinishAuthenticationConfig;
+import com.acme.passkeys.domain.model.Binary;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code WebAuthn4jAuthenticationVerifier.verify} con aserciones ES256, RS256 y EdDSA firmadas de verdad,
+ * con la clave guardada en COSE (credenciales antiguas) o en SPKI + alg (lo que devuelve finishRegistration).
+ * {@code wire}: campos en base64url (JSON, se decodifican en cada llamada) o ya en crudo (CBOR).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AuthenticationVerifierBenchmark {
+
+  @Param({"ES256", "RS256", "EdDSA"})
+  public CoseAlgorithm alg;
+
+  @Param({"cose", "spki"})
+  public String storedKey;
+
+  @Param({"json", "cbor"})
+  public String wire;
+
+  private AuthenticationVerifier verifier;
+  private ChallengeBinding binding;
+  private String credentialId;
+  private String[] fields; // publicKeyCose, publicKeySpki, clientDataJSON, authenticatorData, signature
+  private byte[][] raw;
+
+  @Setup
+  public void setUp() {
+    FinishAuthenticationConfig c = new FinishAuthenticationConfig();
+    verifier = c.authenticationVerifier(c.webAuthnManager(), c.authenticationDataVerifier(), StageMetrics.NOOP);
+
+    SoftwareAuthenticator authenticator = SoftwareAuthenticator.seeded(1);
+    binding = new ChallengeBinding(authenticator.randomChallenge(), "example.com", "https://example.com");
+    var credential = authenticator.register(binding, alg, AttestationFormat.NONE).credential();
+    var auth = authenticator.authenticate(credential, binding);
+    credentialId = credential.id();
+    fields = new String[] {
+        storedKey.equals("cose") ? credential.publicKeyCose() : null,
+        storedKey.equals("spki") ? credential.publicKeySpki() : null,
+        auth.clientDataJSON(), auth.authenticatorData(), auth.signature()};
+    raw = new byte[fields.length][];
+    for (int i = 0; i < fields.length; i++) raw[i] = fields[i] == null ? null : Binary.ofBase64Url(fields[i]).bytes();
+  }
+
+  @Benchmark
+  public AuthenticationVerifier.VerifiedAuthentication verify() {
+    return verifier.verify(command());
+  }
+
+  // Binary guarda lo decodificado: un comando nuevo por llamada para que el camino JSON pague su decodificación
+  private VerifyAuthenticationCommand command() {
+    return new VerifyAuthenticationCommand(
+        binding.challenge(), binding.rpId(), binding.origin(), true,
+        credentialId, binary(0), alg.coseId(), binary(1), binary(2), binary(3), binary(4), null);
+  }
+
+  private Binary binary(int field) {
+    return wire.equals("cbor") ? Binary.of(raw[field]) : Binary.ofBase64Url(fields[field]);
+  }
+}
@@ -0,0 +1,115 @@
+package com.acme.passkeys.bench;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * Compara dos directorios de {@link BenchmarkRunner} (p. ej. {@code results/abc123} y
+ * {@code results/def456}) por benchmark, parámetros y número de hilos. Termina con código 1 si algún
+ * benchmark empeora más que el umbral (default 10%).
+ *
+ * <pre>java -cp target/benchmarks.jar com.acme.passkeys.bench.BenchmarkCompare results/base results/head [umbral%]</pre>
+ */
+public final class BenchmarkCompare {
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+  private static final String ALLOC_NORM = "gc.alloc.rate.norm";
+
+  /** Puntuación principal y bytes asignados por operación (NaN si no se usó el profiler de GC). */
+  record Score(String mode, String unit, double score, double error, double allocBytesPerOp) {
+    boolean higherIsBetter() {
+      return "thrpt".equals(mode);
+    }
+  }
+
+  record Delta(String key, Score base, Score candidate, double changePct, boolean regression) {}
+
+  private BenchmarkCompare() {}
+
+  public static void main(String[] args) throws IOException {
+    if (args.length < 2) {
+      System.err.println("usage: BenchmarkCompare <baseDir> <candidateDir> [thresholdPct]");
+      System.exit(2);
+    }
+    double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 10.0;
+    List<Delta> deltas = compare(load(Path.of(args[0])), load(Path.of(args[1])), threshold);
+
+    boolean regressed = false;
+    for (Delta d : deltas) {
+      regressed |= d.regression();
+      System.out.printf("%-110s %12.3f -> %12.3f %-6s %+7.1f%% alloc %s -> %s B/op%s%n",
+          d.key(), d.base().score(), d.candidate().score(), d.candidate().unit(), d.changePct(),
+          bytes(d.base().allocBytesPerOp()), bytes(d.candidate().allocBytesPerOp()),
+          d.regression() ? "  REGRESSION" : "");
+    }
+    if (regressed) System.exit(1);
+  }
+
+  /** Lee todos los {@code threads-*.json} de un directorio. Clave: benchmark[params]@threads. */
+  static Map<String, Score> load(Path dir) throws IOException {
+    Map<String, Score> scores = new TreeMap<>();
+    try (Stream<Path> files = Files.list(dir)) {
+      for (Path file : files.filter(p -> p.getFileName().toString().matches("threads-\\d+\\.json")).sorted().toList()) {
+        for (JsonNode run : MAPPER.readTree(file.toFile())) {
+          scores.put(key(run), score(run));
+        }
+      }
+    }
+    return scores;
+  }
+
+  /** Sólo los benchmarks presentes en ambos lados; el signo de {@code changePct} es "peor" si es positivo. */
+  static List<Delta> compare(Map<String, Score> base, Map<String, Score> candidate, double thresholdPct) {
+    List<Delta> deltas = new ArrayList<>();
+    base.forEach((key, b) -> {
+      Score c = candidate.get(key);
+      if (c == null || b.score() == 0) return;
+      double change = (c.score() - b.score()) / b.score() * 100.0;
+      double worse = b.higherIsBetter() ? -change : change;
+      deltas.add(new Delta(key, b, c, worse, worse > thresholdPct));
+    });
+    return deltas;
+  }
+
+  private static String key(JsonNode run) {
+    StringBuilder key = new StringBuilder(run.path("benchmark").asText());
+    JsonNode params = run.path("params");
+    if (!params.isMissingNode() && params.size() > 0) {
+      key.append('[');
+      Iterator<Map.Entry<String, JsonNode>> it = params.fields();
+      while (it.hasNext()) {
+        Map.Entry<String, JsonNode> p = it.next();
+        key.append(p.getKey()).append('=').append(p.getValue().asText());
+        if (it.hasNext()) key.append(',');
+      }
+      key.append(']');
+    }
+    return key.append('@').append(run.path("threads").asInt()).toString();
+  }
+
+  private static Score score(JsonNode run) {
+    JsonNode primary = run.path("primaryMetric");
+    JsonNode alloc = run.path("secondaryMetrics").path(ALLOC_NORM);
+    return new Score(
+        run.path("mode").asText(),
+        primary.path("scoreUnit").asText(),
+        primary.path("score").asDouble(),
+        primary.path("scoreError").asDouble(Double.NaN),
+        alloc.isMissingNode() ? Double.NaN : alloc.path("score").asDouble()
+    );
+  }
+
+  private static String bytes(double v) {
+    return Double.isNaN(v) ? "-" : String.format("%.0f", v);
+  }
+}
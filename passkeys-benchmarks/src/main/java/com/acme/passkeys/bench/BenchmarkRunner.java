@@ -0,0 +1,83 @@
+package com.acme.passkeys.bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Lanza todos los benchmarks una vez por cada número de hilos, con el profiler de GC, y guarda el
+ * resultado JSON de JMH en {@code <out>/<commit>/threads-<n>.json}. {@link BenchmarkCompare} compara
+ * después dos de esos directorios.
+ *
+ * <p>Propiedades: {@code bench.include} (regex, default todos), {@code bench.threads} (default
+ * {@code 1,2,4,8}), {@code bench.out} (default {@code results}), {@code bench.commit} (default
+ * {@code git rev-parse --short HEAD}), {@code bench.forks}, {@code bench.warmup},
+ * {@code bench.iterations} y {@code bench.time} (segundos por iteración).
+ */
+public final class BenchmarkRunner {
+
+  private BenchmarkRunner() {}
+
+  public static void main(String[] args) throws RunnerException, IOException {
+    String include = System.getProperty("bench.include", "com\\.acme\\.passkeys\\..*Benchmark.*");
+    List<Integer> threads = parseThreads(System.getProperty("bench.threads", "1,2,4,8"));
+    Path dir = Path.of(System.getProperty("bench.out", "results")).resolve(commit());
+    Files.createDirectories(dir);
+
+    for (int n : threads) {
+      Path result = dir.resolve("threads-" + n + ".json");
+      Options options = new OptionsBuilder()
+          .include(include)
+          .threads(n)
+          .forks(Integer.getInteger("bench.forks", 1))
+          .warmupIterations(Integer.getInteger("bench.warmup", 3))
+          .warmupTime(TimeValue.seconds(Integer.getInteger("bench.time", 2)))
+          .measurementIterations(Integer.getInteger("bench.iterations", 5))
+          .measurementTime(TimeValue.seconds(Integer.getInteger("bench.time", 2)))
+          .addProfiler(GCProfiler.class)
+          .resultFormat(ResultFormatType.JSON)
+          .result(result.toString())
+          .build();
+      new Runner(options).run();
+      System.out.println("results: " + result);
+    }
+  }
+
+  static List<Integer> parseThreads(String csv) {
+    List<Integer> threads = Arrays.stream(csv.split(","))
+        .map(String::trim)
+        .filter(s -> !s.isEmpty())
+        .map(Integer::valueOf)
+        .toList();
+    if (threads.isEmpty() || threads.stream().anyMatch(n -> n <= 0)) {
+      throw new IllegalArgumentException("bench.threads must be a list of positive integers: " + csv);
+    }
+    return threads;
+  }
+
+  private static String commit() {
+    String commit = System.getProperty("bench.commit");
+    if (commit != null && !commit.isBlank()) return commit;
+    try {
+      Process git = new ProcessBuilder("git", "rev-parse", "--short", "HEAD").redirectErrorStream(true).start();
+      String out = new String(git.getInputStream().readAllBytes(), StandardCharsets.UTF_8).trim();
+      return git.waitFor() == 0 && !out.isEmpty() ? out : "unknown";
+    } catch (IOException e) {
+      return "unknown";
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return "unknown";
+    }
+  }
+}
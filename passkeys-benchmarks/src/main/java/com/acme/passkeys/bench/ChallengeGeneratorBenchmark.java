@@ -0,0 +1,37 @@
+package com.acme.passkeys.bench;
+
+import com.acme.passkeys.domain.service.ChallengeGenerator;
+import com.acme.passkeys.domain.service.ReseedableSecureRandom;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+
+/** {@link ChallengeGenerator#generateBase64UrlChallenge}: un SecureRandom compartido entre hilos, como en producción. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ChallengeGeneratorBenchmark {
+
+  @Param({"16", "32", "64"})
+  public int bytes;
+
+  private ChallengeGenerator generator;
+
+  @Setup
+  public void setUp() {
+    generator = new ChallengeGenerator(new ReseedableSecureRandom(SecureRandom::new));
+  }
+
+  @Benchmark
+  public String generateBase64UrlChallenge() {
+    return generator.generateBase64UrlChallenge(bytes);
+  }
+}
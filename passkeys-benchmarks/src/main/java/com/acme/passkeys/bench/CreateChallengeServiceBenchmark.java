@@ -0,0 +1,99 @@
+package com.acme.passkeys.bench;
+
+import com.acme.passkeys.adapters.in.function.dto.ChallengeRequest;
+import com.acme.passkeys.adapters.in.function.dto.ChallengeResponse;
+import com.acme.passkeys.adapters.out.async.AsyncChallengeStoreAdapter;
+import com.acme.passkeys.adapters.out.cache.NearCacheChallengeStore;
+import com.acme.passkeys.adapters.out.memory.InMemoryChallengeStore;
+import com.acme.passkeys.adapters.out.partition.ConsistentHashChallengeStore;
+import com.acme.passkeys.adapters.out.resilience.CircuitBreaker;
+import com.acme.passkeys.adapters.out.resilience.CircuitBreakerChallengeStore;
+import com.acme.passkeys.application.ports.out.ChallengeStore;
+import com.acme.passkeys.application.service.CreateChallengeService;
+import com.acme.passkeys.application.service.IssuedChallengeCache;
+import com.acme.passkeys.domain.service.ChallengeGenerator;
+import com.acme.passkeys.domain.service.ReseedableSecureRandom;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link CreateChallengeService#handle} con cada implementación de {@link ChallengeStore}.
+ * {@code handle} consume el challenge emitido, como haría el finish, para que el store no crezca
+ * sin límite durante la medición.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CreateChallengeServiceBenchmark {
+
+  @Param({"inMemory", "circuitBreaker", "nearCache", "consistentHash", "consistentHashHedged"})
+  public String store;
+
+  private static final ChallengeRequest FRESH =
+      new ChallengeRequest("REGISTRATION", "user-1", "example.com", "https://example.com", 60_000, null, 0, 0);
+  private static final ChallengeRequest RETRY =
+      new ChallengeRequest("REGISTRATION", "user-1", "example.com", "https://example.com", 60_000, "tx-retry", 0, 0);
+
+  private ChallengeStore challengeStore;
+  private CreateChallengeService service;
+  private ExecutorService hedgeExecutor;
+
+  @Setup
+  public void setUp() {
+    Clock clock = Clock.systemUTC();
+    challengeStore = switch (store) {
+      case "inMemory" -> new InMemoryChallengeStore();
+      case "circuitBreaker" -> new CircuitBreakerChallengeStore(
+          new InMemoryChallengeStore(), new CircuitBreaker(CircuitBreaker.Settings.defaults(), clock));
+      case "nearCache" -> new NearCacheChallengeStore(new InMemoryChallengeStore(), clock, Duration.ofSeconds(5), Duration.ofSeconds(2), 10_000);
+      case "consistentHash" -> partitioned(new ConsistentHashChallengeStore(64));
+      case "consistentHashHedged" -> {
+        hedgeExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        yield partitioned(new ConsistentHashChallengeStore(64, Duration.ofMillis(5), hedgeExecutor));
+      }
+      default -> throw new IllegalArgumentException(store);
+    };
+    ChallengeGenerator generator = new ChallengeGenerator(new ReseedableSecureRandom(SecureRandom::new));
+    service = new CreateChallengeService(generator, challengeStore, new AsyncChallengeStoreAdapter(challengeStore, Runnable::run), clock,
+        new IssuedChallengeCache(clock, CreateChallengeService.DEFAULT_IDEMPOTENCY_WINDOW), CreateChallengeService.Options.DEFAULTS);
+  }
+
+  @TearDown
+  public void tearDown() {
+    if (hedgeExecutor != null) hedgeExecutor.shutdownNow();
+  }
+
+  @Benchmark
+  public ChallengeResponse handle() {
+    ChallengeResponse response = service.handle(FRESH);
+    challengeStore.consume(response.transactionId());
+    return response;
+  }
+
+  /** Reintento con el mismo transactionId: sale de IssuedChallengeCache sin tocar el store. */
+  @Benchmark
+  public ChallengeResponse handleRetry() {
+    return service.handle(RETRY);
+  }
+
+  private static ChallengeStore partitioned(ConsistentHashChallengeStore store) {
+    for (int i = 0; i < 4; i++) {
+      store.addBackend("node-" + i, new InMemoryChallengeStore());
+    }
+    return store;
+  }
+}
@@ -0,0 +1,186 @@
+package com.acme.passkeys.bench;
+
+import com.acme.passkeys.adapters.in.function.dto.ChallengeRequest;
+import com.acme.passkeys.adapters.in.function.dto.ChallengeResponse;
+import com.acme.passkeys.adapters.in.function.dto.FinishAuthenticationRequest;
+import com.acme.passkeys.adapters.in.function.dto.FinishAuthenticationResponse;
+import com.acme.passkeys.adapters.in.function.dto.FinishRegistrationRequest;
+import com.acme.passkeys.adapters.in.function.dto.FinishRegistrationResponse;
+import com.acme.passkeys.adapters.out.attestation.AttestationTrust;
+import com.acme.passkeys.adapters.out.metrics.EmfStageMetrics;
+import com.acme.passkeys.adapters.out.resilience.CircuitBreaker;
+import com.acme.passkeys.application.ports.out.AssertionReplayFilter;
+import com.acme.passkeys.application.ports.out.AuditLog;
+import com.acme.passkeys.application.ports.out.ChallengeStore;
+import com.acme.passkeys.application.ports.out.CredentialIndex;
+import com.acme.passkeys.application.ports.out.StageMetrics;
+import com.acme.passkeys.application.service.CreateChallengeService;
+import com.acme.passkeys.application.service.FinishAuthenticationService;
+import com.acme.passkeys.application.service.FinishRegistrationService;
+import com.acme.passkeys.authenticator.AttestationFormat;
+import com.acme.passkeys.authenticator.ChallengeBinding;
+import com.acme.passkeys.authenticator.CoseAlgorithm;
+import com.acme.passkeys.authenticator.SoftwareAuthenticator;
+import com.acme.passkeys.config.FinishAuthenticationConfig;
+import com.acme.passkeys.config.FinishRegistrationConfig;
+import com.acme.passkeys.config.FunctionConfig;
+import com.acme.passkeys.domain.service.ReseedableSecureRandom;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Extremo a extremo sobre {@code Function.apply} de las tres funciones, cableadas con los mismos
+ * métodos de configuración que usan Spring y los handlers sin Spring (DTO ya deserializado).
+ *
+ * <p>{@code metrics}: {@code off} (NOOP), {@code emf} (muestreo por defecto del módulo: 1/64 en
+ * createChallenge, todas en los finish) y {@code emfUnsampled} (todas las invocaciones). La diferencia con {@code off} es el coste de
+ * instrumentar; las líneas EMF se construyen pero se descartan en lugar de ir a stdout.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FunctionApplyBenchmark {
+
+  private static final Message<ChallengeRequest> CHALLENGE_REQUEST = MessageBuilder.withPayload(
+      new ChallengeRequest("AUTHENTICATION", "user-1", "example.com", "https://example.com", 60_000, null, 0, 0)).build();
+
+  static StageMetrics metrics(String mode, String service, int sampleEvery) {
+    return switch (mode) {
+      case "off" -> StageMetrics.NOOP;
+      case "emf" -> new EmfStageMetrics("Passkeys", service, Duration.ofSeconds(10), sampleEvery, line -> {}, Clock.systemUTC());
+      case "emfUnsampled" -> new EmfStageMetrics("Passkeys", service, Duration.ofSeconds(10), 1, line -> {}, Clock.systemUTC());
+      default -> throw new IllegalArgumentException(mode);
+    };
+  }
+
+  @State(Scope.Benchmark)
+  public static class Challenges {
+    @Param({"off", "emf", "emfUnsampled"})
+    public String metrics;
+
+    ChallengeStore store;
+    ExecutorService storeExecutor;
+    Function<Message<ChallengeRequest>, ChallengeResponse> createChallenge;
+
+    @Setup
+    public void setUp() {
+      FunctionConfig c = new FunctionConfig();
+      ReseedableSecureRandom random = c.secureRandom();
+      Clock clock = c.clock();
+      store = c.challengeStore(clock, new CircuitBreaker(CircuitBreaker.Settings.defaults(), clock), true, false, Duration.ofSeconds(5), Duration.ofSeconds(2), 10_000);
+      storeExecutor = c.challengeStoreExecutor(32, 256);
+      createChallenge = c.createChallenge(c.createChallengeUseCase(
+          c.challengeGenerator(random),
+          store,
+          c.asyncChallengeStore(store, storeExecutor),
+          clock,
+          c.issuedChallengeCache(clock, Duration.ofSeconds(30)),
+          c.challengeSealer(random, "", false),
+          metrics(metrics, "createChallenge", 64),
+          AuditLog.NOOP,
+          CreateChallengeService.DEFAULT_STORE_COST,
+          false
+      ));
+    }
+
+    @TearDown
+    public void tearDown() {
+      storeExecutor.shutdownNow();
+    }
+  }
+
+  @State(Scope.Benchmark)
+  public static class WebAuthn {
+    @Param({"ES256", "RS256", "EdDSA"})
+    public CoseAlgorithm alg;
+
+    @Param({"off", "emf", "emfUnsampled"})
+    public String metrics;
+
+    Function<Message<FinishRegistrationRequest>, FinishRegistrationResponse> finishRegistration;
+    Function<Message<FinishAuthenticationRequest>, FinishAuthenticationResponse> finishAuthentication;
+    Message<FinishRegistrationRequest> registrationRequest;
+    Message<FinishAuthenticationRequest> authenticationRequest;
+
+    @Setup
+    public void setUp() {
+      StageMetrics registrationMetrics = metrics(metrics, "finishRegistration", 1);
+      FinishRegistrationConfig rc = new FinishRegistrationConfig();
+      finishRegistration = rc.finishRegistration(rc.finishRegistrationUseCase(
+          rc.registrationVerifier(rc.webAuthnManager(), rc.registrationDataVerifier(), AttestationTrust.PERMISSIVE, registrationMetrics),
+          CredentialIndex.NONE, // se repite el mismo registro en cada invocación
+          Optional.empty(),
+          Optional.empty(),
+          registrationMetrics,
+          AuditLog.NOOP,
+          FinishRegistrationService.StageCosts.DEFAULTS));
+
+      StageMetrics authenticationMetrics = metrics(metrics, "finishAuthentication", 1);
+      FinishAuthenticationConfig ac = new FinishAuthenticationConfig();
+      finishAuthentication = ac.finishAuthentication(ac.finishAuthenticationUseCase(
+          ac.authenticationVerifier(ac.webAuthnManager(), ac.authenticationDataVerifier(), authenticationMetrics),
+          AssertionReplayFilter.NONE, // se repite la misma aserción en cada invocación
+          Optional.empty(),
+          Optional.empty(),
+          authenticationMetrics,
+          AuditLog.NOOP,
+          FinishAuthenticationService.StageCosts.DEFAULTS));
+
+      // Misma forma JSON que recibe la Lambda, ligada por Jackson a los DTO de cada función
+      SoftwareAuthenticator authenticator = SoftwareAuthenticator.seeded(1);
+      var reg = authenticator.register(binding(authenticator), alg, AttestationFormat.PACKED);
+      var assertion = authenticator.authenticate(reg.credential(), binding(authenticator));
+      ObjectMapper mapper = new ObjectMapper();
+      try {
+        registrationRequest = MessageBuilder.withPayload(mapper.treeToValue(reg.request(), FinishRegistrationRequest.class)).build();
+        authenticationRequest = MessageBuilder.withPayload(mapper.treeToValue(assertion.request(), FinishAuthenticationRequest.class)).build();
+      } catch (JsonProcessingException e) {
+        throw new IllegalStateException(e);
+      }
+
+      FinishRegistrationResponse registered = finishRegistration.apply(registrationRequest);
+      if (registered.code() != 200) {
+        throw new IllegalStateException("invalid registration payload: " + registered.message());
+      }
+    }
+
+    private static ChallengeBinding binding(SoftwareAuthenticator authenticator) {
+      return new ChallengeBinding(authenticator.randomChallenge(), "example.com", "https://example.com");
+    }
+  }
+
+  /** Consume el challenge emitido para que el store no crezca durante la medición. */
+  @Benchmark
+  public ChallengeResponse createChallenge(Challenges s) {
+    ChallengeResponse response = s.createChallenge.apply(CHALLENGE_REQUEST);
+    s.store.consume(response.transactionId());
+    return response;
+  }
+
+  @Benchmark
+  public FinishRegistrationResponse finishRegistration(WebAuthn s) {
+    return s.finishRegistration.apply(s.registrationRequest);
+  }
+
+  @Benchmark
+  public FinishAuthenticationResponse finishAuthentication(WebAuthn s) {
+    return s.finishAuthentication.apply(s.authenticationRequest);
+  }
+}
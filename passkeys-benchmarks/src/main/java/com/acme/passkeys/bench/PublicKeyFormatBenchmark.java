@@ -0,0 +1,56 @@
+package com.acme.passkeys.bench;
+
+import com.acme.passkeys.adapters.out.webauthn4j.CredentialPublicKeys;
+import com.acme.passkeys.authenticator.AttestationFormat;
+import com.acme.passkeys.authenticator.ChallengeBinding;
+import com.acme.passkeys.authenticator.CoseAlgorithm;
+import com.acme.passkeys.authenticator.SoftwareAuthenticator;
+import com.webauthn4j.data.attestation.authenticator.COSEKey;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.security.PublicKey;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Clave guardada → {@link PublicKey} con la que se comprueba la firma: CBOR (publicKeyCose) frente a KeyFactory
+ * (publicKeySpki). Termina en {@link COSEKey#getPublicKey()} porque las claves COSE de webauthn4j construyen ahí
+ * la clave JCA; la de SPKI ya la trae.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PublicKeyFormatBenchmark {
+
+  @Param({"ES256", "RS256", "EdDSA"})
+  public CoseAlgorithm alg;
+
+  private byte[] cose;
+  private byte[] spki;
+
+  @Setup
+  public void setUp() {
+    SoftwareAuthenticator authenticator = SoftwareAuthenticator.seeded(1);
+    ChallengeBinding binding = new ChallengeBinding(authenticator.randomChallenge(), "example.com", "https://example.com");
+    var credential = authenticator.register(binding, alg, AttestationFormat.NONE).credential();
+    cose = Base64.getUrlDecoder().decode(credential.publicKeyCose());
+    spki = Base64.getUrlDecoder().decode(credential.publicKeySpki());
+  }
+
+  @Benchmark
+  public PublicKey cose() {
+    return CredentialPublicKeys.fromCose(cose).getPublicKey();
+  }
+
+  @Benchmark
+  public PublicKey spki() {
+    return CredentialPublicKeys.fromSpki(alg.coseId(), spki).getPublicKey();
+  }
+}
@@ -0,0 +1,78 @@
+package com.acme.passkeys.bench;
+
+import com.acme.passkeys.adapters.out.attestation.AttestationTrust;
+import com.acme.passkeys.application.ports.out.RegistrationVerifier;
+import com.acme.passkeys.application.ports.out.RegistrationVerifier.VerifiedRegistration;
+import com.acme.passkeys.application.ports.out.RegistrationVerifier.VerifyRegistrationCommand;
+import com.acme.passkeys.application.ports.out.StageMetrics;
+import com.acme.passkeys.authenticator.AttestationFormat;
+import com.acme.passkeys.authenticator.ChallengeBinding;
+import com.acme.passkeys.authenticator.CoseAlgorithm;
+import com.acme.passkeys.authenticator.SoftwareAuthenticator;
+import com.acme.passkeys.config.FinishRegistrationConfig;
+import com.acme.passkeys.domain.model.Binary;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code WebAuthn4jRegistrationVerifier.verify} con attestation "none" / "packed" y claves ES256, RS256 y EdDSA.
+ * {@code wire}: campos en base64url (JSON, se decodifican en cada llamada) o ya en crudo (CBOR).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RegistrationVerifierBenchmark {
+
+  @Param({"ES256", "RS256", "EdDSA"})
+  public CoseAlgorithm alg;
+
+  @Param({"NONE", "PACKED"})
+  public AttestationFormat format;
+
+  @Param({"json", "cbor"})
+  public String wire;
+
+  private RegistrationVerifier verifier;
+  private ChallengeBinding binding;
+  private String clientDataJSON;
+  private String attestationObject;
+  private byte[] rawClientDataJSON;
+  private byte[] rawAttestationObject;
+
+  @Setup
+  public void setUp() {
+    FinishRegistrationConfig c = new FinishRegistrationConfig();
+    verifier = c.registrationVerifier(c.webAuthnManager(), c.registrationDataVerifier(), AttestationTrust.PERMISSIVE, StageMetrics.NOOP);
+
+    SoftwareAuthenticator authenticator = SoftwareAuthenticator.seeded(1);
+    binding = new ChallengeBinding(authenticator.randomChallenge(), "example.com", "https://example.com");
+    var reg = authenticator.register(binding, alg, format);
+    clientDataJSON = reg.clientDataJSON();
+    attestationObject = reg.attestationObject();
+    rawClientDataJSON = Binary.ofBase64Url(clientDataJSON).bytes();
+    rawAttestationObject = Binary.ofBase64Url(attestationObject).bytes();
+    verifier.verify(command()); // falla el setup si el payload no es válido
+  }
+
+  @Benchmark
+  public VerifiedRegistration verify() {
+    return verifier.verify(command());
+  }
+
+  // Binary guarda lo decodificado: un comando nuevo por llamada para que el camino JSON pague su decodificación
+  private VerifyRegistrationCommand command() {
+    boolean cbor = wire.equals("cbor");
+    return new VerifyRegistrationCommand(
+        binding.challenge(), binding.rpId(), binding.origin(), true,
+        cbor ? Binary.of(rawClientDataJSON) : Binary.ofBase64Url(clientDataJSON),
+        cbor ? Binary.of(rawAttestationObject) : Binary.ofBase64Url(attestationObject));
+  }
+}
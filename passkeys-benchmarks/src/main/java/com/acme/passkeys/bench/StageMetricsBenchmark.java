@@ -0,0 +1,45 @@
+package com.acme.passkeys.bench;
+
+import com.acme.passkeys.application.ports.out.StageMetrics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coste aislado de la instrumentación por invocación, con la misma secuencia de llamadas que
+ * {@code JsonStreamHandler} + {@code CreateChallengeService.handle}. Se compara con el tiempo de {@link FunctionApplyBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class StageMetricsBenchmark {
+
+  @Param({"off", "emf", "emfUnsampled"})
+  public String metrics;
+
+  private StageMetrics stageMetrics;
+
+  @Setup
+  public void setUp() {
+    stageMetrics = FunctionApplyBenchmark.metrics(metrics, "createChallenge", 64);
+  }
+
+  @Benchmark
+  public long createChallengeInvocation() {
+    StageMetrics m = stageMetrics;
+    m.lap("bind", m.start());
+    long start = m.start();
+    long issuing = m.lap("validateRequest", start);
+    long saving = m.lap("generate", issuing);
+    m.lap("store", saving);
+    m.complete(StageMetrics.OK, start);
+    return m.lap("write", m.start());
+  }
+}
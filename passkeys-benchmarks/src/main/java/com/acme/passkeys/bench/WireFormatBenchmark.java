@@ -0,0 +1,78 @@
+package com.acme.passkeys.bench;
+
+import com.acme.passkeys.adapters.in.function.dto.FinishAuthenticationRequest;
+import com.acme.passkeys.adapters.in.function.dto.FinishRegistrationRequest;
+import com.acme.passkeys.authenticator.AttestationFormat;
+import com.acme.passkeys.authenticator.ChallengeBinding;
+import com.acme.passkeys.authenticator.CoseAlgorithm;
+import com.acme.passkeys.authenticator.SoftwareAuthenticator;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Body de {@code finishRegistration} / {@code finishAuthentication} → bytes de los campos binarios, en JSON
+ * (base64url, se decodifica) o en CBOR (byte strings, ya en crudo): lo que cambia entre formatos antes del
+ * verificador. Los tamaños de cada body se imprimen en el setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class WireFormatBenchmark {
+
+  @Param({"ES256", "RS256", "EdDSA"})
+  public CoseAlgorithm alg;
+
+  @Param({"json", "cbor"})
+  public String wire;
+
+  private ObjectMapper mapper;
+  private byte[] registration;
+  private byte[] authentication;
+
+  @Setup
+  public void setUp() throws IOException {
+    // Misma configuración que JsonStreamHandler
+    mapper = (wire.equals("cbor") ? new CBORMapper() : new ObjectMapper())
+        .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    SoftwareAuthenticator authenticator = SoftwareAuthenticator.seeded(1);
+    var reg = authenticator.register(binding(authenticator), alg, AttestationFormat.PACKED);
+    var assertion = authenticator.authenticate(reg.credential(), binding(authenticator));
+    // Se pasa por el DTO para que los binarios salgan como byte strings en CBOR
+    ObjectMapper json = new ObjectMapper();
+    registration = mapper.writeValueAsBytes(json.treeToValue(reg.request(), FinishRegistrationRequest.class));
+    authentication = mapper.writeValueAsBytes(json.treeToValue(assertion.request(), FinishAuthenticationRequest.class));
+    System.out.printf("%n%s %s: finishRegistration %d B, finishAuthentication %d B%n", wire, alg, registration.length, authentication.length);
+  }
+
+  @Benchmark
+  public int finishRegistration() throws IOException {
+    FinishRegistrationRequest.Credential.Response r =
+        mapper.readValue(registration, FinishRegistrationRequest.class).credential().response();
+    return r.clientDataJSON().bytes().length + r.attestationObject().bytes().length;
+  }
+
+  @Benchmark
+  public int finishAuthentication() throws IOException {
+    FinishAuthenticationRequest req = mapper.readValue(authentication, FinishAuthenticationRequest.class);
+    FinishAuthenticationRequest.Credential.Response r = req.credential().response();
+    return req.storedCredential().publicKeyCose().bytes().length
+        + r.clientDataJSON().bytes().length + r.authenticatorData().bytes().length + r.signature().bytes().length;
+  }
+
+  private static ChallengeBinding binding(SoftwareAuthenticator authenticator) {
+    return new ChallengeBinding(authenticator.randomChallenge(), "example.com", "https://example.com");
+  }
+}
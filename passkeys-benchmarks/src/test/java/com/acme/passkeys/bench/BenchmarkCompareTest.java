@@ -0,0 +1,82 @@
+package com.acme.passkeys.bench;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+class BenchmarkCompareTest {
+
+  @TempDir
+  Path tmp;
+
+  @Test
+  void load_keysByBenchmarkParamsAndThreads_andReadsGcAllocation() throws Exception {
+    Path dir = results("base", 1, run("a.B.verify", "avgt", 1, "{\"alg\":\"ES256\"}", 100.0, 4096.0));
+    Files.writeString(dir.resolve("notes.txt"), "ignored");
+
+    Map<String, BenchmarkCompare.Score> scores = BenchmarkCompare.load(dir);
+
+    assertThat(scores).containsOnlyKeys("a.B.verify[alg=ES256]@1");
+    BenchmarkCompare.Score s = scores.get("a.B.verify[alg=ES256]@1");
+    assertThat(s.score()).isEqualTo(100.0);
+    assertThat(s.allocBytesPerOp()).isEqualTo(4096.0);
+    assertThat(s.unit()).isEqualTo("us/op");
+  }
+
+  @Test
+  void compare_averageTime_higherIsWorse() throws Exception {
+    var base = BenchmarkCompare.load(results("base", 4, run("a.B.x", "avgt", 4, "{}", 100.0, 0)));
+    var head = BenchmarkCompare.load(results("head", 4, run("a.B.x", "avgt", 4, "{}", 125.0, 0)));
+
+    List<BenchmarkCompare.Delta> deltas = BenchmarkCompare.compare(base, head, 10.0);
+
+    assertThat(deltas).singleElement().satisfies(d -> {
+      assertThat(d.key()).isEqualTo("a.B.x@4");
+      assertThat(d.changePct()).isCloseTo(25.0, within(1e-9));
+      assertThat(d.regression()).isTrue();
+    });
+  }
+
+  @Test
+  void compare_throughput_lowerIsWorse_andSkipsBenchmarksMissingOnOneSide() throws Exception {
+    var base = BenchmarkCompare.load(results("base", 1,
+        run("a.B.x", "thrpt", 1, "{}", 1000.0, 0),
+        run("a.B.gone", "thrpt", 1, "{}", 1.0, 0)));
+    var head = BenchmarkCompare.load(results("head", 1, run("a.B.x", "thrpt", 1, "{}", 1050.0, 0)));
+
+    List<BenchmarkCompare.Delta> deltas = BenchmarkCompare.compare(base, head, 10.0);
+
+    assertThat(deltas).singleElement().satisfies(d -> {
+      assertThat(d.changePct()).isCloseTo(-5.0, within(1e-9));
+      assertThat(d.regression()).isFalse();
+    });
+  }
+
+  @Test
+  void parseThreads_rejectsNonPositive() {
+    assertThat(BenchmarkRunner.parseThreads("1, 2,8")).containsExactly(1, 2, 8);
+    assertThatThrownBy(() -> BenchmarkRunner.parseThreads("0,2")).isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> BenchmarkRunner.parseThreads(" ")).isInstanceOf(IllegalArgumentException.class);
+  }
+
+  private Path results(String commit, int threads, String... runs) throws Exception {
+    Path dir = Files.createDirectories(tmp.resolve(commit));
+    Files.writeString(dir.resolve("threads-" + threads + ".json"), "[" + String.join(",", runs) + "]");
+    return dir;
+  }
+
+  private static String run(String benchmark, String mode, int threads, String params, double score, double alloc) {
+    String unit = "thrpt".equals(mode) ? "ops/us" : "us/op";
+    return """
+        {"benchmark":"%s","mode":"%s","threads":%d,"params":%s,
+         "primaryMetric":{"score":%s,"scoreError":1.0,"scoreUnit":"%s"},
+         "secondaryMetrics":{"gc.alloc.rate.norm":{"score":%s,"scoreUnit":"B/op"}}}
+        """.formatted(benchmark, mode, threads, params, score, unit, alloc);
+  }
+}
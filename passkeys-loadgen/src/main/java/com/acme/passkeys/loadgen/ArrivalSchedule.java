@@ -0,0 +1,45 @@
+package com.acme.passkeys.loadgen;
+
+import java.time.Duration;
+
+/**
+ * Instantes de llegada de un modelo abierto: la i-ésima llegada está programada con independencia
+ * de lo que tarden las anteriores. Tasa constante, o rampa lineal de {@code startRate} a
+ * {@code endRate} durante {@code duration}.
+ */
+public record ArrivalSchedule(double startRate, double endRate, Duration duration) {
+
+  public ArrivalSchedule {
+    if (startRate <= 0 || endRate <= 0) throw new IllegalArgumentException("rates must be > 0");
+    if (duration == null || duration.isNegative() || duration.isZero()) throw new IllegalArgumentException("duration must be > 0");
+  }
+
+  public static ArrivalSchedule constant(double rate, Duration duration) {
+    return new ArrivalSchedule(rate, rate, duration);
+  }
+
+  /** Llegadas totales programadas: la integral de la tasa sobre la duración. */
+  public long arrivals() {
+    return (long) Math.floor((startRate + endRate) / 2.0 * seconds());
+  }
+
+  /**
+   * Desplazamiento (ns desde el inicio) de la llegada {@code i}, resolviendo
+   * {@code N(t) = r0·t + (r1 - r0)·t² / 2T = i}.
+   */
+  public long offsetNanos(long i) {
+    double t;
+    double slope = (endRate - startRate) / seconds();
+    if (Math.abs(slope) < 1e-12) {
+      t = i / startRate;
+    } else {
+      double disc = startRate * startRate + 2 * slope * i;
+      t = (-startRate + Math.sqrt(Math.max(0, disc))) / slope;
+    }
+    return (long) (t * 1_000_000_000L);
+  }
+
+  private double seconds() {
+    return duration.toNanos() / 1e9;
+  }
+}
@@ -0,0 +1,52 @@
+package com.acme.passkeys.loadgen;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/** {@code POST <base>/<función>} contra passkeys-server (o cualquier endpoint con el mismo contrato). */
+public class HttpTarget implements Target {
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  private final URI base;
+  private final Duration timeout;
+  private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+  private final HttpClient client;
+
+  public HttpTarget(URI base, Duration timeout) {
+    this.base = Objects.requireNonNull(base, "base");
+    this.timeout = Objects.requireNonNull(timeout, "timeout");
+    this.client = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1)
+        .connectTimeout(timeout)
+        .executor(executor)
+        .build();
+  }
+
+  @Override
+  public Reply call(String function, byte[] body) throws Exception {
+    HttpRequest request = HttpRequest.newBuilder(base.resolve("/" + function))
+        .timeout(timeout)
+        .header("Content-Type", "application/json")
+        .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+        .build();
+    HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+    JsonNode json = response.body().length == 0 ? null : MAPPER.readTree(response.body());
+    return new Reply(response.statusCode(), json);
+  }
+
+  @Override
+  public void close() {
+    client.close();
+    executor.shutdownNow();
+  }
+}
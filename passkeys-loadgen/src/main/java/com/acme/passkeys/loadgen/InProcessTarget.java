@@ -0,0 +1,58 @@
+package com.acme.passkeys.loadgen;
+
+import com.acme.passkeys.adapters.in.lambda.CreateChallengeStreamHandler;
+import com.acme.passkeys.adapters.in.lambda.FinishAuthenticationStreamHandler;
+import com.acme.passkeys.adapters.in.lambda.FinishRegistrationStreamHandler;
+import com.amazonaws.services.lambda.runtime.RequestStreamHandler;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Llama a las funciones en el mismo proceso a través de sus handlers sin Spring: mismo cableado y
+ * mismo binding JSON que en Lambda, sin red. Los errores se traducen como en passkeys-server
+ * (400 si la causa es un {@link IllegalArgumentException}, 500 en otro caso).
+ */
+public class InProcessTarget implements Target {
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  private final Map<String, RequestStreamHandler> handlers;
+
+  public InProcessTarget(Map<String, RequestStreamHandler> handlers) {
+    this.handlers = Map.copyOf(Objects.requireNonNull(handlers, "handlers"));
+  }
+
+  /** Las tres funciones de passkeys. */
+  public static InProcessTarget passkeys() {
+    return new InProcessTarget(Map.of(
+        "createChallenge", new CreateChallengeStreamHandler(),
+        "finishRegistration", new FinishRegistrationStreamHandler(),
+        "finishAuthentication", new FinishAuthenticationStreamHandler()
+    ));
+  }
+
+  @Override
+  public Reply call(String function, byte[] body) throws Exception {
+    RequestStreamHandler handler = handlers.get(function);
+    if (handler == null) return error(404, "function_not_found");
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try {
+      handler.handleRequest(new ByteArrayInputStream(body), out, null);
+    } catch (RuntimeException e) {
+      for (Throwable c = e; c != null; c = c.getCause()) {
+        if (c instanceof IllegalArgumentException iae) return error(400, iae.getMessage());
+      }
+      return error(500, "internal_error");
+    }
+    return new Reply(200, out.size() == 0 ? null : MAPPER.readTree(out.toByteArray()));
+  }
+
+  private static Reply error(int status, String message) {
+    return new Reply(status, MAPPER.createObjectNode().put("code", status).put("message", message));
+  }
+}
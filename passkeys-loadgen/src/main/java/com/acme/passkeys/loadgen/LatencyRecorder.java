@@ -0,0 +1,68 @@
+package com.acme.passkeys.loadgen;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencias (µs) por paso en dos histogramas: {@code corrected} se mide desde el instante en que la
+ * llegada estaba programada (corrige la omisión coordinada: si el sistema o el propio generador se
+ * retrasan, el retraso cuenta) y {@code uncorrected} desde el envío real.
+ */
+public class LatencyRecorder {
+
+  static final long HIGHEST_MICROS = TimeUnit.HOURS.toMicros(1);
+
+  public record Pair(Histogram corrected, Histogram uncorrected) {}
+
+  private final Map<String, Pair> steps;
+  private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+  /** Los pasos se fijan al crear el recorder; el informe los lista en este orden. */
+  public LatencyRecorder(List<String> steps) {
+    Map<String, Pair> m = new LinkedHashMap<>();
+    for (String step : steps) m.put(step, new Pair(histogram(), histogram()));
+    this.steps = Collections.unmodifiableMap(m);
+  }
+
+  public void record(String step, long intendedStartNanos, long sentNanos, long doneNanos) {
+    Pair p = steps.get(step);
+    if (p == null) throw new IllegalArgumentException("unknown step: " + step);
+    p.corrected().recordValue(micros(doneNanos - intendedStartNanos));
+    p.uncorrected().recordValue(micros(doneNanos - sentNanos));
+  }
+
+  public void error(String reason) {
+    errors.computeIfAbsent(reason, k -> new LongAdder()).increment();
+  }
+
+  public Map<String, Pair> steps() {
+    return steps;
+  }
+
+  public Map<String, Long> errors() {
+    Map<String, Long> out = new TreeMap<>();
+    errors.forEach((k, v) -> out.put(k, v.sum()));
+    return out;
+  }
+
+  public long errorCount() {
+    return errors.values().stream().mapToLong(LongAdder::sum).sum();
+  }
+
+  private static Histogram histogram() {
+    return new ConcurrentHistogram(HIGHEST_MICROS, 3);
+  }
+
+  private static long micros(long nanos) {
+    return Math.min(HIGHEST_MICROS, Math.max(0, TimeUnit.NANOSECONDS.toMicros(nanos)));
+  }
+}
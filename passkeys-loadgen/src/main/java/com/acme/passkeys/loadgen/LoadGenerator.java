@@ -0,0 +1,185 @@
+package com.acme.passkeys.loadgen;
+
+import com.acme.passkeys.authenticator.AttestationFormat;
+import com.acme.passkeys.authenticator.CoseAlgorithm;
+import com.acme.passkeys.authenticator.SoftwareAuthenticator;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Generador de carga de modelo abierto: lanza flujos passkey completos a una tasa de llegada fija
+ * (o en rampa) sin esperar a que terminen los anteriores, cada uno en su virtual thread. Así un
+ * servidor lento acumula peticiones en vuelo en lugar de frenar al cliente, y las latencias
+ * corregidas reflejan lo que vería un usuario.
+ *
+ * <p>Propiedades: {@code load.target} ({@code in-process} o URL base de passkeys-server, default
+ * {@code in-process}), {@code load.rate} (flujos/s, default 20), {@code load.rateEnd} (rampa hasta
+ * esta tasa), {@code load.seconds} (30), {@code load.maxInFlight} (10000), {@code load.alg}
+ * (ES256), {@code load.format} (NONE), {@code load.timeout} (segundos por petición, 10),
+ * {@code load.out} (informe JSON, default {@code load-report.json}).
+ *
+ * <p>Si alguna llegada se descarta por {@code load.maxInFlight} el informe se marca como inválido
+ * ({@link LoadReport#valid()}) y el proceso termina con código 1 tras escribirlo.
+ */
+public class LoadGenerator {
+
+  public record Settings(
+      ArrivalSchedule schedule,
+      int maxInFlight,
+      CoseAlgorithm algorithm,
+      AttestationFormat format,
+      String rpId,
+      String origin,
+      Duration drainTimeout
+  ) {
+    public Settings {
+      Objects.requireNonNull(schedule, "schedule");
+      if (maxInFlight <= 0) throw new IllegalArgumentException("maxInFlight must be > 0");
+      Objects.requireNonNull(algorithm, "algorithm");
+      Objects.requireNonNull(format, "format");
+      Objects.requireNonNull(rpId, "rpId");
+      Objects.requireNonNull(origin, "origin");
+      Objects.requireNonNull(drainTimeout, "drainTimeout");
+    }
+  }
+
+  static final String DROPPED = "dropped:max_in_flight";
+  static final String UNFINISHED = "unfinished:drain_timeout";
+
+  private final Settings settings;
+  private final SoftwareAuthenticator authenticator;
+
+  public LoadGenerator(Settings settings, SoftwareAuthenticator authenticator) {
+    this.settings = Objects.requireNonNull(settings, "settings");
+    this.authenticator = Objects.requireNonNull(authenticator, "authenticator");
+  }
+
+  public static void main(String[] args) throws Exception {
+    String targetSpec = System.getProperty("load.target", "in-process");
+    double rate = Double.parseDouble(System.getProperty("load.rate", "20"));
+    double rateEnd = Double.parseDouble(System.getProperty("load.rateEnd", Double.toString(rate)));
+    Duration duration = Duration.ofSeconds(Long.getLong("load.seconds", 30));
+    Duration timeout = Duration.ofSeconds(Long.getLong("load.timeout", 10));
+
+    Settings settings = new Settings(
+        new ArrivalSchedule(rate, rateEnd, duration),
+        Integer.getInteger("load.maxInFlight", 10_000),
+        CoseAlgorithm.valueOf(System.getProperty("load.alg", "ES256")),
+        AttestationFormat.valueOf(System.getProperty("load.format", "NONE")),
+        System.getProperty("load.rpId", "example.com"),
+        System.getProperty("load.origin", "https://example.com"),
+        timeout.multipliedBy(2)
+    );
+
+    LoadReport report;
+    try (Target target = "in-process".equals(targetSpec) ? InProcessTarget.passkeys() : new HttpTarget(URI.create(targetSpec), timeout)) {
+      report = new LoadGenerator(settings, new SoftwareAuthenticator()).run(target, targetSpec);
+    }
+
+    System.out.println(report.toText());
+    Path out = Path.of(System.getProperty("load.out", "load-report.json"));
+    Files.writeString(out, report.toJson(), StandardCharsets.UTF_8);
+    System.out.println("json: " + out.toAbsolutePath());
+    if (!report.valid()) System.exit(1);
+  }
+
+  public LoadReport run(Target target, String targetName) throws InterruptedException {
+    LatencyRecorder recorder = new LatencyRecorder(PasskeyFlow.STEPS);
+    PasskeyFlow flow = new PasskeyFlow(target, authenticator, settings.algorithm(), settings.format(),
+        settings.rpId(), settings.origin(), recorder);
+
+    ArrivalSchedule schedule = settings.schedule();
+    long arrivals = schedule.arrivals();
+    AtomicInteger inFlight = new AtomicInteger();
+    LongAdder completed = new LongAdder();
+    LongAdder failed = new LongAdder();
+    long dropped = 0;
+    long maxLag = 0;
+
+    ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    long start = System.nanoTime();
+    for (long i = 0; i < arrivals; i++) {
+      long intended = start + schedule.offsetNanos(i);
+      sleepUntil(intended);
+      maxLag = Math.max(maxLag, System.nanoTime() - intended);
+
+      if (inFlight.get() >= settings.maxInFlight()) {
+        dropped++;
+        recorder.error(DROPPED);
+        continue;
+      }
+      inFlight.incrementAndGet();
+      long sequence = i;
+      executor.execute(() -> {
+        try {
+          if (flow.run(intended, sequence)) completed.increment();
+          else failed.increment();
+        } catch (RuntimeException e) {
+          recorder.error("flow:" + e.getClass().getSimpleName());
+          failed.increment();
+        } finally {
+          inFlight.decrementAndGet();
+        }
+      });
+    }
+
+    executor.shutdown();
+    if (!executor.awaitTermination(settings.drainTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+      executor.shutdownNow();
+    }
+    long unfinished = inFlight.get();
+    for (long i = 0; i < unfinished; i++) recorder.error(UNFINISHED);
+    double elapsed = (System.nanoTime() - start) / 1e9;
+
+    Map<String, LoadReport.StepLatency> latencies = LoadReport.latencies(recorder);
+    long calls = latencies.entrySet().stream()
+        .filter(e -> !e.getKey().equals(PasskeyFlow.FLOW))
+        .mapToLong(e -> e.getValue().uncorrected().count())
+        .sum();
+
+    Map<String, Object> config = new LinkedHashMap<>();
+    config.put("target", targetName);
+    config.put("startRate", schedule.startRate());
+    config.put("endRate", schedule.endRate());
+    config.put("durationSeconds", schedule.duration().toSeconds());
+    config.put("maxInFlight", settings.maxInFlight());
+    config.put("algorithm", settings.algorithm().name());
+    config.put("attestation", settings.format().fmt());
+
+    return new LoadReport(
+        config,
+        elapsed,
+        arrivals,
+        completed.sum(),
+        failed.sum() + unfinished,
+        dropped,
+        dropped == 0,
+        completed.sum() / elapsed,
+        calls / elapsed,
+        TimeUnit.NANOSECONDS.toMicros(maxLag),
+        latencies,
+        recorder.errors()
+    );
+  }
+
+  private static void sleepUntil(long deadlineNanos) {
+    long remaining;
+    while ((remaining = deadlineNanos - System.nanoTime()) > 0) {
+      LockSupport.parkNanos(remaining);
+    }
+  }
+}
@@ -0,0 +1,91 @@
+package com.acme.passkeys.loadgen;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Resultado de una ejecución: throughput, percentiles (µs) por paso y errores por motivo.
+ *
+ * <p>{@code valid} es {@code false} si alguna llegada se descartó por {@code maxInFlight}: esas
+ * llegadas no entran en los histogramas {@code corrected}, que quedan sesgados a la baja justo
+ * cuando el servidor está saturado, así que sus percentiles no deben compararse con otros informes.
+ */
+public record LoadReport(
+    Map<String, Object> config,
+    double elapsedSeconds,
+    long scheduled,
+    long completed,
+    long failed,
+    long dropped,
+    boolean valid,
+    double flowsPerSecond,
+    double callsPerSecond,
+    long maxSchedulerLagMicros,
+    Map<String, StepLatency> latencyMicros,
+    Map<String, Long> errors
+) {
+
+  private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+  public record StepLatency(Percentiles corrected, Percentiles uncorrected) {}
+
+  public record Percentiles(long count, double mean, long p50, long p90, long p99, long p999, long max) {
+    static Percentiles of(Histogram h) {
+      if (h.getTotalCount() == 0) return new Percentiles(0, 0, 0, 0, 0, 0, 0);
+      return new Percentiles(
+          h.getTotalCount(),
+          Math.round(h.getMean() * 10) / 10.0,
+          h.getValueAtPercentile(50),
+          h.getValueAtPercentile(90),
+          h.getValueAtPercentile(99),
+          h.getValueAtPercentile(99.9),
+          h.getMaxValue()
+      );
+    }
+  }
+
+  static Map<String, StepLatency> latencies(LatencyRecorder recorder) {
+    Map<String, StepLatency> out = new LinkedHashMap<>();
+    recorder.steps().forEach((step, pair) ->
+        out.put(step, new StepLatency(Percentiles.of(pair.corrected()), Percentiles.of(pair.uncorrected()))));
+    return out;
+  }
+
+  public String toJson() {
+    try {
+      return MAPPER.writeValueAsString(this);
+    } catch (JsonProcessingException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  public String toText() {
+    StringBuilder sb = new StringBuilder();
+    sb.append("config: ").append(config).append('\n');
+    if (!valid) {
+      sb.append(String.format("INVALID: %d arrivals dropped at maxInFlight are missing from the corrected latencies%n", dropped));
+    }
+    sb.append(String.format("flows: scheduled=%d completed=%d failed=%d dropped=%d in %.1fs%n",
+        scheduled, completed, failed, dropped, elapsedSeconds));
+    sb.append(String.format("throughput: %.1f flows/s, %.1f calls/s (max scheduler lag %d us)%n",
+        flowsPerSecond, callsPerSecond, maxSchedulerLagMicros));
+    sb.append(String.format("%n%-22s %-11s %9s %9s %9s %9s %9s %9s%n", "latency (us)", "", "count", "p50", "p90", "p99", "p99.9", "max"));
+    latencyMicros.forEach((step, l) -> {
+      row(sb, step, "corrected", l.corrected());
+      row(sb, "", "uncorrected", l.uncorrected());
+    });
+    sb.append('\n').append(errors.isEmpty() ? "errors: none" : "errors:").append('\n');
+    errors.forEach((reason, count) -> sb.append(String.format("  %8d  %s%n", count, reason)));
+    return sb.toString();
+  }
+
+  private static void row(StringBuilder sb, String step, String kind, Percentiles p) {
+    sb.append(String.format("%-22s %-11s %9d %9d %9d %9d %9d %9d%n", step, kind, p.count(), p.p50(), p.p90(), p.p99(), p.p999(), p.max()));
+  }
+}
@@ -0,0 +1,121 @@
+package com.acme.passkeys.loadgen;
+
+import com.acme.passkeys.authenticator.AttestationFormat;
+import com.acme.passkeys.authenticator.ChallengeBinding;
+import com.acme.passkeys.authenticator.CoseAlgorithm;
+import com.acme.passkeys.authenticator.SoftwareAuthenticator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Un usuario completo: begin-registration → finish-registration → begin-auth → finish-auth, con
+ * los payloads WebAuthn generados por {@link SoftwareAuthenticator}. El primer paso y el flujo se
+ * miden desde la llegada programada; los siguientes pasos desde que termina el anterior, porque en
+ * un cliente real dependen de su respuesta.
+ */
+final class PasskeyFlow {
+
+  static final String BEGIN_REGISTRATION = "beginRegistration";
+  static final String FINISH_REGISTRATION = "finishRegistration";
+  static final String BEGIN_AUTHENTICATION = "beginAuthentication";
+  static final String FINISH_AUTHENTICATION = "finishAuthentication";
+  static final String FLOW = "flow";
+  static final List<String> STEPS = List.of(BEGIN_REGISTRATION, FINISH_REGISTRATION, BEGIN_AUTHENTICATION, FINISH_AUTHENTICATION, FLOW);
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  private final Target target;
+  private final SoftwareAuthenticator authenticator;
+  private final CoseAlgorithm algorithm;
+  private final AttestationFormat format;
+  private final String rpId;
+  private final String origin;
+  private final LatencyRecorder recorder;
+
+  PasskeyFlow(
+      Target target,
+      SoftwareAuthenticator authenticator,
+      CoseAlgorithm algorithm,
+      AttestationFormat format,
+      String rpId,
+      String origin,
+      LatencyRecorder recorder
+  ) {
+    this.target = Objects.requireNonNull(target, "target");
+    this.authenticator = Objects.requireNonNull(authenticator, "authenticator");
+    this.algorithm = Objects.requireNonNull(algorithm, "algorithm");
+    this.format = Objects.requireNonNull(format, "format");
+    this.rpId = Objects.requireNonNull(rpId, "rpId");
+    this.origin = Objects.requireNonNull(origin, "origin");
+    this.recorder = Objects.requireNonNull(recorder, "recorder");
+  }
+
+  /** Devuelve {@code true} si los cuatro pasos terminan bien; los fallos quedan en el recorder. */
+  boolean run(long intendedStartNanos, long sequence) {
+    String userId = "load-" + sequence;
+
+    byte[] beginRegistration = challengeRequest("REGISTRATION", userId);
+    long firstSent = System.nanoTime();
+    Target.Reply begin = step(BEGIN_REGISTRATION, intendedStartNanos, "createChallenge", beginRegistration);
+    if (begin == null) return false;
+    var registration = authenticator.register(binding(begin), algorithm, format);
+
+    // Los pasos siguientes los lanza el propio flujo al terminar el anterior: se miden desde el envío
+    byte[] finishRegistration = bytes(registration.requestJson());
+    if (step(FINISH_REGISTRATION, System.nanoTime(), "finishRegistration", finishRegistration) == null) return false;
+
+    byte[] beginAuthentication = challengeRequest("AUTHENTICATION", userId);
+    Target.Reply beginAuth = step(BEGIN_AUTHENTICATION, System.nanoTime(), "createChallenge", beginAuthentication);
+    if (beginAuth == null) return false;
+    var assertion = authenticator.authenticate(registration.credential(), binding(beginAuth));
+
+    byte[] finishAuthentication = bytes(assertion.requestJson());
+    if (step(FINISH_AUTHENTICATION, System.nanoTime(), "finishAuthentication", finishAuthentication) == null) return false;
+
+    recorder.record(FLOW, intendedStartNanos, firstSent, System.nanoTime());
+    return true;
+  }
+
+  /** La respuesta si fue correcta; {@code null} (y error registrado) si no. */
+  private Target.Reply step(String step, long intendedNanos, String function, byte[] body) {
+    long sent = System.nanoTime();
+    Target.Reply reply;
+    try {
+      reply = target.call(function, body);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      recorder.error(step + ":interrupted");
+      return null;
+    } catch (Exception e) {
+      recorder.error(step + ":" + e.getClass().getSimpleName());
+      return null;
+    }
+    recorder.record(step, intendedNanos, sent, System.nanoTime());
+    if (!reply.ok()) {
+      recorder.error(step + ":" + reply.reason());
+      return null;
+    }
+    return reply;
+  }
+
+  private ChallengeBinding binding(Target.Reply reply) {
+    return ChallengeBinding.fromCreateChallengeResponse(reply.body().toString());
+  }
+
+  private byte[] challengeRequest(String type, String userId) {
+    return bytes(MAPPER.createObjectNode()
+        .put("type", type)
+        .put("userId", userId)
+        .put("rpId", rpId)
+        .put("origin", origin)
+        .put("timeoutMs", 60_000)
+        .toString());
+  }
+
+  private static byte[] bytes(String s) {
+    return s.getBytes(StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,30 @@
+package com.acme.passkeys.loadgen;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/** Destino de la carga: las funciones por HTTP o en el mismo proceso. Se llama desde virtual threads. */
+public interface Target extends AutoCloseable {
+
+  Reply call(String function, byte[] body) throws Exception;
+
+  @Override
+  default void close() {}
+
+  /**
+   * Respuesta de una función. Es correcta con status 200, cuerpo JSON y, si el cuerpo trae {@code code}
+   * (finishRegistration / finishAuthentication), con {@code code == 200}.
+   */
+  record Reply(int status, JsonNode body) {
+
+    public boolean ok() {
+      return status == 200 && body != null && (!body.has("code") || body.get("code").asInt() == 200);
+    }
+
+    /** Motivo de error agregable: código y mensaje, sin datos de la petición. */
+    public String reason() {
+      int code = body != null && body.has("code") ? body.get("code").asInt() : status;
+      String message = body != null && body.hasNonNull("message") ? body.get("message").asText() : "";
+      return message.isEmpty() ? Integer.toString(code) : code + ":" + message;
+    }
+  }
+}
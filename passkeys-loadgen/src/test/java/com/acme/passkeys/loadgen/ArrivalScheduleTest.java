@@ -0,0 +1,46 @@
+package com.acme.passkeys.loadgen;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ArrivalScheduleTest {
+
+  @Test
+  void constantRate_spacesArrivalsEvenly() {
+    ArrivalSchedule s = ArrivalSchedule.constant(100, Duration.ofSeconds(2));
+
+    assertThat(s.arrivals()).isEqualTo(200);
+    assertThat(s.offsetNanos(0)).isZero();
+    assertThat(s.offsetNanos(1)).isEqualTo(10_000_000L);
+    assertThat(s.offsetNanos(150)).isEqualTo(1_500_000_000L);
+  }
+
+  @Test
+  void ramp_arrivalsFollowIntegralOfRate() {
+    ArrivalSchedule s = new ArrivalSchedule(10, 30, Duration.ofSeconds(10));
+
+    // Media 20/s durante 10 s
+    assertThat(s.arrivals()).isEqualTo(200);
+    // N(5s) = 10·5 + 2·25/2 = 75
+    assertThat(s.offsetNanos(75)).isCloseTo(5_000_000_000L, within(1_000L));
+    assertThat(s.offsetNanos(s.arrivals())).isCloseTo(10_000_000_000L, within(1_000L));
+
+    long previousGap = Long.MAX_VALUE;
+    for (long i = 1; i < s.arrivals(); i += 40) {
+      long gap = s.offsetNanos(i) - s.offsetNanos(i - 1);
+      assertThat(gap).isLessThan(previousGap);
+      previousGap = gap;
+    }
+  }
+
+  @Test
+  void rejectsNonPositiveRatesAndDuration() {
+    assertThatThrownBy(() -> ArrivalSchedule.constant(0, Duration.ofSeconds(1)))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> ArrivalSchedule.constant(1, Duration.ZERO))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+}
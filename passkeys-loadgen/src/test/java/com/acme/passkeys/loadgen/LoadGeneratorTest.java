@@ -0,0 +1,137 @@
+package com.acme.passkeys.loadgen;
+
+import com.acme.passkeys.authenticator.AttestationFormat;
+import com.acme.passkeys.authenticator.CoseAlgorithm;
+import com.acme.passkeys.authenticator.SoftwareAuthenticator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+class LoadGeneratorTest {
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+  private static final String RP_ID = "example.com";
+  private static final String ORIGIN = "https://example.com";
+
+  @Test
+  void healthyTarget_completesEveryScheduledFlow() throws Exception {
+    LoadReport report = generator(ArrivalSchedule.constant(200, Duration.ofMillis(500)), 10_000)
+        .run(new FakeTarget(200), "fake");
+
+    assertThat(report.scheduled()).isEqualTo(100);
+    assertThat(report.completed()).isEqualTo(100);
+    assertThat(report.failed()).isZero();
+    assertThat(report.errors()).isEmpty();
+    assertThat(report.valid()).isTrue();
+    assertThat(report.latencyMicros().keySet()).containsExactlyElementsOf(PasskeyFlow.STEPS);
+    assertThat(report.latencyMicros().get(PasskeyFlow.FLOW).corrected().count()).isEqualTo(100);
+    assertThat(report.callsPerSecond()).isGreaterThan(report.flowsPerSecond());
+  }
+
+  @Test
+  void rejectedFinish_isAggregatedByStepAndReason() throws Exception {
+    LoadReport report = generator(ArrivalSchedule.constant(100, Duration.ofMillis(200)), 10_000)
+        .run(new FakeTarget(401), "fake");
+
+    assertThat(report.completed()).isZero();
+    assertThat(report.failed()).isEqualTo(20);
+    assertThat(report.errors()).containsExactly(entry("finishAuthentication:401:Authentication failed", 20L));
+    assertThat(report.latencyMicros().get(PasskeyFlow.FINISH_AUTHENTICATION).uncorrected().count()).isEqualTo(20);
+    assertThat(report.latencyMicros().get(PasskeyFlow.FLOW).corrected().count()).isZero();
+  }
+
+  @Test
+  void arrivalsOverMaxInFlight_areDroppedNotDelayed() throws Exception {
+    // Cada llamada se queda colgada más que toda la programación: sólo caben tres en vuelo
+    Target stuck = (function, body) -> {
+      Thread.sleep(300);
+      return new Target.Reply(503, null);
+    };
+
+    LoadReport report = generator(ArrivalSchedule.constant(100, Duration.ofMillis(100)), 3)
+        .run(stuck, "stuck");
+
+    assertThat(report.scheduled()).isEqualTo(10);
+    assertThat(report.dropped()).isEqualTo(7);
+    assertThat(report.failed()).isEqualTo(3);
+    assertThat(report.errors())
+        .containsEntry(LoadGenerator.DROPPED, 7L)
+        .containsEntry("beginRegistration:503", 3L);
+    assertThat(report.maxSchedulerLagMicros()).isLessThan(100_000L);
+    assertThat(report.valid()).isFalse();
+    assertThat(MAPPER.readTree(report.toJson()).path("valid").asBoolean(true)).isFalse();
+    assertThat(report.toText()).contains("INVALID: 7 arrivals dropped");
+  }
+
+  @Test
+  void correctedLatency_countsTimeSpentWaitingToBeSent() {
+    LatencyRecorder recorder = new LatencyRecorder(List.of("step"));
+    long intended = 0;
+    long sent = TimeUnit.MILLISECONDS.toNanos(100);
+    long done = sent + TimeUnit.MILLISECONDS.toNanos(1);
+
+    recorder.record("step", intended, sent, done);
+
+    LatencyRecorder.Pair pair = recorder.steps().get("step");
+    assertThat(pair.corrected().getMaxValue()).isBetween(100_000L, 101_100L);
+    assertThat(pair.uncorrected().getMaxValue()).isBetween(1_000L, 1_010L);
+  }
+
+  @Test
+  void report_rendersAsJsonAndText() throws Exception {
+    LoadReport report = generator(ArrivalSchedule.constant(50, Duration.ofMillis(200)), 10_000)
+        .run(new FakeTarget(200), "fake");
+
+    JsonNode json = MAPPER.readTree(report.toJson());
+    assertThat(json.path("config").path("target").asText()).isEqualTo("fake");
+    assertThat(json.path("completed").asLong()).isEqualTo(10);
+    assertThat(json.path("latencyMicros").path("flow").path("corrected").has("p999")).isTrue();
+    assertThat(json.path("errors").isObject()).isTrue();
+
+    assertThat(report.toText())
+        .contains("flows: scheduled=10 completed=10")
+        .contains("finishAuthentication")
+        .contains("errors: none");
+  }
+
+  private static LoadGenerator generator(ArrivalSchedule schedule, int maxInFlight) {
+    return new LoadGenerator(
+        new LoadGenerator.Settings(schedule, maxInFlight, CoseAlgorithm.ES256, AttestationFormat.NONE,
+            RP_ID, ORIGIN, Duration.ofSeconds(5)),
+        SoftwareAuthenticator.seeded(7));
+  }
+
+  /** Emite challenges válidos y responde {@code finishCode} a finishAuthentication. */
+  private static final class FakeTarget implements Target {
+    private final SoftwareAuthenticator challenges = SoftwareAuthenticator.seeded(1);
+    private final int finishAuthCode;
+
+    FakeTarget(int finishAuthCode) {
+      this.finishAuthCode = finishAuthCode;
+    }
+
+    @Override
+    public Reply call(String function, byte[] body) {
+      ObjectNode out = MAPPER.createObjectNode();
+      switch (function) {
+        case "createChallenge" -> out.put("challenge", nextChallenge()).put("rpId", RP_ID).put("origin", ORIGIN);
+        case "finishRegistration" -> out.put("code", 200).put("message", "OK");
+        case "finishAuthentication" -> out.put("code", finishAuthCode)
+            .put("message", finishAuthCode == 200 ? "OK" : "Authentication failed");
+        default -> throw new IllegalArgumentException(function);
+      }
+      return new Reply(200, out);
+    }
+
+    private synchronized String nextChallenge() {
+      return challenges.randomChallenge();
+    }
+  }
+}
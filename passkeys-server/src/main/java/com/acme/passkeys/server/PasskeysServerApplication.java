@@ -0,0 +1,33 @@
+package com.acme.passkeys.server;
+
+import com.acme.passkeys.config.FinishAuthenticationConfig;
+import com.acme.passkeys.config.FinishRegistrationConfig;
+import com.acme.passkeys.config.FunctionConfig;
+import com.acme.passkeys.server.config.ServerConfig;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.context.annotation.Import;
+
+// Sin component scan: cada jar trae su propio com.acme.passkeys.Application
+@SpringBootConfiguration
+@EnableAutoConfiguration
+@Import({FunctionConfig.class, FinishRegistrationConfig.class, FinishAuthenticationConfig.class, ServerConfig.class})
+public class PasskeysServerApplication {
+
+  /** Segundos sin actividad antes de cerrar una conexión keep-alive si no se pasa {@value #IDLE_INTERVAL_PROPERTY}. */
+  static final String DEFAULT_IDLE_INTERVAL_SECONDS = "30";
+
+  // El HttpServer del JDK la lee una sola vez por JVM: tiene que estar antes de crear el primer servidor
+  static final String IDLE_INTERVAL_PROPERTY = "sun.net.httpserver.idleInterval";
+
+  public static void main(String[] args) {
+    if (System.getProperty(IDLE_INTERVAL_PROPERTY) == null) {
+      System.setProperty(IDLE_INTERVAL_PROPERTY, DEFAULT_IDLE_INTERVAL_SECONDS);
+    }
+    SpringApplication app = new SpringApplication(PasskeysServerApplication.class);
+    app.setWebApplicationType(WebApplicationType.NONE);
+    app.run(args);
+  }
+}
@@ -0,0 +1,69 @@
+package com.acme.passkeys.server.config;
+
+import com.acme.passkeys.server.http.CatalogFunctionEndpoints;
+import com.acme.passkeys.server.http.FunctionEndpoints;
+import com.acme.passkeys.server.http.FunctionHttpServer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.function.context.FunctionCatalog;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Set;
+
+@Configuration
+public class ServerConfig {
+
+  @Bean
+  public FunctionEndpoints functionEndpoints(
+      FunctionCatalog catalog,
+      @Value("${passkeys.server.functions:createChallenge,finishRegistration,finishAuthentication}") String[] functions
+  ) {
+    return new CatalogFunctionEndpoints(catalog, Set.of(functions));
+  }
+
+  @Bean
+  public FunctionHttpServer functionHttpServer(
+      FunctionEndpoints endpoints,
+      @Value("${passkeys.server.host:0.0.0.0}") String host,
+      @Value("${passkeys.server.port:8080}") int port,
+      @Value("${passkeys.server.backlog:1024}") int backlog,
+      @Value("${passkeys.server.max-request-bytes:65536}") int maxRequestBytes,
+      @Value("${passkeys.server.drain-timeout:10s}") Duration drainTimeout,
+      @Value("${passkeys.server.request-timeout:10s}") Duration requestTimeout
+  ) {
+    return new FunctionHttpServer(endpoints,
+        new FunctionHttpServer.Settings(host, port, backlog, maxRequestBytes, drainTimeout, requestTimeout));
+  }
+
+  @Bean
+  public SmartLifecycle functionHttpServerLifecycle(FunctionHttpServer server) {
+    return new SmartLifecycle() {
+      private volatile boolean running;
+
+      @Override
+      public void start() {
+        try {
+          server.start();
+        } catch (IOException e) {
+          throw new UncheckedIOException("could not start HTTP server", e);
+        }
+        running = true;
+      }
+
+      @Override
+      public void stop() {
+        server.stop();
+        running = false;
+      }
+
+      @Override
+      public boolean isRunning() {
+        return running;
+      }
+    };
+  }
+}
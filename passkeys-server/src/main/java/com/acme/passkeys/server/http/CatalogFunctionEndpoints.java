@@ -0,0 +1,50 @@
+package com.acme.passkeys.server.http;
+
+import com.acme.passkeys.adapters.in.function.FunctionDeadlines;
+import com.acme.passkeys.application.ports.in.Deadline;
+import org.springframework.cloud.function.context.FunctionCatalog;
+import org.springframework.cloud.function.context.catalog.SimpleFunctionRegistry.FunctionInvocationWrapper;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Resuelve las funciones en el {@link FunctionCatalog} de Spring Cloud Function, con la misma
+ * conversión que usa el adapter de AWS: JSON, o CBOR con el {@code CborMessageConverter} de {@code FunctionConfig}.
+ * Sólo se exponen los nombres permitidos. El plazo de la petición viaja en la cabecera {@link FunctionDeadlines#HEADER}.
+ */
+public class CatalogFunctionEndpoints implements FunctionEndpoints {
+
+  private final FunctionCatalog catalog;
+  private final Set<String> exposed;
+
+  public CatalogFunctionEndpoints(FunctionCatalog catalog, Set<String> exposed) {
+    this.catalog = Objects.requireNonNull(catalog, "catalog");
+    this.exposed = Set.copyOf(exposed);
+  }
+
+  @Override
+  public Optional<Function<byte[], byte[]>> lookup(String name, String contentType, String accept, Deadline deadline) {
+    if (!exposed.contains(name)) return Optional.empty();
+    FunctionInvocationWrapper fn = catalog.lookup(name, accept);
+    if (fn == null) return Optional.empty();
+    return Optional.of(body -> invoke(fn, contentType, deadline, body));
+  }
+
+  private static byte[] invoke(FunctionInvocationWrapper fn, String contentType, Deadline deadline, byte[] body) {
+    Message<byte[]> in = MessageBuilder.withPayload(body)
+        .setHeader(MessageHeaders.CONTENT_TYPE, contentType)
+        .setHeader(FunctionDeadlines.HEADER, deadline)
+        .build();
+    Object out = fn.apply(in);
+    if (out instanceof Message<?> m) out = m.getPayload();
+    if (out instanceof byte[] bytes) return bytes;
+    return String.valueOf(out).getBytes(StandardCharsets.UTF_8);
+  }
+}
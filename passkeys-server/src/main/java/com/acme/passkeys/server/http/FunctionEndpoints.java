@@ -0,0 +1,14 @@
+package com.acme.passkeys.server.http;
+
+import com.acme.passkeys.application.ports.in.Deadline;
+
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Funciones expuestas por HTTP: cuerpo en {@code contentType} a cuerpo en {@code accept} (JSON o CBOR), sin empezar
+ * etapas que no quepan en {@code deadline}.
+ */
+public interface FunctionEndpoints {
+  Optional<Function<byte[], byte[]>> lookup(String name, String contentType, String accept, Deadline deadline);
+}
@@ -0,0 +1,266 @@
+package com.acme.passkeys.server.http;
+
+import com.acme.passkeys.application.ports.in.Deadline;
+import com.acme.passkeys.application.ports.in.DeadlineExceededException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Servidor HTTP ligero (JDK {@code HttpServer}) que expone las funciones como
+ * {@code POST /{nombreFuncion}} con un virtual thread por petición.
+ * Las conexiones HTTP/1.1 son persistentes (keep-alive) y el cierre drena las peticiones en curso.
+ *
+ * <p>Negocia {@value #CBOR} como el handler sin Spring: con {@code Content-Type: application/cbor} la petición se
+ * bindea en CBOR, y se responde en CBOR si {@code Accept} lo pide o, sin {@code Accept}, si la petición vino en CBOR.
+ * Los errores del propio servidor son siempre JSON.
+ *
+ * <p>Cada petición tiene un plazo desde que llega: {@code requestTimeout} ({@link Duration#ZERO}: sin límite), o menos
+ * si el cliente lo pide con {@value #TIMEOUT_HEADER} (milisegundos). Las funciones no empiezan etapas que no quepan
+ * en lo que queda, y la petición responde 504.
+ *
+ * <p>El tiempo sin actividad de una conexión keep-alive lo fija el {@code HttpServer} del JDK con
+ * {@code -Dsun.net.httpserver.idleInterval} (segundos), que lee una vez por JVM: lo pone
+ * {@code PasskeysServerApplication} al arrancar, no este servidor.
+ */
+public class FunctionHttpServer {
+
+  public record Settings(
+      String host,
+      int port,
+      int backlog,
+      int maxRequestBytes,
+      Duration drainTimeout,
+      Duration requestTimeout
+  ) {
+    public Settings {
+      Objects.requireNonNull(host, "host");
+      if (maxRequestBytes <= 0) throw new IllegalArgumentException("maxRequestBytes must be > 0");
+      Objects.requireNonNull(drainTimeout, "drainTimeout");
+      Objects.requireNonNull(requestTimeout, "requestTimeout");
+      if (requestTimeout.isNegative()) throw new IllegalArgumentException("requestTimeout must be >= 0");
+    }
+  }
+
+  static final String JSON = "application/json";
+  static final String CBOR = "application/cbor";
+  static final String TIMEOUT_HEADER = "X-Passkeys-Timeout-Ms";
+
+  private final FunctionEndpoints endpoints;
+  private final Settings settings;
+  private final ObjectMapper mapper = new ObjectMapper();
+  private final AtomicInteger inFlight = new AtomicInteger();
+
+  private HttpServer server;
+  private ExecutorService executor;
+  private volatile boolean draining;
+
+  public FunctionHttpServer(FunctionEndpoints endpoints, Settings settings) {
+    this.endpoints = Objects.requireNonNull(endpoints, "endpoints");
+    this.settings = Objects.requireNonNull(settings, "settings");
+  }
+
+  public synchronized void start() throws IOException {
+    if (server != null) return;
+    draining = false;
+    executor = Executors.newVirtualThreadPerTaskExecutor();
+    server = HttpServer.create(new InetSocketAddress(settings.host(), settings.port()), settings.backlog());
+    server.setExecutor(executor);
+    server.createContext("/", this::handle);
+    server.start();
+  }
+
+  /**
+   * Deja de aceptar conexiones y espera a las peticiones en curso hasta {@code drainTimeout} en total: el
+   * {@code HttpServer} y el executor comparten el mismo plazo. El {@code HttpServer} sólo espera segundos enteros
+   * (al menos uno).
+   */
+  public synchronized void stop() {
+    if (server == null) return;
+    draining = true;
+    long deadline = System.nanoTime() + settings.drainTimeout().toNanos();
+    server.stop((int) Math.max(1, settings.drainTimeout().toSeconds()));
+    executor.shutdown();
+    try {
+      executor.awaitTermination(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    server = null;
+    executor = null;
+  }
+
+  public synchronized int port() {
+    if (server == null) throw new IllegalStateException("server not started");
+    return server.getAddress().getPort();
+  }
+
+  public int inFlight() {
+    return inFlight.get();
+  }
+
+  private void handle(HttpExchange ex) {
+    inFlight.incrementAndGet();
+    try {
+      dispatch(ex);
+    } catch (IOException e) {
+      // el cliente cerró la conexión: no hay a quién responder
+    } finally {
+      inFlight.decrementAndGet();
+      ex.close();
+    }
+  }
+
+  private void dispatch(HttpExchange ex) throws IOException {
+    long receivedAt = System.nanoTime();
+    if (draining) {
+      ex.getResponseHeaders().set("Connection", "close");
+      error(ex, 503, "server_draining");
+      return;
+    }
+
+    String path = ex.getRequestURI().getPath();
+    if ("/health".equals(path)) {
+      send(ex, 200, JSON, "{\"status\":\"UP\"}".getBytes(StandardCharsets.UTF_8));
+      return;
+    }
+    if (!"POST".equals(ex.getRequestMethod())) {
+      ex.getResponseHeaders().set("Allow", "POST");
+      error(ex, 405, "method_not_allowed");
+      return;
+    }
+
+    Duration budget = budget(ex.getRequestHeaders().getFirst(TIMEOUT_HEADER));
+    if (budget == null) {
+      error(ex, 400, "invalid " + TIMEOUT_HEADER);
+      return;
+    }
+    Deadline deadline = budget.isZero() ? Deadline.NONE : Deadline.in(budget.minusNanos(System.nanoTime() - receivedAt));
+
+    boolean cborIn = CBOR.equals(mediaType(ex.getRequestHeaders().getFirst("Content-Type")));
+    String responseType = acceptsCbor(ex.getRequestHeaders().getFirst("Accept"), cborIn) ? CBOR : JSON;
+    Optional<Function<byte[], byte[]>> fn =
+        endpoints.lookup(path.length() > 1 ? path.substring(1) : "", cborIn ? CBOR : JSON, responseType, deadline);
+    if (fn.isEmpty()) {
+      error(ex, 404, "function_not_found");
+      return;
+    }
+
+    byte[] body = readBody(ex);
+    if (body == null) {
+      error(ex, 413, "request_too_large");
+      return;
+    }
+
+    byte[] out;
+    try {
+      out = fn.get().apply(body);
+    } catch (RuntimeException e) {
+      IllegalArgumentException invalid = findIllegalArgument(e);
+      if (find(e, DeadlineExceededException.class) != null) {
+        error(ex, 504, "deadline_exceeded");
+      } else if (invalid != null) {
+        error(ex, 400, invalid.getMessage());
+      } else {
+        error(ex, 500, "internal_error");
+      }
+      return;
+    }
+    send(ex, 200, responseType, out);
+  }
+
+  /**
+   * Plazo de la petición: {@code requestTimeout}, acortado por {@value #TIMEOUT_HEADER} si lo trae (nunca alargado).
+   * {@link Duration#ZERO} es sin límite; {@code null} si la cabecera no es un número de milisegundos positivo.
+   */
+  private Duration budget(String header) {
+    Duration configured = settings.requestTimeout();
+    if (header == null) return configured;
+    long millis;
+    try {
+      millis = Long.parseLong(header.trim());
+    } catch (NumberFormatException e) {
+      return null;
+    }
+    if (millis <= 0) return null;
+    Duration requested = Duration.ofMillis(millis);
+    return configured.isZero() || requested.compareTo(configured) < 0 ? requested : configured;
+  }
+
+  /** Cuerpo de la petición, o {@code null} si supera {@code maxRequestBytes}. */
+  private byte[] readBody(HttpExchange ex) throws IOException {
+    String declared = ex.getRequestHeaders().getFirst("Content-Length");
+    if (declared != null) {
+      try {
+        if (Long.parseLong(declared.trim()) > settings.maxRequestBytes()) return null;
+      } catch (NumberFormatException ignored) {
+        // lo decide la lectura acotada
+      }
+    }
+    try (InputStream in = ex.getRequestBody()) {
+      byte[] body = in.readNBytes(settings.maxRequestBytes() + 1);
+      return body.length > settings.maxRequestBytes() ? null : body;
+    }
+  }
+
+  private void error(HttpExchange ex, int status, String message) throws IOException {
+    Map<String, Object> body = new LinkedHashMap<>();
+    body.put("code", status);
+    body.put("message", message);
+    send(ex, status, JSON, mapper.writeValueAsBytes(body));
+  }
+
+  private static void send(HttpExchange ex, int status, String contentType, byte[] body) throws IOException {
+    ex.getResponseHeaders().set("Content-Type", contentType);
+    ex.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+    if (body.length == 0) return;
+    try (OutputStream os = ex.getResponseBody()) {
+      os.write(body);
+    }
+  }
+
+  private static String mediaType(String contentType) {
+    if (contentType == null) return null;
+    int params = contentType.indexOf(';');
+    return (params < 0 ? contentType : contentType.substring(0, params)).trim().toLowerCase(Locale.ROOT);
+  }
+
+  /** CBOR si {@code Accept} lo nombra; sin {@code Accept} (o sin preferencia), el formato de la petición. */
+  private static boolean acceptsCbor(String accept, boolean cborIn) {
+    if (accept == null || accept.isBlank()) return cborIn;
+    for (String type : accept.split(",")) {
+      String media = mediaType(type);
+      if (media.equals(CBOR)) return true;
+      if (media.equals(JSON)) return false;
+    }
+    return cborIn;
+  }
+
+  private static IllegalArgumentException findIllegalArgument(Throwable t) {
+    return find(t, IllegalArgumentException.class);
+  }
+
+  private static <T extends Throwable> T find(Throwable t, Class<T> type) {
+    for (Throwable c = t; c != null; c = c.getCause()) {
+      if (type.isInstance(c)) return type.cast(c);
+    }
+    return null;
+  }
+}
@@ -0,0 +1,161 @@
+package com.acme.passkeys.server.http;
+
+import com.acme.passkeys.application.ports.out.AssertionReplayFilter;
+import com.acme.passkeys.application.ports.out.AuthenticationVerifier;
+import com.acme.passkeys.application.ports.out.CredentialIndex;
+import com.acme.passkeys.application.ports.out.RegistrationVerifier;
+import com.acme.passkeys.server.PasskeysServerApplication;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Carga en bucle cerrado contra las tres funciones en un solo proceso.
+ * Ejecutar con {@code mvn test -Dtest=FunctionHttpServerLoadIT}.
+ */
+@SpringBootTest(
+    classes = {PasskeysServerApplication.class, FunctionHttpServerLoadIT.StubVerifiers.class},
+    properties = {
+        "passkeys.server.port=0",
+        "spring.main.allow-bean-definition-overriding=true"
+    }
+)
+class FunctionHttpServerLoadIT {
+
+  private static final int CLIENTS = Integer.getInteger("load.clients", 64);
+  private static final Duration WARMUP = Duration.ofSeconds(Long.getLong("load.warmupSeconds", 3));
+  private static final Duration MEASURE = Duration.ofSeconds(Long.getLong("load.seconds", 10));
+
+  private static final String[][] CALLS = {
+      {"createChallenge", """
+          {"type":"AUTHENTICATION","userId":"user-1","rpId":"example.com","origin":"https://example.com","timeoutMs":60000}
+          """},
+      {"finishRegistration", """
+          {"server":{"challenge":"Y2hhbGxlbmdl","rpId":"example.com","origin":"https://example.com","userVerificationRequired":true},
+           "credential":{"id":"id","rawId":"rawId","type":"public-key","response":{"clientDataJSON":"e30","attestationObject":"oA"}}}
+          """},
+      {"finishAuthentication", """
+          {"server":{"challenge":"Y2hhbGxlbmdl","rpId":"example.com","origin":"https://example.com","userVerificationRequired":true},
+           "credential":{"id":"Y3JlZA","type":"public-key","response":{"clientDataJSON":"e30","authenticatorData":"AA","signature":"AA","userHandle":null}},
+           "storedCredential":{"publicKeyCose":"oA"}}
+          """}
+  };
+
+  @Autowired
+  FunctionHttpServer server;
+
+  @Test
+  void reportsThroughputAndTailLatency() throws Exception {
+    HttpClient client = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1)
+        .executor(Executors.newVirtualThreadPerTaskExecutor())
+        .build();
+    URI base = URI.create("http://127.0.0.1:" + server.port() + "/");
+
+    run(client, base, WARMUP);
+    Result r = run(client, base, MEASURE);
+
+    double rps = r.count() / (double) MEASURE.toSeconds();
+    System.out.printf("passkeys-server clients=%d duration=%ds requests=%d errors=%d rps=%.0f p50=%.2fms p99=%.2fms max=%.2fms%n",
+        CLIENTS, MEASURE.toSeconds(), r.count(), r.errors(), rps,
+        r.percentileMillis(0.50), r.percentileMillis(0.99), r.percentileMillis(1.0));
+
+    assertThat(r.errors()).isZero();
+    assertThat(r.count()).isPositive();
+  }
+
+  private static Result run(HttpClient client, URI base, Duration duration) throws Exception {
+    long deadline = System.nanoTime() + duration.toNanos();
+    AtomicLong errors = new AtomicLong();
+    List<Future<long[]>> workers = new ArrayList<>();
+
+    try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (int w = 0; w < CLIENTS; w++) {
+        int offset = w;
+        workers.add(pool.submit(() -> {
+          long[] samples = new long[1 << 16];
+          int n = 0;
+          for (int i = offset; System.nanoTime() < deadline; i++) {
+            String[] call = CALLS[i % CALLS.length];
+            HttpRequest req = HttpRequest.newBuilder(base.resolve(call[0]))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(call[1]))
+                .build();
+            long start = System.nanoTime();
+            HttpResponse<Void> res = client.send(req, HttpResponse.BodyHandlers.discarding());
+            long elapsed = System.nanoTime() - start;
+            if (res.statusCode() != 200) errors.incrementAndGet();
+            if (n == samples.length) samples = Arrays.copyOf(samples, n * 2);
+            samples[n++] = elapsed;
+          }
+          return Arrays.copyOf(samples, n);
+        }));
+      }
+    }
+
+    long[] all = new long[0];
+    for (Future<long[]> f : workers) {
+      long[] s = f.get();
+      long[] merged = Arrays.copyOf(all, all.length + s.length);
+      System.arraycopy(s, 0, merged, all.length, s.length);
+      all = merged;
+    }
+    Arrays.sort(all);
+    return new Result(all, errors.get());
+  }
+
+  private record Result(long[] sortedNanos, long errors) {
+    long count() {
+      return sortedNanos.length;
+    }
+
+    double percentileMillis(double p) {
+      if (sortedNanos.length == 0) return 0;
+      int idx = (int) Math.min(sortedNanos.length - 1, Math.ceil(p * sortedNanos.length) - 1);
+      return sortedNanos[Math.max(0, idx)] / 1_000_000.0;
+    }
+  }
+
+  @TestConfiguration
+  static class StubVerifiers {
+    // Sin dispositivos reales: los verificadores devuelven éxito y se mide el coste del servidor
+    @Bean
+    public RegistrationVerifier registrationVerifier() {
+      return cmd -> new RegistrationVerifier.VerifiedRegistration(
+          "cred", "cose", "00000000-0000-0000-0000-000000000000", 0L, -7L, "spki");
+    }
+
+    // El mismo registro y la misma aserción se repiten en bucle: sin control de duplicados ni de réplicas
+    @Bean
+    public CredentialIndex credentialIndex() {
+      return CredentialIndex.NONE;
+    }
+
+    @Bean
+    public AssertionReplayFilter assertionReplayFilter() {
+      return AssertionReplayFilter.NONE;
+    }
+
+    @Bean
+    public AuthenticationVerifier authenticationVerifier() {
+      return cmd -> new AuthenticationVerifier.VerifiedAuthentication("cred");
+    }
+  }
+}
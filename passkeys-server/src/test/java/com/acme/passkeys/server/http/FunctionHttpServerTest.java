@@ -0,0 +1,235 @@
+package com.acme.passkeys.server.http;
+
+import com.acme.passkeys.application.ports.in.Deadline;
+import com.acme.passkeys.application.ports.in.DeadlineExceededException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.*;
+
+class FunctionHttpServerTest {
+
+  private final CountDownLatch slowStarted = new CountDownLatch(1);
+  private final CountDownLatch stuckStarted = new CountDownLatch(1);
+  private final Map<String, Function<byte[], byte[]>> functions = Map.of(
+      "echo", body -> body,
+      "stuck", body -> {
+        stuckStarted.countDown();
+        sleep(5_000);
+        return "{}".getBytes(StandardCharsets.UTF_8);
+      },
+      "invalid", body -> { throw new IllegalArgumentException("userId is required"); },
+      "boom", body -> { throw new IllegalStateException("secret detail"); },
+      "slow", body -> {
+        slowStarted.countDown();
+        sleep(500);
+        return "{\"done\":true}".getBytes(StandardCharsets.UTF_8);
+      }
+  );
+
+  private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+  private FunctionHttpServer server;
+
+  @BeforeEach
+  void start() throws Exception {
+    server = server(Duration.ofSeconds(5));
+    server.start();
+  }
+
+  @AfterEach
+  void stop() {
+    server.stop();
+  }
+
+  @Test
+  void postInvokesFunction() throws Exception {
+    HttpResponse<String> res = post("/echo", "{\"a\":1}");
+
+    assertThat(res.statusCode()).isEqualTo(200);
+    assertThat(res.body()).isEqualTo("{\"a\":1}");
+    assertThat(res.headers().firstValue("Content-Type")).contains("application/json");
+  }
+
+  @Test
+  void cbor_isNegotiatedWithContentTypeAndAccept() throws Exception {
+    FunctionHttpServer cbor = new FunctionHttpServer(
+        (name, contentType, accept, deadline) -> Optional.of(body -> (contentType + ">" + accept).getBytes(StandardCharsets.UTF_8)),
+        new FunctionHttpServer.Settings("127.0.0.1", 0, 64, 1024, Duration.ofSeconds(5), Duration.ZERO));
+    cbor.start();
+    try {
+      URI uri = URI.create("http://127.0.0.1:" + cbor.port() + "/fn");
+
+      HttpResponse<String> json = send(HttpRequest.newBuilder(uri), null, null);
+      HttpResponse<String> cborIn = send(HttpRequest.newBuilder(uri), "application/cbor", null);
+      HttpResponse<String> cborInJsonOut = send(HttpRequest.newBuilder(uri), "application/cbor", "application/json");
+      HttpResponse<String> jsonInCborOut = send(HttpRequest.newBuilder(uri), "application/json", "application/cbor;q=0.9, */*");
+
+      assertThat(json.body()).isEqualTo("application/json>application/json");
+      assertThat(json.headers().firstValue("Content-Type")).contains("application/json");
+      assertThat(cborIn.body()).isEqualTo("application/cbor>application/cbor");
+      assertThat(cborIn.headers().firstValue("Content-Type")).contains("application/cbor");
+      assertThat(cborInJsonOut.body()).isEqualTo("application/cbor>application/json");
+      assertThat(cborInJsonOut.headers().firstValue("Content-Type")).contains("application/json");
+      assertThat(jsonInCborOut.body()).isEqualTo("application/json>application/cbor");
+    } finally {
+      cbor.stop();
+    }
+  }
+
+  @Test
+  void deadline_comesFromRequestTimeout_andTheHeaderCanOnlyShortenIt() throws Exception {
+    FunctionHttpServer timed = new FunctionHttpServer(
+        (name, contentType, accept, deadline) -> Optional.of(body -> {
+          if (!deadline.allows(Duration.ofMillis(100))) throw new DeadlineExceededException("verify");
+          return Long.toString(deadline.remainingNanos() / 1_000_000).getBytes(StandardCharsets.UTF_8);
+        }),
+        new FunctionHttpServer.Settings("127.0.0.1", 0, 64, 1024, Duration.ofSeconds(5), Duration.ofSeconds(2)));
+    timed.start();
+    try {
+      URI uri = URI.create("http://127.0.0.1:" + timed.port() + "/fn");
+
+      HttpResponse<String> configured = send(HttpRequest.newBuilder(uri), null, null);
+      HttpResponse<String> longer = send(HttpRequest.newBuilder(uri).header("X-Passkeys-Timeout-Ms", "60000"), null, null);
+      HttpResponse<String> shorter = send(HttpRequest.newBuilder(uri).header("X-Passkeys-Timeout-Ms", "50"), null, null);
+      HttpResponse<String> invalid = send(HttpRequest.newBuilder(uri).header("X-Passkeys-Timeout-Ms", "soon"), null, null);
+
+      assertThat(Long.parseLong(configured.body())).isBetween(1_000L, 2_000L);
+      assertThat(Long.parseLong(longer.body())).isBetween(1_000L, 2_000L);
+      assertThat(shorter.statusCode()).isEqualTo(504);
+      assertThat(shorter.body()).contains("deadline_exceeded");
+      assertThat(invalid.statusCode()).isEqualTo(400);
+    } finally {
+      timed.stop();
+    }
+  }
+
+  @Test
+  void withoutRequestTimeout_theDeadlineIsUnbounded() throws Exception {
+    FunctionHttpServer unbounded = new FunctionHttpServer(
+        (name, contentType, accept, deadline) -> Optional.of(body ->
+            String.valueOf(deadline == Deadline.NONE).getBytes(StandardCharsets.UTF_8)),
+        new FunctionHttpServer.Settings("127.0.0.1", 0, 64, 1024, Duration.ofSeconds(5), Duration.ZERO));
+    unbounded.start();
+    try {
+      HttpResponse<String> res = send(
+          HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + unbounded.port() + "/fn")), null, null);
+      assertThat(res.body()).isEqualTo("true");
+    } finally {
+      unbounded.stop();
+    }
+  }
+
+  @Test
+  void unknownFunction_is404_andGet_is405() throws Exception {
+    assertThat(post("/nope", "{}").statusCode()).isEqualTo(404);
+
+    HttpResponse<String> get = client.send(
+        HttpRequest.newBuilder(uri("/echo")).GET().build(), HttpResponse.BodyHandlers.ofString());
+    assertThat(get.statusCode()).isEqualTo(405);
+  }
+
+  @Test
+  void health_isUp() throws Exception {
+    HttpResponse<String> res = client.send(
+        HttpRequest.newBuilder(uri("/health")).GET().build(), HttpResponse.BodyHandlers.ofString());
+
+    assertThat(res.statusCode()).isEqualTo(200);
+    assertThat(res.body()).contains("UP");
+  }
+
+  @Test
+  void oversizedBody_isRejected() throws Exception {
+    HttpResponse<String> res = post("/echo", "x".repeat(2048));
+
+    assertThat(res.statusCode()).isEqualTo(413);
+    assertThat(res.body()).contains("request_too_large");
+  }
+
+  @Test
+  void validationErrors_are400_andInternalErrorsDoNotLeak() throws Exception {
+    HttpResponse<String> invalid = post("/invalid", "{}");
+    assertThat(invalid.statusCode()).isEqualTo(400);
+    assertThat(invalid.body()).contains("userId is required");
+
+    HttpResponse<String> boom = post("/boom", "{}");
+    assertThat(boom.statusCode()).isEqualTo(500);
+    assertThat(boom.body()).contains("internal_error").doesNotContain("secret");
+  }
+
+  @Test
+  void stop_drainsInFlightRequests() throws Exception {
+    CompletableFuture<HttpResponse<String>> inFlight = client.sendAsync(
+        HttpRequest.newBuilder(uri("/slow")).POST(HttpRequest.BodyPublishers.ofString("{}")).build(),
+        HttpResponse.BodyHandlers.ofString());
+    assertThat(slowStarted.await(2, TimeUnit.SECONDS)).isTrue();
+
+    server.stop();
+
+    HttpResponse<String> res = inFlight.get(2, TimeUnit.SECONDS);
+    assertThat(res.statusCode()).isEqualTo(200);
+    assertThat(res.body()).contains("done");
+    assertThat(server.inFlight()).isZero();
+  }
+
+  @Test
+  void stop_waitsAtMostTheDrainTimeoutInTotal() throws Exception {
+    FunctionHttpServer bounded = server(Duration.ofSeconds(1));
+    bounded.start();
+    client.sendAsync(
+        HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + bounded.port() + "/stuck"))
+            .POST(HttpRequest.BodyPublishers.ofString("{}")).build(),
+        HttpResponse.BodyHandlers.ofString());
+    assertThat(stuckStarted.await(2, TimeUnit.SECONDS)).isTrue();
+
+    long start = System.nanoTime();
+    bounded.stop();
+
+    // El HttpServer y el executor comparten el plazo: no 2 × drainTimeout
+    assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofMillis(1_800));
+  }
+
+  private FunctionHttpServer server(Duration drainTimeout) {
+    return new FunctionHttpServer(
+        (name, contentType, accept, deadline) -> Optional.ofNullable(functions.get(name)),
+        new FunctionHttpServer.Settings("127.0.0.1", 0, 64, 1024, drainTimeout, Duration.ZERO)
+    );
+  }
+
+  private HttpResponse<String> send(HttpRequest.Builder request, String contentType, String accept) throws Exception {
+    if (contentType != null) request.header("Content-Type", contentType);
+    if (accept != null) request.header("Accept", accept);
+    return client.send(request.POST(HttpRequest.BodyPublishers.ofString("{}")).build(), HttpResponse.BodyHandlers.ofString());
+  }
+
+  private HttpResponse<String> post(String path, String body) throws Exception {
+    return client.send(
+        HttpRequest.newBuilder(uri(path)).POST(HttpRequest.BodyPublishers.ofString(body)).build(),
+        HttpResponse.BodyHandlers.ofString());
+  }
+
+  private URI uri(String path) {
+    return URI.create("http://127.0.0.1:" + server.port() + path);
+  }
+
+  private static void sleep(long ms) {
+    try {
+      Thread.sleep(ms);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}